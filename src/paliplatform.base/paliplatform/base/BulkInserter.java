@@ -0,0 +1,144 @@
+/*
+ * BulkInserter.java
+ *
+ * Copyright (C) 2023-2026 J. R. Bhaddacak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see https://www.gnu.org/licenses/.
+ */
+
+package paliplatform.base;
+
+import java.sql.*;
+
+/**
+ * The fast path for loading a large table. Rows are added to a JDBC batch
+ * and sent every batch size, all in one transaction that is committed
+ * only by {@link #complete()}. If the inserter is closed without it
+ * (use try-with-resources), e.g. when the loop throws, the transaction is
+ * rolled back. The auto-commit mode of the connection is restored at the
+ * end. Indices should be created after the load, see {@link #createIndex}.
+ * @author J.R. Bhaddacak
+ * @version 4.1
+ * @since 4.1
+ */
+public final class BulkInserter implements AutoCloseable {
+	public static final int DEF_BATCH_SIZE = 2000;
+	public static final int PROGRESS_STEP = 5000;
+	private final Connection conn;
+	private final String sql;
+	private final PreparedStatement pstmt;
+	private final boolean oldAutoCommit;
+	private final int batchSize;
+	private final long start = System.nanoTime();
+	private int pending = 0;
+	private int count = 0;
+	private boolean completed = false;
+
+	public BulkInserter(final Connection conn, final String sql) throws SQLException {
+		this(conn, sql, DEF_BATCH_SIZE);
+	}
+
+	public BulkInserter(final Connection conn, final String sql, final int batchSize) throws SQLException {
+		this.conn = conn;
+		this.sql = sql;
+		this.batchSize = Math.max(1, batchSize);
+		oldAutoCommit = conn.getAutoCommit();
+		conn.setAutoCommit(false);
+		try {
+			pstmt = conn.prepareStatement(sql);
+		} catch (SQLException e) {
+			conn.setAutoCommit(oldAutoCommit);
+			throw e;
+		}
+	}
+
+	/**
+	 * Adds a row, the parameters are bound in order.
+	 */
+	public void add(final Object... params) throws SQLException {
+		if (completed)
+			throw new IllegalStateException("Bulk insert already completed");
+		for (int i = 0; i < params.length; i++)
+			pstmt.setObject(i + 1, params[i]);
+		pstmt.addBatch();
+		count++;
+		if (++pending >= batchSize)
+			flush();
+	}
+
+	private void flush() throws SQLException {
+		if (pending == 0) return;
+		pstmt.executeBatch();
+		pending = 0;
+	}
+
+	/**
+	 * Gets the number of rows added so far.
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Tells whether the progress should be reported at this count,
+	 * used to throttle progress updates of a long loop.
+	 */
+	public static boolean isProgressDue(final int count, final int total) {
+		return count % PROGRESS_STEP == 0 || count == total;
+	}
+
+	/**
+	 * Sends the remaining rows and commits, to be called when all rows
+	 * have been added successfully.
+	 */
+	public void complete() throws SQLException {
+		flush();
+		conn.commit();
+		completed = true;
+	}
+
+	/**
+	 * Rolls back if the load has not been completed.
+	 */
+	@Override
+	public void close() throws SQLException {
+		try {
+			if (!completed)
+				conn.rollback();
+		} finally {
+			pstmt.close();
+			conn.setAutoCommit(oldAutoCommit);
+			DBPool.fireQueryDone("", sql, start);
+		}
+	}
+
+	/**
+	 * Creates an index on a loaded table. If a unique index cannot be created,
+	 * e.g. the data have duplicate keys, the table is dropped, so that it is
+	 * not left without its index, and the error is thrown.
+	 */
+	public static void createIndex(final Connection conn, final String table, final String column,
+			final boolean unique) throws SQLException {
+		final String sql = "CREATE " + (unique ? "UNIQUE " : "") + "INDEX IDX_" + table + " ON " + table + "(" + column + ");";
+		final long start = System.nanoTime();
+		try (final Statement stmt = conn.createStatement()) {
+			stmt.execute(sql);
+		} catch (SQLException e) {
+			Utilities.executeSQL(conn, "DROP TABLE IF EXISTS " + table + ";");
+			throw e;
+		} finally {
+			DBPool.fireQueryDone("", sql, start);
+		}
+	}
+
+}
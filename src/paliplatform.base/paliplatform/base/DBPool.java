@@ -0,0 +1,277 @@
+/*
+ * DBPool.java
+ *
+ * Copyright (C) 2023-2026 J. R. Bhaddacak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see https://www.gnu.org/licenses/.
+ */
+
+package paliplatform.base;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.sql.*;
+
+/**
+ * A small bounded pool of JDBC connections for one database.
+ * Connections are opened lazily up to the maximum size. A leased
+ * connection is confined to the thread holding the lease, and it is
+ * returned by closing the lease (use try-with-resources).
+ * Each pooled connection keeps its own registry of prepared statements,
+ * keyed by the query shape (SQL with ? placeholders), so a lookup is
+ * parsed and planned once per connection and then reused with new
+ * parameters bound. Queries run through the pool can be timed by a listener.
+ * This is used for read lookups, e.g. dictionary searches running
+ * concurrently in Utilities.threadPool. Bulk writing still uses
+ * the main connection of each database.
+ * @author J.R. Bhaddacak
+ * @version 4.1
+ * @since 4.1
+ */
+public final class DBPool {
+	public static final int DEF_MAX_SIZE = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+	private static volatile QueryListener queryListener;
+	private final String name;
+	private final String url;
+	private final Properties props;
+	private final Semaphore permits;
+	private final BlockingQueue<Slot> idle = new LinkedBlockingQueue<>();
+	private final Set<Slot> all = ConcurrentHashMap.newKeySet();
+	private volatile boolean closed = false;
+
+	@FunctionalInterface
+	public interface QueryListener {
+		void queryDone(String dbName, String sql, long nanos);
+	}
+
+	@FunctionalInterface
+	public interface ResultHandler<T> {
+		T handle(ResultSet rs) throws SQLException;
+	}
+
+	public DBPool(final String name, final String url, final Properties props, final int maxSize) {
+		this.name = name;
+		this.url = url;
+		this.props = props;
+		permits = new Semaphore(Math.max(1, maxSize), true);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Sets the per-query timing hook (null to remove).
+	 */
+	public static void setQueryListener(final QueryListener listener) {
+		queryListener = listener;
+	}
+
+	public static void fireQueryDone(final String dbName, final String sql, final long startNanos) {
+		final QueryListener listener = queryListener;
+		if (listener != null)
+			listener.queryDone(dbName, sql, System.nanoTime() - startNanos);
+	}
+
+	/**
+	 * Borrows a connection, this blocks if all connections are in use.
+	 */
+	public Lease lease() throws SQLException {
+		if (closed)
+			throw new SQLException("Pool closed: " + name);
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a connection: " + name, e);
+		}
+		try {
+			Slot slot = idle.poll();
+			while (slot != null && slot.conn.isClosed()) {
+				all.remove(slot);
+				slot.close();
+				slot = idle.poll();
+			}
+			if (slot == null) {
+				final Connection conn = DriverManager.getConnection(url, props);
+				conn.setAutoCommit(true);
+				slot = new Slot(conn);
+				all.add(slot);
+			}
+			return new Lease(slot);
+		} catch (SQLException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	private void giveBack(final Slot slot) {
+		try {
+			if (closed || slot.conn.isClosed()) {
+				all.remove(slot);
+				slot.close();
+			} else {
+				idle.offer(slot);
+			}
+		} catch (SQLException e) {
+			System.err.println(e);
+		} finally {
+			permits.release();
+		}
+	}
+
+	/**
+	 * Runs a query with a pooled connection, the statement and result set are always closed.
+	 */
+	public <T> T query(final String sql, final ResultHandler<T> handler) throws SQLException {
+		try (final Lease lease = lease()) {
+			return lease.query(sql, handler);
+		}
+	}
+
+	/**
+	 * Runs a parameterized query with a pooled connection.
+	 * The prepared statement is cached, only the result set is closed.
+	 */
+	public <T> T query(final String sql, final ResultHandler<T> handler, final Object... params) throws SQLException {
+		try (final Lease lease = lease()) {
+			return lease.query(sql, handler, params);
+		}
+	}
+
+	/**
+	 * Makes a query shape of IN list, e.g. inList("... WHERE ID IN ", 3)
+	 * gives "... WHERE ID IN (?,?,?)".
+	 */
+	public static String inList(final String prefix, final int count) {
+		final StringBuilder result = new StringBuilder(prefix.length() + count * 2 + 2);
+		result.append(prefix).append('(');
+		for (int i = 0; i < count; i++) {
+			if (i > 0)
+				result.append(',');
+			result.append('?');
+		}
+		return result.append(')').toString();
+	}
+
+	/**
+	 * Closes all connections and their cached statements,
+	 * leased ones are closed when returned.
+	 */
+	public void closeAll() {
+		closed = true;
+		for (final Slot slot : all) {
+			if (idle.remove(slot)) {
+				slot.close();
+				all.remove(slot);
+			}
+		}
+	}
+
+	// inner classes
+	private static final class Slot {
+		private static final int MAX_STATEMENTS = 64;
+		private final Connection conn;
+		private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+		private Slot(final Connection conn) {
+			this.conn = conn;
+		}
+
+		private PreparedStatement prepare(final String sql) throws SQLException {
+			PreparedStatement pstmt = statements.get(sql);
+			if (pstmt == null || pstmt.isClosed()) {
+				if (statements.size() >= MAX_STATEMENTS)
+					closeStatements();
+				pstmt = conn.prepareStatement(sql);
+				statements.put(sql, pstmt);
+			}
+			return pstmt;
+		}
+
+		private void closeStatements() {
+			for (final PreparedStatement pstmt : statements.values()) {
+				try {
+					pstmt.close();
+				} catch (SQLException e) {
+					System.err.println(e);
+				}
+			}
+			statements.clear();
+		}
+
+		private void close() {
+			closeStatements();
+			try {
+				conn.close();
+			} catch (SQLException e) {
+				System.err.println(e);
+			}
+		}
+	}
+
+	public final class Lease implements AutoCloseable {
+		private final Slot slot;
+		private final Connection conn;
+		private boolean returned = false;
+
+		private Lease(final Slot slot) {
+			this.slot = slot;
+			this.conn = slot.conn;
+		}
+
+		public Connection getConnection() {
+			return conn;
+		}
+
+		/**
+		 * Gets a cached prepared statement of this connection.
+		 * The statement must not be closed by the caller.
+		 */
+		public PreparedStatement prepare(final String sql) throws SQLException {
+			return slot.prepare(sql);
+		}
+
+		public <T> T query(final String sql, final ResultHandler<T> handler, final Object... params) throws SQLException {
+			final long start = System.nanoTime();
+			try {
+				final PreparedStatement pstmt = slot.prepare(sql);
+				for (int i = 0; i < params.length; i++)
+					pstmt.setObject(i + 1, params[i]);
+				try (final ResultSet rs = pstmt.executeQuery()) {
+					return handler.handle(rs);
+				}
+			} finally {
+				fireQueryDone(name, sql, start);
+			}
+		}
+
+		public <T> T query(final String sql, final ResultHandler<T> handler) throws SQLException {
+			final long start = System.nanoTime();
+			try (final Statement stmt = conn.createStatement();
+					final ResultSet rs = stmt.executeQuery(sql)) {
+				return handler.handle(rs);
+			} finally {
+				fireQueryDone(name, sql, start);
+			}
+		}
+
+		@Override
+		public void close() {
+			if (returned) return;
+			returned = true;
+			giveBack(slot);
+		}
+	}
+
+}
@@ -21,7 +21,6 @@ package paliplatform.base;
 
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.concurrent.CompletableFuture;
 import java.util.ServiceLoader.Provider;
 import java.text.Normalizer;
 import java.text.Normalizer.Form;
@@ -78,10 +77,12 @@ public abstract class DictWinBase extends BorderPane {
 	protected final Popup messagePopup = new Popup();
 	protected final Label messageText = new Label("");
 	protected String initialStringToLocate = "";
+	protected final SearchPipeline<SearchRequest, SearchResult> searchPipeline;
 	private int currFontSize;
 
 	public DictWinBase() {
 		final VBox mainBox = new VBox();
+		searchPipeline = new SearchPipeline<>(getClass().getSimpleName(), this::runSearch, (q, r) -> renderSearch(r));
 		searchTextField = (TextField)searchInput.getInput();
 		// add toolbar on the top
 		toolBar = new CommonWorkingToolBar(this, searchTextField);
@@ -290,7 +291,14 @@ public abstract class DictWinBase extends BorderPane {
 	}
 
 	public abstract void init(final Object[] args);
-	public abstract void search(final String query);
+	/**
+	 * Searches the dictionaries, this runs in a worker thread.
+	 * The request holds the processed query and the settings taken
+	 * when it was submitted, FX properties should not be read here.
+	 * The ticket should be checked for cancellation between lengthy steps.
+	 * Null is returned if the query is not valid.
+	 */
+	public abstract SearchResult search(final SearchRequest request, final SearchPipeline.Ticket ticket);
 	public abstract void showResult(final String term);
 	public abstract String processInput(final String query);
 
@@ -299,26 +307,50 @@ public abstract class DictWinBase extends BorderPane {
 		searchTextField.setText(query);
 	}
 
-	private void searchDict(final String query) {
-		final String term = processInput(query);
-		Platform.runLater(() -> {
-			if (!term.isEmpty())
-				search(term);
-			searchComboBox.commitValue();
-		});
+	private SearchResult runSearch(final SearchRequest request, final SearchPipeline.Ticket ticket) {
+		final String term = processInput(request.getQuery());
+		final SearchResult result = term.isEmpty() ? null : search(request.withQuery(term), ticket);
+		return result == null ? SearchResult.NONE : result;
+	}
+
+	private void renderSearch(final SearchResult result) {
+		if (result != SearchResult.NONE) {
+			resultMap.clear();
+			resultMap.putAll(result.map);
+			resultList.setAll(result.getList());
+			resultListView.scrollTo(0);
+			final String note = result.note.isEmpty() ? "" : " (" + result.note + ")";
+			if (!resultList.isEmpty()) {
+				showResult(resultList.get(0));
+				showMessage(resultList.size() + " found" + note);
+				initialStringToLocate = result.stringToLocate;
+			} else if (!note.isEmpty()) {
+				showMessage("Nothing found" + note);
+			}
+		}
+		searchComboBox.commitValue();
 	}
 	
+	/**
+	 * Submits a search, it is debounced while typing in incremental mode.
+	 */
 	protected void submitSearch(final String query) {
 		final String term = Normalizer.normalize(query, Form.NFC);
-		CompletableFuture.runAsync(() -> searchDict(term), Utilities.threadPool);
+		final SearchRequest request = new SearchRequest(term, new ArrayList<>(dictSet), useWildcards.get(), inMeaning.get());
+		if (incremental.get())
+			searchPipeline.submit(request);
+		else
+			searchPipeline.submitNow(request);
 	}
 
 	protected void search() {
 		final String strQuery = searchTextField.getText().trim();
-		if (strQuery.isEmpty())
+		if (strQuery.isEmpty()) {
+			searchPipeline.cancel();
 			resultList.clear();
-		else
+		} else {
 			submitSearch(strQuery);
+		}
 	}
 
 	private void recordQuery() {
@@ -417,5 +449,94 @@ public abstract class DictWinBase extends BorderPane {
 		messagePopup.hide();
 	}
 
-}
+	// inner classes
+	/**
+	 * The input of a search, taken in the FX thread when it is submitted.
+	 */
+	public static final class SearchRequest {
+		private final String query;
+		private final List<Object> books;
+		private final boolean useWildcards;
+		private final boolean inMeaning;
+
+		public SearchRequest(final String query, final List<Object> books, final boolean useWildcards, final boolean inMeaning) {
+			this.query = query;
+			this.books = Collections.unmodifiableList(books);
+			this.useWildcards = useWildcards;
+			this.inMeaning = inMeaning;
+		}
+
+		public SearchRequest withQuery(final String newQuery) {
+			return new SearchRequest(newQuery, books, useWildcards, inMeaning);
+		}
+
+		public String getQuery() {
+			return query;
+		}
+
+		public List<Object> getBooks() {
+			return books;
+		}
+
+		public boolean useWildcards() {
+			return useWildcards;
+		}
+
+		public boolean inMeaning() {
+			return inMeaning;
+		}
+
+		@Override
+		public String toString() {
+			return query;
+		}
+	}
+
+	/**
+	 * The result of a search, terms with their books.
+	 */
+	public static final class SearchResult {
+		private static final SearchResult NONE = new SearchResult();
+		private final Map<String, ArrayList<Object>> map = new LinkedHashMap<>();
+		private List<String> list = null;
+		private String stringToLocate = "";
+		private String note = "";
+
+		public SearchResult() {
+		}
+
+		public void add(final String term, final Object book) {
+			final ArrayList<Object> dList = map.computeIfAbsent(term, k -> new ArrayList<>());
+			if (!dList.contains(book))
+				dList.add(book);
+		}
+
+		public Set<String> getTerms() {
+			return map.keySet();
+		}
 
+		/**
+		 * Sets the display order of terms, the insertion order is used if not set.
+		 */
+		public void setList(final List<String> terms) {
+			list = terms;
+		}
+
+		public List<String> getList() {
+			return list == null ? new ArrayList<>(map.keySet()) : list;
+		}
+
+		public void setStringToLocate(final String text) {
+			stringToLocate = text;
+		}
+
+		/**
+		 * Sets a note shown with the result count, e.g. when
+		 * the search is done in a less accurate way than usual.
+		 */
+		public void setNote(final String text) {
+			note = text;
+		}
+	}
+
+}
@@ -0,0 +1,120 @@
+/*
+ * DpdHeadWordCache.java
+ *
+ * Copyright (C) 2023-2026 J. R. Bhaddacak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see https://www.gnu.org/licenses/.
+ */
+
+package paliplatform.base;
+
+import java.util.*;
+import java.sql.SQLException;
+
+/**
+ * The LRU cache of DPD head words, keyed by head word ID.
+ * Missing IDs are fetched in one batch by a loader (normally one
+ * query with an IN list). The cache is bound to the pool it is filled
+ * from, so it is cleared by itself when the database is reopened.
+ * MINI is shared by all Mini-DPD lookups (dictionaries and reader popups).
+ * @author J.R. Bhaddacak
+ * @version 4.1
+ * @since 4.1
+ */
+public final class DpdHeadWordCache<T extends DpdHeadWordBase> {
+	public static final int DEF_CAPACITY = 4096;
+	public static final DpdHeadWordCache<DpdHeadWordBase> MINI = new DpdHeadWordCache<>(DEF_CAPACITY);
+	private final LinkedHashMap<Integer, T> cache;
+	private DBPool source;
+
+	@FunctionalInterface
+	public interface Loader<T> {
+		/**
+		 * Loads head words of the given IDs using the lease, the result is keyed by ID.
+		 */
+		Map<Integer, T> load(DBPool.Lease lease, int[] ids) throws SQLException;
+	}
+
+	public DpdHeadWordCache(final int capacity) {
+		cache = new LinkedHashMap<Integer, T>(capacity / 4, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Integer, T> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	public synchronized void clear() {
+		cache.clear();
+	}
+
+	public synchronized int size() {
+		return cache.size();
+	}
+
+	private synchronized void checkSource(final DBPool pool) {
+		if (source != pool) {
+			cache.clear();
+			source = pool;
+		}
+	}
+
+	/**
+	 * Gets head words of the given IDs in the same order, IDs not found are skipped.
+	 * Only IDs missing from the cache are loaded, all in one call.
+	 */
+	public List<T> getAll(final DBPool.Lease lease, final DBPool pool, final int[] ids, final Loader<T> loader) throws SQLException {
+		if (ids.length == 0)
+			return new ArrayList<>();
+		final Map<Integer, T> found = getMap(lease, pool, ids, loader);
+		final List<T> result = new ArrayList<>(ids.length);
+		for (final int id : ids) {
+			final T hw = found.get(id);
+			if (hw != null)
+				result.add(hw);
+		}
+		return result;
+	}
+
+	/**
+	 * Gets head words of the given IDs keyed by ID, IDs not found are left out.
+	 * This suits batches larger than the cache.
+	 */
+	public Map<Integer, T> getMap(final DBPool.Lease lease, final DBPool pool, final int[] ids, final Loader<T> loader) throws SQLException {
+		if (ids.length == 0)
+			return new HashMap<>();
+		checkSource(pool);
+		final Map<Integer, T> found = new HashMap<>();
+		final int[] missing = new int[ids.length];
+		int mcount = 0;
+		synchronized (this) {
+			for (final int id : ids) {
+				final T hw = cache.get(id);
+				if (hw == null)
+					missing[mcount++] = id;
+				else
+					found.put(id, hw);
+			}
+		}
+		if (mcount > 0) {
+			final Map<Integer, T> loaded = loader.load(lease, Arrays.copyOf(missing, mcount));
+			found.putAll(loaded);
+			synchronized (this) {
+				if (source == pool)
+					cache.putAll(loaded);
+			}
+		}
+		return found;
+	}
+
+}
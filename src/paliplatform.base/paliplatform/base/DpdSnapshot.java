@@ -0,0 +1,636 @@
+/*
+ * DpdSnapshot.java
+ *
+ * Copyright (C) 2023-2026 J. R. Bhaddacak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see https://www.gnu.org/licenses/.
+ */
+
+package paliplatform.base;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.regex.*;
+import java.util.zip.*;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+/**
+ * The read-only, memory-mapped snapshot of DPD lookup tables. Each section
+ * is a sorted key block with an offset table, and the records (arrays of
+ * strings) are stored in deflated blocks of a fixed number of entries.
+ * Keys are ordered and matched case-insensitively, as the H2 tables are.
+ * Lookups can be done concurrently, a miss allocates nothing. Recently
+ * used blocks are kept decoded in a small cache of each section.
+ * The snapshot is valid only for the DPD database and PP-DPD tables it is
+ * made from; otherwise it is ignored and JDBC should be used instead.
+ * Each export is written to a new numbered file, so a file still mapped
+ * is never overwritten. Old files that cannot be deleted while mapped are
+ * marked stale and removed on the next start.
+ * @author J.R. Bhaddacak
+ * @version 4.1
+ * @since 4.1
+ */
+public final class DpdSnapshot {
+	public static enum Section { DICT, DECON, MINI, HEADWORDS, ROOTS }
+	private static final String FILENAME_PREFIX = "ppdpd";
+	private static final String FILENAME_EXT = ".snap";
+	private static final String STALE_EXT = ".stale";
+	private static final Pattern FILENAME_PATTERN = Pattern.compile(FILENAME_PREFIX + "(?:-(\\d+))?\\" + FILENAME_EXT);
+	private static final byte[] MAGIC = "PPDPDSNP".getBytes(StandardCharsets.US_ASCII);
+	private static final int VERSION = 1;
+	private static final int ENTRIES_PER_BLOCK = 64;
+	private static final int BLOCK_CACHE_SIZE = 32;
+	private static final int STRING_KEYS = 0;
+	private static final int INT_KEYS = 1;
+	private static volatile DpdSnapshot current = null;
+	private static volatile boolean probed = false;
+	private final ByteBuffer buffer;
+	private final SectionView[] views = new SectionView[Section.values().length];
+
+	private DpdSnapshot(final ByteBuffer buffer) {
+		this.buffer = buffer;
+	}
+
+	private static File getDir() {
+		return new File(Utilities.ROOTDIR + Utilities.DBPATH);
+	}
+
+	/**
+	 * Lists the snapshot files, the newest first.
+	 */
+	private static List<File> listFiles() {
+		final File[] files = getDir().listFiles((dir, name) -> FILENAME_PATTERN.matcher(name).matches());
+		if (files == null)
+			return new ArrayList<>();
+		final List<File> result = new ArrayList<>(Arrays.asList(files));
+		result.sort(Comparator.comparingLong(DpdSnapshot::getGeneration).reversed());
+		return result;
+	}
+
+	private static long getGeneration(final File file) {
+		final Matcher matcher = FILENAME_PATTERN.matcher(file.getName());
+		return matcher.matches() && matcher.group(1) != null ? Long.parseLong(matcher.group(1)) : 0;
+	}
+
+	private static File getStaleMark(final File file) {
+		return new File(file.getPath() + STALE_EXT);
+	}
+
+	/**
+	 * Removes a snapshot file not used any more. If it cannot be deleted
+	 * (it may be still mapped), it is marked stale, so that it is not used
+	 * and is removed on the next start.
+	 */
+	private static void remove(final File file) {
+		final File mark = getStaleMark(file);
+		if (file.delete() || !file.exists()) {
+			mark.delete();
+		} else {
+			try {
+				mark.createNewFile();
+			} catch (IOException e) {
+				System.err.println(e);
+			}
+		}
+	}
+
+	/**
+	 * Gets a new file for the next export, numbered after all existing ones.
+	 */
+	public static synchronized File newFile() {
+		final List<File> files = listFiles();
+		final long generation = files.isEmpty() ? 1 : getGeneration(files.get(0)) + 1;
+		return new File(getDir(), FILENAME_PREFIX + "-" + generation + FILENAME_EXT);
+	}
+
+	/**
+	 * Makes the identity of the source data: the DPD file and
+	 * the sizes of PP-DPD tables.
+	 */
+	public static String makeStamp() {
+		final File dpdFile = new File(Utilities.ROOTDIR + Utilities.DBPATH + Utilities.SQLiteDB.DPD.getNameWithExt());
+		return dpdFile.length() + ":" + dpdFile.lastModified() + ":" +
+				Utilities.getSetting("dpd-dict-count") + ":" + Utilities.getSetting("dpd-decon-count");
+	}
+
+	/**
+	 * Gets the usable snapshot, null if there is none.
+	 * The file is opened only once, the lock is taken only until then.
+	 * The newest valid file is used, other ones are removed.
+	 */
+	public static DpdSnapshot get() {
+		if (probed)
+			return current;
+		synchronized (DpdSnapshot.class) {
+			if (!probed) {
+				final String stamp = makeStamp();
+				for (final File file : listFiles()) {
+					if (current == null && !getStaleMark(file).exists()) {
+						try {
+							current = open(file, stamp);
+						} catch (IOException | RuntimeException e) {
+							System.err.println(e);
+						}
+						if (current != null)
+							continue;
+					}
+					remove(file);
+				}
+				// set after current, so that it is seen with current
+				probed = true;
+			}
+			return current;
+		}
+	}
+
+	/**
+	 * Lets the snapshot file be opened again, e.g. after it is exported.
+	 */
+	public static synchronized void reload() {
+		probed = false;
+		current = null;
+	}
+
+	/**
+	 * Stops using the snapshot and removes its files, used when
+	 * the source tables are recreated.
+	 */
+	public static synchronized void discard() {
+		current = null;
+		probed = true;
+		for (final File file : listFiles())
+			remove(file);
+	}
+
+	/**
+	 * Opens a snapshot file, null if it is made from other source data.
+	 * The header is checked before the file is mapped, so that a file
+	 * not used is not kept mapped.
+	 */
+	public static DpdSnapshot open(final File file, final String stamp) throws IOException {
+		final ByteBuffer buf;
+		try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			final long fileSize = channel.size();
+			if (fileSize > Integer.MAX_VALUE || fileSize < MAGIC.length * 2 + 16)
+				return null;
+			final ByteBuffer head = readFully(channel, 0, MAGIC.length + 8);
+			final ByteBuffer tail = readFully(channel, fileSize - MAGIC.length, MAGIC.length);
+			if (!hasMagic(head, 0) || !hasMagic(tail, 0) || head.getInt(MAGIC.length) != VERSION)
+				throw new IOException("Invalid DPD snapshot: " + file);
+			final int stampLen = head.getInt(MAGIC.length + 4);
+			if (stampLen < 0 || stampLen > fileSize - MAGIC.length * 2 - 16)
+				throw new IOException("Invalid DPD snapshot: " + file);
+			final ByteBuffer stampBuf = readFully(channel, MAGIC.length + 8, stampLen);
+			if (!new String(stampBuf.array(), StandardCharsets.UTF_8).equals(stamp))
+				return null;
+			// the mapping stays valid after the channel is closed
+			buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+		}
+		final int size = buf.capacity();
+		final DpdSnapshot result = new DpdSnapshot(buf);
+		int pos = (int)buf.getLong(size - MAGIC.length - 8);
+		final int sectionCount = buf.getInt(pos);
+		pos += 4;
+		for (int i = 0; i < sectionCount; i++) {
+			final int ordinal = buf.getInt(pos);
+			final int sectionPos = buf.getInt(pos + 4);
+			pos += 8;
+			if (ordinal >= 0 && ordinal < result.views.length)
+				result.views[ordinal] = new SectionView(buf, sectionPos);
+		}
+		return result;
+	}
+
+	private static ByteBuffer readFully(final FileChannel channel, final long position, final int length) throws IOException {
+		final ByteBuffer result = ByteBuffer.allocate(length);
+		while (result.hasRemaining()) {
+			if (channel.read(result, position + result.position()) < 0)
+				throw new EOFException();
+		}
+		return result.flip();
+	}
+
+	private static boolean hasMagic(final ByteBuffer buf, final int pos) {
+		for (int i = 0; i < MAGIC.length; i++) {
+			if (buf.get(pos + i) != MAGIC[i])
+				return false;
+		}
+		return true;
+	}
+
+	public boolean hasSection(final Section section) {
+		return views[section.ordinal()] != null;
+	}
+
+	public int size(final Section section) {
+		final SectionView view = views[section.ordinal()];
+		return view == null ? 0 : view.count;
+	}
+
+	/**
+	 * Finds the record of a string key, null if not found.
+	 */
+	public String[] lookup(final Section section, final String key) {
+		final SectionView view = views[section.ordinal()];
+		if (view == null || view.type != STRING_KEYS)
+			return null;
+		final int index = findString(view, key);
+		return index < 0 ? null : readRecord(view, index);
+	}
+
+	/**
+	 * Finds the record of an int key, null if not found.
+	 */
+	public String[] lookup(final Section section, final int key) {
+		final SectionView view = views[section.ordinal()];
+		if (view == null || view.type != INT_KEYS)
+			return null;
+		final int index = findInt(view, key);
+		return index < 0 ? null : readRecord(view, index);
+	}
+
+	public boolean contains(final Section section, final String key) {
+		final SectionView view = views[section.ordinal()];
+		return view != null && view.type == STRING_KEYS && findString(view, key) >= 0;
+	}
+
+	/**
+	 * Iterates over all entries of a string-keyed section, in key order.
+	 */
+	public void forEach(final Section section, final BiConsumer<String, String[]> action) {
+		final SectionView view = views[section.ordinal()];
+		if (view == null || view.type != STRING_KEYS)
+			return;
+		for (int i = 0; i < view.count; i++) {
+			final int start = buffer.getInt(view.keyTablePos + i * 4);
+			final int end = buffer.getInt(view.keyTablePos + (i + 1) * 4);
+			final byte[] keyBytes = new byte[end - start];
+			buffer.duplicate().position(view.keysPos + start).get(keyBytes);
+			action.accept(new String(keyBytes, StandardCharsets.UTF_8), readRecord(view, i));
+		}
+	}
+
+	private int findString(final SectionView view, final String key) {
+		int low = 0;
+		int high = view.count - 1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			final int start = buffer.getInt(view.keyTablePos + mid * 4);
+			final int end = buffer.getInt(view.keyTablePos + (mid + 1) * 4);
+			final int cmp = compareKey(key, view.keysPos + start, view.keysPos + end);
+			if (cmp > 0)
+				low = mid + 1;
+			else if (cmp < 0)
+				high = mid - 1;
+			else
+				return mid;
+		}
+		return -1;
+	}
+
+	private int findInt(final SectionView view, final int key) {
+		int low = 0;
+		int high = view.count - 1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			final int k = buffer.getInt(view.keyTablePos + mid * 4);
+			if (k < key)
+				low = mid + 1;
+			else if (k > key)
+				high = mid - 1;
+			else
+				return mid;
+		}
+		return -1;
+	}
+
+	/**
+	 * Compares a key with a stored UTF-8 key in the order of
+	 * String.compareToIgnoreCase, without decoding it to a string.
+	 */
+	private int compareKey(final String key, final int start, final int end) {
+		int i = 0;
+		int p = start;
+		int pendingLow = -1;
+		while (true) {
+			final int c;
+			if (pendingLow >= 0) {
+				c = pendingLow;
+				pendingLow = -1;
+			} else if (p < end) {
+				final int b = buffer.get(p++) & 0xFF;
+				if (b < 0x80) {
+					c = b;
+				} else if (b < 0xE0) {
+					c = ((b & 0x1F) << 6) | (buffer.get(p++) & 0x3F);
+				} else if (b < 0xF0) {
+					c = ((b & 0x0F) << 12) | ((buffer.get(p++) & 0x3F) << 6) | (buffer.get(p++) & 0x3F);
+				} else {
+					final int cp = ((b & 0x07) << 18) | ((buffer.get(p++) & 0x3F) << 12)
+									| ((buffer.get(p++) & 0x3F) << 6) | (buffer.get(p++) & 0x3F);
+					c = Character.highSurrogate(cp);
+					pendingLow = Character.lowSurrogate(cp);
+				}
+			} else {
+				c = -1;
+			}
+			if (i == key.length())
+				return c < 0 ? 0 : -1;
+			if (c < 0)
+				return 1;
+			final char k = key.charAt(i++);
+			if (k != c) {
+				final int d = fold(k) - fold((char)c);
+				if (d != 0)
+					return d;
+			}
+		}
+	}
+
+	private static char fold(final char c) {
+		return Character.toLowerCase(Character.toUpperCase(c));
+	}
+
+	private String[] readRecord(final SectionView view, final int index) {
+		final byte[] block = getBlock(view, index / ENTRIES_PER_BLOCK);
+		final int[] pos = { 0 };
+		for (int i = index % ENTRIES_PER_BLOCK; i > 0; i--) {
+			final int fieldCount = readVarInt(block, pos);
+			for (int f = 0; f < fieldCount; f++) {
+				final int len = readVarInt(block, pos);
+				if (len > 0)
+					pos[0] += len - 1;
+			}
+		}
+		final String[] result = new String[readVarInt(block, pos)];
+		for (int f = 0; f < result.length; f++) {
+			final int len = readVarInt(block, pos);
+			if (len > 0) {
+				result[f] = new String(block, pos[0], len - 1, StandardCharsets.UTF_8);
+				pos[0] += len - 1;
+			}
+		}
+		return result;
+	}
+
+	private byte[] getBlock(final SectionView view, final int block) {
+		synchronized (view.blockCache) {
+			final byte[] cached = view.blockCache.get(block);
+			if (cached != null)
+				return cached;
+		}
+		final int start = buffer.getInt(view.blockTablePos + block * 4);
+		final int end = buffer.getInt(view.blockTablePos + (block + 1) * 4);
+		final int rawLen = buffer.getInt(start);
+		final byte[] result = new byte[rawLen];
+		final Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(buffer.duplicate().position(start + 4).limit(end));
+			int n = 0;
+			while (n < rawLen) {
+				final int r = inflater.inflate(result, n, rawLen - n);
+				if (r == 0 && (inflater.finished() || inflater.needsInput()))
+					break;
+				n += r;
+			}
+			if (n != rawLen)
+				throw new IllegalStateException("Corrupted DPD snapshot block");
+		} catch (DataFormatException e) {
+			throw new IllegalStateException(e);
+		} finally {
+			inflater.end();
+		}
+		synchronized (view.blockCache) {
+			view.blockCache.put(block, result);
+		}
+		return result;
+	}
+
+	private static int readVarInt(final byte[] data, final int[] pos) {
+		int result = 0;
+		int shift = 0;
+		while (true) {
+			final int b = data[pos[0]++];
+			result |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return result;
+			shift += 7;
+		}
+	}
+
+	private static void writeVarInt(final ByteArrayOutputStream out, final int value) {
+		int v = value;
+		while ((v & ~0x7F) != 0) {
+			out.write((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		out.write(v);
+	}
+
+	// inner classes
+	private static final class SectionView {
+		private final int type;
+		private final int count;
+		private final int keyTablePos;
+		private final int keysPos;
+		private final int blockTablePos;
+		private final LinkedHashMap<Integer, byte[]> blockCache = new LinkedHashMap<Integer, byte[]>(BLOCK_CACHE_SIZE * 2, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Integer, byte[]> eldest) {
+				return size() > BLOCK_CACHE_SIZE;
+			}
+		};
+
+		private SectionView(final ByteBuffer buf, final int pos) {
+			type = buf.getInt(pos);
+			count = buf.getInt(pos + 4);
+			keyTablePos = pos + 8;
+			if (type == STRING_KEYS) {
+				keysPos = keyTablePos + (count + 1) * 4;
+				blockTablePos = keysPos + buf.getInt(keyTablePos + count * 4);
+			} else {
+				keysPos = keyTablePos;
+				blockTablePos = keyTablePos + count * 4;
+			}
+		}
+	}
+
+	/**
+	 * The writer of a snapshot file. Sections are written one by one,
+	 * the entries of a section must be added in key order (the order of
+	 * String.compareToIgnoreCase, or ascending ints). The file is written
+	 * to a temporary file and moved into place by commit().
+	 */
+	public static final class Writer implements Closeable {
+		private final Path target;
+		private final Path temp;
+		private final DataOutputStream out;
+		private final Map<Integer, Integer> directory = new LinkedHashMap<>();
+		private final ByteArrayOutputStream block = new ByteArrayOutputStream(1 << 16);
+		private final ByteArrayOutputStream keyBytes = new ByteArrayOutputStream(1 << 20);
+		private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		private final byte[] deflateBuf = new byte[1 << 16];
+		private int[] keyTable = new int[1 << 12];
+		private final List<Integer> blockTable = new ArrayList<>();
+		private Section section = null;
+		private boolean intKeys = false;
+		private int count = 0;
+		private String lastKey = null;
+		private boolean committed = false;
+
+		public Writer(final File file, final String stamp) throws IOException {
+			target = file.toPath();
+			temp = target.resolveSibling(file.getName() + ".tmp");
+			out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16));
+			final byte[] stampBytes = stamp.getBytes(StandardCharsets.UTF_8);
+			out.write(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(stampBytes.length);
+			out.write(stampBytes);
+		}
+
+		public void beginSection(final Section sec, final boolean withIntKeys) {
+			if (section != null)
+				throw new IllegalStateException("Section " + section + " is not ended");
+			section = sec;
+			intKeys = withIntKeys;
+			count = 0;
+			lastKey = null;
+			keyBytes.reset();
+			blockTable.clear();
+			block.reset();
+		}
+
+		public void add(final String key, final String... fields) throws IOException {
+			if (section == null || intKeys)
+				throw new IllegalStateException("No section with string keys");
+			if (lastKey != null && lastKey.compareToIgnoreCase(key) >= 0)
+				throw new IllegalArgumentException("Key out of order in " + section + ": " + key);
+			lastKey = key;
+			ensureKeyTable(count + 2);
+			keyTable[count] = keyBytes.size();
+			keyBytes.write(key.getBytes(StandardCharsets.UTF_8));
+			addRecord(fields);
+		}
+
+		public void add(final int key, final String... fields) throws IOException {
+			if (section == null || !intKeys)
+				throw new IllegalStateException("No section with int keys");
+			if (count > 0 && keyTable[count - 1] >= key)
+				throw new IllegalArgumentException("Key out of order in " + section + ": " + key);
+			ensureKeyTable(count + 1);
+			keyTable[count] = key;
+			addRecord(fields);
+		}
+
+		private void ensureKeyTable(final int size) {
+			if (size > keyTable.length)
+				keyTable = Arrays.copyOf(keyTable, Math.max(size, keyTable.length * 2));
+		}
+
+		private void addRecord(final String[] fields) throws IOException {
+			writeVarInt(block, fields.length);
+			for (final String f : fields) {
+				if (f == null) {
+					writeVarInt(block, 0);
+				} else {
+					final byte[] bytes = f.getBytes(StandardCharsets.UTF_8);
+					writeVarInt(block, bytes.length + 1);
+					block.write(bytes);
+				}
+			}
+			count++;
+			if (count % ENTRIES_PER_BLOCK == 0)
+				flushBlock();
+		}
+
+		private void flushBlock() throws IOException {
+			if (block.size() == 0) return;
+			blockTable.add(out.size());
+			final byte[] raw = block.toByteArray();
+			out.writeInt(raw.length);
+			deflater.reset();
+			deflater.setInput(raw);
+			deflater.finish();
+			while (!deflater.finished()) {
+				final int n = deflater.deflate(deflateBuf);
+				out.write(deflateBuf, 0, n);
+			}
+			block.reset();
+		}
+
+		public Section getSection() {
+			return section;
+		}
+
+		public int getCount() {
+			return count;
+		}
+
+		public void endSection() throws IOException {
+			if (section == null)
+				throw new IllegalStateException("No section to end");
+			flushBlock();
+			final int blockEnd = out.size();
+			directory.put(section.ordinal(), blockEnd);
+			out.writeInt(intKeys ? INT_KEYS : STRING_KEYS);
+			out.writeInt(count);
+			for (int i = 0; i < count; i++)
+				out.writeInt(keyTable[i]);
+			if (!intKeys) {
+				out.writeInt(keyBytes.size());
+				keyBytes.writeTo(out);
+			}
+			for (final int pos : blockTable)
+				out.writeInt(pos);
+			out.writeInt(blockEnd);
+			section = null;
+		}
+
+		/**
+		 * Writes the section directory and moves the file into place.
+		 */
+		public void commit() throws IOException {
+			if (section != null)
+				endSection();
+			final int dirPos = out.size();
+			out.writeInt(directory.size());
+			for (final Map.Entry<Integer, Integer> entry : directory.entrySet()) {
+				out.writeInt(entry.getKey());
+				out.writeInt(entry.getValue());
+			}
+			out.writeLong(dirPos);
+			out.write(MAGIC);
+			out.close();
+			// DataOutputStream.size() stops counting at Integer.MAX_VALUE
+			if (Files.size(temp) >= Integer.MAX_VALUE)
+				throw new IOException("DPD snapshot is too large");
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			committed = true;
+		}
+
+		@Override
+		public void close() throws IOException {
+			deflater.end();
+			if (!committed) {
+				out.close();
+				Files.deleteIfExists(temp);
+			}
+		}
+	}
+
+}
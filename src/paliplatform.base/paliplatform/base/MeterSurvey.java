@@ -0,0 +1,155 @@
+/*
+ * MeterSurvey.java
+ *
+ * Copyright (C) 2023-2026 J. R. Bhaddacak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see https://www.gnu.org/licenses/.
+ */
+
+package paliplatform.base;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.*;
+
+/**
+ * The batch prosody analyzer. Each input line (a pāda or a gāthā line)
+ * is computed for its lahu/garu pattern, then statistics of patterns,
+ * gaṇa notations (using vaññavutti set in meterPatternMap), syllable
+ * counts and mattā sums are aggregated. Lines are analyzed in parallel.
+ * @author J.R. Bhaddacak
+ * @version 4.1
+ * @since 4.1
+ */
+public final class MeterSurvey {
+	private static final String LINESEP = System.getProperty("line.separator");
+	private static final Map<String, Character> ganaMap = new HashMap<>();
+	private final ConcurrentHashMap<String, LongAdder> patternCount = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, LongAdder> ganaCount = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Integer, LongAdder> syllableCount = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Integer, LongAdder> mattaCount = new ConcurrentHashMap<>();
+	private final LongAdder lineCount = new LongAdder();
+
+	private MeterSurvey() {
+	}
+
+	/**
+	 * Analyzes all lines given, blank lines and lines without vowels are skipped.
+	 * The input is supposed to be Roman Pāli.
+	 */
+	public static MeterSurvey analyze(final Collection<String> lines) {
+		synchronized (ganaMap) {
+			if (ganaMap.isEmpty()) {
+				Utilities.createMeterPatternMap();
+				// 3-syllable gaṇas, the uppercase (vaññavutti) set
+				Utilities.meterPatternMap.forEach((k, v) -> {
+					if (Character.isUpperCase(k) && v.length() == 3)
+						ganaMap.put(v, k);
+				});
+			}
+		}
+		final MeterSurvey survey = new MeterSurvey();
+		lines.parallelStream().forEach(survey::add);
+		return survey;
+	}
+
+	private void add(final String line) {
+		final StringBuilder buff = new StringBuilder(line.length() / 2 + 1);
+		Utilities.appendMeter(line, 0, line.length(), 'l', 'g', buff);
+		if (buff.length() == 0)
+			return;
+		final String pattern = buff.toString();
+		int matta = 0;
+		for (int i = 0; i < pattern.length(); i++)
+			matta += pattern.charAt(i) == 'g' ? 2 : 1;
+		lineCount.increment();
+		patternCount.computeIfAbsent(pattern, k -> new LongAdder()).increment();
+		ganaCount.computeIfAbsent(toGana(pattern), k -> new LongAdder()).increment();
+		syllableCount.computeIfAbsent(pattern.length(), k -> new LongAdder()).increment();
+		mattaCount.computeIfAbsent(matta, k -> new LongAdder()).increment();
+	}
+
+	/**
+	 * Converts a lahu/garu pattern into gaṇa notation, e.g. llgglg to S-R.
+	 * The remainder shorter than 3 is left as l or g.
+	 */
+	public static String toGana(final String pattern) {
+		final StringBuilder result = new StringBuilder();
+		int i = 0;
+		for (; i + 3 <= pattern.length(); i += 3) {
+			final Character g = ganaMap.get(pattern.substring(i, i + 3));
+			if (result.length() > 0)
+				result.append('-');
+			result.append(g == null ? pattern.substring(i, i + 3) : g.toString());
+		}
+		for (; i < pattern.length(); i++) {
+			if (result.length() > 0)
+				result.append('-');
+			result.append(pattern.charAt(i));
+		}
+		return result.toString();
+	}
+
+	public long getLineCount() {
+		return lineCount.sum();
+	}
+
+	public Map<String, Long> getPatternCounts() {
+		return sortByCount(patternCount);
+	}
+
+	public Map<String, Long> getGanaCounts() {
+		return sortByCount(ganaCount);
+	}
+
+	public Map<Integer, Long> getSyllableCounts() {
+		return sortByKey(syllableCount);
+	}
+
+	public Map<Integer, Long> getMattaCounts() {
+		return sortByKey(mattaCount);
+	}
+
+	private static <T> Map<T, Long> sortByCount(final Map<T, LongAdder> map) {
+		return map.entrySet().stream()
+				.sorted((x, y) -> Long.compare(y.getValue().sum(), x.getValue().sum()))
+				.collect(Collectors.toMap(Map.Entry::getKey, x -> x.getValue().sum(), (x, y) -> x, LinkedHashMap::new));
+	}
+
+	private static Map<Integer, Long> sortByKey(final Map<Integer, LongAdder> map) {
+		final Map<Integer, Long> result = new TreeMap<>();
+		map.forEach((k, v) -> result.put(k, v.sum()));
+		return result;
+	}
+
+	/**
+	 * Produces a plain text report, only top patterns are listed.
+	 */
+	public String getReport(final int topMax) {
+		final StringBuilder result = new StringBuilder();
+		result.append("Lines analyzed: ").append(getLineCount()).append(LINESEP).append(LINESEP);
+		result.append("Syllables per line:").append(LINESEP);
+		getSyllableCounts().forEach((k, v) -> result.append("  ").append(k).append("\t").append(v).append(LINESEP));
+		result.append(LINESEP).append("Mattās per line:").append(LINESEP);
+		getMattaCounts().forEach((k, v) -> result.append("  ").append(k).append("\t").append(v).append(LINESEP));
+		result.append(LINESEP).append("Top gaṇa patterns:").append(LINESEP);
+		getGanaCounts().entrySet().stream().limit(topMax)
+			.forEach(x -> result.append("  ").append(x.getKey()).append("\t").append(x.getValue()).append(LINESEP));
+		result.append(LINESEP).append("Top lahu/garu patterns:").append(LINESEP);
+		getPatternCounts().entrySet().stream().limit(topMax)
+			.forEach(x -> result.append("  ").append(x.getKey()).append("\t").append(x.getValue()).append(LINESEP));
+		return result.toString();
+	}
+
+}
@@ -95,7 +95,7 @@ public class ScriptTransliterator {
 	private static final Pattern tagShiftedPattern = Pattern.compile(
 			"(" + (char)(saveBlockStart + '<') + ".*?" + (char)(saveBlockStart + '>') + ")");
 	private static final Map<EngineType, Function<String, String>> translitMap = new EnumMap<>(EngineType.class);
-	private static boolean alsoNumber = true;
+	private static final ThreadLocal<Boolean> alsoNumber = ThreadLocal.withInitial(() -> true); // per thread, for concurrent conversions
 	// Devanagari set
 	// Vowels: a ā i ī u ū, ṛ ṝ ḷ ḹ, e ai o au
 	private static final int[] nonPaliVowelIndice = { 6, 7, 8, 9, 11, 13 };
@@ -688,7 +688,7 @@ public class ScriptTransliterator {
 		final String textPrepared = saveTags(text);
         final Function<String, String> processor = translitMap.get(engine);
 		if (processor == null) return text;
-		alsoNumber = withNumbers;
+		alsoNumber.set(withNumbers);
 		final String textConverted = processor.apply(textPrepared);
 		final String result = restoreTags(textConverted);
 		return xslFixed ? fixXslName(result, engine) : result;
@@ -699,7 +699,7 @@ public class ScriptTransliterator {
         final Function<String, String> processor1 = translitMap.get(engine1);
         final Function<String, String> processor2 = translitMap.get(engine2);
 		if (processor1 == null || processor2 == null) return text;
-		alsoNumber = withNumbers;
+		alsoNumber.set(withNumbers);
 		String textConverted = processor1.apply(textPrepared);
 		textConverted = processor2.apply(textConverted);
 		final String result = restoreTags(textConverted);
@@ -709,7 +709,7 @@ public class ScriptTransliterator {
 	public static String translitQuick(final String text, final EngineType engine, final boolean withNumbers) {
         final Function<String, String> processor = translitMap.get(engine);
 		if (processor == null) return text;
-		alsoNumber = withNumbers;
+		alsoNumber.set(withNumbers);
 		final String textConverted = processor.apply(text);
 		return textConverted;
 	}
@@ -718,7 +718,7 @@ public class ScriptTransliterator {
         final Function<String, String> processor1 = translitMap.get(engine1);
         final Function<String, String> processor2 = translitMap.get(engine2);
 		if (processor1 == null || processor2 == null) return text;
-		alsoNumber = withNumbers;
+		alsoNumber.set(withNumbers);
 		String textConverted = processor1.apply(text);
 		textConverted = processor2.apply(textConverted);
 		return textConverted;
@@ -730,7 +730,7 @@ public class ScriptTransliterator {
 		textPrepared = saveTags(textPrepared);
         final Function<String, String> processor = translitMap.get(engine);
 		if (processor == null) return text;
-		alsoNumber = withNumbers;
+		alsoNumber.set(withNumbers);
 		final Pattern textPatt = Pattern.compile("\"text\": \"(.*?)\"");
 		final Matcher textMatcher = textPatt.matcher(textPrepared);
 		final String textConverted = textMatcher.replaceAll(m -> "\"text\": \"" + processor.apply(m.group(1)) + "\"");
@@ -743,7 +743,7 @@ public class ScriptTransliterator {
 		final String textPrepared = saveTags(text);
         final Function<String, String> processor = translitMap.get(engine);
 		if (processor == null) return text;
-		alsoNumber = withNumbers;
+		alsoNumber.set(withNumbers);
 		final Pattern textPatt = Pattern.compile("\"(.*?)\": \"(.*?)\"");
 		final Matcher textMatcher = textPatt.matcher(textPrepared);
 		final String textConverted = textMatcher.replaceAll(m -> "\"" + m.group(1) + "\": \"" + processor.apply(m.group(2)) + "\"");
@@ -1378,7 +1378,7 @@ public class ScriptTransliterator {
 			// 1. find Devanagari representation of the character first
 			if (Character.isDigit(rch)) {
 				// if numbers included
-				if (alsoNumber)
+				if (alsoNumber.get())
 					dch = devaNumbers[Character.digit(rch, 10)];
 			} else if (rch == romanCandrabindu) {
 				// candrabindu
@@ -1478,7 +1478,7 @@ public class ScriptTransliterator {
 			// 1. find Devanagari representation of the character first
 			if (Character.isDigit(rch)) {
 				// if numbers included
-				if (alsoNumber)
+				if (alsoNumber.get())
 					dch = devaNumbers[Character.digit(rch, 10)];
 			} else if (rch == romanCandrabindu) {
 				// candrabindu
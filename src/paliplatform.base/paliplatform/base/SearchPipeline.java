@@ -0,0 +1,187 @@
+/*
+ * SearchPipeline.java
+ *
+ * Copyright (C) 2023-2026 J. R. Bhaddacak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see https://www.gnu.org/licenses/.
+ */
+
+package paliplatform.base;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import javafx.application.Platform;
+
+/**
+ * The search-as-you-type pipeline used by dictionary windows.
+ * A submitted query is debounced, then the query stage runs in
+ * Utilities.threadPool and the render stage runs in the FX thread.
+ * The query is an immutable request made in the FX thread, so it carries
+ * every input setting the query stage needs (the query stage must not read
+ * FX properties). Every submission gets a new generation number, an older query still
+ * running is superseded: it can stop early by checking its ticket,
+ * and its result is never rendered. So only the latest result is shown.
+ * Stage timings (in nanoseconds) are kept for the last rendered search
+ * and can be sent to a listener for profiling.
+ * @author J.R. Bhaddacak
+ * @version 4.1
+ * @since 4.1
+ */
+public final class SearchPipeline<Q, R> {
+	public static final long DEF_DEBOUNCE_MILLIS = 200;
+	private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+		final Thread thread = new Thread(r, "search-debounce");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private static volatile TimingListener timingListener;
+	private final String name;
+	private final QueryStage<Q, R> queryStage;
+	private final RenderStage<Q, R> renderStage;
+	private final long debounceMillis;
+	private final AtomicLong generation = new AtomicLong();
+	private ScheduledFuture<?> pending;
+	private volatile Map<String, Long> lastTimings = Collections.emptyMap();
+
+	@FunctionalInterface
+	public interface QueryStage<Q, R> {
+		/**
+		 * Runs the query in a worker thread, null means nothing to render.
+		 */
+		R run(Q query, Ticket ticket);
+	}
+
+	@FunctionalInterface
+	public interface RenderStage<Q, R> {
+		void run(Q query, R result);
+	}
+
+	@FunctionalInterface
+	public interface TimingListener {
+		void searchDone(String pipelineName, String query, Map<String, Long> stageNanos);
+	}
+
+	public SearchPipeline(final String name, final QueryStage<Q, R> queryStage, final RenderStage<Q, R> renderStage) {
+		this(name, queryStage, renderStage, DEF_DEBOUNCE_MILLIS);
+	}
+
+	public SearchPipeline(final String name, final QueryStage<Q, R> queryStage, final RenderStage<Q, R> renderStage, final long debounceMillis) {
+		this.name = name;
+		this.queryStage = queryStage;
+		this.renderStage = renderStage;
+		this.debounceMillis = debounceMillis;
+	}
+
+	/**
+	 * Sets the timing hook of all pipelines (null to remove).
+	 */
+	public static void setTimingListener(final TimingListener listener) {
+		timingListener = listener;
+	}
+
+	/**
+	 * Submits a query after the debounce delay, a later submission within
+	 * the delay replaces it (used while typing).
+	 */
+	public synchronized void submit(final Q query) {
+		final long gen = generation.incrementAndGet();
+		if (pending != null)
+			pending.cancel(false);
+		pending = scheduler.schedule(() -> start(gen, query), debounceMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Submits a query to run at once (used by explicit search).
+	 */
+	public synchronized void submitNow(final Q query) {
+		final long gen = generation.incrementAndGet();
+		if (pending != null)
+			pending.cancel(false);
+		pending = null;
+		start(gen, query);
+	}
+
+	/**
+	 * Supersedes all pending and running queries.
+	 */
+	public synchronized void cancel() {
+		generation.incrementAndGet();
+		if (pending != null)
+			pending.cancel(false);
+		pending = null;
+	}
+
+	private void start(final long gen, final Q query) {
+		if (gen != generation.get())
+			return;
+		Utilities.threadPool.execute(() -> {
+			final Ticket ticket = new Ticket(generation, gen);
+			if (ticket.isCancelled())
+				return;
+			final R result = queryStage.run(query, ticket);
+			ticket.mark("query");
+			if (result == null || ticket.isCancelled())
+				return;
+			Platform.runLater(() -> {
+				if (ticket.isCancelled())
+					return;
+				ticket.mark("deliver");
+				renderStage.run(query, result);
+				ticket.mark("render");
+				lastTimings = Collections.unmodifiableMap(ticket.timings);
+				final TimingListener listener = timingListener;
+				if (listener != null)
+					listener.searchDone(name, String.valueOf(query), lastTimings);
+			});
+		});
+	}
+
+	/**
+	 * Gets stage timings of the last rendered search, in stage order.
+	 */
+	public Map<String, Long> getLastTimings() {
+		return lastTimings;
+	}
+
+	// inner class
+	public static final class Ticket {
+		private final AtomicLong generation;
+		private final long gen;
+		private final Map<String, Long> timings = new LinkedHashMap<>();
+		private long lapStart = System.nanoTime();
+
+		private Ticket(final AtomicLong generation, final long gen) {
+			this.generation = generation;
+			this.gen = gen;
+		}
+
+		/**
+		 * Tells whether a newer query has been submitted.
+		 */
+		public boolean isCancelled() {
+			return gen != generation.get();
+		}
+
+		/**
+		 * Records the time since the previous mark as a stage,
+		 * a repeated stage is accumulated.
+		 */
+		public void mark(final String stage) {
+			final long now = System.nanoTime();
+			timings.merge(stage, now - lapStart, Long::sum);
+			lapStart = now;
+		}
+	}
+
+}
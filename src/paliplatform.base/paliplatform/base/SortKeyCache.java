@@ -0,0 +1,176 @@
+/*
+ * SortKeyCache.java
+ *
+ * Copyright (C) 2023-2026 J. R. Bhaddacak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see https://www.gnu.org/licenses/.
+ */
+
+package paliplatform.base;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.text.Collator;
+
+/**
+ * The collation-key service of a collator. The sort key of a term (the
+ * bytes of its CollationKey) is computed once and kept in an LRU cache
+ * bounded by the total key size. Comparing two keys is an unsigned byte
+ * comparison, which gives the same order as the collator's compare.
+ * This is used as the comparator itself (e.g. Utilities.paliComparator),
+ * and large lists should be sorted by sort(), where keys are fetched in
+ * one batch and missing ones are computed in parallel. Long strings, such as
+ * sentences, should be sorted by sortUncached(), so as not to evict term keys.
+ * Keys are made by per-thread clones, the collator is not shared.
+ * @author J.R. Bhaddacak
+ * @version 4.1
+ * @since 4.1
+ */
+public final class SortKeyCache implements Comparator<String> {
+	public static final long DEF_MAX_BYTES = 16L << 20;
+	private static final int ENTRY_OVERHEAD = 64; // map entry, string and array headers
+	private static final int PARALLEL_THRESHOLD = 4096;
+	private final ThreadLocal<Collator> localCollator;
+	private final LinkedHashMap<String, byte[]> cache = new LinkedHashMap<>(1024, 0.75f, true);
+	private final long maxBytes;
+	private long totalBytes = 0;
+
+	public SortKeyCache(final Collator collator) {
+		this(collator, DEF_MAX_BYTES);
+	}
+
+	public SortKeyCache(final Collator collator, final long maxBytes) {
+		final Collator proto = (Collator)collator.clone();
+		localCollator = ThreadLocal.withInitial(() -> (Collator)proto.clone());
+		this.maxBytes = maxBytes;
+	}
+
+	private byte[] makeKey(final String term) {
+		return localCollator.get().getCollationKey(term).toByteArray();
+	}
+
+	private static long weigh(final String term, final byte[] key) {
+		return ENTRY_OVERHEAD + term.length() * 2L + key.length;
+	}
+
+	private void putKey(final String term, final byte[] key) {
+		final byte[] old = cache.put(term, key);
+		if (old != null)
+			totalBytes -= weigh(term, old);
+		totalBytes += weigh(term, key);
+		final Iterator<Map.Entry<String, byte[]>> it = cache.entrySet().iterator();
+		while (totalBytes > maxBytes && it.hasNext()) {
+			final Map.Entry<String, byte[]> eldest = it.next();
+			totalBytes -= weigh(eldest.getKey(), eldest.getValue());
+			it.remove();
+		}
+	}
+
+	/**
+	 * Gets the sort key of a term, computed if not cached.
+	 */
+	public byte[] getKey(final String term) {
+		synchronized (this) {
+			final byte[] key = cache.get(term);
+			if (key != null)
+				return key;
+		}
+		final byte[] key = makeKey(term);
+		synchronized (this) {
+			putKey(term, key);
+		}
+		return key;
+	}
+
+	@Override
+	public int compare(final String a, final String b) {
+		if (a.equals(b))
+			return 0;
+		return Arrays.compareUnsigned(getKey(a), getKey(b));
+	}
+
+	/**
+	 * Sorts a list by the sort keys of its elements (stable).
+	 */
+	public <T> void sort(final List<T> list, final Function<? super T, String> keyMaker) {
+		sort(list, keyMaker, true);
+	}
+
+	/**
+	 * Sorts a list like sort(), but the keys are neither looked up
+	 * nor kept in the cache.
+	 */
+	public <T> void sortUncached(final List<T> list, final Function<? super T, String> keyMaker) {
+		sort(list, keyMaker, false);
+	}
+
+	private <T> void sort(final List<T> list, final Function<? super T, String> keyMaker, final boolean cached) {
+		final int size = list.size();
+		if (size < 2) return;
+		final String[] terms = new String[size];
+		for (int i = 0; i < size; i++)
+			terms[i] = keyMaker.apply(list.get(i));
+		final byte[][] keys = new byte[size][];
+		if (cached) {
+			synchronized (this) {
+				for (int i = 0; i < size; i++)
+					keys[i] = cache.get(terms[i]);
+			}
+		}
+		final boolean[] made = new boolean[size];
+		final IntStream missing = IntStream.range(0, size).filter(i -> keys[i] == null);
+		(size >= PARALLEL_THRESHOLD ? missing.parallel() : missing).forEach(i -> {
+			keys[i] = makeKey(terms[i]);
+			made[i] = true;
+		});
+		if (cached) {
+			synchronized (this) {
+				for (int i = 0; i < size; i++) {
+					if (made[i])
+						putKey(terms[i], keys[i]);
+				}
+			}
+		}
+		final Integer[] order = new Integer[size];
+		for (int i = 0; i < size; i++)
+			order[i] = i;
+		final Comparator<Integer> byKey = (x, y) -> Arrays.compareUnsigned(keys[x], keys[y]);
+		if (size >= PARALLEL_THRESHOLD)
+			Arrays.parallelSort(order, byKey);
+		else
+			Arrays.sort(order, byKey);
+		final List<T> sorted = new ArrayList<>(size);
+		for (final Integer i : order)
+			sorted.add(list.get(i));
+		for (int i = 0; i < size; i++)
+			list.set(i, sorted.get(i));
+	}
+
+	/**
+	 * Sorts a list of terms.
+	 */
+	public void sort(final List<String> list) {
+		sort(list, Function.identity());
+	}
+
+	public synchronized int size() {
+		return cache.size();
+	}
+
+	public synchronized void clear() {
+		cache.clear();
+		totalBytes = 0;
+	}
+
+}
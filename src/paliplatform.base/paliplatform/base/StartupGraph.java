@@ -0,0 +1,160 @@
+/*
+ * StartupGraph.java
+ *
+ * Copyright (C) 2023-2026 J. R. Bhaddacak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see https://www.gnu.org/licenses/.
+ */
+
+package paliplatform.base;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * The graph of startup tasks. Each task has a name, a phase and the names
+ * of tasks it depends on. Independent tasks run concurrently in
+ * Utilities.threadPool, a task starts when all its dependencies are done.
+ * Critical tasks are run (and waited for) before the main window is built,
+ * deferred ones are started after the window is shown. The time of each
+ * task is written to the log file.
+ * @author J.R. Bhaddacak
+ * @version 4.1
+ * @since 4.1
+ */
+public final class StartupGraph {
+	public static enum Phase { CRITICAL, DEFERRED }
+	private final Map<String, Node> nodeMap = new LinkedHashMap<>();
+	private final long origin = System.nanoTime();
+
+	public StartupGraph() {
+	}
+
+	@FunctionalInterface
+	public interface Work {
+		void run() throws Exception;
+	}
+
+	/**
+	 * Adds a task. A critical task cannot depend on a deferred one.
+	 */
+	public synchronized StartupGraph add(final String name, final Phase phase, final Work work, final String... deps) {
+		if (nodeMap.containsKey(name))
+			throw new IllegalArgumentException("Duplicate startup task: " + name);
+		nodeMap.put(name, new Node(name, phase, work, deps));
+		return this;
+	}
+
+	/**
+	 * Runs all critical tasks and waits for them. The first failure
+	 * is thrown after all tasks have finished.
+	 */
+	public void runCritical() throws Exception {
+		final CompletableFuture<Void> all = start(Phase.CRITICAL);
+		try {
+			all.get();
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+			if (cause instanceof Exception)
+				throw (Exception)cause;
+			throw e;
+		}
+	}
+
+	/**
+	 * Starts all deferred tasks in background.
+	 */
+	public CompletableFuture<Void> runDeferred() {
+		return start(Phase.DEFERRED);
+	}
+
+	private synchronized CompletableFuture<Void> start(final Phase phase) {
+		final List<CompletableFuture<Void>> futures = new ArrayList<>();
+		for (final Node node : nodeMap.values()) {
+			if (node.phase == phase)
+				futures.add(schedule(node, new HashSet<>()));
+		}
+		final CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+		return all.whenComplete((v, e) -> log(phase));
+	}
+
+	private CompletableFuture<Void> schedule(final Node node, final Set<String> visiting) {
+		if (node.future != null)
+			return node.future;
+		if (!visiting.add(node.name))
+			throw new IllegalStateException("Cyclic startup task: " + node.name);
+		final List<CompletableFuture<Void>> depFutures = new ArrayList<>();
+		for (final String d : node.deps) {
+			final Node dep = nodeMap.get(d);
+			if (dep == null)
+				throw new IllegalStateException("Unknown startup task: " + d + " (needed by " + node.name + ")");
+			if (node.phase == Phase.CRITICAL && dep.phase == Phase.DEFERRED)
+				throw new IllegalStateException("Critical task " + node.name + " depends on deferred " + d);
+			depFutures.add(schedule(dep, visiting));
+		}
+		visiting.remove(node.name);
+		// a failed dependency fails the dependent task too
+		node.future = CompletableFuture.allOf(depFutures.toArray(new CompletableFuture<?>[0]))
+						.thenRunAsync(() -> node.execute(), Utilities.threadPool);
+		return node.future;
+	}
+
+	private synchronized void log(final Phase phase) {
+		final StringBuilder text = new StringBuilder();
+		text.append("Startup ").append(phase.toString().toLowerCase()).append(" tasks:");
+		for (final Node node : nodeMap.values()) {
+			if (node.phase != phase || node.future == null) continue;
+			text.append("\n  ").append(node.name);
+			if (node.startNanos == 0) {
+				text.append(" skipped (a dependency failed)");
+				continue;
+			}
+			text.append(String.format(" start %.1f ms, took %.1f ms", (node.startNanos - origin) / 1e6, node.nanos / 1e6));
+			if (node.failure != null)
+				text.append(" FAILED: ").append(node.failure);
+		}
+		Utilities.saveLog(text.toString());
+	}
+
+	// inner class
+	private static final class Node {
+		private final String name;
+		private final Phase phase;
+		private final Work work;
+		private final String[] deps;
+		private CompletableFuture<Void> future;
+		private volatile long startNanos;
+		private volatile long nanos;
+		private volatile Throwable failure;
+
+		private Node(final String name, final Phase phase, final Work work, final String[] deps) {
+			this.name = name;
+			this.phase = phase;
+			this.work = work;
+			this.deps = deps;
+		}
+
+		private void execute() {
+			startNanos = System.nanoTime();
+			try {
+				work.run();
+			} catch (Exception e) {
+				failure = e;
+				throw new CompletionException(e);
+			} finally {
+				nanos = System.nanoTime() - startNanos;
+			}
+		}
+	}
+
+}
@@ -108,6 +108,7 @@ final public class Utilities {
 	public static String FONTMONOBOLD = FONTMONO;
 	public static final String PALI_ALL_CHARS = "ÑĀĪŊŚŪḌḤḶḸḺṀṂṄṆṚṜṢṬñāīŋśūḍḥḷḹḻṁṃṅṇṛṝṣṭēō";
 	public static final String REX_NON_PALI = "[^A-Za-z" + PALI_ALL_CHARS + "]+";
+	private static final java.util.regex.Pattern NON_PALI_PATT = java.util.regex.Pattern.compile(REX_NON_PALI);
 	public static final String REX_NON_PALI_NUM = "[^A-Za-z0-9" + PALI_ALL_CHARS + "]+";
 	public static final String REX_NON_PALI_PUNC = "[^A-Za-z" + PALI_ALL_CHARS + "?!–-]+";
 	public static final String REX_NON_PALI_PUNC_FULL = "[^A-Za-z" + PALI_ALL_CHARS + "?!–-‖|.:;]+";
@@ -116,6 +117,21 @@ final public class Utilities {
 	public static final String PALI_LAHU_VOWELS = "aiu";
 	public static final String PALI_LONG_VOWELS = "āīū";
 	public static final String PALI_CONSONANTS = "kgṅcjñṭḍṇtdnpbmyrlvshḷ";
+	private static final int SCRIPT_SPECIMEN_LEN = 1024;
+	private static final int ROMAN_ORD = PaliScript.ROMAN.ordinal();
+	private static final byte[] SCRIPT_TABLE = createScriptTable();
+	private static final byte MC_VOWEL = 1;
+	private static final byte MC_LAHU = 2;
+	private static final byte MC_CONSONANT = 4;
+	private static final byte MC_WITH_H = 8;
+	private static final byte MC_NIGGAHITA = 16;
+	private static final byte[] METER_CLASS_TABLE = createMeterClassTable();
+	// memo caches for short strings (search terms, headwords)
+	private static final int MEMO_MAX_LEN = 64;
+	private static final int MEMO_MAX_SIZE = 4096;
+	private static final Map<String, String> removeTagsMemo = new java.util.concurrent.ConcurrentHashMap<>();
+	private static final Map<String, String> removeTagsSpaceMemo = new java.util.concurrent.ConcurrentHashMap<>();
+	private static final Map<String, String> removeAccentsMemo = new java.util.concurrent.ConcurrentHashMap<>();
 	public static final String WITH_H_CHARS = "bcdgjkptḍṭ";
 	public static final String DASH_N = "–";
 	public static final String DASH_M = "—";
@@ -136,10 +152,13 @@ final public class Utilities {
 	public static Properties urls;
 	public static RuleBasedCollator paliCollator;
 	public static Comparator<String> paliComparator;
+	public static SortKeyCache paliSortKeys;
 	public static RuleBasedCollator sktCollator;
 	public static Comparator<String> sktComparator;
+	public static SortKeyCache sktSortKeys;
 	public static RuleBasedCollator slp1Collator;
 	public static Comparator<String> slp1Comparator;
+	public static SortKeyCache slp1SortKeys;
 	public static Comparator<String> alphanumComparator;
 	public static StringConverter<Integer> integerStringConverter;
 	public static ExecutorService threadPool;
@@ -248,6 +267,8 @@ final public class Utilities {
 		DICT("ppdict"), CONE("ppcone"), LISTER("pplister"), PPDPD("ppdpd"), SKTDICT("ppsktdict");
 		private final String name;
 		private static final java.sql.Connection[] connection = new java.sql.Connection[5];
+		private static final DBPool[] pool = new DBPool[5];
+		private static final java.util.concurrent.atomic.AtomicIntegerArray modCount = new java.util.concurrent.atomic.AtomicIntegerArray(5);
 		private H2DB(final String name) {
 			this.name = name;
 		}
@@ -266,11 +287,35 @@ final public class Utilities {
 		public java.sql.Connection getConnection() {
 			return H2DB.connection[this.ordinal()];
 		}
+		public static void setPool(final H2DB db, final DBPool p) {
+			final DBPool old = H2DB.pool[db.ordinal()];
+			if (old != null)
+				old.closeAll();
+			H2DB.pool[db.ordinal()] = p;
+			markModified(db);
+		}
+		/**
+		 * Records that tables of the database were (re)created,
+		 * in-memory data derived from them should be rebuilt.
+		 */
+		public static void markModified(final H2DB db) {
+			H2DB.modCount.incrementAndGet(db.ordinal());
+		}
+		public int getModCount() {
+			return H2DB.modCount.get(this.ordinal());
+		}
+		/**
+		 * Gives the pool for concurrent reading, null if the database is not initialized.
+		 */
+		public DBPool getPool() {
+			return H2DB.pool[this.ordinal()];
+		}
 	}
 	public static enum SQLiteDB {
 		DPD("dpd");
 		private final String name;
 		private static final java.sql.Connection[] connection = new java.sql.Connection[1];
+		private static final DBPool[] pool = new DBPool[1];
 		private SQLiteDB(final String name) {
 			this.name = name;
 		}
@@ -289,6 +334,18 @@ final public class Utilities {
 		public java.sql.Connection getConnection() {
 			return SQLiteDB.connection[this.ordinal()];
 		}
+		public static void setPool(final SQLiteDB db, final DBPool p) {
+			final DBPool old = SQLiteDB.pool[db.ordinal()];
+			if (old != null)
+				old.closeAll();
+			SQLiteDB.pool[db.ordinal()] = p;
+		}
+		/**
+		 * Gives the read-only pool, null if the database is not initialized.
+		 */
+		public DBPool getPool() {
+			return SQLiteDB.pool[this.ordinal()];
+		}
 	}
 	public static enum PpdpdTable {
 		DICTIONARY, DECONSTRUCTOR, MINIDPD, SORTED_HEADWORDS;
@@ -394,6 +451,11 @@ final public class Utilities {
 			final String dburl = "jdbc:h2:" + dbdir + db.getName() + ";IGNORECASE=TRUE;DB_CLOSE_ON_EXIT=FALSE";
 			result = DriverManager.getConnection(dburl, "sa", "");
 			result.setAutoCommit(true);
+			// more connections to the same embedded database (MVStore allows concurrent ones)
+			final Properties props = new Properties();
+			props.setProperty("user", "sa");
+			props.setProperty("password", "");
+			H2DB.setPool(db, new DBPool(db.getName(), dburl, props, DBPool.DEF_MAX_SIZE));
 		} catch (IOException e) {
 			System.err.println(e);
 		} catch (SQLException e) {
@@ -422,6 +484,7 @@ final public class Utilities {
 		final File dbfile = new File(dbdir + db.getNameWithExt());
 		if (dbfile.exists()) {
 			final java.sql.Connection conn = db.getConnection();
+			H2DB.setPool(db, null);
 			try {
 				if (conn != null)
 					conn.close();
@@ -449,6 +512,10 @@ final public class Utilities {
 			Class.forName("org.sqlite.JDBC");
 			final String dburl = "jdbc:sqlite:" + dbdir + db.getNameWithExt();
 			result = DriverManager.getConnection(dburl);
+			// pooled connections are for reading only
+			final Properties props = new Properties();
+			props.setProperty("open_mode", "1"); // SQLITE_OPEN_READONLY
+			SQLiteDB.setPool(db, new DBPool(db.getName(), dburl, props, DBPool.DEF_MAX_SIZE));
 		} catch (ClassNotFoundException | SQLException e) {
 			System.err.println(e);
 		}
@@ -462,12 +529,15 @@ final public class Utilities {
 	}
 
 	public static void updatePpdpdAvailibility() {
-		final Set<String> tableNames = getFirstColumnFromDB(H2DB.PPDPD, "SHOW TABLES;");
-		tableNames.forEach(d -> {
-			final SimpleBooleanProperty prop = ppdpdAvailMap.get(PpdpdTable.valueOf(d.toUpperCase()));
-			if (prop != null)
+		final Set<String> tableNames = getFirstColumnFromDB(H2DB.PPDPD, "SHOW TABLES;").stream()
+											.map(String::toUpperCase)
+											.collect(Collectors.toSet());
+		// other tables, such as the n-gram indexes, are skipped
+		for (final PpdpdTable t : PpdpdTable.tables) {
+			final SimpleBooleanProperty prop = ppdpdAvailMap.get(t);
+			if (prop != null && tableNames.contains(t.toString()))
 				prop.set(true);
-		});
+		}
 	}
 
 	public static void setTheme(final Scene scn, final Utilities.Theme thm) {
@@ -642,10 +712,12 @@ final public class Utilities {
 		final String visarga = "< Ḥ, ḥ";
 		final String paliRule = vowelPali + consonantPali + niggahita;
 		paliCollator = new RuleBasedCollator(paliRule);
-		paliComparator = paliCollator::compare;
+		paliSortKeys = new SortKeyCache(paliCollator);
+		paliComparator = paliSortKeys;
 		final String sktRule = vowelSkt + niggahita + visarga + consonantSkt;
 		sktCollator = new RuleBasedCollator(sktRule);
-		sktComparator = sktCollator::compare;
+		sktSortKeys = new SortKeyCache(sktCollator);
+		sktComparator = sktSortKeys;
 		// for SLP1 collator
 		final String slp1Rule = "< a < A < i < I < u < U < f < F < x < X < e < E < o < O" +
 								"< k < K < g < G < N" +
@@ -655,7 +727,8 @@ final public class Utilities {
 								"< p < P < b < B < m" +
 								"< y < r < l < L < v < S < z < s < h < M < H";
 		slp1Collator = new RuleBasedCollator(slp1Rule);
-		slp1Comparator = slp1Collator::compare;
+		slp1SortKeys = new SortKeyCache(slp1Collator);
+		slp1Comparator = slp1SortKeys;
 		// for alphanumeral
 		alphanumComparator = new Comparator<String>() {
 			@Override
@@ -882,65 +955,89 @@ final public class Utilities {
 	public static PaliScript getScriptLanguage(final File file, final Charset charset) {
 		final StringBuilder text = new StringBuilder();
 		try (final Scanner in = new Scanner(new FileInputStream(file), charset)) {
-			while (in.hasNextLine() && text.length() < 1024) {
+			while (in.hasNextLine() && text.length() < SCRIPT_SPECIMEN_LEN) {
 				final String line = removeTags(in.nextLine().trim(), true);
 				text.append(line);
 			}
 		} catch (FileNotFoundException e) {
 			System.err.println(e);
 		}
-		return testLanguage(text.toString());
+		return testLanguage(text);
 	}
 	
 	/**
 	 * Determines the script language of a given text.
+	 * Only the first 1024 characters (after trimming) are examined.
+	 * The script with the most letters wins if it covers more than
+	 * half the number of whitespaces. On a tie, the script coming first
+	 * in PaliScript (Roman first) is taken. No letter found means UNKNOWN.
 	 */
-	public static PaliScript testLanguage(final String input) {
-		final String text = input.trim();
-		if (text.isEmpty())
+	public static PaliScript testLanguage(final CharSequence input) {
+		int start = 0;
+		int end = input.length();
+		while (start < end && input.charAt(start) <= ' ')
+			start++;
+		while (end > start && input.charAt(end - 1) <= ' ')
+			end--;
+		if (start == end)
 			return PaliScript.ROMAN;
-		final String specimen = text.length() > 1024 ? text.substring(0, 1024) : text;
-		final long totalLen = specimen.chars().filter(x -> " \t\n\r\f".indexOf(x) > -1).count();
-		final PaliScript result;
+		final int limit = Math.min(end, start + SCRIPT_SPECIMEN_LEN);
+		// counters are kept in locals, indexed as PaliScript ordinals
 		int romanCount = 0;
-		int thaiCount = 0;
+		int devaCount = 0;
 		int khmerCount = 0;
 		int myanmarCount = 0;
 		int sinhalaCount = 0;
-		int devaCount = 0;
-		final HashMap<Integer, PaliScript> hitCount = new HashMap<>();
-		for (char ch : specimen.toCharArray()) {
-			if (ch >= '\u0030' && ch <= '\u007A')
-				romanCount++;
-			if (ch >= '\u0900' && ch <= '\u097F')
-				devaCount++;
-			if (ch >= '\u0D80' && ch <= '\u0DFF')
-				sinhalaCount++;
-			if (ch >= '\u0E00' && ch <= '\u0E7F')
-				thaiCount++;
-			if (ch >= '\u1000' && ch <= '\u109F')
-				myanmarCount++;
-			if (ch >= '\u1780' && ch <= '\u17FF')
-				khmerCount++;
-		}
-		hitCount.put(romanCount, PaliScript.ROMAN);
-		hitCount.put(thaiCount, PaliScript.THAI);
-		hitCount.put(khmerCount, PaliScript.KHMER);
-		hitCount.put(myanmarCount, PaliScript.MYANMAR);
-		hitCount.put(sinhalaCount, PaliScript.SINHALA);
-		hitCount.put(devaCount, PaliScript.DEVANAGARI);
-		final List<Integer> max = hitCount.keySet().stream()
-									.sorted((x, y) -> Integer.compare(y, x))
-									.limit(1)
-									.collect(Collectors.toList());
-		final int maxScore = max != null && !max.isEmpty() ? max.get(0) : 0;
-		if (maxScore > totalLen/2.0)
-			result = hitCount.get(maxScore);
-		else
-			result = PaliScript.UNKNOWN;
+		int thaiCount = 0;
+		int spaceCount = 0;
+		for (int i = start; i < limit; i++) {
+			final char ch = input.charAt(i);
+			final int scr = ch < SCRIPT_TABLE.length
+							? SCRIPT_TABLE[ch]
+							: ch >= '\u1E00' && ch <= '\u1EFF' ? ROMAN_ORD : 0; // Latin Extended Additional, e.g. ṃ ṇ ḷ
+			switch (scr) {
+				case 0:
+					if (ch == ' ' || ch == '\t' || ch == '\n' || ch == '\r' || ch == '\f')
+						spaceCount++;
+					break;
+				case 1: romanCount++; break;
+				case 2: devaCount++; break;
+				case 3: khmerCount++; break;
+				case 4: myanmarCount++; break;
+				case 5: sinhalaCount++; break;
+				case 6: thaiCount++; break;
+			}
+		}
+		// strictly greater, so the earlier script wins a tie
+		PaliScript result = PaliScript.ROMAN;
+		int max = romanCount;
+		if (devaCount > max) { max = devaCount; result = PaliScript.DEVANAGARI; }
+		if (khmerCount > max) { max = khmerCount; result = PaliScript.KHMER; }
+		if (myanmarCount > max) { max = myanmarCount; result = PaliScript.MYANMAR; }
+		if (sinhalaCount > max) { max = sinhalaCount; result = PaliScript.SINHALA; }
+		if (thaiCount > max) { max = thaiCount; result = PaliScript.THAI; }
+		return max > 0 && max > spaceCount / 2.0 ? result : PaliScript.UNKNOWN;
+	}
+	
+	private static byte[] createScriptTable() {
+		// char -> PaliScript ordinal, from U+0000 to the end of Khmer block
+		final byte[] result = new byte[0x1800];
+		fillScriptTable(result, '\u0030', '\u007A', PaliScript.ROMAN);
+		fillScriptTable(result, '\u00C0', '\u024F', PaliScript.ROMAN); // Latin-1 Supplement and Extended-A/B letters
+		fillScriptTable(result, '\u0900', '\u097F', PaliScript.DEVANAGARI);
+		fillScriptTable(result, '\u0D80', '\u0DFF', PaliScript.SINHALA);
+		fillScriptTable(result, '\u0E00', '\u0E7F', PaliScript.THAI);
+		fillScriptTable(result, '\u1000', '\u109F', PaliScript.MYANMAR);
+		fillScriptTable(result, '\u1780', '\u17FF', PaliScript.KHMER);
+		result['\u00D7'] = 0; // multiplication sign
+		result['\u00F7'] = 0; // division sign
 		return result;
 	}
 	
+	private static void fillScriptTable(final byte[] table, final char from, final char to, final PaliScript script) {
+		Arrays.fill(table, from, to + 1, (byte)script.ordinal());
+	}
+	
 	/**
 	 * Replace Ŋ and ŋ with Ṃ and ṃ respectively.
 	 * 
@@ -973,12 +1070,76 @@ final public class Utilities {
 	}
 	
 	public static String removeTags(final String text, final boolean spaceReplaced) {
-		final String result = spaceReplaced
-								? text.replaceAll("<.*?>", " ").replaceAll(" {2,}", " ")
-								: text.replaceAll("<.*?>", "");
-		return result;
+		// fast path, nothing to do
+		if (text.indexOf('<') < 0 && (!spaceReplaced || text.indexOf("  ") < 0))
+			return text;
+		final boolean isShort = text.length() <= MEMO_MAX_LEN;
+		final Map<String, String> memo = spaceReplaced ? removeTagsSpaceMemo : removeTagsMemo;
+		if (isShort) {
+			final String cached = memo.get(text);
+			if (cached != null)
+				return cached;
+		}
+		final StringBuilder result = new StringBuilder(text.length());
+		removeTags(text, spaceReplaced, result);
+		final String output = result.toString();
+		if (isShort)
+			putMemo(memo, text, output);
+		return output;
 	}
-	
+
+	/**
+	 * Bulk variant of removeTags for a whole document, the result is appended to the buffer.
+	 * This works in one pass, the same as regex &lt;.*?&gt; (a tag does not span lines).
+	 * If spaceReplaced, a tag becomes a space and a run of spaces becomes one.
+	 */
+	public static void removeTags(final CharSequence text, final boolean spaceReplaced, final StringBuilder result) {
+		final int len = text.length();
+		final int base = result.length();
+		int runStart = 0; // plain text is copied run by run
+		int i = 0;
+		while (i < len) {
+			final char ch = text.charAt(i);
+			if (ch == '<') {
+				int j = i + 1;
+				while (j < len && text.charAt(j) != '>' && !isLineTerminator(text.charAt(j)))
+					j++;
+				if (j < len && text.charAt(j) == '>') {
+					result.append(text, runStart, i);
+					if (spaceReplaced)
+						appendSingleSpace(result, base);
+					i = j + 1;
+					runStart = i;
+					continue;
+				}
+			} else if (ch == ' ' && spaceReplaced) {
+				result.append(text, runStart, i);
+				appendSingleSpace(result, base);
+				i++;
+				runStart = i;
+				continue;
+			}
+			i++;
+		}
+		result.append(text, runStart, len);
+	}
+
+	private static void appendSingleSpace(final StringBuilder result, final int base) {
+		if (result.length() == base || result.charAt(result.length() - 1) != ' ')
+			result.append(' ');
+	}
+
+	private static boolean isLineTerminator(final char ch) {
+		return ch == '\n' || ch == '\r' || ch == '\u0085' || ch == '\u2028' || ch == '\u2029';
+	}
+
+	private static void putMemo(final Map<String, String> memo, final String key, final String value) {
+		// simply start over when full, short-lived terms come and go
+		if (memo.size() >= MEMO_MAX_SIZE)
+			memo.clear();
+		memo.put(key, value);
+	}
+
 	public static String getTextResource(final String fileNameWithPath) {
 		String result = "";
 		try {
@@ -1157,11 +1318,14 @@ final public class Utilities {
 	}
 	
 	public static void executeSQL(final Connection conn, final String sql) {
-		try {
-			if (conn != null)
-				conn.createStatement().execute(sql);
+		if (conn == null) return;
+		final long start = System.nanoTime();
+		try (final Statement stmt = conn.createStatement()) {
+			stmt.execute(sql);
 		} catch (SQLException e) {
 			System.err.println(e);
+		} finally {
+			DBPool.fireQueryDone("", sql, start);
 		}
 	}
 	
@@ -1171,26 +1335,66 @@ final public class Utilities {
 	}
 	
 	public static Set<String> getFirstColumnFromDB(final Connection conn, final String query) {
+		final Set<String> result = new LinkedHashSet<>();
+		if (conn == null) return result;
+		final long start = System.nanoTime();
+		try (final Statement stmt = conn.createStatement();
+				final ResultSet rs = stmt.executeQuery(query)) {
+			while (rs.next()) {
+				result.add(rs.getString(1));
+			}
+		} catch (SQLException e) {
+			System.err.println(e);
+		} finally {
+			DBPool.fireQueryDone("", query, start);
+		}
+		return result;	
+	}
+	
+	public static Set<String> getFirstColumnFromDB(final Utilities.H2DB db, final String query, final Object... params) {
+		final DBPool pool = db.getPool();
+		return pool == null ? new LinkedHashSet<>() : getFirstColumnFromDB(pool, query, params);
+	}
+	
+	public static Set<String> getFirstColumnFromDB(final Utilities.SQLiteDB db, final String query, final Object... params) {
+		final DBPool pool = db.getPool();
+		return pool == null ? new LinkedHashSet<>() : getFirstColumnFromDB(pool, query, params);
+	}
+	
+	private static Set<String> getFirstColumnFromDB(final DBPool pool, final String query, final Object... params) {
 		final Set<String> result = new LinkedHashSet<>();
 		try {
-			if (conn != null) {
-				final Statement stmt = conn.createStatement();
-				final ResultSet rs = stmt.executeQuery(query);
-				while (rs.next()) {
+			pool.query(query, rs -> {
+				while (rs.next())
 					result.add(rs.getString(1));
-				}
-				rs.close();		
-				stmt.close();
-			}
+				return null;
+			}, params);
 		} catch (SQLException e) {
 			System.err.println(e);
 		}
 		return result;	
 	}
 	
-	public static Set<String> getFirstColumnFromDB(final Utilities.H2DB db, final String query) {
-		final java.sql.Connection conn = db.getConnection();
-		return getFirstColumnFromDB(conn, query);
+	/**
+	 * Closes all database connections and pools, used at exit.
+	 */
+	public static void closeAllDB() {
+		try {
+			for (final H2DB db : H2DB.values()) {
+				H2DB.setPool(db, null);
+				final java.sql.Connection conn = db.getConnection();
+				if (conn != null)
+					conn.close();
+			}
+			for (final SQLiteDB db : SQLiteDB.values()) {
+				SQLiteDB.setPool(db, null);
+				final java.sql.Connection conn = db.getConnection();
+				if (conn != null)
+					conn.close();
+			}
+		} catch (SQLException e) {
+			System.err.println(e);
+		}
 	}
 	
 	// count a character in a string
@@ -1213,17 +1417,49 @@ final public class Utilities {
 	}
 	
 	public static String normalizeNiggahita(final String text, final boolean... allCases) {
-		String result = text.replace("ṁ", "ṃ");
-		if (allCases.length > 0 && allCases[0])
-			result = result.replace("Ṁ", "Ṃ");
-		return result;
+		return replaceChars(text, 'ṁ', 'ṃ', allCases.length > 0 && allCases[0] ? 'Ṁ' : 'ṁ', 'Ṃ');
 	}
 
 	public static String changeToScNiggahita(final String text, final boolean... allCases) {
-		String result = text.replace("ṃ", "ṁ");
-		if (allCases.length > 0 && allCases[0])
-			result = result.replace("Ṃ", "Ṁ");
-		return result;
+		return replaceChars(text, 'ṃ', 'ṁ', allCases.length > 0 && allCases[0] ? 'Ṃ' : 'ṃ', 'Ṁ');
+	}
+
+	/**
+	 * Bulk variant of normalizeNiggahita for a whole document, done in place.
+	 */
+	public static void normalizeNiggahita(final StringBuilder text, final boolean allCases) {
+		for (int i = 0, len = text.length(); i < len; i++) {
+			final char ch = text.charAt(i);
+			if (ch == 'ṁ')
+				text.setCharAt(i, 'ṃ');
+			else if (allCases && ch == 'Ṁ')
+				text.setCharAt(i, 'Ṃ');
+		}
+	}
+
+	/**
+	 * Replaces two chars in one pass, the input is returned
+	 * as is (no copy) if nothing to replace.
+	 */
+	private static String replaceChars(final String text, final char from1, final char to1, final char from2, final char to2) {
+		final int len = text.length();
+		int i = 0;
+		while (i < len) {
+			final char ch = text.charAt(i);
+			if (ch == from1 || ch == from2)
+				break;
+			i++;
+		}
+		if (i == len)
+			return text;
+		final char[] chars = text.toCharArray();
+		for (; i < len; i++) {
+			if (chars[i] == from1)
+				chars[i] = to1;
+			else if (chars[i] == from2)
+				chars[i] = to2;
+		}
+		return new String(chars);
 	}
 
 	public static int getFirstDigitPos(final String text) {
@@ -1261,11 +1497,31 @@ final public class Utilities {
 	}
 
 	public static boolean isVowel(final char ch) {
-		return (PALI_VOWELS.indexOf(Character.toLowerCase(ch)) >= 0);
+		return (getMeterClass(Character.toLowerCase(ch)) & MC_VOWEL) != 0;
 	}
 
 	public static boolean isConsonant(final char ch) {
-		return (PALI_CONSONANTS.indexOf(Character.toLowerCase(ch)) >= 0);
+		return (getMeterClass(Character.toLowerCase(ch)) & MC_CONSONANT) != 0;
+	}
+
+	private static byte[] createMeterClassTable() {
+		// char -> bit flags, covering Latin Extended Additional (ṃ, ṭ, etc.)
+		final byte[] result = new byte[0x1F00];
+		for (final char ch : PALI_VOWELS.toCharArray())
+			result[ch] |= MC_VOWEL;
+		for (final char ch : PALI_LAHU_VOWELS.toCharArray())
+			result[ch] |= MC_LAHU;
+		for (final char ch : PALI_CONSONANTS.toCharArray())
+			result[ch] |= MC_CONSONANT;
+		for (final char ch : WITH_H_CHARS.toCharArray())
+			result[ch] |= MC_WITH_H;
+		result['ṃ'] |= MC_NIGGAHITA;
+		result['ṁ'] |= MC_NIGGAHITA;
+		return result;
+	}
+
+	private static int getMeterClass(final char ch) {
+		return ch < METER_CLASS_TABLE.length ? METER_CLASS_TABLE[ch] : 0;
 	}
 
 	public static void createMeterPatternMap() {
@@ -1281,6 +1537,7 @@ final public class Utilities {
 		meterPatternMap.put('N', "lll");
 		meterPatternMap.put('S', "llg");
 		meterPatternMap.put('J', "lgl");
+		meterPatternMap.put('Y', "lgg");
 		meterPatternMap.put('B', "gll");
 		meterPatternMap.put('R', "glg");
 		meterPatternMap.put('T', "ggl");
@@ -1324,7 +1581,7 @@ final public class Utilities {
 		final StringBuilder result = new StringBuilder();
 		for (final String p : paragraphs) {
 			if (!p.trim().isEmpty()) {
-				final String[] tokens = p.split(REX_NON_PALI);
+				final String[] tokens = NON_PALI_PATT.split(p);
 				for (final String s : tokens) {
 					final String meters = computeMeter(s, true);
 					if (!meters.isEmpty())
@@ -1339,61 +1596,48 @@ final public class Utilities {
 	}
 	
 	public static String computeMeter(final String text, final boolean... useNumber) {
-		final char[] munit = useNumber.length > 0 && useNumber[0] ? new char[] { '1', '2' } : new char[] { 'l', 'g' };
-		final String input = text.contains("\n") ? text.toLowerCase().trim().split("\\n")[0] : text.toLowerCase().trim();
-		final StringBuilder meterPattern = new StringBuilder();
-		final char[] chars = input.toCharArray();
-		// consider each character
-		for (int i=0; i<chars.length; i++) {
-			final char thisCh = chars[i];
-			char meter = '0';
-			if (PALI_VOWELS.indexOf(thisCh) >= 0) {
-				// only consider when it is a vowel
-				// check what follows
-				if (i < chars.length-1) {
-					if (i < chars.length-2) {
-						if (chars[i+1] == 'ṃ' || chars[i+1] == 'ṁ') {
-							// followed by a niggahita, garu is assured
-							meter = munit[1];
-						} else if (PALI_CONSONANTS.indexOf(chars[i+1]) >= 0 && PALI_CONSONANTS.indexOf(chars[i+2]) >= 0) {
-							// followed by a double consonants, garu is assured, with some exceptions
-							if (WITH_H_CHARS.indexOf(chars[i+1]) >= 0 && chars[i+2] == 'h') {
-								if (PALI_LAHU_VOWELS.indexOf(thisCh) >= 0)
-									meter = munit[0];
-								else
-									meter = munit[1];
-							} else {
-								meter = munit[1];
-							}
-						} else {
-							if (PALI_LAHU_VOWELS.indexOf(thisCh) >= 0)
-								meter = munit[0];
-							else
-								meter = munit[1];
-						}
-					} else {
-						if (chars[i+1] == 'ṃ' || chars[i+1] == 'ṁ') {
-							// followed by a niggahita, garu is assured
-							meter = munit[1];
-						} else {
-							if (PALI_LAHU_VOWELS.indexOf(thisCh) >= 0)
-								meter = munit[0];
-							else
-								meter = munit[1];
-						}
-					}
-				} else {
-					if (PALI_LAHU_VOWELS.indexOf(thisCh) >= 0)
-						meter = munit[0];
-					else
-						meter = munit[1];
-				}
-				meterPattern.append(meter);
-			}
-		} // end for
+		final boolean withNum = useNumber.length > 0 && useNumber[0];
+		// only the first line (after leading blanks) is considered
+		int start = 0;
+		while (start < text.length() && text.charAt(start) <= ' ')
+			start++;
+		final int nlPos = text.indexOf('\n', start);
+		final int end = nlPos < 0 ? text.length() : nlPos;
+		final StringBuilder meterPattern = new StringBuilder((end - start) / 2 + 1);
+		appendMeter(text, start, end, withNum ? '1' : 'l', withNum ? '2' : 'g', meterPattern);
 		return meterPattern.toString();
 	}
 
+	/**
+	 * Computes lahu/garu pattern of a text range in a single pass,
+	 * the result is appended to the given buffer. Only vowels produce
+	 * an output unit. A vowel is garu if it is long (incl. e and o),
+	 * followed by a niggahita, or followed by two consonants other
+	 * than an aspirate pair (e.g. kh, th).
+	 */
+	public static void appendMeter(final CharSequence text, final int start, final int end,
+			final char lahu, final char garu, final StringBuilder result) {
+		// look-ahead classes are shifted along, so each char is looked up once
+		int thisCls = start < end ? getMeterClass(Character.toLowerCase(text.charAt(start))) : 0;
+		int next1Cls = start + 1 < end ? getMeterClass(Character.toLowerCase(text.charAt(start + 1))) : 0;
+		for (int i = start; i < end; i++) {
+			final int next2Cls = i + 2 < end ? getMeterClass(Character.toLowerCase(text.charAt(i + 2))) : 0;
+			if ((thisCls & MC_VOWEL) != 0) {
+				final boolean isLahuVowel = (thisCls & MC_LAHU) != 0;
+				final boolean isGaru;
+				if ((next1Cls & MC_NIGGAHITA) != 0)
+					isGaru = true;
+				else if ((next1Cls & MC_CONSONANT) != 0 && (next2Cls & MC_CONSONANT) != 0)
+					isGaru = !((next1Cls & MC_WITH_H) != 0 && Character.toLowerCase(text.charAt(i + 2)) == 'h' && isLahuVowel);
+				else
+					isGaru = !isLahuVowel;
+				result.append(isGaru ? garu : lahu);
+			}
+			thisCls = next1Cls;
+			next1Cls = next2Cls;
+		}
+	}
+
 	public static int getPaliWordLength(final String word) {
 		int hfound = 0;
 		final char [] chars = word.toCharArray();
@@ -1575,6 +1819,18 @@ final public class Utilities {
 	}
 
 	public static String removeAccents(final String input) {
+		// plain ASCII has nothing to remove
+		int k = 0;
+		while (k < input.length() && input.charAt(k) < '\u0080')
+			k++;
+		if (k == input.length())
+			return input;
+		final boolean isShort = input.length() <= MEMO_MAX_LEN;
+		if (isShort) {
+			final String cached = removeAccentsMemo.get(input);
+			if (cached != null)
+				return cached;
+		}
 		final String text = Normalizer.normalize(input, Form.NFD);
 		final int len = text.length();
 		final StringBuilder output = new StringBuilder(len);
@@ -1583,7 +1839,10 @@ final public class Utilities {
 			if (ch < '\u0300' || ch > '\u036F')
 				output.append(ch);
 		}
-		return output.toString();
+		final String result = output.toString();
+		if (isShort)
+			putMemo(removeAccentsMemo, input, result);
+		return result;
 	}
 
 	public static String makeBareHTML(final String body) {
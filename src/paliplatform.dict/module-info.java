@@ -4,6 +4,9 @@ module paliplatform.dict {
 	requires javafx.controls;
 	requires javafx.web;
 	requires com.google.gson;
+	requires org.apache.lucene.core;
+	requires org.apache.lucene.analysis.common;
+	requires org.apache.lucene.queryparser;
 	requires paliplatform.base;
 	opens paliplatform.dict to javafx.web;
 	uses paliplatform.base.SimpleService;
@@ -17,6 +20,8 @@ module paliplatform.dict {
 		paliplatform.dict.FontSetter;
 	provides paliplatform.base.DictService with 
 		paliplatform.dict.DictServiceImp;
+	provides paliplatform.base.StartupService with 
+		paliplatform.dict.DictStartup;
 	provides javafx.css.Styleable with 
 		paliplatform.dict.DictMenu,
 		paliplatform.dict.DictToolBarCom,
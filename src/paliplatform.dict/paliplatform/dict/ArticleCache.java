@@ -0,0 +1,94 @@
+/*
+ * ArticleCache.java
+ *
+ * Copyright (C) 2023-2026 J. R. Bhaddacak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see https://www.gnu.org/licenses/.
+ */
+
+package paliplatform.dict;
+
+import paliplatform.dict.DictUtilities.DictBook;
+import paliplatform.base.*;
+
+import java.util.*;
+
+/**
+ * The LRU cache of rendered dictionary articles (HTML body), keyed by
+ * term, dictionary set and search mode. The size is bounded by the total
+ * length of articles. The cache is cleared when the tables of any
+ * dictionary database are recreated.
+ * @author J.R. Bhaddacak
+ * @version 4.1
+ * @since 4.1
+ */
+final class ArticleCache {
+	static final int DEF_MAX_CHARS = 4 << 20;
+	private static final Utilities.H2DB[] DBS = { Utilities.H2DB.DICT, Utilities.H2DB.CONE, Utilities.H2DB.PPDPD };
+	private final LinkedHashMap<String, String> cache = new LinkedHashMap<>(256, 0.75f, true);
+	private final int maxChars;
+	private long totalChars = 0;
+	private int stamp = -1;
+
+	ArticleCache(final int maxChars) {
+		this.maxChars = maxChars;
+	}
+
+	static String makeKey(final String term, final Collection<DictBook> books, final boolean inMeaning) {
+		final StringBuilder result = new StringBuilder(term.length() + books.size() * 3 + 2);
+		result.append(term).append('\t').append(inMeaning ? 'M' : 'T');
+		for (final DictBook b : books)
+			result.append(b.ordinal()).append(',');
+		return result.toString();
+	}
+
+	private static int getStamp() {
+		int result = 0;
+		for (final Utilities.H2DB db : DBS)
+			result = result * 31 + db.getModCount();
+		return result;
+	}
+
+	private void checkStamp() {
+		final int curr = getStamp();
+		if (curr != stamp) {
+			cache.clear();
+			totalChars = 0;
+			stamp = curr;
+		}
+	}
+
+	synchronized String get(final String key) {
+		checkStamp();
+		return cache.get(key);
+	}
+
+	synchronized boolean contains(final String key) {
+		checkStamp();
+		return cache.containsKey(key);
+	}
+
+	synchronized void put(final String key, final String article) {
+		checkStamp();
+		final String old = cache.put(key, article);
+		if (old != null)
+			totalChars -= old.length();
+		totalChars += article.length();
+		final Iterator<String> it = cache.values().iterator();
+		while (totalChars > maxChars && it.hasNext()) {
+			totalChars -= it.next().length();
+			it.remove();
+		}
+	}
+
+}
@@ -81,6 +81,10 @@ final public class DictUtil {
 					printHelpAndExit();
 				}
 				break;
+			case "check":
+				if (!checkHeadwordIndex())
+					System.exit(1);
+				break;
 			default:
 				printHelpAndExit();
 		}
@@ -105,6 +109,7 @@ final public class DictUtil {
 		help.append("        -px\tMake PTSPED CSV (skip download if the file exists)").append(LINESEP);
 		help.append("    create\tCreate data/db").append(LINESEP);
 		help.append("        -c <tabfile>\tCreate Margaret Cone's dict DB with a tabfile").append(LINESEP);
+		help.append("    check\tCheck the head word search with built-in cases").append(LINESEP);
 		help.append("    <none>\tShow this help").append(LINESEP);
 		help.append("  Notes:").append(LINESEP);
 		help.append("    To invoke the program, the Java convention has to be used.").append(LINESEP);
@@ -206,7 +211,7 @@ final public class DictUtil {
 			reader.close();
 		}
 		// sort term and generate CSV
-		termList.sort((a, b) -> Utilities.paliCollator.compare(a.term, b.term));
+		Utilities.paliSortKeys.sort(termList, x -> x.term);
 		final List<String[]> csvOut = new ArrayList<>();
 		csvOut.add(new String[] { "id", "term", "grammar" ,"definition", "xr" });
 		int count = 0;
@@ -328,7 +333,7 @@ final public class DictUtil {
 			}
 		}
 		zip.close();
-		termList.sort((a, b) -> Utilities.paliCollator.compare(a.getFirst(), b.getFirst()));
+		Utilities.paliSortKeys.sort(termList, StringPair::getFirst);
 		final List<String[]> csvOut = new ArrayList<>();
 		csvOut.add(new String[] { "id", "term", "meaning" });
 		int count = 0;
@@ -345,6 +350,36 @@ final public class DictUtil {
 		printLog("Writng out " + ptspedCsv.getPath());
 	}
 
+	private static boolean checkHeadwordIndex() {
+		final HeadwordIndex dppn = new HeadwordIndex(DictUtilities.DictBook.DPPN, 0,
+				List.of("Ānanda", "Sāriputta", "ānandā", "Moggallāna", "Kosala"));
+		final HeadwordIndex cone = new HeadwordIndex(DictUtilities.DictBook.CONE, 0,
+				List.of("|Kosala|kosalaka", "|kusala"));
+		// query, expected result (in ID order)
+		final Object[][] cases = {
+			{ dppn, "ānanda", List.of("Ānanda") },
+			{ dppn, "ĀNANDA", List.of("Ānanda") },
+			{ dppn, "sāri%", List.of("Sāriputta") },
+			{ dppn, "%putta", List.of("Sāriputta") },
+			{ dppn, "_nand_", List.of("Ānanda", "ānandā") },
+			{ dppn, "%o%a", List.of("Moggallāna", "Kosala") },
+			{ dppn, "ko", List.of() },
+			{ cone, "KUSALA", List.of("|kusala") },
+			{ cone, "kosala%", List.of("|Kosala|kosalaka") },
+			{ cone, "k_sala%", List.of("|Kosala|kosalaka", "|kusala") },
+		};
+		int failed = 0;
+		for (final Object[] c : cases) {
+			final List<String> actual = ((HeadwordIndex)c[0]).search((String)c[1]);
+			if (!actual.equals(c[2])) {
+				failed++;
+				printLog("Failed: " + c[1] + " -> " + actual + ", expected " + c[2]);
+			}
+		}
+		printLog(String.format("%d cases, %d failed", cases.length, failed));
+		return failed == 0;
+	}
+
 	private static void createConeDB(final String tabfileName) throws Exception {
 		final File tabfile = new File(tabfileName);
 		if (!tabfile.exists()) {
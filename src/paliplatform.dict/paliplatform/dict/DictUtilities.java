@@ -67,6 +67,7 @@ final public class DictUtilities {
 	public static final Map<String, DictEntry> customDictMap = new HashMap<>();
 	public static final Map<String, List<String>> sandhiListMap = new HashMap<>();
 	private static final Gson gson = new Gson();
+	private static final int LOOKUP_BATCH_SIZE = 100;
 	public static File customDictFile;
 	public static File sandhiFile;
 	public static enum DictBook {
@@ -115,7 +116,7 @@ final public class DictUtilities {
 				.collect(Collectors.toMap(x -> x.getClass().getName(), Function.identity()));
 	}
 
-	public static void loadCPEDTerms() {
+	public static synchronized void loadCPEDTerms() {
 		if (!cpedTerms.isEmpty()) return;
 		if (!DictUtilities.dictAvailMap.get(DictUtilities.DictBook.CPED).get()) return;
 		final String select = "SELECT TERM FROM CPED ORDER BY ID;";
@@ -131,7 +132,7 @@ final public class DictUtilities {
 		Utilities.saveText(defDict, DictUtilities.customDictFile);
 	}
 
-	public static void loadCustomDict() {
+	public static synchronized void loadCustomDict() {
 		if (!DictUtilities.customDictMap.isEmpty()) return;
 		// load from the custom dict file
 		try (final Scanner in = new Scanner(new FileInputStream(DictUtilities.customDictFile), StandardCharsets.UTF_8)) {
@@ -157,7 +158,7 @@ final public class DictUtilities {
 		}
 	}
 
-	public static void updateCustomDict() {
+	public static synchronized void updateCustomDict() {
 		customDictMap.clear();
 		loadCustomDict();
 	}
@@ -170,7 +171,7 @@ final public class DictUtilities {
 		Utilities.saveText(defSandhi, DictUtilities.sandhiFile);
 	}
 
-	public static void loadSandhiList() {
+	public static synchronized void loadSandhiList() {
 		if (!sandhiListMap.isEmpty()) return;
 		// load from the sandhi rules file
 		try (final Scanner in = new Scanner(new FileInputStream(sandhiFile), StandardCharsets.UTF_8)) {
@@ -193,7 +194,7 @@ final public class DictUtilities {
 		}
 	}
 
-	public static void updateSandhiList() {
+	public static synchronized void updateSandhiList() {
 		sandhiListMap.clear();
 		loadSandhiList();
 	}
@@ -344,6 +345,9 @@ final public class DictUtilities {
 					failed.add(dic);
 			}
 		}
+		// the meaning index is rebuilt when all tables are done
+		CompletableFuture.allOf(taskMap.values().toArray(new CompletableFuture<?>[0]))
+			.thenRun(() -> MeaningIndex.prepare());
 		if (failed.isEmpty()) {
 			final String mess = "The creation is going in background,\nplease wait a moment";
 			Utilities.displayAlert(Alert.AlertType.INFORMATION, mess);
@@ -371,6 +375,7 @@ final public class DictUtilities {
 			final String index2 = "CREATE INDEX IDX_CEPDMEANING ON CEPD(MEANING);";
 			Utilities.executeSQL(Utilities.H2DB.DICT, index2);
 		}
+		Utilities.H2DB.markModified(Utilities.H2DB.DICT);
 		updateDictAvailibility();
 	}
 	
@@ -390,6 +395,7 @@ final public class DictUtilities {
 		Utilities.executeSQL(Utilities.H2DB.DICT, insert);
 		Utilities.executeSQL(Utilities.H2DB.DICT, index1);
 		Utilities.executeSQL(Utilities.H2DB.DICT, index2);
+		Utilities.H2DB.markModified(Utilities.H2DB.DICT);
 		updateDictAvailibility();
 	}
 	
@@ -411,6 +417,7 @@ final public class DictUtilities {
 		Utilities.executeSQL(Utilities.H2DB.DICT, insert);
 		Utilities.executeSQL(Utilities.H2DB.DICT, index1);
 		Utilities.executeSQL(Utilities.H2DB.DICT, index2);
+		Utilities.H2DB.markModified(Utilities.H2DB.DICT);
 		updateDictAvailibility();
 	}
 	
@@ -432,35 +439,81 @@ final public class DictUtilities {
 	
 	public static PaliWord lookUpCPEDFromDB(final String term) {
 		final PaliWord pword = new PaliWord(term);
-		final String query = "SELECT POS,PARADIGM,IN_COMPOUNDS,MEANING,SUBMEANING FROM CPED WHERE TERM = '"+term+"';";
-		final java.sql.Connection conn = Utilities.H2DB.DICT.getConnection();
+		final String query = "SELECT POS,PARADIGM,IN_COMPOUNDS,MEANING,SUBMEANING FROM CPED WHERE TERM = ?;";
+		final DBPool pool = Utilities.H2DB.DICT.getPool();
 		try {
-			if (conn != null) {
-				final Statement stmt = conn.createStatement();
-				final ResultSet rs = stmt.executeQuery(query);
-				while (rs.next()) {
-					final String para = rs.getString("PARADIGM");
-					final String pos = rs.getString("POS");
-					if (para == null) {
-						if (isGenericParadigmNeeded(pos))
-							pword.setParadigm("generic");
-					} else {
-						pword.setParadigm(para);
-					}
-					pword.addPosInfo(pos);
-					final boolean forCompounds = rs.getBoolean("IN_COMPOUNDS");
-					pword.addForCompounds(forCompounds);
-					final String meaning = rs.getString("MEANING");
-					pword.addMeaning(meaning);
-					final String submean = rs.getString("SUBMEANING");
-					pword.addSubmeaning(submean);
-				}
-				rs.close();		
-				stmt.close();
+			if (pool != null) {
+				pool.query(query, rs -> {
+					while (rs.next())
+						addCPEDRecord(pword, rs);
+					return null;
+				}, term);
 			}
 		} catch (SQLException e) {
 			System.err.println(e);
 		}
+		return fixCPEDParadigm(pword);
+	}
+
+	/**
+	 * Looks up many CPED terms with a few queries (IN lists).
+	 * Each word is the same as the one given by lookUpCPEDFromDB(term).
+	 */
+	public static Map<String, PaliWord> lookUpCPEDFromDB(final Collection<String> terms) {
+		final Map<String, PaliWord> result = new HashMap<>();
+		// TERM is compared ignoring case, records are in ID order as in the single lookup
+		final Map<String, List<PaliWord>> lowerMap = new HashMap<>();
+		for (final String t : terms) {
+			if (result.containsKey(t)) continue;
+			final PaliWord pword = new PaliWord(t);
+			result.put(t, pword);
+			lowerMap.computeIfAbsent(t.toLowerCase(), k -> new ArrayList<>()).add(pword);
+		}
+		final DBPool pool = Utilities.H2DB.DICT.getPool();
+		if (pool != null && !lowerMap.isEmpty()) {
+			final List<String> tlist = new ArrayList<>(result.keySet());
+			try (final DBPool.Lease lease = pool.lease()) {
+				for (int i = 0; i < tlist.size(); i += LOOKUP_BATCH_SIZE) {
+					final List<String> batch = tlist.subList(i, Math.min(i + LOOKUP_BATCH_SIZE, tlist.size()));
+					final String query = DBPool.inList("SELECT TERM,POS,PARADIGM,IN_COMPOUNDS,MEANING,SUBMEANING FROM CPED WHERE TERM IN ", batch.size())
+											+ " ORDER BY ID;";
+					lease.query(query, rs -> {
+						while (rs.next()) {
+							final List<PaliWord> words = lowerMap.get(rs.getString("TERM").toLowerCase());
+							if (words == null) continue;
+							for (final PaliWord pword : words)
+								addCPEDRecord(pword, rs);
+						}
+						return null;
+					}, batch.toArray());
+				}
+			} catch (SQLException e) {
+				System.err.println(e);
+			}
+		}
+		result.values().forEach(DictUtilities::fixCPEDParadigm);
+		return result;
+	}
+
+	private static void addCPEDRecord(final PaliWord pword, final ResultSet rs) throws SQLException {
+		final String para = rs.getString("PARADIGM");
+		final String pos = rs.getString("POS");
+		if (para == null) {
+			if (isGenericParadigmNeeded(pos))
+				pword.setParadigm("generic");
+		} else {
+			pword.setParadigm(para);
+		}
+		pword.addPosInfo(pos);
+		final boolean forCompounds = rs.getBoolean("IN_COMPOUNDS");
+		pword.addForCompounds(forCompounds);
+		final String meaning = rs.getString("MEANING");
+		pword.addMeaning(meaning);
+		final String submean = rs.getString("SUBMEANING");
+		pword.addSubmeaning(submean);
+	}
+
+	private static PaliWord fixCPEDParadigm(final PaliWord pword) {
 		// dealing with special cases
 		final List<String> prdm = pword.getParadigm();
 		if (prdm.size() == 1 && prdm.get(0).equals("generic")) {
@@ -478,20 +531,19 @@ final public class DictUtilities {
 
 	public static NcpedWord lookUpNCPEDFromDB(final String term) {
 		final NcpedWord nword = new NcpedWord(term);
-		final String query = "SELECT GRAMMAR,DEFINITION,XR FROM NCPED WHERE TERM = '" + term + "';";
-		final java.sql.Connection conn = Utilities.H2DB.DICT.getConnection();
+		final String query = "SELECT GRAMMAR,DEFINITION,XR FROM NCPED WHERE TERM = ?;";
+		final DBPool pool = Utilities.H2DB.DICT.getPool();
 		try {
-			if (conn != null) {
-				final Statement stmt = conn.createStatement();
-				final ResultSet rs = stmt.executeQuery(query);
-				while (rs.next()) {
-					final String g = rs.getString(1) == null ? "" : rs.getString(1).trim();
-					final String d = rs.getString(2) == null ? "" : rs.getString(2).trim();
-					final String x = rs.getString(3) == null ? "" : rs.getString(3).trim();
-					nword.addMeaning(g, d, x);
-				}
-				rs.close();		
-				stmt.close();
+			if (pool != null) {
+				pool.query(query, rs -> {
+					while (rs.next()) {
+						final String g = rs.getString(1) == null ? "" : rs.getString(1).trim();
+						final String d = rs.getString(2) == null ? "" : rs.getString(2).trim();
+						final String x = rs.getString(3) == null ? "" : rs.getString(3).trim();
+						nword.addMeaning(g, d, x);
+					}
+					return null;
+				}, term);
 			}
 		} catch (SQLException e) {
 			System.err.println(e);
@@ -501,17 +553,16 @@ final public class DictUtilities {
 	
 	public static List<String> lookUpDictFromDB(final DictBook dic, final String term) {
 		final List<String> meanings = new ArrayList<>();
-		final String query = "SELECT MEANING FROM " + dic.toString() + " WHERE TERM = '" + term + "';";
-		final java.sql.Connection conn = Utilities.H2DB.DICT.getConnection();
+		final String query = "SELECT MEANING FROM " + dic.toString() + " WHERE TERM = ?;";
+		final DBPool pool = Utilities.H2DB.DICT.getPool();
 		try {
-			if (conn != null) {
-				final Statement stmt = conn.createStatement();
-				final ResultSet rs = stmt.executeQuery(query);
-				while (rs.next()) {
-					meanings.add(rs.getString(1));
-				}
-				rs.close();		
-				stmt.close();
+			if (pool != null) {
+				pool.query(query, rs -> {
+					while (rs.next()) {
+						meanings.add(rs.getString(1));
+					}
+					return null;
+				}, term);
 			}
 		} catch (SQLException e) {
 			System.err.println(e);
@@ -521,17 +572,16 @@ final public class DictUtilities {
 
 	public static List<String> lookUpConeFromDB(final String term) {
 		final List<String> meanings = new ArrayList<>();
-		final String query = "SELECT MEANING FROM DICT WHERE TERM = '|" + term + "';";
-		final java.sql.Connection conn = Utilities.H2DB.CONE.getConnection();
+		final String query = "SELECT MEANING FROM DICT WHERE TERM = ?;";
+		final DBPool pool = Utilities.H2DB.CONE.getPool();
 		try {
-			if (conn != null) {
-				final Statement stmt = conn.createStatement();
-				final ResultSet rs = stmt.executeQuery(query);
-				while (rs.next()) {
-					meanings.add(rs.getString(1));
-				}
-				rs.close();		
-				stmt.close();
+			if (pool != null) {
+				pool.query(query, rs -> {
+					while (rs.next()) {
+						meanings.add(rs.getString(1));
+					}
+					return null;
+				}, "|" + term);
 			}
 		} catch (SQLException e) {
 			System.err.println(e);
@@ -540,63 +590,87 @@ final public class DictUtilities {
 	}
 
 	private static DpdHeadWordBase createDpdHeadWord(final ResultSet rs) throws SQLException {
-		final DpdHeadWordBase hw = new DpdHeadWordBase(rs.getString("LEMMA_1"));
-		hw.setGrammar(rs.getString("GRAMMAR"));
-		hw.setVerb(rs.getString("VERB"));
-		hw.setTrans(rs.getString("TRANS"));
-		hw.setPlusCase(rs.getString("PLUS_CASE"));
-		hw.setMeaning1(rs.getString("MEANING_1"));
-		hw.setMeaning2(rs.getString("MEANING_2"));
-		hw.setMeaningLit(rs.getString("MEANING_LIT"));
-		hw.setSanskrit(rs.getString("SANSKRIT"));
-		hw.setRootKey(rs.getString("ROOT_KEY"));
-		hw.setConstruction(rs.getString("CONSTRUCTION"));
+		return createDpdHeadWord(new String[] {
+					rs.getString("LEMMA_1"), rs.getString("GRAMMAR"), rs.getString("VERB"), rs.getString("TRANS"),
+					rs.getString("PLUS_CASE"), rs.getString("MEANING_1"), rs.getString("MEANING_2"),
+					rs.getString("MEANING_LIT"), rs.getString("SANSKRIT"), rs.getString("ROOT_KEY"),
+					rs.getString("CONSTRUCTION") });
+	}
+
+	/**
+	 * Creates a Mini-DPD head word from the fields in the order
+	 * of the table's columns after ID (as in the snapshot).
+	 */
+	private static DpdHeadWordBase createDpdHeadWord(final String[] f) {
+		final DpdHeadWordBase hw = new DpdHeadWordBase(f[0]);
+		hw.setGrammar(f[1]);
+		hw.setVerb(f[2]);
+		hw.setTrans(f[3]);
+		hw.setPlusCase(f[4]);
+		hw.setMeaning1(f[5]);
+		hw.setMeaning2(f[6]);
+		hw.setMeaningLit(f[7]);
+		hw.setSanskrit(f[8]);
+		hw.setRootKey(f[9]);
+		hw.setConstruction(f[10]);
 		return hw;
 	}
 
+	private static Map<Integer, DpdHeadWordBase> loadMDPDHeadWords(final DBPool.Lease lease, final int[] ids) throws SQLException {
+		final Map<Integer, DpdHeadWordBase> result = new HashMap<>();
+		final String select = DBPool.inList("SELECT * FROM " + Utilities.PpdpdTable.MINIDPD.toString() + " WHERE ID IN ", ids.length);
+		final Object[] params = Arrays.stream(ids).boxed().toArray();
+		lease.query(select, rs -> {
+			while (rs.next()) {
+				result.put(rs.getInt("ID"), createDpdHeadWord(rs));
+			}
+			return null;
+		}, params);
+		return result;
+	}
+
+	/**
+	 * Gets Mini-DPD head words of a term, in the order of the term's ID list.
+	 * The head words are cached, missing ones are fetched in one query.
+	 */
 	public static List<DpdHeadWordBase> lookUpMDPDFromDBWithTerm(final String term) {
-		final List<DpdHeadWordBase> result = new ArrayList<>();
-		final String selectIds = "SELECT HEADWORDS FROM " + Utilities.PpdpdTable.DICTIONARY.toString() + " WHERE TERM = '" + term + "';";
-		final java.sql.Connection conn = Utilities.H2DB.PPDPD.getConnection();
-		try {
-			if (conn != null) {
-				final Statement idStmt = conn.createStatement();
-				final ResultSet idRs = idStmt.executeQuery(selectIds);
-				if (idRs.next()) {
-					final int[] termIds = gson.fromJson(idRs.getString(1), int[].class);
-					for (final int id : termIds) {
-						final String selectHW = "SELECT * FROM " + Utilities.PpdpdTable.MINIDPD.toString() + " WHERE ID = '" + id + "';";
-						final Statement hwStmt = conn.createStatement();
-						final ResultSet hwRs = hwStmt.executeQuery(selectHW);
-						while (hwRs.next()) {
-							result.add(createDpdHeadWord(hwRs));
-						}
-						hwRs.close();		
-						hwStmt.close();
-					}
-				}
-				idRs.close();		
-				idStmt.close();
+		final DpdSnapshot snapshot = DpdSnapshot.get();
+		if (snapshot != null && snapshot.hasSection(DpdSnapshot.Section.DICT) && snapshot.hasSection(DpdSnapshot.Section.MINI)) {
+			final String[] rec = snapshot.lookup(DpdSnapshot.Section.DICT, term);
+			if (rec == null) return new ArrayList<>();
+			final int[] termIds = gson.fromJson(rec[0], int[].class);
+			final List<DpdHeadWordBase> result = new ArrayList<>(termIds.length);
+			for (final int id : termIds) {
+				final String[] fields = snapshot.lookup(DpdSnapshot.Section.MINI, id);
+				if (fields != null)
+					result.add(createDpdHeadWord(fields));
 			}
+			return result;
+		}
+		final String selectIds = "SELECT HEADWORDS FROM " + Utilities.PpdpdTable.DICTIONARY.toString() + " WHERE TERM = ?;";
+		final DBPool pool = Utilities.H2DB.PPDPD.getPool();
+		if (pool == null) return new ArrayList<>();
+		try (final DBPool.Lease lease = pool.lease()) {
+			final int[] termIds = lease.query(selectIds, rs -> rs.next() ? gson.fromJson(rs.getString(1), int[].class) : new int[0], term);
+			return DpdHeadWordCache.MINI.getAll(lease, pool, termIds, DictUtilities::loadMDPDHeadWords);
 		} catch (SQLException e) {
 			System.err.println(e);
 		}
-		return result;	
+		return new ArrayList<>();
 	}
 
 	public static List<DpdHeadWordBase> lookUpMDPDFromDBWithLemma(final String term) {
 		final List<DpdHeadWordBase> result = new ArrayList<>();
-		final String select = "SELECT * FROM " + Utilities.PpdpdTable.MINIDPD.toString() + " WHERE LEMMA_1 = '" + term + "';";
-		final java.sql.Connection conn = Utilities.H2DB.PPDPD.getConnection();
+		final String select = "SELECT * FROM " + Utilities.PpdpdTable.MINIDPD.toString() + " WHERE LEMMA_1 = ?;";
+		final DBPool pool = Utilities.H2DB.PPDPD.getPool();
 		try {
-			if (conn != null) {
-				final Statement stmt = conn.createStatement();
-				final ResultSet rs = stmt.executeQuery(select);
-				while (rs.next()) {
-					result.add(createDpdHeadWord(rs));
-				}
-				rs.close();		
-				stmt.close();
+			if (pool != null) {
+				pool.query(select, rs -> {
+					while (rs.next()) {
+						result.add(createDpdHeadWord(rs));
+					}
+					return null;
+				}, term);
 			}
 		} catch (SQLException e) {
 			System.err.println(e);
@@ -613,64 +687,99 @@ final public class DictUtilities {
 	}
 
 	public static List<String> getMeaningFromDPD(final String term) {
+		return makeDpdMeaningList(lookUpMDPDFromDBWithTerm(term));
+	}
+
+	private static List<String> makeDpdMeaningList(final List<DpdHeadWordBase> hwList) {
 		final List<String> result = new ArrayList<>();
-		final String dictTab = Utilities.PpdpdTable.DICTIONARY.toString();
-		final String mdpdTab = Utilities.PpdpdTable.MINIDPD.toString();
-		final String idSelect = "SELECT HEADWORDS FROM " + dictTab + " WHERE TERM = '" + term + "';";
-		final java.sql.Connection conn = Utilities.H2DB.PPDPD.getConnection();
-		try {
-			if (conn != null) {
-				final Statement idStmt = conn.createStatement();
-				final ResultSet idRs = idStmt.executeQuery(idSelect);
-				if (idRs.next()) {
-					final int[] termIds = gson.fromJson(idRs.getString(1), int[].class);
-					if (termIds.length > 0) {
-						String where = " WHERE ID = " + termIds[0];
-						for (int i = 1; i < termIds.length; i++) {
-							where = where + " OR ID = " + termIds[i];
-						}
-						final String mSelect = "SELECT MEANING_1,MEANING_2 FROM " + mdpdTab + where + ";";
-						final Statement mStmt = conn.createStatement();
-						final ResultSet mRs = mStmt.executeQuery(mSelect);
-						while (mRs.next()) {
-							final String mean1 = mRs.getString("MEANING_1");
-							final String mean2 = mRs.getString("MEANING_2");
-							if (DpdHeadWordBase.hasData(mean1))
-								result.add("• " + mean1);
-							else if (DpdHeadWordBase.hasData(mean2))
-								result.add("‣ " + mean2);
-						}
-						mRs.close();		
-						mStmt.close();
+		for (final DpdHeadWordBase hw : hwList) {
+			final String mean1 = hw.getMeaning1();
+			final String mean2 = hw.getMeaning2();
+			if (DpdHeadWordBase.hasData(mean1))
+				result.add("• " + mean1);
+			else if (DpdHeadWordBase.hasData(mean2))
+				result.add("‣ " + mean2);
+		}
+		return result;	
+	}
+
+	/**
+	 * Gets DPD meanings of many terms, the same as getMeaningFromDPD(term) for each.
+	 * Term lists are read with IN-list queries and all their head words are
+	 * fetched together through the head word cache.
+	 */
+	public static Map<String, List<String>> getMeaningsFromDPD(final Collection<String> terms) {
+		final Map<String, List<String>> result = new HashMap<>();
+		final DpdSnapshot snapshot = DpdSnapshot.get();
+		if (snapshot != null && snapshot.hasSection(DpdSnapshot.Section.DICT) && snapshot.hasSection(DpdSnapshot.Section.MINI)) {
+			// already in memory
+			for (final String t : terms)
+				result.computeIfAbsent(t, DictUtilities::getMeaningFromDPD);
+			return result;
+		}
+		final DBPool pool = Utilities.H2DB.PPDPD.getPool();
+		final List<String> tlist = terms.stream().distinct().collect(Collectors.toList());
+		tlist.forEach(t -> result.put(t, new ArrayList<>()));
+		if (pool == null) return result;
+		// TERM is compared ignoring case
+		final Map<String, List<String>> lowerMap = new HashMap<>();
+		for (final String t : tlist)
+			lowerMap.computeIfAbsent(t.toLowerCase(), k -> new ArrayList<>()).add(t);
+		final String selectPrefix = "SELECT TERM,HEADWORDS FROM " + Utilities.PpdpdTable.DICTIONARY.toString() + " WHERE TERM IN ";
+		try (final DBPool.Lease lease = pool.lease()) {
+			for (int i = 0; i < tlist.size(); i += LOOKUP_BATCH_SIZE) {
+				final List<String> batch = tlist.subList(i, Math.min(i + LOOKUP_BATCH_SIZE, tlist.size()));
+				final Map<String, int[]> idMap = lease.query(DBPool.inList(selectPrefix, batch.size()), rs -> {
+					final Map<String, int[]> map = new HashMap<>();
+					while (rs.next()) {
+						final List<String> found = lowerMap.get(rs.getString(1).toLowerCase());
+						if (found == null) continue;
+						final int[] ids = gson.fromJson(rs.getString(2), int[].class);
+						for (final String t : found)
+							map.putIfAbsent(t, ids);
 					}
+					return map;
+				}, batch.toArray());
+				final int[] allIds = idMap.values().stream().flatMapToInt(Arrays::stream).distinct().toArray();
+				final Map<Integer, DpdHeadWordBase> hwMap = DpdHeadWordCache.MINI.getMap(lease, pool, allIds, DictUtilities::loadMDPDHeadWords);
+				for (final Map.Entry<String, int[]> entry : idMap.entrySet()) {
+					final List<DpdHeadWordBase> hwList = new ArrayList<>();
+					for (final int id : entry.getValue()) {
+						final DpdHeadWordBase hw = hwMap.get(id);
+						if (hw != null)
+							hwList.add(hw);
+					}
+					result.put(entry.getKey(), makeDpdMeaningList(hwList));
 				}
-				idRs.close();		
-				idStmt.close();
 			}
 		} catch (SQLException e) {
 			System.err.println(e);
 		}
-		return result;	
+		return result;
 	}
 
 	public static List<String> getDeconFromDPD(final String term) {
 		final List<String> result = new ArrayList<>();
+		final DpdSnapshot snapshot = DpdSnapshot.get();
+		if (snapshot != null && snapshot.hasSection(DpdSnapshot.Section.DECON)) {
+			final String[] rec = snapshot.lookup(DpdSnapshot.Section.DECON, term);
+			if (rec != null)
+				result.addAll(Arrays.asList(rec));
+			return result;
+		}
 		final String deconTab = Utilities.PpdpdTable.DECONSTRUCTOR.toString();
-		final String select = "SELECT DECON FROM " + deconTab + " WHERE TERM = '" + term + "';";
-		final java.sql.Connection conn = Utilities.H2DB.PPDPD.getConnection();
+		final String select = "SELECT DECON FROM " + deconTab + " WHERE TERM = ?;";
+		final DBPool pool = Utilities.H2DB.PPDPD.getPool();
 		try {
-			if (conn != null) {
-				final Statement stmt = conn.createStatement();
-				final ResultSet rs = stmt.executeQuery(select);
-				if (rs.next()) {
-					final String[] arr = gson.fromJson(rs.getString(1), String[].class);
-					if (arr.length > 0) {
+			if (pool != null) {
+				pool.query(select, rs -> {
+					if (rs.next()) {
+						final String[] arr = gson.fromJson(rs.getString(1), String[].class);
 						for (final String dc : arr)
 							result.add(dc);
 					}
-				}
-				rs.close();		
-				stmt.close();
+					return null;
+				}, term);
 			}
 		} catch (SQLException e) {
 			System.err.println(e);
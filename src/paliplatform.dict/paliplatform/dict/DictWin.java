@@ -24,6 +24,9 @@ import paliplatform.base.*;
 
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javafx.scene.control.*;
 import javafx.application.Platform;
@@ -35,6 +38,10 @@ import javafx.application.Platform;
  * @since 2.0
  */
 public class DictWin extends DictWinBase {
+	static final int PRERENDER_COUNT = 20;
+	private static final Pattern PTSD_HREF = Pattern.compile("href=[^>]*");
+	private static final ArticleCache articleCache = new ArticleCache(ArticleCache.DEF_MAX_CHARS);
+	private final AtomicLong prerenderGen = new AtomicLong();
 
 	public DictWin(final Object[] args) {
 		// initialization
@@ -69,6 +76,7 @@ public class DictWin extends DictWinBase {
 				dictCBMap.get(db).setSelected(true);
 			}
 		}
+		HeadwordIndex.prepare(dictSet);
 		htmlViewer.setContent(Utilities.makeHTML(""));
 		if (args != null) {
 			final String term = (String)args[0];
@@ -105,12 +113,12 @@ public class DictWin extends DictWinBase {
 	}
 
 	@Override
-	public void search(final String query) {
-		resultMap.clear();
-		// remove single qoute causing SQL error
-		final String properQuery = query.replace("'", "");
-		String termQuery = properQuery;
-		if (useWildcards.get()) {
+	public SearchResult search(final SearchRequest request, final SearchPipeline.Ticket ticket) {
+		final String query = request.getQuery();
+		final List<Object> books = request.getBooks();
+		final SearchResult result = new SearchResult();
+		String termQuery = query;
+		if (request.useWildcards()) {
 			if (termQuery.indexOf('?') >= 0)
 				termQuery = termQuery.replace("?", "_");
 			if (termQuery.indexOf('*') >= 0)
@@ -119,74 +127,135 @@ public class DictWin extends DictWinBase {
 			final int pCount = Utilities.charCount(termQuery, '%');
 			// just * or a sheer combination of ? and * is not allowed
 			if (termQuery.length() == 0 || (pCount > 0 && pCount + uCount == termQuery.length()))
-				return;
+				return null;
 		}
-		for (final Object book : dictSet) {
-			final DictBook dicBook = (DictBook)book;
-			final String orderBy = "ORDER BY ID;";
-			final String tail = useWildcards.get() ? "' " + orderBy : "%' " + orderBy;
-			String dbQuery = dicBook == DictBook.MDPD
-							? "SELECT TERM FROM " + Utilities.PpdpdTable.DICTIONARY.toString() + " WHERE TERM LIKE '" + termQuery + tail
-							: dicBook == DictBook.CONE
-								? "SELECT TERM FROM DICT WHERE TERM LIKE '%|" + termQuery + tail
-								: "SELECT TERM FROM " + dicBook.toString() + " WHERE TERM LIKE '" + termQuery + tail;
-			if (inMeaning.get()) {
-				if (dicBook == DictBook.CPED) {
-					dbQuery = "SELECT TERM FROM CPED WHERE MEANING LIKE '%" + properQuery + "%' " +
-							"OR SUBMEANING LIKE '%" + properQuery + "%' OR POS LIKE '%" + properQuery + "%' " +
-							"ORDER BY ID;";
-				} else if (dicBook == DictBook.MDPD) {
-					dbQuery = "SELECT LEMMA_1 FROM " + Utilities.PpdpdTable.MINIDPD.toString() +
-							" WHERE MEANING_1 LIKE '%" + properQuery + "%' " +
-							"OR MEANING_2 LIKE '%" + properQuery + "%' OR MEANING_LIT LIKE '%" + properQuery + "%' " +
-							"ORDER BY ID;";
-				} else if (dicBook == DictBook.CONE) {
-					dbQuery = "SELECT TERM FROM DICT WHERE MEANING LIKE '%" + properQuery + "%' ORDER BY ID;";
+		// terms are searched in the in-memory head word index,
+		// meanings are searched in the full-text index (ranked) if it is ready,
+		// otherwise in the DB with bound parameters, and the user is told so
+		final String termPatt = request.useWildcards() ? termQuery : termQuery + "%";
+		final String meaningPatt = "%" + query + "%";
+		final MeaningIndex meaningIndex = request.inMeaning() ? MeaningIndex.get() : null;
+		if (meaningIndex != null) {
+			for (final StringPair hit : meaningIndex.search(query, books))
+				addResult(result, hit.getFirst(), DictBook.valueOf(hit.getSecond()));
+		} else {
+			for (final Object book : books) {
+				if (ticket.isCancelled())
+					return null;
+				final DictBook dicBook = (DictBook)book;
+				final String orderBy = " ORDER BY ID;";
+				final Collection<String> results;
+				if (request.inMeaning()) {
+					final String dbQuery;
+					final Object[] params;
+					if (dicBook == DictBook.CPED) {
+						dbQuery = "SELECT TERM FROM CPED WHERE MEANING LIKE ? OR SUBMEANING LIKE ? OR POS LIKE ?" + orderBy;
+						params = new Object[] { meaningPatt, meaningPatt, meaningPatt };
+					} else if (dicBook == DictBook.MDPD) {
+						dbQuery = "SELECT LEMMA_1 FROM " + Utilities.PpdpdTable.MINIDPD.toString() +
+								" WHERE MEANING_1 LIKE ? OR MEANING_2 LIKE ? OR MEANING_LIT LIKE ?" + orderBy;
+						params = new Object[] { meaningPatt, meaningPatt, meaningPatt };
+					} else if (dicBook == DictBook.CONE) {
+						dbQuery = "SELECT TERM FROM DICT WHERE MEANING LIKE ?" + orderBy;
+						params = new Object[] { meaningPatt };
+					} else {
+						final String mfield = dicBook == DictBook.NCPED ? "DEFINITION" : "MEANING";
+						// make 2 queries, all lowercase and title case
+						final String titleQuery = Character.toUpperCase(query.charAt(0)) + query.substring(1);
+						dbQuery = "SELECT TERM FROM " + dicBook.toString() + 
+								" WHERE " + mfield + " LIKE ? OR " + mfield + " LIKE ?" + orderBy;
+						params = new Object[] { meaningPatt, "%" + titleQuery + "%" };
+					}
+					results = dicBook == DictBook.MDPD
+								? Utilities.getFirstColumnFromDB(Utilities.H2DB.PPDPD, dbQuery, params)
+								: dicBook == DictBook.CONE
+									? Utilities.getFirstColumnFromDB(Utilities.H2DB.CONE, dbQuery, params)
+									: Utilities.getFirstColumnFromDB(Utilities.H2DB.DICT, dbQuery, params);
 				} else {
-					final String mfield = dicBook == DictBook.NCPED ? "DEFINITION" : "MEANING";
-					// make 2 queries, all lowercase and title case
-					final String[] inMQuery = { properQuery, Character.toUpperCase(properQuery.charAt(0)) + properQuery.substring(1) };
-					dbQuery = "SELECT TERM FROM " + dicBook.toString() + 
-							" WHERE " + mfield + " LIKE '%" + inMQuery[0] + "%' OR " + mfield + " LIKE '%" + inMQuery[1] +
-							"%' ORDER BY ID;";
+					final HeadwordIndex index = HeadwordIndex.get(dicBook);
+					results = index == null ? Collections.emptyList() : index.search(termPatt);
 				}
-			}
-			final Set<String> results = dicBook == DictBook.MDPD
-										? Utilities.getFirstColumnFromDB(Utilities.H2DB.PPDPD, dbQuery)
-										: dicBook == DictBook.CONE
-											? Utilities.getFirstColumnFromDB(Utilities.H2DB.CONE, dbQuery)
-											: Utilities.getFirstColumnFromDB(Utilities.H2DB.DICT, dbQuery);
-			for (final String term : results) {
-				final String termOK = term.startsWith("|") ? term.substring(1) : term;
-				final ArrayList<Object> dList;
-				if (resultMap.containsKey(termOK))
-					dList = resultMap.get(termOK);
-				else
-					dList = new ArrayList<>();
-				dList.add(dicBook);
-				resultMap.put(termOK, dList);
-			}
-		} // end for
-		if (dictSet.size() > 1)
-			resultList.setAll(resultMap.keySet().stream().sorted(Utilities.paliComparator).collect(Collectors.toList()));
-		else
-			resultList.setAll(resultMap.keySet());
-		resultListView.scrollTo(0);
-		if (!resultList.isEmpty()) {
-			showResult(resultList.get(0));
-			showMessage(resultList.size() + " found");
-			initialStringToLocate = inMeaning.get() ? properQuery : "";
+				for (final String term : results)
+					addResult(result, term, dicBook);
+			} // end for
+		}
+		ticket.mark("query");
+		if (books.size() > 1 && meaningIndex == null) {
+			final List<String> terms = new ArrayList<>(result.getTerms());
+			Utilities.paliSortKeys.sort(terms);
+			result.setList(terms);
 		}
+		ticket.mark("merge");
+		if (request.inMeaning() && meaningIndex == null)
+			result.setNote("plain text match, the meaning index is being built");
+		result.setStringToLocate(request.inMeaning() ? query : "");
+		return result;
+	}
+
+	private static void addResult(final SearchResult result, final String term, final DictBook dicBook) {
+		final String termOK = term.startsWith("|") ? term.substring(1) : term;
+		result.add(termOK, dicBook);
 	}
 
 	@Override
 	public void showResult(final String term) {
+		final List<Object> books = resultMap.get(term);
+		if (books == null) return;
+		final boolean meaningMode = inMeaning.get();
+		final List<DictBook> dicts = sortBooks(books);
+		final String key = ArticleCache.makeKey(term, dicts, meaningMode);
+		String article = articleCache.get(key);
+		if (article == null) {
+			article = renderArticle(term, dicts, meaningMode);
+			articleCache.put(key, article);
+		}
+		htmlViewer.setContent(Utilities.makeHTML(article));
+		prerenderAfter(term, meaningMode);
+	}
+
+	private static List<DictBook> sortBooks(final List<Object> books) {
+		return books.stream()
+					.map(x -> (DictBook)x)
+					.sorted(Comparator.comparing(x -> x.ordinal()))
+					.collect(Collectors.toCollection(ArrayList::new));
+	}
+
+	/**
+	 * Renders articles of the next entries in the result list in background,
+	 * so that moving down the list is served from the cache. A newer request
+	 * supersedes the older one still running.
+	 */
+	private void prerenderAfter(final String term, final boolean meaningMode) {
+		final int index = resultList.indexOf(term);
+		if (index < 0) return;
+		final int end = Math.min(resultList.size(), index + 1 + PRERENDER_COUNT);
+		final List<String> terms = new ArrayList<>(end - index);
+		final List<List<DictBook>> bookLists = new ArrayList<>(end - index);
+		for (int i = index + 1; i < end; i++) {
+			final String t = resultList.get(i);
+			final List<Object> books = resultMap.get(t);
+			if (books == null) continue;
+			terms.add(t);
+			bookLists.add(sortBooks(books));
+		}
+		if (terms.isEmpty()) return;
+		final long gen = prerenderGen.incrementAndGet();
+		CompletableFuture.runAsync(() -> {
+			for (int i = 0; i < terms.size(); i++) {
+				if (gen != prerenderGen.get()) return;
+				final String key = ArticleCache.makeKey(terms.get(i), bookLists.get(i), meaningMode);
+				if (!articleCache.contains(key))
+					articleCache.put(key, renderArticle(terms.get(i), bookLists.get(i), meaningMode));
+			}
+		}, Utilities.threadPool);
+	}
+
+	/**
+	 * Renders the article (HTML body) of a term from the given dictionaries,
+	 * this does not touch the UI and can run in any thread.
+	 */
+	private String renderArticle(final String term, final List<DictBook> dicts, final boolean meaningMode) {
 		final StringBuilder result = new StringBuilder();
-		final ArrayList<DictBook> dicts = resultMap.get(term).stream()
-										.map(x -> (DictBook)x)
-										.sorted(Comparator.comparing(x -> x.ordinal()))
-										.collect(Collectors.toCollection(ArrayList::new));
-		if (dicts == null) return;
 		// show head word
 		result.append("<h1>").append(term).append("</h1>");
 		for (int i = 0; i < dicts.size(); i++) {
@@ -197,7 +266,7 @@ public class DictWin extends DictWinBase {
 			} else if (db == DictBook.NCPED) {
 				result.append(DictUtilities.formatNCPEDMeaning(DictUtilities.lookUpNCPEDFromDB(term)));
 			} else if (db == DictBook.MDPD) {
-				if (inMeaning.get()) {
+				if (meaningMode) {
 					// search in minidpd with lemma_1
 					result.append(DictUtilities.formatMDPDMeaning(DictUtilities.lookUpMDPDFromDBWithLemma(term)));
 				} else {
@@ -209,7 +278,7 @@ public class DictWin extends DictWinBase {
 									? getConeResultArticle(DictUtilities.lookUpConeFromDB(term))
 									: getResultArticle(DictUtilities.lookUpDictFromDB(db, term));
 				if (db == DictBook.PTSD)
-					result.append(res.replaceAll("href=[^>]*", ""));
+					result.append(PTSD_HREF.matcher(res).replaceAll(""));
 				else if (db == DictBook.DPPN)
 					result.append(res.replace("<hr>", ""));
 				else
@@ -218,7 +287,7 @@ public class DictWin extends DictWinBase {
 			if (i < dicts.size() - 1)
 				result.append("<div class=hrule></div><p></p>");
 		}
-		htmlViewer.setContent(Utilities.makeHTML(result.toString()));
+		return result.toString();
 	}
 
 	private String getCPEDArticle(final PaliWord item) {
@@ -0,0 +1,215 @@
+/*
+ * HeadwordIndex.java
+ *
+ * Copyright (C) 2023-2026 J. R. Bhaddacak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see https://www.gnu.org/licenses/.
+ */
+
+package paliplatform.dict;
+
+import paliplatform.dict.DictUtilities.DictBook;
+import paliplatform.base.*;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The in-memory head word index of a dictionary, used for term search
+ * instead of SQL LIKE. Terms are loaded once in ID order, and search keys
+ * are kept in a sorted array, so a search with a literal prefix is a binary
+ * search followed by a short scan. Patterns use SQL LIKE syntax (% and _).
+ * In CONE, a term may contain several forms separated by |, so every
+ * position after | is a key (as LIKE '%|x%' does). The index is rebuilt
+ * when the tables of its database are recreated. Like the IGNORECASE
+ * database it replaces, matching is case-insensitive; keys and patterns
+ * are case-folded, while the terms are returned as stored.
+ * @author J.R. Bhaddacak
+ * @version 4.1
+ * @since 4.1
+ */
+final class HeadwordIndex {
+	private static final Map<DictBook, HeadwordIndex> indexMap = new EnumMap<>(DictBook.class);
+	private final int modCount;
+	private final String[] terms; // in ID order
+	private final String[] keys; // sorted
+	private final int[] keyTerms; // term index of each key
+
+	HeadwordIndex(final DictBook dic, final int modCount, final Collection<String> termList) {
+		this.modCount = modCount;
+		terms = termList.toArray(new String[0]);
+		final List<Map.Entry<String, Integer>> keyList = new ArrayList<>(terms.length);
+		for (int i = 0; i < terms.length; i++) {
+			final String t = fold(terms[i]);
+			if (dic == DictBook.CONE) {
+				for (int p = t.indexOf('|'); p >= 0; p = t.indexOf('|', p + 1))
+					keyList.add(new AbstractMap.SimpleImmutableEntry<>(t.substring(p + 1), i));
+			} else {
+				keyList.add(new AbstractMap.SimpleImmutableEntry<>(t, i));
+			}
+		}
+		keyList.sort(Map.Entry.comparingByKey());
+		keys = new String[keyList.size()];
+		keyTerms = new int[keyList.size()];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = keyList.get(i).getKey();
+			keyTerms[i] = keyList.get(i).getValue();
+		}
+	}
+
+	private static Utilities.H2DB getDB(final DictBook dic) {
+		return dic == DictBook.MDPD
+				? Utilities.H2DB.PPDPD
+				: dic == DictBook.CONE
+					? Utilities.H2DB.CONE
+					: Utilities.H2DB.DICT;
+	}
+
+	private static String getTable(final DictBook dic) {
+		return dic == DictBook.MDPD
+				? Utilities.PpdpdTable.DICTIONARY.toString()
+				: dic == DictBook.CONE
+					? "DICT"
+					: dic.toString();
+	}
+
+	/**
+	 * Gets the index of a dictionary, it is built or rebuilt if needed.
+	 * Null is returned if the database is not available.
+	 */
+	static HeadwordIndex get(final DictBook dic) {
+		final Utilities.H2DB db = getDB(dic);
+		if (db.getPool() == null)
+			return null;
+		synchronized (indexMap) {
+			final int currModCount = db.getModCount();
+			HeadwordIndex index = indexMap.get(dic);
+			if (index == null || index.modCount != currModCount) {
+				final Set<String> termSet = Utilities.getFirstColumnFromDB(db, "SELECT TERM FROM " + getTable(dic) + " ORDER BY ID;");
+				index = new HeadwordIndex(dic, currModCount, termSet);
+				indexMap.put(dic, index);
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * Builds indices of the given dictionaries in background.
+	 */
+	static void prepare(final Collection<? extends Object> dicts) {
+		final List<DictBook> list = new ArrayList<>();
+		for (final Object d : dicts)
+			list.add((DictBook)d);
+		CompletableFuture.runAsync(() -> list.forEach(HeadwordIndex::get), Utilities.threadPool);
+	}
+
+	/**
+	 * Finds terms matching a LIKE pattern, the result is in ID order.
+	 */
+	List<String> search(final String query) {
+		final String pattern = fold(query);
+		final int wild = indexOfWildcard(pattern);
+		final String prefix = wild < 0 ? pattern : pattern.substring(0, wild);
+		final BitSet found = new BitSet(terms.length);
+		int start = 0;
+		int end = keys.length;
+		if (!prefix.isEmpty()) {
+			start = lowerBound(prefix);
+			end = start;
+			while (end < keys.length && keys[end].startsWith(prefix))
+				end++;
+		}
+		if (wild < 0) {
+			// exact match
+			for (int i = start; i < end; i++) {
+				if (keys[i].length() == prefix.length())
+					found.set(keyTerms[i]);
+			}
+		} else if (wild == pattern.length() - 1 && pattern.charAt(wild) == '%') {
+			// pure prefix
+			for (int i = start; i < end; i++)
+				found.set(keyTerms[i]);
+		} else {
+			for (int i = start; i < end; i++) {
+				if (!found.get(keyTerms[i]) && likeMatch(keys[i], prefix.length(), pattern, prefix.length()))
+					found.set(keyTerms[i]);
+			}
+		}
+		final List<String> result = new ArrayList<>(found.cardinality());
+		for (int i = found.nextSetBit(0); i >= 0; i = found.nextSetBit(i + 1))
+			result.add(terms[i]);
+		return result;
+	}
+
+	private int lowerBound(final String key) {
+		int lo = 0;
+		int hi = keys.length;
+		while (lo < hi) {
+			final int mid = (lo + hi) >>> 1;
+			if (keys[mid].compareTo(key) < 0)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+
+	/**
+	 * Folds the case of each character, as H2 compares with IGNORECASE.
+	 * The length is kept, so positions in a key are those in its term.
+	 */
+	static String fold(final String text) {
+		final char[] chars = text.toCharArray();
+		for (int i = 0; i < chars.length; i++)
+			chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+		return new String(chars);
+	}
+
+	private static int indexOfWildcard(final String pattern) {
+		for (int i = 0; i < pattern.length(); i++) {
+			final char ch = pattern.charAt(i);
+			if (ch == '%' || ch == '_')
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Matches a text against a LIKE pattern (% for any string, _ for any character).
+	 */
+	static boolean likeMatch(final String text, final int tStart, final String pattern, final int pStart) {
+		int t = tStart;
+		int p = pStart;
+		int starP = -1;
+		int starT = -1;
+		while (t < text.length()) {
+			if (p < pattern.length() && (pattern.charAt(p) == '_' || pattern.charAt(p) == text.charAt(t))
+					&& pattern.charAt(p) != '%') {
+				t++;
+				p++;
+			} else if (p < pattern.length() && pattern.charAt(p) == '%') {
+				starP = p++;
+				starT = t;
+			} else if (starP >= 0) {
+				p = starP + 1;
+				t = ++starT;
+			} else {
+				return false;
+			}
+		}
+		while (p < pattern.length() && pattern.charAt(p) == '%')
+			p++;
+		return p == pattern.length();
+	}
+
+}
@@ -0,0 +1,239 @@
+/*
+ * MeaningIndex.java
+ *
+ * Copyright (C) 2023-2026 J. R. Bhaddacak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see https://www.gnu.org/licenses/.
+ */
+
+package paliplatform.dict;
+
+import paliplatform.dict.DictUtilities.DictBook;
+import paliplatform.base.*;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.io.IOException;
+import java.sql.SQLException;
+
+import javafx.beans.property.SimpleBooleanProperty;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+
+/**
+ * The in-memory full-text index of dictionary meanings, used for
+ * searching in meaning (English to Pāli). Meanings are analyzed with
+ * English stemming, and the query supports phrases ("...") and other
+ * Lucene query syntax. All hits are returned, ordered by relevance.
+ * The index is built in background when the dictionary data are created
+ * or when first needed, until then the caller should use SQL instead
+ * and tell the user that the result is only a plain text match.
+ * It is rebuilt when the tables of a database are recreated.
+ * @author J.R. Bhaddacak
+ * @version 4.1
+ * @since 4.1
+ */
+final class MeaningIndex {
+	private static final int PAGE_SIZE = 2000;
+	private static final String F_BOOK = "book";
+	private static final String F_TERM = "term";
+	private static final String F_MEANING = "meaning";
+	private static final Utilities.H2DB[] DBS = { Utilities.H2DB.DICT, Utilities.H2DB.CONE, Utilities.H2DB.PPDPD };
+	private static final AtomicBoolean building = new AtomicBoolean(false);
+	private static volatile MeaningIndex current;
+	private final int[] modCounts;
+	private final Analyzer analyzer;
+	private final IndexSearcher searcher;
+
+	private MeaningIndex(final int[] modCounts, final Analyzer analyzer, final Directory directory) throws IOException {
+		this.modCounts = modCounts;
+		this.analyzer = analyzer;
+		searcher = new IndexSearcher(DirectoryReader.open(directory));
+	}
+
+	private static int[] getModCounts() {
+		final int[] result = new int[DBS.length];
+		for (int i = 0; i < DBS.length; i++)
+			result[i] = DBS[i].getModCount();
+		return result;
+	}
+
+	/**
+	 * Gets the index if it is ready and up to date, otherwise
+	 * null is returned and the index is (re)built in background.
+	 */
+	static MeaningIndex get() {
+		final MeaningIndex index = current;
+		if (index != null && Arrays.equals(index.modCounts, getModCounts()))
+			return index;
+		prepare();
+		return null;
+	}
+
+	/**
+	 * Builds the index in background, if it is not being built.
+	 */
+	static void prepare() {
+		if (!building.compareAndSet(false, true))
+			return;
+		CompletableFuture.runAsync(() -> {
+			try {
+				// the old index is left to GC, it may still be in use
+				current = build();
+			} catch (IOException e) {
+				System.err.println(e);
+			} finally {
+				building.set(false);
+			}
+		}, Utilities.threadPool);
+	}
+
+	private static MeaningIndex build() throws IOException {
+		final int[] modCounts = getModCounts();
+		final Analyzer analyzer = new EnglishAnalyzer();
+		final Directory directory = new ByteBuffersDirectory();
+		try (final IndexWriter iwriter = new IndexWriter(directory, new IndexWriterConfig(analyzer))) {
+			for (final DictBook dic : DictBook.books) {
+				final SimpleBooleanProperty avail = DictUtilities.dictAvailMap.get(dic);
+				if (avail == null || !avail.get()) continue;
+				addBook(iwriter, dic);
+			}
+		}
+		return new MeaningIndex(modCounts, analyzer, directory);
+	}
+
+	private static void addBook(final IndexWriter iwriter, final DictBook dic) {
+		final String select;
+		final Utilities.H2DB db;
+		switch (dic) {
+			case CPED:
+				select = "SELECT TERM,MEANING,SUBMEANING,POS FROM CPED ORDER BY ID;";
+				db = Utilities.H2DB.DICT;
+				break;
+			case NCPED:
+				select = "SELECT TERM,DEFINITION FROM NCPED ORDER BY ID;";
+				db = Utilities.H2DB.DICT;
+				break;
+			case MDPD:
+				select = "SELECT LEMMA_1,MEANING_1,MEANING_2,MEANING_LIT FROM " + Utilities.PpdpdTable.MINIDPD.toString() + " ORDER BY ID;";
+				db = Utilities.H2DB.PPDPD;
+				break;
+			case CONE:
+				select = "SELECT TERM,MEANING FROM DICT ORDER BY ID;";
+				db = Utilities.H2DB.CONE;
+				break;
+			default:
+				select = "SELECT TERM,MEANING FROM " + dic.toString() + " ORDER BY ID;";
+				db = Utilities.H2DB.DICT;
+		}
+		final DBPool pool = db.getPool();
+		if (pool == null) return;
+		final String book = dic.toString();
+		try {
+			pool.query(select, rs -> {
+				final int colCount = rs.getMetaData().getColumnCount();
+				final StringBuilder meaning = new StringBuilder();
+				try {
+					while (rs.next()) {
+						meaning.setLength(0);
+						for (int i = 2; i <= colCount; i++) {
+							final String m = rs.getString(i);
+							if (m != null)
+								meaning.append(Utilities.removeTags(m)).append('\n');
+						}
+						if (meaning.length() == 0) continue;
+						final Document doc = new Document();
+						doc.add(new StringField(F_BOOK, book, Field.Store.YES));
+						doc.add(new StoredField(F_TERM, rs.getString(1)));
+						doc.add(new TextField(F_MEANING, meaning.toString(), Field.Store.NO));
+						iwriter.addDocument(doc);
+					}
+				} catch (IOException e) {
+					throw new SQLException(e);
+				}
+				return null;
+			});
+		} catch (SQLException e) {
+			System.err.println(e);
+		}
+	}
+
+	/**
+	 * Searches meanings in the given books. The result is a list of
+	 * (term, book) pairs in relevance order.
+	 */
+	List<StringPair> search(final String strQuery, final Collection<? extends Object> books) {
+		final List<StringPair> result = new ArrayList<>();
+		final QueryParser parser = new QueryParser(F_MEANING, analyzer);
+		parser.setDefaultOperator(QueryParser.Operator.AND);
+		Query textQuery;
+		try {
+			textQuery = parser.parse(strQuery);
+		} catch (ParseException e) {
+			try {
+				textQuery = parser.parse(QueryParser.escape(strQuery));
+			} catch (ParseException ex) {
+				return result;
+			}
+		}
+		final BooleanQuery.Builder bookFilter = new BooleanQuery.Builder();
+		for (final Object b : books)
+			bookFilter.add(new TermQuery(new Term(F_BOOK, b.toString())), BooleanClause.Occur.SHOULD);
+		final Query query = new BooleanQuery.Builder()
+								.add(textQuery, BooleanClause.Occur.MUST)
+								.add(bookFilter.build(), BooleanClause.Occur.FILTER)
+								.build();
+		try {
+			// collect hits page by page, so that nothing is cut off
+			ScoreDoc last = null;
+			while (true) {
+				final TopDocs page = last == null
+									? searcher.search(query, PAGE_SIZE)
+									: searcher.searchAfter(last, query, PAGE_SIZE);
+				final ScoreDoc[] hits = page.scoreDocs;
+				for (final ScoreDoc hit : hits) {
+					final Document doc = searcher.storedFields().document(hit.doc);
+					result.add(new StringPair(doc.get(F_TERM), doc.get(F_BOOK)));
+				}
+				if (hits.length < PAGE_SIZE) break;
+				last = hits[hits.length - 1];
+			}
+		} catch (IOException e) {
+			System.err.println(e);
+		}
+		return result;
+	}
+
+}
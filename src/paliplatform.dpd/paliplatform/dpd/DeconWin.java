@@ -314,6 +314,8 @@ public class DeconWin extends SingletonWindow {
 								: true;
 		if (!proceed) return;
 		isCreating.set(true);
+		// the snapshot is made from the old tables
+		DpdSnapshot.discard();
 		progressBar.setProgress(0);
 		final Task<Boolean> buildTask = new Task<Boolean>() {
 			@Override
@@ -334,7 +336,8 @@ public class DeconWin extends SingletonWindow {
 							final StringPair pair = new StringPair(deconRes.getString("lookup_key"),
 																	deconRes.getString("deconstructor"));
 							dlist.add(pair);
-							updateProgress(++count, total);
+							if (BulkInserter.isProgressDue(++count, total))
+								updateProgress(count, total);
 						}
 						// sort the list
 						total = dlist.size();
@@ -342,37 +345,41 @@ public class DeconWin extends SingletonWindow {
 						MainProperties.INSTANCE.saveSettings();
 						updateMessage(String.format("Sorting %,d records... (please wait)", total));
 						updateProgress(-1, -1);
-						dlist.sort((a, b) -> Utilities.paliCollator.compare(a.getFirst(), b.getFirst()));
+						Utilities.paliSortKeys.sort(dlist, StringPair::getFirst);
 						// create a table in PP-DPD
 						final String tabName = Utilities.PpdpdTable.DECONSTRUCTOR.toString();
 						final String delete = "DROP TABLE IF EXISTS " + tabName + ";";
 						Utilities.executeSQL(ppdpdConn, delete);
 						final String create = "CREATE TABLE " + tabName + " (" +
 							"ID INT PRIMARY KEY," +
-							"TERM VARCHAR(255) UNIQUE," +
+							"TERM VARCHAR(255)," +
 							"DECON VARCHAR);";
 						Utilities.executeSQL(ppdpdConn, create);
 						final String insert = "INSERT INTO " + tabName + " VALUES(?, ?, ?);";
-						final PreparedStatement pstm = ppdpdConn.prepareStatement(insert);
-						count = 0;
 						updateMessage(String.format("Creating table of %,d records...", total));
-						for (final StringPair p : dlist) {
-							count++;
-							pstm.setInt(1, count);
-							pstm.setString(2, p.getFirst());
-							pstm.setString(3, p.getSecond());
-							pstm.executeUpdate();
-							updateProgress(count, total);
+						final NgramIndex.Builder gramBuilder = new NgramIndex.Builder();
+						try (final BulkInserter inserter = new BulkInserter(ppdpdConn, insert)) {
+							for (final StringPair p : dlist) {
+								final int id = inserter.getCount() + 1;
+								inserter.add(id, p.getFirst(), p.getSecond());
+								gramBuilder.add(id, p.getFirst(), p.getSecond());
+								if (BulkInserter.isProgressDue(inserter.getCount(), total))
+									updateProgress(inserter.getCount(), total);
+							}
+							inserter.complete();
 						}
-						pstm.close();
 						deconRes.close();
 						dpdStmt.close();
 						updateMessage("Creating index... (please wait)");
 						updateProgress(-1, -1);
-						final String index = "CREATE INDEX IDX_" + tabName + " ON " + tabName + "(TERM);";
-						Utilities.executeSQL(ppdpdConn, index);
+						BulkInserter.createIndex(ppdpdConn, tabName, "TERM", true);
+						updateMessage("Creating search index... (please wait)");
+						gramBuilder.write(ppdpdConn, tabName);
+						Utilities.H2DB.markModified(Utilities.H2DB.PPDPD);
 					}
 				} catch (SQLException e) {
+					// the table may have been dropped
+					Utilities.H2DB.markModified(Utilities.H2DB.PPDPD);
 					System.err.println(e);
 				}
 				Platform.runLater(() -> {
@@ -395,6 +402,12 @@ public class DeconWin extends SingletonWindow {
 
 	private List<StringPair> getDeconFromDB(final String query) {
 		final SearchMethod method = (SearchMethod)searchMethodGroup.getSelectedToggle().getUserData();
+		final String tabName = Utilities.PpdpdTable.DECONSTRUCTOR.toString();
+		if (method != SearchMethod.TERM_START && NgramIndex.isApplicable(query)) {
+			final List<StringPair> indexed = NgramIndex.search(tabName, "DECON", query, method == SearchMethod.BOTH_WITHIN, maxRowCount);
+			if (indexed != null)
+				return indexed;
+		}
 		final List<StringPair> result = new ArrayList<>();
 		try {
 			final java.sql.Connection ppdpdConn = Utilities.H2DB.PPDPD.getConnection();
@@ -409,7 +422,6 @@ public class DeconWin extends SingletonWindow {
 				else
 					where = "WHERE TERM LIKE '%" + query + "%' OR DECON LIKE '%" + query + "%'";
 			}
-			final String tabName = Utilities.PpdpdTable.DECONSTRUCTOR.toString();
 			final String select = "SELECT TERM,DECON FROM " + tabName + " " + where + " ORDER BY ID LIMIT " + maxRowCount + ";"; 
 			final Statement stmt = ppdpdConn.createStatement();
 			final ResultSet res = stmt.executeQuery(select);
@@ -24,7 +24,6 @@ import static paliplatform.dpd.DpdUtilities.SearchMethod;
 
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.concurrent.CompletableFuture;
 import java.text.Normalizer;
 import java.text.Normalizer.Form;
 import java.sql.*;
@@ -72,6 +71,7 @@ public class DpdDictWin extends SingletonWindow {
 	private final Button infoButton = new Button("", new TextIcon("circle-info", TextIcon.IconSet.AWESOME));
 	private final SimpleBooleanProperty isCreating = new SimpleBooleanProperty(false);
 	private final SimpleBooleanProperty isSearching = new SimpleBooleanProperty(false);
+	private final SearchPipeline<TermQuery, TermResult> searchPipeline = new SearchPipeline<>("DpdDictWin", DpdDictWin::queryTerms, (q, r) -> showTerms(r));
 	private final Gson gson;
 	private int maxResultCount = DpdUtilities.DEF_MAX_RESULT;
 	private String dpdInfo = "";
@@ -105,15 +105,11 @@ public class DpdDictWin extends SingletonWindow {
 		final PaliTextInput searchTextInput = new PaliTextInput(PaliTextInput.InputType.FIELD);
 		searchTextField = (TextField)searchTextInput.getInput();
 		searchTextField.setPromptText("Search for...");
-		searchTextField.disableProperty().bind(isSearching);
 		searchTextField.textProperty().addListener((obs, oldValue, newValue) -> {
 			final SearchMethod method = (SearchMethod)searchMethodGroup.getSelectedToggle().getUserData();
 			final String query = Normalizer.normalize(newValue.trim(), Form.NFC);
-			if (!query.isEmpty() && (method == SearchMethod.TERM_START || query.length() >= 2)) {
-				message.setText(DpdUtilities.RETRIEVING);
-				isSearching.set(true);
-				CompletableFuture.runAsync(() -> showResult(query), Utilities.threadPool);
-			}
+			if (!query.isEmpty() && (method == SearchMethod.TERM_START || query.length() >= 2))
+				startSearch(query, true);
 		});
 		searchTextField.setOnKeyPressed(keyEvent -> {
 			if (keyEvent.getEventType() == KeyEvent.KEY_PRESSED) {
@@ -288,6 +284,8 @@ public class DpdDictWin extends SingletonWindow {
 								: true;
 		if (!proceed) return;
 		isCreating.set(true);
+		// the snapshot is made from the old tables
+		DpdSnapshot.discard();
 		progressBar.setProgress(0);
 		final Task<Boolean> buildTask = new Task<Boolean>() {
 			@Override
@@ -308,7 +306,8 @@ public class DpdDictWin extends SingletonWindow {
 							final StringPair pair = new StringPair(headRes.getString("lookup_key"),
 																	headRes.getString("headwords"));
 							dlist.add(pair);
-							updateProgress(++count, total);
+							if (BulkInserter.isProgressDue(++count, total))
+								updateProgress(count, total);
 						}
 						headRes.close();
 						headStmt.close();
@@ -318,33 +317,35 @@ public class DpdDictWin extends SingletonWindow {
 						MainProperties.INSTANCE.saveSettings();
 						updateMessage(String.format("Sorting %,d records... (please wait)", total));
 						updateProgress(-1, -1);
-						dlist.sort((a, b) -> Utilities.paliCollator.compare(a.getFirst(), b.getFirst()));
+						Utilities.paliSortKeys.sort(dlist, StringPair::getFirst);
 						// create a table in PP-DPD
 						String tabName = Utilities.PpdpdTable.DICTIONARY.toString();
 						final String dDelete = "DROP TABLE IF EXISTS " + tabName + ";";
 						Utilities.executeSQL(ppdpdConn, dDelete);
 						final String dCreate = "CREATE TABLE " + tabName + " (" +
 							"ID INT PRIMARY KEY," +
-							"TERM VARCHAR(255) UNIQUE," +
+							"TERM VARCHAR(255)," +
 							"HEADWORDS VARCHAR(255));";
 						Utilities.executeSQL(ppdpdConn, dCreate);
 						final String dInsert = "INSERT INTO " + tabName + " VALUES(?, ?, ?);";
-						final PreparedStatement dPstm = ppdpdConn.prepareStatement(dInsert);
-						count = 0;
 						updateMessage(String.format("Creating table of %,d records...", total));
-						for (final StringPair p : dlist) {
-							count++;
-							dPstm.setInt(1, count);
-							dPstm.setString(2, p.getFirst());
-							dPstm.setString(3, p.getSecond());
-							dPstm.executeUpdate();
-							updateProgress(count, total);
+						final NgramIndex.Builder gramBuilder = new NgramIndex.Builder();
+						try (final BulkInserter inserter = new BulkInserter(ppdpdConn, dInsert)) {
+							for (final StringPair p : dlist) {
+								final int id = inserter.getCount() + 1;
+								inserter.add(id, p.getFirst(), p.getSecond());
+								// head word IDs are not searched
+								gramBuilder.add(id, p.getFirst(), null);
+								if (BulkInserter.isProgressDue(inserter.getCount(), total))
+									updateProgress(inserter.getCount(), total);
+							}
+							inserter.complete();
 						}
-						dPstm.close();
 						updateMessage("Creating index... (please wait)");
 						updateProgress(-1, -1);
-						final String dIndex = "CREATE INDEX IDX_" + tabName + " ON " + tabName + "(TERM);";
-						Utilities.executeSQL(ppdpdConn, dIndex);
+						BulkInserter.createIndex(ppdpdConn, tabName, "TERM", true);
+						updateMessage("Creating search index... (please wait)");
+						gramBuilder.write(ppdpdConn, tabName);
 						// create mini DPD
 						tabName = Utilities.PpdpdTable.MINIDPD.toString();
 						final String hSelect = "SELECT " +
@@ -372,61 +373,62 @@ public class DpdDictWin extends SingletonWindow {
 							"CONSTRUCTION VARCHAR(255));";
 						Utilities.executeSQL(ppdpdConn, mCreate);
 						final String mInsert = "INSERT INTO " + tabName + " VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);";
-						final PreparedStatement mPstm = ppdpdConn.prepareStatement(mInsert);
 						final Map<String, Integer> headMap = new HashMap<>();
-						while (mdpdRes.next()) {
-							final int id = mdpdRes.getInt("id");
-							final String term = mdpdRes.getString("lemma_1");
-							headMap.put(term, id);
-							mPstm.setInt(1, id);
-							mPstm.setString(2, term);
-							mPstm.setString(3, mdpdRes.getString("grammar"));
-							mPstm.setString(4, mdpdRes.getString("verb"));
-							mPstm.setString(5, mdpdRes.getString("trans"));
-							mPstm.setString(6, mdpdRes.getString("plus_case"));
-							mPstm.setString(7, mdpdRes.getString("meaning_1"));
-							mPstm.setString(8, mdpdRes.getString("meaning_2"));
-							mPstm.setString(9, mdpdRes.getString("meaning_lit"));
-							mPstm.setString(10, mdpdRes.getString("sanskrit"));
-							mPstm.setString(11, mdpdRes.getString("root_key"));
-							mPstm.setString(12, mdpdRes.getString("construction"));
-							mPstm.executeUpdate();
-							updateProgress(++count, total);
+						try (final BulkInserter inserter = new BulkInserter(ppdpdConn, mInsert)) {
+							while (mdpdRes.next()) {
+								final int id = mdpdRes.getInt("id");
+								final String term = mdpdRes.getString("lemma_1");
+								headMap.put(term, id);
+								inserter.add(id, term,
+											mdpdRes.getString("grammar"),
+											mdpdRes.getString("verb"),
+											mdpdRes.getString("trans"),
+											mdpdRes.getString("plus_case"),
+											mdpdRes.getString("meaning_1"),
+											mdpdRes.getString("meaning_2"),
+											mdpdRes.getString("meaning_lit"),
+											mdpdRes.getString("sanskrit"),
+											mdpdRes.getString("root_key"),
+											mdpdRes.getString("construction"));
+								if (BulkInserter.isProgressDue(++count, total))
+									updateProgress(count, total);
+							}
+							inserter.complete();
 						}
 						Utilities.setSetting("dpd-head-count", "" + count);
 						MainProperties.INSTANCE.saveSettings();
-						mPstm.close();
+						DpdHeadWordCache.MINI.clear();
+						Utilities.H2DB.markModified(Utilities.H2DB.PPDPD);
 						mdpdRes.close();
 						mdpdStmt.close();
 						// create sorted head words
 						tabName = Utilities.PpdpdTable.SORTED_HEADWORDS.toString();
 						updateMessage("Creating sorted head words... (please wait)");
 						updateProgress(-1, -1);
-						final List<String> headList = headMap.keySet().stream()
-														.sorted(Utilities.paliComparator)
-														.collect(Collectors.toList());
+						final List<String> headList = new ArrayList<>(headMap.keySet());
+						Utilities.paliSortKeys.sort(headList);
 						final String sDelete = "DROP TABLE IF EXISTS " + tabName + ";";
 						Utilities.executeSQL(ppdpdConn, sDelete);
 						final String sCreate = "CREATE TABLE " + tabName + " (" +
 							"ID INT PRIMARY KEY," +
-							"TERM VARCHAR(255) UNIQUE," +
+							"TERM VARCHAR(255)," +
 							"TERMID INT);";
 						Utilities.executeSQL(ppdpdConn, sCreate);
 						final String sInsert = "INSERT INTO " + tabName + " VALUES(?, ?, ?);";
-						final PreparedStatement sPstm = ppdpdConn.prepareStatement(sInsert);
 						total = headMap.size();
-						count = 0;
-						for (final String hw : headList) {
-							count++;
-							sPstm.setInt(1, count);
-							sPstm.setString(2, hw);
-							sPstm.setInt(3, headMap.get(hw));
-							sPstm.executeUpdate();
-							updateProgress(count, total);
+						try (final BulkInserter inserter = new BulkInserter(ppdpdConn, sInsert)) {
+							for (final String hw : headList) {
+								inserter.add(inserter.getCount() + 1, hw, headMap.get(hw));
+								if (BulkInserter.isProgressDue(inserter.getCount(), total))
+									updateProgress(inserter.getCount(), total);
+							}
+							inserter.complete();
 						}
-						sPstm.close();
+						BulkInserter.createIndex(ppdpdConn, tabName, "TERM", true);
 					}
 				} catch (SQLException e) {
+					// the tables may have been dropped
+					Utilities.H2DB.markModified(Utilities.H2DB.PPDPD);
 					System.err.println(e);
 				}
 				Platform.runLater(() -> {
@@ -447,8 +449,13 @@ public class DpdDictWin extends SingletonWindow {
 		statusBox.getChildren().setAll(progressBar, message);
 	}
 
-	private List<StringPair> getTermFromDict(final String query) {
-		final SearchMethod method = (SearchMethod)searchMethodGroup.getSelectedToggle().getUserData();
+	private static List<StringPair> getTermFromDict(final String query, final SearchMethod method, final int maxResultCount) {
+		final String tabName = Utilities.PpdpdTable.DICTIONARY.toString();
+		if (method != SearchMethod.TERM_START && NgramIndex.isApplicable(query)) {
+			final List<StringPair> indexed = NgramIndex.search(tabName, "HEADWORDS", query, false, maxResultCount);
+			if (indexed != null)
+				return indexed;
+		}
 		final List<StringPair> result = new ArrayList<>();
 		try {
 			final java.sql.Connection ppdpdConn = Utilities.H2DB.PPDPD.getConnection();
@@ -457,7 +464,6 @@ public class DpdDictWin extends SingletonWindow {
 									: method == SearchMethod.TERM_START
 										? " WHERE TERM LIKE '" + query + "%'"
 										: " WHERE TERM LIKE '%" + query + "%'";
-			final String tabName = Utilities.PpdpdTable.DICTIONARY.toString();
 			final String select = "SELECT TERM,HEADWORDS FROM " + tabName + where + " ORDER BY ID LIMIT " + maxResultCount + ";"; 
 			final Statement stmt = ppdpdConn.createStatement();
 			final ResultSet res = stmt.executeQuery(select);
@@ -473,8 +479,13 @@ public class DpdDictWin extends SingletonWindow {
 		return result;
 	}
 
-	private List<StringPair> getTermFromDecon(final String query) {
-		final SearchMethod method = (SearchMethod)searchMethodGroup.getSelectedToggle().getUserData();
+	private static List<StringPair> getTermFromDecon(final String query, final SearchMethod method, final int maxResultCount) {
+		final String tabName = Utilities.PpdpdTable.DECONSTRUCTOR.toString();
+		if (method != SearchMethod.TERM_START && NgramIndex.isApplicable(query)) {
+			final List<StringPair> indexed = NgramIndex.search(tabName, "DECON", query, false, maxResultCount);
+			if (indexed != null)
+				return indexed;
+		}
 		final List<StringPair> result = new ArrayList<>();
 		try {
 			final java.sql.Connection ppdpdConn = Utilities.H2DB.PPDPD.getConnection();
@@ -483,7 +494,6 @@ public class DpdDictWin extends SingletonWindow {
 									: method == SearchMethod.TERM_START
 										? " WHERE TERM LIKE '" + query + "%'"
 										: " WHERE TERM LIKE '%" + query + "%'";
-			final String tabName = Utilities.PpdpdTable.DECONSTRUCTOR.toString();
 			final String select = "SELECT TERM,DECON FROM " + tabName + where + " ORDER BY ID LIMIT " + maxResultCount + ";"; 
 			final Statement stmt = ppdpdConn.createStatement();
 			final ResultSet res = stmt.executeQuery(select);
@@ -502,69 +512,89 @@ public class DpdDictWin extends SingletonWindow {
 	private void showResult() {
 		final String query = Normalizer.normalize(searchTextField.getText().trim(), Form.NFC);
 		final SearchMethod method = (SearchMethod)searchMethodGroup.getSelectedToggle().getUserData();
-		if (!query.isEmpty() && (method == SearchMethod.TERM_START || query.length() >= 2)) {
-			message.setText(DpdUtilities.RETRIEVING);
-			isSearching.set(true);
-			CompletableFuture.runAsync(() -> showResult(query), Utilities.threadPool);
+		if (!query.isEmpty() && (method == SearchMethod.TERM_START || query.length() >= 2))
+			startSearch(query, false);
+	}
+
+	/**
+	 * Submits a search to the pipeline, typing is debounced and
+	 * a newer search supersedes the older ones.
+	 */
+	private void startSearch(final String query, final boolean debounced) {
+		if (isCreating.get()) {
+			setMessage("Please wait until done");
+			return;
 		}
+		if (!Utilities.ppdpdAvailMap.get(Utilities.PpdpdTable.DICTIONARY).get()) {
+			setMessage("Nothing to display, please generate tables first");
+			return;
+		}
+		message.setText(DpdUtilities.RETRIEVING);
+		isSearching.set(true);
+		// the settings are taken here in the FX thread
+		final SearchMethod method = (SearchMethod)searchMethodGroup.getSelectedToggle().getUserData();
+		final TermQuery termQuery = new TermQuery(query, method, deconButton.isSelected(), maxResultCount);
+		if (debounced)
+			searchPipeline.submit(termQuery);
+		else
+			searchPipeline.submitNow(termQuery);
 	}
 
-	private void showResult(final String query) {
-		final Runnable initCheck = isCreating.get()
-									? () -> setMessage("Please wait until done")
-									: !Utilities.ppdpdAvailMap.get(Utilities.PpdpdTable.DICTIONARY).get()
-										? () -> setMessage("Nothing to display, please generate tables first")
-										: null;
-		if (initCheck != null) {
-			Platform.runLater(initCheck);
-		} else if (!query.isEmpty()) {
-			final List<String> finalList = new ArrayList<>();
-			final Set<String> termList = new LinkedHashSet<>();
-			final List<StringPair> termPairDBList = getTermFromDict(query);
-			for (final StringPair pair : termPairDBList) {
+	private static TermResult queryTerms(final TermQuery tq, final SearchPipeline.Ticket ticket) {
+		final String query = tq.query;
+		final TermResult result = new TermResult();
+		final Set<String> termList = new LinkedHashSet<>();
+		final List<StringPair> termPairDBList = getTermFromDict(query, tq.method, tq.maxResultCount);
+		for (final StringPair pair : termPairDBList) {
+			final String term = pair.getFirst();
+			termList.add(term);
+			final List<String> detList = new ArrayList<>();
+			detList.add(pair.getSecond());
+			result.map.put(term, detList);
+		}
+		if (tq.withDecon) {
+			if (ticket.isCancelled())
+				return null;
+			final List<StringPair> deconPairDBList = getTermFromDecon(query, tq.method, tq.maxResultCount);
+			for (final StringPair pair : deconPairDBList) {
 				final String term = pair.getFirst();
 				termList.add(term);
-				final List<String> detList = new ArrayList<>();
+				final List<String> detList = result.map.getOrDefault(term, new ArrayList<>());
 				detList.add(pair.getSecond());
-				resultMap.put(term, detList);
-			}
-			if (deconButton.isSelected()) {
-				final List<StringPair> deconPairDBList = getTermFromDecon(query);
-				for (final StringPair pair : deconPairDBList) {
-					final String term = pair.getFirst();
-					termList.add(term);
-					final List<String> detList = resultMap.getOrDefault(term, new ArrayList<>());
-					detList.add(pair.getSecond());
-					resultMap.put(term, detList);
-				}
-				final int max = maxResultCount;
-				final List<String> bothList = termList.stream()
-										.sorted(Utilities.paliComparator)
-										.limit(max)
-										.collect(Collectors.toList());
-				finalList.addAll(bothList);
-			} else {
-				finalList.addAll(termList);
+				result.map.put(term, detList);
 			}
-			Platform.runLater(() -> {
-				resultList.clear();
-				resultList.addAll(finalList);
-				// show item count
-				final int dictTotal = Integer.parseInt(Utilities.getSetting("dpd-dict-count"));
-				final int total = deconButton.isSelected()
-									? dictTotal + Integer.parseInt(Utilities.getSetting("dpd-decon-count"))
-									: dictTotal;
-				final int count = resultList.size();
-				final String s = count <= 1 ? "" : "s";
-				setMessage(String.format("%,d of %,d item%s listed", count, total, s));
-				termListView.scrollTo(0);
-				if (count > 0) {
-					showDetail(resultList.get(0));
-				}
-				searchTextField.requestFocus();
-				searchTextField.appendText(""); // make it deselected
-			});
+			ticket.mark("query");
+			final int max = tq.maxResultCount;
+			final List<String> bothList = termList.stream()
+									.sorted(Utilities.paliComparator)
+									.limit(max)
+									.collect(Collectors.toList());
+			result.list.addAll(bothList);
+			ticket.mark("merge");
+		} else {
+			result.list.addAll(termList);
 		}
+		return result;
+	}
+
+	private void showTerms(final TermResult result) {
+		resultMap.clear();
+		resultMap.putAll(result.map);
+		resultList.setAll(result.list);
+		// show item count
+		final int dictTotal = Integer.parseInt(Utilities.getSetting("dpd-dict-count"));
+		final int total = deconButton.isSelected()
+							? dictTotal + Integer.parseInt(Utilities.getSetting("dpd-decon-count"))
+							: dictTotal;
+		final int count = resultList.size();
+		final String s = count <= 1 ? "" : "s";
+		setMessage(String.format("%,d of %,d item%s listed", count, total, s));
+		termListView.scrollTo(0);
+		if (count > 0) {
+			showDetail(resultList.get(0));
+		}
+		searchTextField.requestFocus();
+		searchTextField.appendText(""); // make it deselected
 		isSearching.set(false);
 	}
 
@@ -616,4 +646,29 @@ public class DpdDictWin extends SingletonWindow {
 		Utilities.saveText(makeText(), "dpddict.txt");
 	}
 
+	// inner classes
+	private static final class TermQuery {
+		private final String query;
+		private final SearchMethod method;
+		private final boolean withDecon;
+		private final int maxResultCount;
+
+		private TermQuery(final String query, final SearchMethod method, final boolean withDecon, final int maxResultCount) {
+			this.query = query;
+			this.method = method;
+			this.withDecon = withDecon;
+			this.maxResultCount = maxResultCount;
+		}
+
+		@Override
+		public String toString() {
+			return query;
+		}
+	}
+
+	private static final class TermResult {
+		private final Map<String, List<String>> map = new HashMap<>();
+		private final List<String> list = new ArrayList<>();
+	}
+
 }
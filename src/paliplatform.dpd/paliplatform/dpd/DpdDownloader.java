@@ -84,6 +84,7 @@ class DpdDownloader extends ProgressiveDownloader {
 		if (!skipInstall()) {
 			DpdUtilities.checkIfDpdAvailable();
 			Utilities.initializeDpdDB();
+			DpdSnapshot.discard();
 		}
 	}
 
@@ -0,0 +1,309 @@
+/*
+ * DpdFamilyIndex.java
+ *
+ * Copyright (C) 2023-2026 J. R. Bhaddacak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see https://www.gnu.org/licenses/.
+ */
+
+package paliplatform.dpd;
+
+import paliplatform.dpd.DpdUtilities.TermFamily;
+import paliplatform.base.*;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/**
+ * The in-memory index of DPD roots and word families. The root list and
+ * the keys of each family table are loaded once, already in collation
+ * order. The JSON data of families are kept as raw UTF-8 bytes and decoded
+ * only when shown, decoded results are kept in a small LRU cache.
+ * The index is bound to the pool it is loaded from, so it is cleared by
+ * itself when the DPD database is reopened (e.g. after an update).
+ * Tables are loaded outside the lock, one load per table, and other
+ * callers of the same table wait for it.
+ * @author J.R. Bhaddacak
+ * @version 4.1
+ * @since 4.1
+ */
+final class DpdFamilyIndex {
+	static final int DEF_DECODED_CAPACITY = 256;
+	private static final Map<TermFamily, CompletableFuture<FamilyTable>> familyMap = new EnumMap<>(TermFamily.class);
+	private static final LinkedHashMap<String, Object> decodedCache = new LinkedHashMap<String, Object>(64, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<String, Object> eldest) {
+			return size() > DEF_DECODED_CAPACITY;
+		}
+	};
+	private static DBPool source;
+	private static CompletableFuture<List<DpdRoot>> rootList;
+	private static CompletableFuture<Map<String, List<Payload>>> rootFamilyMap;
+
+	private DpdFamilyIndex() {
+	}
+
+	/**
+	 * Gets the DPD pool and clears everything if the pool has changed.
+	 */
+	private static synchronized DBPool checkSource() {
+		final DBPool pool = Utilities.SQLiteDB.DPD.getPool();
+		if (pool != source) {
+			familyMap.clear();
+			decodedCache.clear();
+			rootList = null;
+			rootFamilyMap = null;
+			source = pool;
+		}
+		return pool;
+	}
+
+	/**
+	 * Completes a future by the loader if this thread has made it,
+	 * otherwise waits for it. This is called outside the lock.
+	 * If loading fails, the future is forgotten, so it can be tried again.
+	 */
+	private static <T> T await(final CompletableFuture<T> future, final boolean owner, final Supplier<T> loader,
+			final Runnable forget) {
+		if (owner) {
+			try {
+				future.complete(loader.get());
+			} catch (RuntimeException e) {
+				synchronized (DpdFamilyIndex.class) {
+					forget.run();
+				}
+				future.completeExceptionally(e);
+			}
+		}
+		return future.join();
+	}
+
+	/**
+	 * Gets all DPD roots in collation order.
+	 */
+	static List<DpdRoot> getRootList() {
+		final DBPool pool;
+		final CompletableFuture<List<DpdRoot>> future;
+		final boolean owner;
+		synchronized (DpdFamilyIndex.class) {
+			pool = checkSource();
+			if (pool == null) return new ArrayList<>();
+			owner = rootList == null;
+			if (owner)
+				rootList = new CompletableFuture<>();
+			future = rootList;
+		}
+		return await(future, owner, () -> {
+			final List<DpdRoot> list = DpdUtilities.loadRootList(pool);
+			Utilities.paliSortKeys.sort(list, DpdRoot::getRoot);
+			return Collections.unmodifiableList(list);
+		}, () -> {
+			if (rootList == future)
+				rootList = null;
+		});
+	}
+
+	/**
+	 * Gets keys of a family table, in collation order
+	 * (natural order for sets).
+	 */
+	static List<String> getKeys(final TermFamily family) {
+		final FamilyTable table = getTable(family);
+		return table == null ? new ArrayList<>() : table.keys;
+	}
+
+	private static FamilyTable getTable(final TermFamily family) {
+		final DBPool pool;
+		final CompletableFuture<FamilyTable> future;
+		final boolean owner;
+		synchronized (DpdFamilyIndex.class) {
+			pool = checkSource();
+			if (pool == null) return null;
+			final CompletableFuture<FamilyTable> existing = familyMap.get(family);
+			owner = existing == null;
+			future = owner ? new CompletableFuture<>() : existing;
+			if (owner)
+				familyMap.put(family, future);
+		}
+		return await(future, owner, () -> loadTable(pool, family), () -> familyMap.remove(family, future));
+	}
+
+	private static FamilyTable loadTable(final DBPool pool, final TermFamily family) {
+		final Map<String, byte[]> payloads = new HashMap<>();
+		final String select = "SELECT " + family.getKey() + ",data FROM " + family.getTableName() + ";";
+		try {
+			pool.query(select, rs -> {
+				while (rs.next()) {
+					final String key = rs.getString(1);
+					final String data = rs.getString(2);
+					if (key != null)
+						payloads.put(key, data == null ? new byte[0] : data.getBytes(StandardCharsets.UTF_8));
+				}
+				return null;
+			});
+		} catch (SQLException e) {
+			System.err.println(e);
+		}
+		final List<String> keys = new ArrayList<>(payloads.keySet());
+		if (family == TermFamily.SET)
+			Collections.sort(keys);
+		else
+			Utilities.paliSortKeys.sort(keys);
+		return new FamilyTable(Collections.unmodifiableList(keys), payloads);
+	}
+
+	/**
+	 * Gets the decoded data of a family. If the family table is not loaded,
+	 * only the row needed is read (e.g. for a head word's family).
+	 */
+	@SuppressWarnings("unchecked")
+	static List<List<String>> getFamilyData(final TermFamily family, final String word) {
+		final String cacheKey = family.toString() + '\t' + word;
+		synchronized (DpdFamilyIndex.class) {
+			final DBPool pool = checkSource();
+			if (pool == null) return Collections.emptyList();
+			final Object cached = decodedCache.get(cacheKey);
+			if (cached != null)
+				return (List<List<String>>)cached;
+		}
+		byte[] payload;
+		final FamilyTable table;
+		synchronized (DpdFamilyIndex.class) {
+			// a table still being loaded is not waited for
+			final CompletableFuture<FamilyTable> future = familyMap.get(family);
+			table = future == null || future.isCompletedExceptionally() ? null : future.getNow(null);
+		}
+		if (table != null) {
+			payload = table.payloads.get(word);
+		} else {
+			payload = loadPayload(family, word);
+		}
+		if (payload == null)
+			return Collections.emptyList();
+		final List<List<String>> result = decode(payload);
+		synchronized (DpdFamilyIndex.class) {
+			decodedCache.put(cacheKey, result);
+		}
+		return result;
+	}
+
+	private static byte[] loadPayload(final TermFamily family, final String word) {
+		final DBPool pool = checkSource();
+		if (pool == null) return null;
+		final String select = "SELECT data FROM " + family.getTableName() + " WHERE " + family.getKey() + " = ?;";
+		try {
+			return pool.query(select, rs -> {
+				if (!rs.next()) return null;
+				final String data = rs.getString(1);
+				return data == null ? null : data.getBytes(StandardCharsets.UTF_8);
+			}, word);
+		} catch (SQLException e) {
+			System.err.println(e);
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the decoded families of a root, keyed by family name in collation order.
+	 */
+	@SuppressWarnings("unchecked")
+	static Map<String, List<List<String>>> getRootFamily(final String root) {
+		final String cacheKey = "ROOT\t" + root;
+		final DBPool pool;
+		final CompletableFuture<Map<String, List<Payload>>> future;
+		final boolean owner;
+		synchronized (DpdFamilyIndex.class) {
+			pool = checkSource();
+			if (pool == null) return Collections.emptyMap();
+			final Object cached = decodedCache.get(cacheKey);
+			if (cached != null)
+				return (Map<String, List<List<String>>>)cached;
+			owner = rootFamilyMap == null;
+			if (owner)
+				rootFamilyMap = new CompletableFuture<>();
+			future = rootFamilyMap;
+		}
+		final List<Payload> payloads = await(future, owner, () -> loadRootFamilies(pool), () -> {
+			if (rootFamilyMap == future)
+				rootFamilyMap = null;
+		}).getOrDefault(root, Collections.emptyList());
+		final Map<String, List<List<String>>> result = new LinkedHashMap<>();
+		for (final Payload p : payloads)
+			result.put(p.name, decode(p.data));
+		final Map<String, List<List<String>>> unmodResult = Collections.unmodifiableMap(result);
+		synchronized (DpdFamilyIndex.class) {
+			decodedCache.put(cacheKey, unmodResult);
+		}
+		return unmodResult;
+	}
+
+	private static Map<String, List<Payload>> loadRootFamilies(final DBPool pool) {
+		final Map<String, List<Payload>> result = new HashMap<>();
+		final String select = "SELECT root_key,root_family,data FROM family_root;";
+		try {
+			pool.query(select, rs -> {
+				while (rs.next()) {
+					final String root = rs.getString(1);
+					final String family = rs.getString(2);
+					final String data = rs.getString(3);
+					if (root == null || family == null) continue;
+					final byte[] bytes = data == null ? new byte[0] : data.getBytes(StandardCharsets.UTF_8);
+					result.computeIfAbsent(root, k -> new ArrayList<>()).add(new Payload(family, bytes));
+				}
+				return null;
+			});
+		} catch (SQLException e) {
+			System.err.println(e);
+		}
+		for (final List<Payload> list : result.values())
+			Utilities.paliSortKeys.sort(list, p -> p.name);
+		return result;
+	}
+
+	private static List<List<String>> decode(final byte[] data) {
+		if (data.length == 0)
+			return Collections.emptyList();
+		try (final Reader reader = new InputStreamReader(new ByteArrayInputStream(data), StandardCharsets.UTF_8)) {
+			return Collections.unmodifiableList(DpdUtilities.readJsonArray(reader));
+		} catch (IOException | IllegalStateException e) {
+			System.err.println(e);
+		}
+		return Collections.emptyList();
+	}
+
+	// inner classes
+	private static final class FamilyTable {
+		private final List<String> keys;
+		private final Map<String, byte[]> payloads;
+
+		private FamilyTable(final List<String> keys, final Map<String, byte[]> payloads) {
+			this.keys = keys;
+			this.payloads = payloads;
+		}
+	}
+
+	private static final class Payload {
+		private final String name;
+		private final byte[] data;
+
+		private Payload(final String name, final byte[] data) {
+			this.name = name;
+			this.data = data;
+		}
+	}
+
+}
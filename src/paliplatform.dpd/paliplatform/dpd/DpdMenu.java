@@ -66,6 +66,9 @@ public class DpdMenu extends Menu {
 		final MenuItem checkDBMenuItem = new MenuItem("Check DB applicability", new TextIcon("stethoscope", TextIcon.IconSet.AWESOME));
 		checkDBMenuItem.disableProperty().bind(DpdUtilities.dpdAvailable.not());
 		checkDBMenuItem.setOnAction(actionEvent -> DpdUtilities.testDpdDb());
+		final MenuItem snapshotMenuItem = new MenuItem("Build lookup snapshot", new TextIcon("box-archive", TextIcon.IconSet.AWESOME));
+		snapshotMenuItem.disableProperty().bind(DpdUtilities.dpdAvailable.not());
+		snapshotMenuItem.setOnAction(actionEvent -> DpdUtilities.buildSnapshot());
 		final MenuItem downloadMenuItem = new MenuItem("Download DPD database", new TextIcon("cloud-arrow-down", TextIcon.IconSet.AWESOME));
 		downloadMenuItem.setOnAction(actionEvent -> DpdDownloader.INSTANCE.display());
 		final CheckMenuItem lockDBMenuItem = new CheckMenuItem();
@@ -74,7 +77,7 @@ public class DpdMenu extends Menu {
 		lockDBMenuItem.graphicProperty().bindBidirectional(DpdUtilities.ppdpdDBLockIcon);
 		lockDBMenuItem.setOnAction(actionEvent -> DpdUtilities.lockPpdpdDB(lockDBMenuItem.isSelected()));
 		getItems().addAll(dictMenuItem, deconMenuItem, headwordMenuItem, dpdRootMenuItem, familyMenuItem,
-						new SeparatorMenuItem(), checkDBMenuItem, downloadMenuItem, lockDBMenuItem);
+						new SeparatorMenuItem(), checkDBMenuItem, snapshotMenuItem, downloadMenuItem, lockDBMenuItem);
 	}
 
 }
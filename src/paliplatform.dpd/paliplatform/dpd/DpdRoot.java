@@ -19,8 +19,6 @@
 
 package paliplatform.dpd;
 
-import java.util.*;
-
 /** 
  * The respresentation of a Pali root in DPD.
  * @author J.R. Bhaddacak
@@ -54,7 +52,6 @@ class DpdRoot {
 	private String[] panini = new String[3];
 	private String note = "";
 	private String matrix = "";
-	private Map<String, List<List<String>>> rootFamily = null;
 
 	public DpdRoot(final String rname) {
 		root = rname;
@@ -159,14 +156,6 @@ class DpdRoot {
 		matrix = DpdUtilities.replaceTags(text, " ");
 	}
 
-	public void setRootFamily(final Map<String, List<List<String>>> rmap) {
-		rootFamily = rmap;
-	}
-
-	public Map<String, List<List<String>>> getRootFamily() {
-		return rootFamily;
-	}
-
 	public boolean contains(final String text) {
 		boolean result = false;
 		result = result || root.contains(text);
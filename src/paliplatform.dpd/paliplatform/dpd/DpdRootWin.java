@@ -173,7 +173,7 @@ public class DpdRootWin extends SingletonWindow {
 		} else {
 			output = workingList.stream().filter(x -> x.contains(query)).collect(Collectors.toList()); 
 		}
-		output.sort((a, b) -> Utilities.paliCollator.compare(a.getRoot(), b.getRoot()));
+		// the root list is already sorted
 		resultList.addAll(output);
 		// show item count
 		final int count = resultList.size();
@@ -242,14 +242,9 @@ public class DpdRootWin extends SingletonWindow {
 		}
 		detailBox.getChildren().add(rootInfoBox);
 		// root family
-		Map<String, List<List<String>>> rootFamilyMap = root.getRootFamily();
-		if (rootFamilyMap == null) {
-			rootFamilyMap = DpdUtilities.getRootFamily(rootStr);
-			root.setRootFamily(rootFamilyMap);
-		}
+		final Map<String, List<List<String>>> rootFamilyMap = DpdUtilities.getRootFamily(rootStr);
 		detailBox.getChildren().add(DpdUtilities.createInfoTextFlow("\nRoot Family:", ""));
-		final List<String> keys = rootFamilyMap.keySet().stream().sorted(Utilities.paliComparator).collect(Collectors.toList());
-		for (final String k : keys) {
+		for (final String k : rootFamilyMap.keySet()) {
 			final VBox rootFamilyBox = DpdUtilities.createWordFamilyBox(k, rootFamilyMap.get(k));
 			detailBox.getChildren().add(rootFamilyBox);
 		}
@@ -0,0 +1,127 @@
+/*
+ * DpdSnapshotExporter.java
+ *
+ * Copyright (C) 2023-2026 J. R. Bhaddacak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see https://www.gnu.org/licenses/.
+ */
+
+package paliplatform.dpd;
+
+import paliplatform.base.*;
+
+import java.util.*;
+import java.io.*;
+import java.sql.*;
+import com.google.gson.Gson;
+
+/**
+ * The exporter of DPD lookup tables to the memory-mapped snapshot.
+ * PP-DPD dictionary, deconstructor and Mini DPD come from the H2 database,
+ * head words and roots come from the DPD database. Tables not available
+ * are left out, lookups of them go to JDBC as usual.
+ * @author J.R. Bhaddacak
+ * @version 4.1
+ * @since 4.1
+ */
+final class DpdSnapshotExporter {
+	private static final Gson gson = new Gson();
+	private static final int MINI_FIELD_COUNT = 11;
+
+	private DpdSnapshotExporter() {
+	}
+
+	/**
+	 * Exports the snapshot file and starts using it.
+	 * @return the summary of sections written
+	 */
+	static String export() throws IOException, SQLException {
+		final DBPool dpdPool = Utilities.SQLiteDB.DPD.getPool();
+		final DBPool ppdpdPool = Utilities.H2DB.PPDPD.getPool();
+		final StringBuilder summary = new StringBuilder();
+		final long start = System.currentTimeMillis();
+		DpdSnapshot.discard();
+		final File file = DpdSnapshot.newFile();
+		try (final DpdSnapshot.Writer writer = new DpdSnapshot.Writer(file, DpdSnapshot.makeStamp())) {
+			if (ppdpdPool != null) {
+				final String dictTab = Utilities.PpdpdTable.DICTIONARY.toString();
+				final String deconTab = Utilities.PpdpdTable.DECONSTRUCTOR.toString();
+				final String miniTab = Utilities.PpdpdTable.MINIDPD.toString();
+				if (Utilities.ppdpdAvailMap.get(Utilities.PpdpdTable.DICTIONARY).get()) {
+					writer.beginSection(DpdSnapshot.Section.DICT, false);
+					exportTable(ppdpdPool, "SELECT TERM,HEADWORDS FROM " + dictTab + " ORDER BY TERM;",
+							rs -> writer.add(rs.getString(1), rs.getString(2)));
+					endSection(summary, writer);
+				}
+				if (Utilities.ppdpdAvailMap.get(Utilities.PpdpdTable.DECONSTRUCTOR).get()) {
+					writer.beginSection(DpdSnapshot.Section.DECON, false);
+					exportTable(ppdpdPool, "SELECT TERM,DECON FROM " + deconTab + " ORDER BY TERM;",
+							rs -> {
+								final String[] decons = gson.fromJson(rs.getString(2), String[].class);
+								writer.add(rs.getString(1), decons == null ? new String[0] : decons);
+							});
+					endSection(summary, writer);
+				}
+				if (Utilities.ppdpdAvailMap.get(Utilities.PpdpdTable.MINIDPD).get()) {
+					writer.beginSection(DpdSnapshot.Section.MINI, true);
+					exportTable(ppdpdPool, "SELECT ID,LEMMA_1,GRAMMAR,VERB,TRANS,PLUS_CASE,MEANING_1,MEANING_2," +
+							"MEANING_LIT,SANSKRIT,ROOT_KEY,CONSTRUCTION FROM " + miniTab + " ORDER BY ID;",
+							rs -> writer.add(rs.getInt(1), DpdUtilities.readFields(rs, 2, MINI_FIELD_COUNT)));
+					endSection(summary, writer);
+				}
+			}
+			if (dpdPool != null) {
+				writer.beginSection(DpdSnapshot.Section.HEADWORDS, true);
+				exportTable(dpdPool, "SELECT id," + DpdUtilities.HEADWORD_COLUMNS + " FROM dpd_headwords ORDER BY id;",
+						rs -> writer.add(rs.getInt(1), DpdUtilities.readFields(rs, 2, DpdUtilities.HEADWORD_FIELD_COUNT)));
+				endSection(summary, writer);
+				// SQLite orders by bytes, so roots (a small table) are sorted here
+				final SortedMap<String, String[]> rootMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+				exportTable(dpdPool, "SELECT " + DpdUtilities.ROOT_COLUMNS + " FROM dpd_roots;",
+						rs -> rootMap.put(rs.getString(1), DpdUtilities.readFields(rs, 1, DpdUtilities.ROOT_FIELD_COUNT)));
+				writer.beginSection(DpdSnapshot.Section.ROOTS, false);
+				for (final Map.Entry<String, String[]> entry : rootMap.entrySet())
+					writer.add(entry.getKey(), entry.getValue());
+				endSection(summary, writer);
+			}
+			writer.commit();
+		}
+		DpdSnapshot.reload();
+		summary.append(String.format("%s: %,d bytes in %.1f seconds", file.getName(), file.length(),
+						(System.currentTimeMillis() - start) / 1000.0));
+		return summary.toString();
+	}
+
+	private static void exportTable(final DBPool pool, final String select, final RowWriter rowWriter) throws IOException, SQLException {
+		try (final DBPool.Lease lease = pool.lease();
+				final Statement stmt = lease.getConnection().createStatement();
+				final ResultSet rs = stmt.executeQuery(select)) {
+			while (rs.next())
+				rowWriter.write(rs);
+		}
+	}
+
+	private static void endSection(final StringBuilder summary, final DpdSnapshot.Writer writer) throws IOException {
+		final int count = writer.getCount();
+		final DpdSnapshot.Section section = writer.getSection();
+		writer.endSection();
+		summary.append(String.format("%s: %,d entries", section, count)).append(DpdUtilities.LINESEP);
+	}
+
+	// inner class
+	@FunctionalInterface
+	private interface RowWriter {
+		void write(ResultSet rs) throws IOException, SQLException;
+	}
+
+}
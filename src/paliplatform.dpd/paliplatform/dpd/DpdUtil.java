@@ -33,7 +33,7 @@ import com.google.gson.Gson;
  * $ java -p modules -m paliplatform.dpd/paliplatform.dpd.DpdUtil
  *
  * @author J.R. Bhaddacak
- * @version 3.4
+ * @version 4.1
  * @since 3.0
  */
 final public class DpdUtil {
@@ -55,6 +55,12 @@ final public class DpdUtil {
 			case "-t":
 				testApplicability();
 				break;
+			case "-s":
+				buildSnapshot();
+				break;
+			case "-k":
+				checkSnapshot(args.length > 1 ? Integer.parseInt(args[1]) : 10000);
+				break;
 		}
 	}
 
@@ -72,6 +78,8 @@ final public class DpdUtil {
 		help.append("        General options:").append(LINESEP);
 		help.append("        -t\tTest for DPD database applicability").append(LINESEP);
 		help.append("        -v\tShow DPD database version").append(LINESEP);
+		help.append("        -s\tBuild the lookup snapshot (see ppdpd-*.snap in data/db)").append(LINESEP);
+		help.append("        -k [num]\tCheck the snapshot against the database with num random terms").append(LINESEP);
 		help.append("  Notes:").append(LINESEP);
 		help.append("    To invoke the program, the Java convention has to be used.").append(LINESEP);
 		help.append("    At the program's root directory, if no launcher script available,").append(LINESEP);
@@ -113,20 +121,7 @@ final public class DpdUtil {
 	}
 
 	private static void finish() {
-		try {
-			for (final Utilities.H2DB db : Utilities.H2DB.values()) {
-				final java.sql.Connection conn = db.getConnection();
-				if (conn != null)
-					conn.close();
-			}
-			for (final Utilities.SQLiteDB db : Utilities.SQLiteDB.values()) {
-				final java.sql.Connection conn = db.getConnection();
-				if (conn != null)
-					conn.close();
-			}
-		} catch (SQLException e) {
-			System.err.println(e);
-		}
+		Utilities.closeAllDB();
 	}
 
 	public static void printVersion() throws SQLException {
@@ -146,6 +141,63 @@ final public class DpdUtil {
 		printTime(endTime - startTime);
 	}
 
+	public static void buildSnapshot() throws IOException, SQLException {
+		final long startTime = System.currentTimeMillis();
+		if (!dpdInit()) return;
+		if (!ppdpdInit(Utilities.PpdpdTable.DICTIONARY)) return;
+		printLog(DpdSnapshotExporter.export());
+		finish();
+		final long endTime = System.currentTimeMillis();
+		printTime(endTime - startTime);
+	}
+
+	public static void checkSnapshot(final int num) throws SQLException {
+		if (!dpdInit()) return;
+		if (!ppdpdInit(Utilities.PpdpdTable.DICTIONARY)) return;
+		final DpdSnapshot snapshot = DpdSnapshot.get();
+		if (snapshot == null) {
+			printLog("Snapshot unavailable or out of date, build it first");
+			finish();
+			return;
+		}
+		final String dictTab = Utilities.PpdpdTable.DICTIONARY.toString();
+		final List<String> terms = new ArrayList<>();
+		final java.sql.Connection conn = Utilities.H2DB.PPDPD.getConnection();
+		try (final Statement stmt = conn.createStatement();
+				final ResultSet rs = stmt.executeQuery("SELECT TERM FROM " + dictTab + " ORDER BY RAND() LIMIT " + num + ";")) {
+			while (rs.next()) {
+				final String term = rs.getString(1);
+				terms.add(term);
+				// a likely miss
+				terms.add(term + "qx");
+			}
+		}
+		final String select = "SELECT HEADWORDS FROM " + dictTab + " WHERE TERM = ?;";
+		final DBPool pool = Utilities.H2DB.PPDPD.getPool();
+		final List<String> dbResult = new ArrayList<>(terms.size());
+		long start = System.nanoTime();
+		for (final String term : terms)
+			dbResult.add(pool.query(select, rs -> rs.next() ? rs.getString(1) : null, term));
+		final long dbNanos = System.nanoTime() - start;
+		final List<String> snapResult = new ArrayList<>(terms.size());
+		start = System.nanoTime();
+		for (final String term : terms) {
+			final String[] rec = snapshot.lookup(DpdSnapshot.Section.DICT, term);
+			snapResult.add(rec == null ? null : rec[0]);
+		}
+		final long snapNanos = System.nanoTime() - start;
+		int mismatch = 0;
+		for (int i = 0; i < terms.size(); i++) {
+			if (!Objects.equals(dbResult.get(i), snapResult.get(i))) {
+				if (mismatch++ < 10)
+					printLog("Mismatch: " + terms.get(i) + " DB: " + dbResult.get(i) + " snapshot: " + snapResult.get(i));
+			}
+		}
+		finish();
+		printLog(String.format("%,d lookups, %,d mismatches", terms.size(), mismatch));
+		printLog(String.format("JDBC: %.1f ms, snapshot: %.1f ms", dbNanos / 1e6, snapNanos / 1e6));
+	}
+
 	public static void testApplicability() throws SQLException {
 		final long startTime = System.currentTimeMillis();
 		if (!dpdInit()) return;
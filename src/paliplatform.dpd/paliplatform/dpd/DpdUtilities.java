@@ -31,6 +31,7 @@ import javafx.scene.layout.*;
 import javafx.scene.text.*;
 import javafx.geometry.*;
 import javafx.stage.Stage;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.SimpleObjectProperty;
@@ -81,6 +82,18 @@ final public class DpdUtilities {
 	public static final SimpleBooleanProperty ppdpdDBLocked = new SimpleBooleanProperty(false);
 	public static final SimpleObjectProperty<Node> ppdpdDBLockIcon = new SimpleObjectProperty<>(null);
 	private static final String[] dbLockStatus = { "PP-DPD DB unlocked", "PP-DPD DB locked" };
+	static final String HEADWORD_COLUMNS = "lemma_1,grammar,verb,trans,plus_case,meaning_1,meaning_2,meaning_lit," +
+											"sanskrit,root_key,construction,notes,family_word,family_idioms,family_compound,family_set";
+	static final int HEADWORD_FIELD_COUNT = 16;
+	static final String ROOT_COLUMNS = "root,root_group,root_sign,root_meaning," +
+										"sanskrit_root,sanskrit_root_meaning,root_example," +
+										"dhatupatha_root,dhatupatha_pali,dhatupatha_english," +
+										"dhatumanjusa_root,dhatumanjusa_pali,dhatumanjusa_english," +
+										"dhatumala_root,dhatumala_pali,dhatumala_english," +
+										"panini_root,panini_sanskrit,panini_english," +
+										"note,root_matrix";
+	static final int ROOT_FIELD_COUNT = 21;
+	private static final DpdHeadWordCache<DpdHeadWord> headWordCache = new DpdHeadWordCache<>(DpdHeadWordCache.DEF_CAPACITY);
 	public static final SimpleStringProperty ppdpdDBLockString = new SimpleStringProperty(dbLockStatus[0]);
 
 	static String getStringResource(final String fileNameWithPath) {
@@ -123,116 +136,72 @@ final public class DpdUtilities {
 	}
 	
 	static List<DpdRoot> getRootList() {
+		return DpdFamilyIndex.getRootList();
+	}
+
+	static List<DpdRoot> loadRootList(final DBPool pool) {
 		final List<DpdRoot> result = new ArrayList<>();
-		final java.sql.Connection conn = Utilities.SQLiteDB.DPD.getConnection();
-		if (conn == null) return result;
-		ResultSet resultSet = null;
-		Statement statement = null;
-        try {
-			statement = conn.createStatement();
-			final String select = "SELECT root,root_group,root_sign,root_meaning," +
-				  "sanskrit_root,sanskrit_root_meaning,root_example," + 
-				  "dhatupatha_root,dhatupatha_pali,dhatupatha_english," +
-				  "dhatumanjusa_root,dhatumanjusa_pali,dhatumanjusa_english," +
-				  "dhatumala_root,dhatumala_pali,dhatumala_english," +
-				  "panini_root,panini_sanskrit,panini_english," +
-				  "note,root_matrix" +
-				  " FROM dpd_roots;";
-			resultSet = statement.executeQuery(select);
-			while (resultSet.next()) {
-				final String root = resultSet.getString("root");
-				final int grp = resultSet.getInt("root_group");
-				final String sign = resultSet.getString("root_sign");
-				final String meaning = resultSet.getString("root_meaning");
-				final String sanskrit = resultSet.getString("sanskrit_root") + " = " + 
-										resultSet.getString("sanskrit_root_meaning");
-				final String example = resultSet.getString("root_example");
-				final String[] patha = { resultSet.getString("dhatupatha_root"),
-										resultSet.getString("dhatupatha_pali"),
-										resultSet.getString("dhatupatha_english") };
-				final String[] manjusa = { resultSet.getString("dhatumanjusa_root"),
-										resultSet.getString("dhatumanjusa_pali"),
-										resultSet.getString("dhatumanjusa_english") };
-				final String[] mala = { resultSet.getString("dhatumala_root"),
-										resultSet.getString("dhatumala_pali"),
-										resultSet.getString("dhatumala_english") };
-				final String[] panini = { resultSet.getString("panini_root"),
-										resultSet.getString("panini_sanskrit"),
-										resultSet.getString("panini_english") };
-				final String note = resultSet.getString("note");
-				final String matrix = resultSet.getString("root_matrix");
-				final DpdRoot dpdRoot = new DpdRoot(root);
-				dpdRoot.setGroup(grp);
-				dpdRoot.setRootSign(sign);
-				dpdRoot.setMeaning(meaning);
-				dpdRoot.setSanskritInfo(sanskrit);
-				dpdRoot.setExample(example);
-				dpdRoot.setPatha(patha);
-				dpdRoot.setManjusa(manjusa);
-				dpdRoot.setMala(mala);
-				dpdRoot.setPanini(panini);
-				dpdRoot.setNote(note);
-				dpdRoot.setMatrix(matrix);
-				result.add(dpdRoot);
-			}
+		final DpdSnapshot snapshot = DpdSnapshot.get();
+		if (snapshot != null && snapshot.hasSection(DpdSnapshot.Section.ROOTS)) {
+			snapshot.forEach(DpdSnapshot.Section.ROOTS, (root, fields) -> result.add(createDpdRoot(fields)));
+			return result;
+		}
+		final String select = "SELECT " + ROOT_COLUMNS + " FROM dpd_roots;";
+		try (final DBPool.Lease lease = pool.lease();
+				final Statement statement = lease.getConnection().createStatement();
+				final ResultSet resultSet = statement.executeQuery(select)) {
+			while (resultSet.next())
+				result.add(createDpdRoot(readFields(resultSet, 1, ROOT_FIELD_COUNT)));
         } catch (SQLException e) {
             System.err.println(e);
         }
 		return result;
 	}
 
+	/**
+	 * Reads a number of columns of the current row as strings.
+	 */
+	static String[] readFields(final ResultSet resultSet, final int from, final int count) throws SQLException {
+		final String[] result = new String[count];
+		for (int i = 0; i < count; i++)
+			result[i] = resultSet.getString(from + i);
+		return result;
+	}
+
+	/**
+	 * Creates a root from the fields in the order of ROOT_COLUMNS.
+	 */
+	static DpdRoot createDpdRoot(final String[] f) {
+		final DpdRoot dpdRoot = new DpdRoot(f[0]);
+		dpdRoot.setGroup(f[1] == null ? 0 : Integer.parseInt(f[1]));
+		dpdRoot.setRootSign(f[2]);
+		dpdRoot.setMeaning(f[3]);
+		dpdRoot.setSanskritInfo(f[4] + " = " + f[5]);
+		dpdRoot.setExample(f[6]);
+		dpdRoot.setPatha(new String[] { f[7], f[8], f[9] });
+		dpdRoot.setManjusa(new String[] { f[10], f[11], f[12] });
+		dpdRoot.setMala(new String[] { f[13], f[14], f[15] });
+		dpdRoot.setPanini(new String[] { f[16], f[17], f[18] });
+		dpdRoot.setNote(f[19]);
+		dpdRoot.setMatrix(f[20]);
+		return dpdRoot;
+	}
+
 	static List<String> getFamilyList(final TermFamily family) {
-		final String select = "SELECT " + family.getKey() + " FROM " + family.getTableName() + ";";
-		final Set<String> resultSet = Utilities.getFirstColumnFromDB(Utilities.SQLiteDB.DPD.getConnection(), select);
-		return family == TermFamily.SET
-				? resultSet.stream().sorted().collect(Collectors.toList())
-				: resultSet.stream().sorted(Utilities.paliComparator).collect(Collectors.toList());
+		return DpdFamilyIndex.getKeys(family);
 	}
 
 	static Map<String, List<List<String>>> getRootFamily(final String root) {
-		final Map<String, List<List<String>>> result = new HashMap<>();
-		final java.sql.Connection conn = Utilities.SQLiteDB.DPD.getConnection();
-		if (conn == null) return result;
-		ResultSet resultSet = null;
-		Statement statement = null;
-        try {
-			statement = conn.createStatement();
-			final String select = "SELECT root_family,data from family_root WHERE root_key = '" + root + "';";
-			resultSet = statement.executeQuery(select);
-			while (resultSet.next()) {
-				final String rootFamily = resultSet.getString("root_family");
-				final String data = resultSet.getString("data");
-				result.put(rootFamily, readJsonArray(data));
-			}
-        } catch (IOException | SQLException e) {
-            System.err.println(e);
-        }
-		return result;
+		return DpdFamilyIndex.getRootFamily(root);
 	}
 
 	static List<List<String>> getFamilyData(final TermFamily family, final String word) {
-		final String select = "SELECT data FROM " + family.getTableName() + " WHERE " + family.getKey() + " = '" + word + "';";
-		List<List<String>> result = Collections.emptyList();
-		final java.sql.Connection conn = Utilities.SQLiteDB.DPD.getConnection();
-		if (conn == null) return result;
-		ResultSet resultSet = null;
-		Statement statement = null;
-        try {
-			statement = conn.createStatement();
-			resultSet = statement.executeQuery(select);
-			if (resultSet.next()) {
-				final String data = resultSet.getString("data");
-				result = readJsonArray(data);
-			}
-        } catch (IOException | SQLException e) {
-            System.err.println(e);
-        }
-		return result;
+		return DpdFamilyIndex.getFamilyData(family, word);
 	}
 
-	static List<List<String>> readJsonArray(final String text) throws IOException {
+	static List<List<String>> readJsonArray(final Reader in) throws IOException {
 		final List<List<String>> result = new ArrayList<>();
-		final JsonReader reader = new JsonReader(new StringReader(text));
+		final JsonReader reader = new JsonReader(in);
 		try {
 			reader.beginArray();
 			while (reader.hasNext()) {
@@ -274,46 +243,64 @@ final public class DpdUtilities {
 	static List<DpdHeadWord> getDpdHeadWords(final int[] ids) {
 		if (ids.length == 0)
 			return Collections.emptyList();
-		final List<DpdHeadWord> result = new ArrayList<>();
-		try {
-			final java.sql.Connection dpdConn = Utilities.SQLiteDB.DPD.getConnection();
-			String where = "WHERE ID = " + ids[0];
-			for (int i = 1; i < ids.length; i++) {
-				where = where + " OR ID = " + ids[i];
-			}
-			final String select = "SELECT " +
-				"lemma_1,pos,grammar,verb,trans,plus_case,meaning_1,meaning_2,meaning_lit,sanskrit," +
-				"root_key,construction,notes,family_word,family_idioms,family_compound,family_set " +
-				"FROM dpd_headwords " + where + ";"; 
-			final Statement stmt = dpdConn.createStatement();
-			final ResultSet res = stmt.executeQuery(select);
-			while (res.next()) {
-				final DpdHeadWord hw = new DpdHeadWord(res.getString("lemma_1"));
-				hw.setGrammar(res.getString("grammar"));
-				hw.setVerb(res.getString("verb"));
-				hw.setTrans(res.getString("trans"));
-				hw.setPlusCase(res.getString("plus_case"));
-				hw.setMeaning1(res.getString("meaning_1"));
-				hw.setMeaning2(res.getString("meaning_2"));
-				hw.setMeaningLit(res.getString("meaning_lit"));
-				hw.setSanskrit(res.getString("sanskrit"));
-				hw.setRootKey(res.getString("root_key"));
-				hw.setConstruction(res.getString("construction"));
-				hw.setNotes(res.getString("notes"));
-				hw.setFamilyWord(res.getString("family_word"));
-				hw.setFamilyIdiom(res.getString("family_idioms"));
-				hw.setFamilyCompound(res.getString("family_compound"));
-				hw.setFamilySet(res.getString("family_set"));
-				result.add(hw);
+		final DBPool pool = Utilities.SQLiteDB.DPD.getPool();
+		if (pool == null) return new ArrayList<>();
+		// head words are shown in ID order
+		final int[] sortedIds = ids.clone();
+		Arrays.sort(sortedIds);
+		final DpdSnapshot snapshot = DpdSnapshot.get();
+		if (snapshot != null && snapshot.hasSection(DpdSnapshot.Section.HEADWORDS)) {
+			final List<DpdHeadWord> result = new ArrayList<>(sortedIds.length);
+			for (final int id : sortedIds) {
+				final String[] fields = snapshot.lookup(DpdSnapshot.Section.HEADWORDS, id);
+				if (fields != null)
+					result.add(createDpdHeadWord(fields));
 			}
-			res.close();
-			stmt.close();
+			return result;
+		}
+		try (final DBPool.Lease lease = pool.lease()) {
+			return headWordCache.getAll(lease, pool, sortedIds, DpdUtilities::loadDpdHeadWords);
 		} catch (SQLException e) {
 			System.err.println(e);
 		}
+		return new ArrayList<>();
+	}
+
+	private static Map<Integer, DpdHeadWord> loadDpdHeadWords(final DBPool.Lease lease, final int[] ids) throws SQLException {
+		final Map<Integer, DpdHeadWord> result = new HashMap<>();
+		final String select = DBPool.inList("SELECT id," + HEADWORD_COLUMNS + " FROM dpd_headwords WHERE id IN ", ids.length);
+		final Object[] params = Arrays.stream(ids).boxed().toArray();
+		lease.query(select, res -> {
+			while (res.next())
+				result.put(res.getInt(1), createDpdHeadWord(readFields(res, 2, HEADWORD_FIELD_COUNT)));
+			return null;
+		}, params);
 		return result;
 	}
 
+	/**
+	 * Creates a head word from the fields in the order of HEADWORD_COLUMNS.
+	 */
+	static DpdHeadWord createDpdHeadWord(final String[] f) {
+		final DpdHeadWord hw = new DpdHeadWord(f[0]);
+		hw.setGrammar(f[1]);
+		hw.setVerb(f[2]);
+		hw.setTrans(f[3]);
+		hw.setPlusCase(f[4]);
+		hw.setMeaning1(f[5]);
+		hw.setMeaning2(f[6]);
+		hw.setMeaningLit(f[7]);
+		hw.setSanskrit(f[8]);
+		hw.setRootKey(f[9]);
+		hw.setConstruction(f[10]);
+		hw.setNotes(f[11]);
+		hw.setFamilyWord(f[12]);
+		hw.setFamilyIdiom(f[13]);
+		hw.setFamilyCompound(f[14]);
+		hw.setFamilySet(f[15]);
+		return hw;
+	}
+
 	static TextFlow createInfoTextFlow(final String head, final String text) {
 		final TextFlow textFlow = new TextFlow();
 		if (!head.isEmpty())
@@ -478,6 +465,18 @@ final public class DpdUtilities {
 		}
 	}
 	
+	static void buildSnapshot() {
+		Utilities.threadPool.execute(() -> {
+			try {
+				final String summary = DpdSnapshotExporter.export();
+				Platform.runLater(() -> Utilities.displayAlert(Alert.AlertType.INFORMATION, "Lookup snapshot built\n" + summary));
+			} catch (IOException | SQLException | RuntimeException e) {
+				System.err.println(e);
+				Platform.runLater(() -> Utilities.displayAlert(Alert.AlertType.ERROR, "Snapshot building failed:\n" + e.getMessage()));
+			}
+		});
+	}
+
 	/**
 	 * Checks the DPD database structure whether it is applicable
 	 * to the program.
@@ -55,7 +55,6 @@ public class FamilyWin extends SingletonWindow {
 	private final TextField searchTextField;
 	private final ObservableList<String> resultList = FXCollections.<String>observableArrayList();
 	private final ListView<String> resultListView = new ListView<>(resultList);
-	private final List<String> familyList = new ArrayList<>();
 	
 	private FamilyWin() {
 		windowWidth = Utilities.getRelativeSize(58);
@@ -151,8 +150,8 @@ public class FamilyWin extends SingletonWindow {
 
 	private void showResult(final String query) {
 		final int num = familyChoice.getSelectionModel().getSelectedIndex();
-		familyList.clear();
-		familyList.addAll(DpdUtilities.getFamilyList(DpdUtilities.TermFamily.values[num]));
+		// keys are indexed once, already sorted
+		final List<String> familyList = DpdUtilities.getFamilyList(DpdUtilities.TermFamily.values[num]);
 		resultList.clear();
 		final List<String> output;
 		if (query.isEmpty()) {
@@ -0,0 +1,373 @@
+/*
+ * NgramIndex.java
+ *
+ * Copyright (C) 2023-2026 J. R. Bhaddacak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see https://www.gnu.org/licenses/.
+ */
+
+package paliplatform.dpd;
+
+import paliplatform.base.*;
+
+import java.util.*;
+import java.io.ByteArrayOutputStream;
+import java.sql.*;
+
+/**
+ * The n-gram index for substring search in a PP-DPD table (ID, TERM, text).
+ * Every bigram and trigram of TERM and of the text column is mapped to
+ * the ascending list of IDs having it (delta-encoded), kept in a companion
+ * table. A substring query takes the IDs shared by all of its n-grams,
+ * then only those rows are read and checked, in ID order, until the limit
+ * is reached. So the result is the same as LIKE '%query%' ORDER BY ID LIMIT,
+ * without scanning the whole table. Matching ignores case, as the H2 tables do.
+ * @author J.R. Bhaddacak
+ * @version 4.1
+ * @since 4.1
+ */
+final class NgramIndex {
+	static final String SUFFIX = "_GRAMS";
+	private static final int MIN_GRAM = 2;
+	private static final int MAX_GRAM = 3;
+	private static final int FETCH_SIZE = 500;
+	private static final Map<String, Boolean> availMap = new HashMap<>();
+	private static int availModCount = -1;
+
+	private NgramIndex() {
+	}
+
+	/**
+	 * Tells whether a query can be searched by the index. Queries shorter
+	 * than a bigram or having LIKE wildcards go to SQL.
+	 */
+	static boolean isApplicable(final String query) {
+		if (query.length() < MIN_GRAM)
+			return false;
+		for (int i = 0; i < query.length(); i++) {
+			final char ch = query.charAt(i);
+			if (ch == '%' || ch == '_' || ch == '\\')
+				return false;
+		}
+		return true;
+	}
+
+	private static char fold(final char c) {
+		return Character.toLowerCase(Character.toUpperCase(c));
+	}
+
+	private static String makeGram(final String text, final int start, final int n) {
+		final char[] chars = new char[n];
+		for (int i = 0; i < n; i++)
+			chars[i] = fold(text.charAt(start + i));
+		return new String(chars);
+	}
+
+	/**
+	 * Gets the n-grams needed to find a query: the query itself
+	 * if it is short, otherwise all its distinct trigrams.
+	 */
+	private static Set<String> getQueryGrams(final String query) {
+		final Set<String> result = new LinkedHashSet<>();
+		if (query.length() <= MAX_GRAM) {
+			result.add(makeGram(query, 0, query.length()));
+		} else {
+			for (int i = 0; i + MAX_GRAM <= query.length(); i++)
+				result.add(makeGram(query, i, MAX_GRAM));
+		}
+		return result;
+	}
+
+	static boolean containsIgnoreCase(final String text, final String query) {
+		if (text == null)
+			return false;
+		final int max = text.length() - query.length();
+		for (int i = 0; i <= max; i++) {
+			if (text.regionMatches(true, i, query, 0, query.length()))
+				return true;
+		}
+		return false;
+	}
+
+	private static synchronized boolean isAvailable(final DBPool pool, final String tabName) {
+		final int modCount = Utilities.H2DB.PPDPD.getModCount();
+		if (modCount != availModCount) {
+			availMap.clear();
+			availModCount = modCount;
+		}
+		Boolean avail = availMap.get(tabName);
+		if (avail == null) {
+			final String select = "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = ?;";
+			try {
+				avail = pool.query(select, rs -> rs.next() && rs.getInt(1) > 0, tabName + SUFFIX);
+			} catch (SQLException e) {
+				System.err.println(e);
+				avail = false;
+			}
+			availMap.put(tabName, avail);
+		}
+		return avail;
+	}
+
+	/**
+	 * Searches rows whose TERM (and the text column, if inText is set)
+	 * contains the query, in ID order, up to the limit.
+	 * @return the pairs of TERM and the text column, or null if the
+	 * table has no index (SQL should be used instead)
+	 */
+	static List<StringPair> search(final String tabName, final String textCol, final String query,
+									final boolean inText, final int limit) {
+		final DBPool pool = Utilities.H2DB.PPDPD.getPool();
+		if (pool == null || !isAvailable(pool, tabName))
+			return null;
+		final List<StringPair> result = new ArrayList<>();
+		final Set<String> grams = getQueryGrams(query);
+		final String gSelect = DBPool.inList("SELECT GRAM,TERM_IDS,TEXT_IDS FROM " + tabName + SUFFIX + " WHERE GRAM IN ", grams.size());
+		try (final DBPool.Lease lease = pool.lease()) {
+			final Map<String, byte[][]> postings = lease.query(gSelect, rs -> {
+				final Map<String, byte[][]> map = new HashMap<>();
+				while (rs.next())
+					map.put(rs.getString(1), new byte[][] { rs.getBytes(2), rs.getBytes(3) });
+				return map;
+			}, grams.toArray());
+			final Cursor termCursor = intersect(grams, postings, 0);
+			final Cursor cursor = inText ? new OrCursor(termCursor, intersect(grams, postings, 1)) : termCursor;
+			// read candidates in ID order until the limit is reached
+			final String rSelect = "SELECT ID,TERM," + textCol + " FROM " + tabName + " WHERE ID IN ";
+			final List<Integer> ids = new ArrayList<>(FETCH_SIZE);
+			while (result.size() < limit) {
+				ids.clear();
+				final int batch = Math.min(FETCH_SIZE, Math.max(limit - result.size(), 64));
+				for (int id = cursor.next(); id > 0; id = ids.size() < batch ? cursor.next() : 0)
+					ids.add(id);
+				if (ids.isEmpty())
+					break;
+				final Map<Integer, StringPair> rowMap = lease.query(DBPool.inList(rSelect, ids.size()), rs -> {
+					final Map<Integer, StringPair> map = new HashMap<>();
+					while (rs.next())
+						map.put(rs.getInt(1), new StringPair(rs.getString(2), rs.getString(3)));
+					return map;
+				}, ids.toArray());
+				for (final Integer id : ids) {
+					final StringPair row = rowMap.get(id);
+					if (row == null) continue;
+					if (containsIgnoreCase(row.getFirst(), query)
+							|| (inText && containsIgnoreCase(row.getSecond(), query)))
+						result.add(row);
+					if (result.size() == limit)
+						break;
+				}
+			}
+		} catch (SQLException e) {
+			System.err.println(e);
+		}
+		return result;
+	}
+
+	private static Cursor intersect(final Set<String> grams, final Map<String, byte[][]> postings, final int column) {
+		final List<Cursor> cursors = new ArrayList<>();
+		for (final String g : grams) {
+			final byte[][] entry = postings.get(g);
+			final byte[] data = entry == null ? null : entry[column];
+			if (data == null)
+				return () -> -1;
+			cursors.add(new PostingCursor(data));
+		}
+		return cursors.size() == 1 ? cursors.get(0) : new AndCursor(cursors);
+	}
+
+	// inner classes
+	/**
+	 * Collects n-grams of rows added in ascending ID order,
+	 * then writes the index table.
+	 */
+	static final class Builder {
+		private final Map<String, Posting[]> gramMap = new HashMap<>();
+
+		void add(final int id, final String term, final String text) {
+			addText(0, id, term);
+			addText(1, id, text);
+		}
+
+		private void addText(final int column, final int id, final String text) {
+			if (text == null) return;
+			for (int n = MIN_GRAM; n <= MAX_GRAM; n++) {
+				for (int i = 0; i + n <= text.length(); i++) {
+					final Posting[] pair = gramMap.computeIfAbsent(makeGram(text, i, n), k -> new Posting[2]);
+					if (pair[column] == null)
+						pair[column] = new Posting();
+					pair[column].add(id);
+				}
+			}
+		}
+
+		/**
+		 * Replaces the index table of a table.
+		 */
+		void write(final java.sql.Connection conn, final String tabName) throws SQLException {
+			final String gTab = tabName + SUFFIX;
+			Utilities.executeSQL(conn, "DROP TABLE IF EXISTS " + gTab + ";");
+			Utilities.executeSQL(conn, "CREATE TABLE " + gTab + " (" +
+				"GRAM VARCHAR(3) PRIMARY KEY," +
+				"TERM_IDS VARBINARY," +
+				"TEXT_IDS VARBINARY);");
+			try (final BulkInserter inserter = new BulkInserter(conn, "INSERT INTO " + gTab + " VALUES(?, ?, ?);", 200)) {
+				for (final Map.Entry<String, Posting[]> entry : gramMap.entrySet()) {
+					final Posting[] pair = entry.getValue();
+					inserter.add(entry.getKey(),
+								pair[0] == null ? null : pair[0].toByteArray(),
+								pair[1] == null ? null : pair[1].toByteArray());
+				}
+				inserter.complete();
+			}
+			gramMap.clear();
+		}
+	}
+
+	/**
+	 * Gives IDs in ascending order, -1 at the end.
+	 */
+	@FunctionalInterface
+	private interface Cursor {
+		int next();
+	}
+
+	private static final class PostingCursor implements Cursor {
+		private final byte[] data;
+		private int pos = 0;
+		private int last = 0;
+
+		private PostingCursor(final byte[] data) {
+			this.data = data;
+		}
+
+		@Override
+		public int next() {
+			if (pos >= data.length)
+				return -1;
+			int delta = 0;
+			int shift = 0;
+			int b;
+			do {
+				b = data[pos++];
+				delta |= (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			last += delta;
+			return last;
+		}
+	}
+
+	/**
+	 * Gives IDs found in all cursors (leapfrog join).
+	 */
+	private static final class AndCursor implements Cursor {
+		private final Cursor[] cursors;
+		private final int[] curr;
+		private boolean done = false;
+
+		private AndCursor(final List<Cursor> list) {
+			cursors = list.toArray(new Cursor[0]);
+			curr = new int[cursors.length];
+		}
+
+		@Override
+		public int next() {
+			if (done)
+				return -1;
+			final int n = cursors.length;
+			int target = advance(0);
+			int matched = 1;
+			int i = 1 % n;
+			while (target > 0 && matched < n) {
+				while (curr[i] >= 0 && curr[i] < target)
+					advance(i);
+				if (curr[i] < 0) {
+					target = -1;
+				} else if (curr[i] == target) {
+					matched++;
+				} else {
+					target = curr[i];
+					matched = 1;
+				}
+				i = (i + 1) % n;
+			}
+			if (target < 0)
+				done = true;
+			return target;
+		}
+
+		private int advance(final int i) {
+			curr[i] = cursors[i].next();
+			return curr[i];
+		}
+	}
+
+	/**
+	 * Gives IDs found in either cursor.
+	 */
+	private static final class OrCursor implements Cursor {
+		private final Cursor a;
+		private final Cursor b;
+		private int headA;
+		private int headB;
+
+		private OrCursor(final Cursor a, final Cursor b) {
+			this.a = a;
+			this.b = b;
+			headA = a.next();
+			headB = b.next();
+		}
+
+		@Override
+		public int next() {
+			final int result;
+			if (headA < 0 && headB < 0) {
+				result = -1;
+			} else if (headB < 0 || (headA >= 0 && headA < headB)) {
+				result = headA;
+				headA = a.next();
+			} else if (headA < 0 || headB < headA) {
+				result = headB;
+				headB = b.next();
+			} else {
+				result = headA;
+				headA = a.next();
+				headB = b.next();
+			}
+			return result;
+		}
+	}
+
+	private static final class Posting {
+		private final ByteArrayOutputStream out = new ByteArrayOutputStream(16);
+		private int last = 0;
+
+		private void add(final int id) {
+			// an ID is added once even if the gram occurs many times
+			if (id == last) return;
+			int delta = id - last;
+			last = id;
+			while ((delta & ~0x7F) != 0) {
+				out.write((delta & 0x7F) | 0x80);
+				delta >>>= 7;
+			}
+			out.write(delta);
+		}
+
+		private byte[] toByteArray() {
+			return out.toByteArray();
+		}
+	}
+
+}
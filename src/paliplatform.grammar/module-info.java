@@ -17,4 +17,6 @@ module paliplatform.grammar {
 		paliplatform.grammar.FontSetter,
 		paliplatform.grammar.DeclWinLauncher,
 		paliplatform.grammar.ProsodyLauncher;
+	provides paliplatform.base.StartupService with 
+		paliplatform.grammar.GrammarStartup;
 }
@@ -0,0 +1,35 @@
+/*
+ * GrammarStartup.java
+ *
+ * Copyright (C) 2023-2026 J. R. Bhaddacak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see https://www.gnu.org/licenses/.
+ */
+
+package paliplatform.grammar;
+
+import paliplatform.base.*;
+
+/** 
+ * Loads the root list after the main window is shown.
+ * @author J.R. Bhaddacak
+ * @version 4.1
+ * @since 4.1
+ */
+
+public class GrammarStartup implements StartupService {
+	@Override
+	public void addStartupTasks(final StartupGraph graph) {
+		graph.add("grammar-roots", StartupGraph.Phase.DEFERRED, GrammarUtilities::loadRootList);
+	}
+}
@@ -123,7 +123,7 @@ final public class GrammarUtilities {
 		}
 	}
 
-	public static void loadRootList() {
+	public static synchronized void loadRootList() {
 		if (!paliRoots.isEmpty()) return;
 		try (final Scanner in = new Scanner(RootWin.class.getResourceAsStream(PALI_ROOT_LIST), StandardCharsets.UTF_8)) {
 			while (in.hasNextLine()) {
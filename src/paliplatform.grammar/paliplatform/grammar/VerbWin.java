@@ -416,7 +416,7 @@ public class VerbWin extends SingletonWindow {
 			return meaning;
 		}
 		public int compareTo(final VerbOutput other) {
-			return Utilities.paliCollator.compare(this.termProperty().get(), other.termProperty().get());
+			return Utilities.paliComparator.compare(this.termProperty().get(), other.termProperty().get());
 		}
 	} // end inner class
 	
@@ -23,6 +23,7 @@ import paliplatform.base.*;
 import paliplatform.reader.*;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.*;
 import java.util.regex.*;
 import java.util.function.*;
@@ -314,6 +315,7 @@ public class LuceneFinder extends BorderPane {
 			@Override
 			protected Boolean call() throws Exception {
 				updateMessage("Building index... (please wait)");
+				final StringBuilder failReport = new StringBuilder();
 				try {
 					final Path indexPath = Path.of(currIndex.getIndexPath());
 					if (!Files.exists(indexPath)) return false;
@@ -411,29 +413,59 @@ public class LuceneFinder extends BorderPane {
 							iwriter.addDocument(doc);
 						} // end for
 						zip.close();
+					} else if (col == Corpus.Collection.SKT) {
+						// texts come from the extracted-text store, documents are made and added in parallel
+						final int parallelism = Runtime.getRuntime().availableProcessors();
+						updateMessage("Extracting texts... (please wait)");
+						SktGretilStore.ensureStore(parallelism);
+						updateMessage("Building index... (please wait)");
+						final String tg = corpusSelector.getSelectedTextGroup().getAbbrev();
+						final List<String> textList = new ArrayList<>();
+						for (final String fullname : SktGretilStore.listTexts()) {
+							if (!fileFilterPattern.matcher(fullname).matches()) continue;
+							final String textId = fullname.substring(fullname.lastIndexOf("/") + 1, fullname.lastIndexOf("."));
+							final DocumentInfo sktInfo = currCorpus.getDocInfo(textId);
+							if (sktInfo == null) continue;
+							if (!tg.equals("all") && !tg.equals(sktInfo.getGroup())) continue;
+							textList.add(fullname);
+						}
+						final UnaryOperator<String> tokenizer = makeTokenizer(rexNonWord);
+						final int textTotal = textList.size();
+						final AtomicInteger done = new AtomicInteger();
+						final SortedMap<String, Throwable> failures = SktGretilStore.processTexts(textList, parallelism, (fullname, bodyText) -> {
+							final Map<TermInfo.Field, StringBuilder> textMap = buildTextMap(col);
+							textMap.get(TermInfo.Field.BODYTEXT).append(bodyText).append("\n");
+							final Document doc = new Document();
+							doc.add(new StringField(FIELD_PATH, fullname, Field.Store.YES));
+							textMap.forEach((f, sb) -> {
+								final String text = tokenizer.apply(sb.toString().toLowerCase());
+								doc.add(new org.apache.lucene.document.TextField(f.getTag(), text, Field.Store.NO));
+							});
+							iwriter.addDocument(doc);
+							updateProgress(done.incrementAndGet(), textTotal);
+						});
+						if (!failures.isEmpty()) {
+							failReport.append(String.format("%d of %d document(s) could not be indexed:", failures.size(), textTotal));
+							failures.entrySet().stream().limit(10)
+								.forEach(f -> failReport.append("\n").append(f.getKey()).append(": ").append(f.getValue()));
+							if (failures.size() > 10)
+								failReport.append("\n...");
+						}
 					} else if (col == Corpus.Collection.SC || col == Corpus.Collection.PTST || col == Corpus.Collection.BJT
-								|| col == Corpus.Collection.SRT || col == Corpus.Collection.GRAM || col == Corpus.Collection.SKT) {
+								|| col == Corpus.Collection.SRT || col == Corpus.Collection.GRAM) {
 						final ZipFile zip = new ZipFile(currCorpus.getZipFile());
 						total = zip.size();
 						count = 0;
-						final TextGroup tGroup = corpusSelector.getSelectedTextGroup();
 						for (final Enumeration<? extends ZipEntry> e = zip.entries(); e.hasMoreElements();) {
 							updateProgress(count++, total);
 							final ZipEntry entry = e.nextElement();
 							final String fullname = entry.getName();
 							final String[] strName = fullname.split("/");
-							final String nameToMatch = col == Corpus.Collection.SC || col == Corpus.Collection.SRT  || col == Corpus.Collection.SKT 
+							final String nameToMatch = col == Corpus.Collection.SC || col == Corpus.Collection.SRT
 														? fullname
 														: strName[strName.length - 1];
 							final Matcher fileMatcher = fileFilterPattern.matcher(nameToMatch);
 							if (!fileMatcher.matches()) continue;
-							if (col == Corpus.Collection.SKT) {
-								final String textId = fullname.substring(fullname.lastIndexOf("/") + 1, fullname.lastIndexOf("."));
-								final DocumentInfo sktInfo = currCorpus.getDocInfo(textId);
-								if (sktInfo == null) continue;
-								final String tg = tGroup.getAbbrev();
-								if (!tg.equals("all") && !tg.equals(sktInfo.getGroup())) continue;
-							}
 							final Map<TermInfo.Field, StringBuilder> textMap = buildTextMap(col);
 							final TextHandler handler;
 							if (col == Corpus.Collection.SC)
@@ -444,8 +476,6 @@ public class LuceneFinder extends BorderPane {
 								handler = new BjtTextHandler(textMap);
 							else if (col == Corpus.Collection.SRT)
 								handler = new SrtTextHandler(textMap);
-							else if (col == Corpus.Collection.SKT)
-								handler = new SktTextHandler(textMap);
 							else
 								handler = new GramTextHandler(textMap);
 							handler.processStream(zip.getInputStream(entry));
@@ -460,15 +490,17 @@ public class LuceneFinder extends BorderPane {
 						zip.close();
 					}
 					iwriter.close();
-				} catch (SAXException | ParserConfigurationException | IOException e) {
+				} catch (SAXException | ParserConfigurationException | IOException | InterruptedException e) {
 					System.err.println(e);
 				}
 				Platform.runLater(() -> {
 					progressBar.progressProperty().unbind();
 					statusPane.getChildren().remove(progressBox);
 					updateIndexChoice(dirName);
+					if (failReport.length() > 0)
+						Utilities.displayAlert(Alert.AlertType.ERROR, failReport.toString());
 				});
-				return true;
+				return failReport.length() == 0;
 			}
 		};
 		progressBar.progressProperty().bind(buildTask.progressProperty());
@@ -572,13 +604,15 @@ public class LuceneFinder extends BorderPane {
 	}
 
 	private String tokenize(final String text, final String rexNonWord) {
+		return makeTokenizer(rexNonWord).apply(text);
+	}
+
+	/**
+	 * Makes the tokenizer with the current indexing options,
+	 * the tokenizer can be used by many threads.
+	 */
+	private UnaryOperator<String> makeTokenizer(final String rexNonWord) {
 		currCorpus = corpusSelector.getSelectedCorpus();
-		final String[] tokens = text.replaceAll("(\\d+)", " $1 ").split(rexNonWord); // padding digits with spaces before spliting
-		final List<String> tokenList = new ArrayList<>();
-		for (final String t : tokens) {
-			// splitting by brackets, done separately
-			tokenList.addAll(Arrays.asList(t.split("[\\[\\]]")));
-		}
 		final RadioMenuItem widExcRadio = (RadioMenuItem)lengthExclusionGroup.getSelectedToggle();
 		final Predicate<String> widExcCond;
 		if (widExcRadio.getText().contains("1"))
@@ -600,13 +634,20 @@ public class LuceneFinder extends BorderPane {
 			stopwrdCond = x -> LuceneUtilities.stopwords.contains(x);
 		else
 			stopwrdCond = x -> false;
-		final String result = tokenList.stream()
-										.filter(x -> !x.isEmpty())
-										.filter(Predicate.not(stopwrdCond))
-										.filter(Predicate.not(inclNumCond))
-										.filter(Predicate.not(widExcCond))
-										.collect(Collectors.joining(" "));
-		return result;
+		return text -> {
+			final String[] tokens = text.replaceAll("(\\d+)", " $1 ").split(rexNonWord); // padding digits with spaces before spliting
+			final List<String> tokenList = new ArrayList<>();
+			for (final String t : tokens) {
+				// splitting by brackets, done separately
+				tokenList.addAll(Arrays.asList(t.split("[\\[\\]]")));
+			}
+			return tokenList.stream()
+							.filter(x -> !x.isEmpty())
+							.filter(Predicate.not(stopwrdCond))
+							.filter(Predicate.not(inclNumCond))
+							.filter(Predicate.not(widExcCond))
+							.collect(Collectors.joining(" "));
+		};
 	}
 
 	private void setDefaultIndexOptions() {
@@ -738,8 +779,18 @@ public class LuceneFinder extends BorderPane {
 					}
 				}
 				zip.close();
+			} else if (col == Corpus.Collection.SKT) {
+				for (final SearchOutput so : outputList) {
+					final int docID = so.getDocID();
+					if (!resultTextMap.containsKey(docID)) {
+						final Map<TermInfo.Field, StringBuilder> textMap = buildTextMap(col);
+						final String filename = ireader.storedFields().document(docID).get(FIELD_PATH);
+						textMap.get(TermInfo.Field.BODYTEXT).append(SktGretilStore.readBodyText(filename)).append("\n");
+						resultTextMap.put(docID, textMap);
+					}
+				}
 			} else if (col == Corpus.Collection.SC || col == Corpus.Collection.PTST || col == Corpus.Collection.BJT
-						|| col == Corpus.Collection.SRT || col == Corpus.Collection.GRAM || col == Corpus.Collection.SKT) {
+						|| col == Corpus.Collection.SRT || col == Corpus.Collection.GRAM) {
 				final ZipFile zip = new ZipFile(currCorpus.getZipFile());
 				for (final SearchOutput so : outputList) {
 					final int docID = so.getDocID();
@@ -754,8 +805,6 @@ public class LuceneFinder extends BorderPane {
 							handler = new BjtTextHandler(textMap);
 						else if (col == Corpus.Collection.SRT)
 							handler = new SrtTextHandler(textMap);
-						else if (col == Corpus.Collection.SKT)
-							handler = new SktTextHandler(textMap);
 						else
 							handler = new GramTextHandler(textMap);
 						final String filename = ireader.storedFields().document(docID).get(FIELD_PATH);
@@ -1,4 +1,5 @@
 module paliplatform.main {
+	requires org.hamcrest;
 	requires java.sql;
 	requires java.desktop;
 	requires javafx.base;
@@ -11,6 +12,7 @@ module paliplatform.main {
 	uses paliplatform.base.ReaderService;
 	uses paliplatform.base.LuceneService;
 	uses paliplatform.base.SktService;
+	uses paliplatform.base.StartupService;
 	provides paliplatform.base.SimpleService with 
 		paliplatform.main.EditorLauncher,
 		paliplatform.main.DictSearch,
@@ -28,6 +28,9 @@ import java.io.*;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+
 import javafx.collections.*;
 import javafx.scene.*;
 import javafx.scene.image.*;
@@ -38,9 +41,10 @@ import javafx.beans.property.*;
 
 /** 
  * This utility converts files containing a Pali script to another script.
+ * The conversion is done by BatchTranslitEngine concurrently.
  * This is a singleton.
  * @author J.R. Bhaddacak
- * @version 3.6
+ * @version 4.1
  * @since 2.0
  */
 public class BatchScriptTransformer extends SingletonWindow {
@@ -56,6 +60,8 @@ public class BatchScriptTransformer extends SingletonWindow {
 	private final CheckMenuItem romanAsSanskritMenuItem = new CheckMenuItem("Roman as Sanskrit");
 	private final ToggleGroup romanDefaultGroup = new ToggleGroup();
 	private final InfoPopup infoPopup = new InfoPopup();
+	private final Button convertButton = new Button("Convert", new TextIcon("gears", TextIcon.IconSet.AWESOME));
+	private final Label statusLabel = new Label();
 	private File outputDirectory = null;
 	
 	private BatchScriptTransformer() {
@@ -147,7 +153,6 @@ public class BatchScriptTransformer extends SingletonWindow {
 		includeNumMenuItem.setSelected(true);
 		optionsMenu.getItems().addAll(useSourceDirMenuItem, setOutputDirMenuItem,
 						new SeparatorMenuItem(), autodetectMenuItem, romanDefMenu, includeNumMenuItem, romanAsSanskritMenuItem);
-		final Button convertButton = new Button("Convert", new TextIcon("gears", TextIcon.IconSet.AWESOME));
 		convertButton.setOnAction(actionEvent -> startConvert());
 		toolBar.getItems().addAll(removeButton, clearButton, resetButton, 
 								addButton, sourceScriptMenu, targetScriptMenu,
@@ -158,6 +163,8 @@ public class BatchScriptTransformer extends SingletonWindow {
 		VBox.setVgrow(table, Priority.ALWAYS);
 		contentBox.getChildren().addAll(toolBar, table);
 		mainPane.setCenter(contentBox);
+		statusLabel.setStyle("-fx-font-family:'" + Utilities.FONTMONO +"';-fx-font-size:85%;");
+		mainPane.setBottom(statusLabel);
 		final Scene scene = new Scene(mainPane, windowWidth, windowHeight);
 		setScene(scene);
 		
@@ -177,26 +184,41 @@ public class BatchScriptTransformer extends SingletonWindow {
 		final TableColumn<ScriptTransformer, String> sourceFileCol = new TableColumn<>("Source file");
 		sourceFileCol.setCellValueFactory(new PropertyValueFactory<>(workingList.get(0).sourceFileNameProperty().getName()));
 		sourceFileCol.setStyle("-fx-text-overrun:leading-ellipsis");
-		sourceFileCol.prefWidthProperty().bind(mainPane.widthProperty().divide(11).multiply(4).subtract(7));
+		sourceFileCol.prefWidthProperty().bind(mainPane.widthProperty().divide(14).multiply(4).subtract(7));
 		final TableColumn<ScriptTransformer, String> sourceScriptCol = new TableColumn<>("From");
 		sourceScriptCol.setCellValueFactory(new PropertyValueFactory<>(workingList.get(0).sourceScriptProperty().getName()));
-		sourceScriptCol.prefWidthProperty().bind(mainPane.widthProperty().divide(11).multiply(1));
+		sourceScriptCol.prefWidthProperty().bind(mainPane.widthProperty().divide(14).multiply(1));
 		final TableColumn<ScriptTransformer, String> targetFileCol = new TableColumn<>("Output file");
 		targetFileCol.setCellValueFactory(new PropertyValueFactory<>(workingList.get(0).targetFileNameProperty().getName()));
 		targetFileCol.setStyle("-fx-text-overrun:center-ellipsis");
-		targetFileCol.prefWidthProperty().bind(mainPane.widthProperty().divide(11).multiply(4));
+		targetFileCol.prefWidthProperty().bind(mainPane.widthProperty().divide(14).multiply(4));
 		final TableColumn<ScriptTransformer, String> targetScriptCol = new TableColumn<>("To");
 		targetScriptCol.setCellValueFactory(new PropertyValueFactory<>(workingList.get(0).targetScriptProperty().getName()));
-		targetScriptCol.prefWidthProperty().bind(mainPane.widthProperty().divide(11).multiply(1));
+		targetScriptCol.prefWidthProperty().bind(mainPane.widthProperty().divide(14).multiply(1));
 		final TableColumn<ScriptTransformer, String> doneCol = new TableColumn<>("Done");
 		doneCol.setCellValueFactory(new PropertyValueFactory<>(workingList.get(0).doneProperty().getName()));
 		doneCol.getStyleClass().add("checkok");
-		doneCol.prefWidthProperty().bind(mainPane.widthProperty().divide(11).multiply(1));
+		doneCol.prefWidthProperty().bind(mainPane.widthProperty().divide(14).multiply(1));
+		final TableColumn<ScriptTransformer, String> sizeCol = new TableColumn<>("Size");
+		sizeCol.setCellValueFactory(new PropertyValueFactory<>(workingList.get(0).sizeProperty().getName()));
+		sizeCol.setStyle("-fx-alignment:center-right");
+		sizeCol.prefWidthProperty().bind(mainPane.widthProperty().divide(14).multiply(1));
+		final TableColumn<ScriptTransformer, String> timeCol = new TableColumn<>("Time");
+		timeCol.setCellValueFactory(new PropertyValueFactory<>(workingList.get(0).timeProperty().getName()));
+		timeCol.setStyle("-fx-alignment:center-right");
+		timeCol.prefWidthProperty().bind(mainPane.widthProperty().divide(14).multiply(1));
+		final TableColumn<ScriptTransformer, String> speedCol = new TableColumn<>("MB/s");
+		speedCol.setCellValueFactory(new PropertyValueFactory<>(workingList.get(0).speedProperty().getName()));
+		speedCol.setStyle("-fx-alignment:center-right");
+		speedCol.prefWidthProperty().bind(mainPane.widthProperty().divide(14).multiply(1));
 		table.getColumns().add(sourceFileCol);
 		table.getColumns().add(sourceScriptCol);
 		table.getColumns().add(targetFileCol);
 		table.getColumns().add(targetScriptCol);
 		table.getColumns().add(doneCol);
+		table.getColumns().add(sizeCol);
+		table.getColumns().add(timeCol);
+		table.getColumns().add(speedCol);
 	}
 	
 	private void addFiles() {
@@ -236,14 +258,48 @@ public class BatchScriptTransformer extends SingletonWindow {
 	
 	private void clearAll() {
 		workingList.clear();
+		statusLabel.setText("");
 	}
 	
 	private void reset() {
 		workingList.forEach(st -> st.setDone(false));
+		statusLabel.setText("");
 	}
 
 	private void startConvert() {
-		workingList.forEach(st -> st.convert());
+		final Map<BatchTranslitEngine.Job, ScriptTransformer> jobMap = new LinkedHashMap<>();
+		for (final ScriptTransformer st : workingList) {
+			final BatchTranslitEngine.Job job = st.createJob();
+			if (job != null)
+				jobMap.put(job, st);
+		}
+		if (jobMap.isEmpty())
+			return;
+		final List<BatchTranslitEngine.Job> jobs = new ArrayList<>(jobMap.keySet());
+		final BatchTranslitEngine engine = new BatchTranslitEngine();
+		convertButton.setDisable(true);
+		statusLabel.setText("Converting " + jobs.size() + " file(s) with " + engine.getParallelism() + " worker(s)...");
+		final Task<BatchTranslitEngine.Summary> convertTask = new Task<>() {
+			@Override
+			protected BatchTranslitEngine.Summary call() throws Exception {
+				return engine.run(jobs, job -> {
+					final ScriptTransformer st = jobMap.get(job);
+					Platform.runLater(() -> st.setResult(job));
+				});
+			}
+		};
+		// both handlers run in the FX thread
+		convertTask.setOnSucceeded(event -> {
+			statusLabel.setText(convertTask.getValue().toString());
+			convertButton.setDisable(false);
+		});
+		convertTask.setOnFailed(event -> {
+			final Throwable error = convertTask.getException();
+			System.err.println(error);
+			statusLabel.setText("Conversion failed: " + error);
+			convertButton.setDisable(false);
+		});
+		Utilities.threadPool.submit(convertTask);
 	}
 
 	private List<String[]> makeCSV() {
@@ -264,6 +320,9 @@ public class BatchScriptTransformer extends SingletonWindow {
 			data[2] = st.targetFileNameProperty().get();
 			data[3] = st.targetScriptProperty().get();
 			data[4] = st.doneProperty().get();
+			data[5] = st.sizeProperty().get();
+			data[6] = st.timeProperty().get();
+			data[7] = st.speedProperty().get();
 			result.add(data);
 		}
 		return result;
@@ -285,6 +344,9 @@ public class BatchScriptTransformer extends SingletonWindow {
 		private StringProperty targetFileName;
 		private StringProperty targetScript;
 		private StringProperty done;
+		private StringProperty size;
+		private StringProperty time;
+		private StringProperty speed;
 		final private String sourceName;
 		final private String sourcePath;
 		final private String sourceExt;
@@ -360,6 +422,24 @@ public class BatchScriptTransformer extends SingletonWindow {
 			return done;
 		}
 		
+		public StringProperty sizeProperty() {
+			if (size == null)
+				size = new SimpleStringProperty(this, "size", "");
+			return size;
+		}
+		
+		public StringProperty timeProperty() {
+			if (time == null)
+				time = new SimpleStringProperty(this, "time", "");
+			return time;
+		}
+		
+		public StringProperty speedProperty() {
+			if (speed == null)
+				speed = new SimpleStringProperty(this, "speed", "");
+			return speed;
+		}
+		
 		public void setSourceScript(final String strScript) {
 			sourceScript.set(strScript);
 		}
@@ -391,29 +471,42 @@ public class BatchScriptTransformer extends SingletonWindow {
 		
 		public void setDone(final boolean yn) {
 			final String result = yn ? "✔" : "";
-			done.set(result);
+			doneProperty().set(result);
+			if (!yn) {
+				sizeProperty().set("");
+				timeProperty().set("");
+				speedProperty().set("");
+			}
+		}
+		
+		public void setResult(final BatchTranslitEngine.Job job) {
+			setDone(job.isDone());
+			if (job.isDone()) {
+				sizeProperty().set(BatchTranslitEngine.formatSize(job.getSize()));
+				timeProperty().set(String.format("%.3f", job.getSeconds()));
+				speedProperty().set(String.format("%.2f", job.getMBPerSecond()));
+			}
 		}
 		
-		public void convert() {
+		/**
+		 * Prepares a conversion job for the engine, or null if nothing to do.
+		 */
+		public BatchTranslitEngine.Job createJob() {
+			if (sourceFile == null)
+				return null;
 			if (!doneProperty().get().isEmpty())
-				return;
+				return null;
 			if (targetFileNameProperty().get().isEmpty())
-				return;
+				return null;
 			if (sourceScriptProperty().get().equals(targetScriptProperty().get()))
-				return;
+				return null;
 			final File target = new File(targetFileNameProperty().get());
 			final EngineType romanDef = (EngineType)romanDefaultGroup.getSelectedToggle().getUserData();
-			final boolean alsoNumber = includeNumMenuItem.isSelected();
-			final String srcText = Utilities.getTextFileContent(sourceFile, charset);
 			final PaliScript fromScript = PaliScript.valueOf(sourceScriptProperty().get());
 			final PaliScript toScript = PaliScript.valueOf(targetScriptProperty().get());
-			String tgtText = ScriptTransliterator.translitPaliScript(srcText,
-								fromScript, toScript, romanDef, alsoNumber, romanAsSanskritMenuItem.isSelected());
-			if (sourceExt.equalsIgnoreCase(".xml"))
-				tgtText = ScriptTransliterator.fixXslName(tgtText, fromScript, toScript);
-			Utilities.saveText(tgtText, target, charset);
-			setDone(true);
-		} // end convert
+			return new BatchTranslitEngine.Job(sourceFile, target, charset, fromScript, toScript,
+						romanDef, includeNumMenuItem.isSelected(), romanAsSanskritMenuItem.isSelected());
+		} // end createJob
 	} // end inner class
 	
 }
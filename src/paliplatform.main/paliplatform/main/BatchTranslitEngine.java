@@ -0,0 +1,266 @@
+/*
+ * BatchTranslitEngine.java
+ *
+ * Copyright (C) 2023-2026 J. R. Bhaddacak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see https://www.gnu.org/licenses/.
+ */
+
+package paliplatform.main;
+
+import paliplatform.base.*;
+import paliplatform.base.Utilities.PaliScript;
+import paliplatform.base.ScriptTransliterator.EngineType;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.io.*;
+import java.nio.charset.Charset;
+
+/**
+ * The headless engine of batch script conversion.
+ * Files are converted concurrently with bounded parallelism.
+ * A very large file is split at line boundaries, the chunks are
+ * transliterated in parallel, then joined back before saving.
+ * This is used by BatchScriptTransformer and TranslitUtil (CLI).
+ * @author J.R. Bhaddacak
+ * @version 4.1
+ * @since 4.1
+ */
+public class BatchTranslitEngine {
+	public static final int DEF_CHUNK_SIZE = 1 << 20; // in chars
+	private static final double MEGA = 1024.0 * 1024.0;
+	private final int parallelism;
+	private final int chunkSize;
+
+	public BatchTranslitEngine() {
+		this(Runtime.getRuntime().availableProcessors(), DEF_CHUNK_SIZE);
+	}
+
+	public BatchTranslitEngine(final int parallelism) {
+		this(parallelism, DEF_CHUNK_SIZE);
+	}
+
+	public BatchTranslitEngine(final int parallelism, final int chunkSize) {
+		this.parallelism = Math.max(1, parallelism);
+		this.chunkSize = Math.max(1024, chunkSize);
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Converts all jobs, the callback is called (in a worker thread)
+	 * when each job is done. This blocks until all jobs finish.
+	 */
+	public Summary run(final List<Job> jobs, final Consumer<Job> onDone) {
+		ScriptTransliterator.initializeTransliterator();
+		final long start = System.nanoTime();
+		final ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			final List<ForkJoinTask<?>> tasks = new ArrayList<>(jobs.size());
+			for (final Job job : jobs) {
+				tasks.add(pool.submit(() -> {
+					convert(job);
+					if (onDone != null)
+						onDone.accept(job);
+				}));
+			}
+			for (final ForkJoinTask<?> t : tasks) {
+				try {
+					t.get();
+				} catch (InterruptedException | ExecutionException e) {
+					System.err.println(e);
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+		return new Summary(jobs, System.nanoTime() - start);
+	}
+
+	private void convert(final Job job) {
+		final long start = System.nanoTime();
+		final String srcText = Utilities.getTextFileContent(job.source, job.charset);
+		job.size = job.source.length();
+		String tgtText;
+		if (srcText.length() > chunkSize) {
+			final List<String> chunks = splitAtLines(srcText, chunkSize);
+			final List<ForkJoinTask<String>> tasks = new ArrayList<>(chunks.size());
+			for (final String ch : chunks)
+				tasks.add(ForkJoinTask.adapt(() -> job.transliterate(ch)));
+			ForkJoinTask.invokeAll(tasks);
+			final StringBuilder result = new StringBuilder(srcText.length() + srcText.length() / 2);
+			for (final ForkJoinTask<String> t : tasks)
+				result.append(t.join());
+			tgtText = result.toString();
+			job.chunkCount = chunks.size();
+		} else {
+			tgtText = job.transliterate(srcText);
+			job.chunkCount = 1;
+		}
+		if (job.source.getName().toLowerCase().endsWith(".xml"))
+			tgtText = ScriptTransliterator.fixXslName(tgtText, job.fromScript, job.toScript);
+		Utilities.saveText(tgtText, job.target, job.charset);
+		job.nanos = System.nanoTime() - start;
+		job.done = true;
+	}
+
+	/**
+	 * Splits a text into chunks of about the given size.
+	 * The split is always after a line break, so tags
+	 * (which do not span lines) and words are kept intact.
+	 */
+	static List<String> splitAtLines(final String text, final int size) {
+		final List<String> result = new ArrayList<>();
+		final int len = text.length();
+		int start = 0;
+		while (start < len) {
+			int end = start + size;
+			if (end >= len) {
+				end = len;
+			} else {
+				final int nl = text.indexOf('\n', end);
+				end = nl < 0 ? len : nl + 1;
+			}
+			result.add(text.substring(start, end));
+			start = end;
+		}
+		return result;
+	}
+
+	public static String formatSize(final long bytes) {
+		return bytes < MEGA
+				? String.format("%.1f KB", bytes / 1024.0)
+				: String.format("%.2f MB", bytes / MEGA);
+	}
+
+	// inner classes
+	public static final class Job {
+		private final File source;
+		private final File target;
+		private final Charset charset;
+		private final PaliScript fromScript;
+		private final PaliScript toScript;
+		private final EngineType romanDef;
+		private final boolean withNumbers;
+		private final boolean asSanskrit;
+		private volatile long size;
+		private volatile long nanos;
+		private volatile int chunkCount;
+		private volatile boolean done;
+
+		public Job(final File source, final File target, final Charset charset,
+				final PaliScript fromScript, final PaliScript toScript,
+				final EngineType romanDef, final boolean withNumbers, final boolean asSanskrit) {
+			this.source = source;
+			this.target = target;
+			this.charset = charset;
+			this.fromScript = fromScript;
+			this.toScript = toScript;
+			this.romanDef = romanDef;
+			this.withNumbers = withNumbers;
+			this.asSanskrit = asSanskrit;
+		}
+
+		private String transliterate(final String text) {
+			return ScriptTransliterator.translitPaliScript(text, fromScript, toScript, romanDef, withNumbers, asSanskrit);
+		}
+
+		public File getSource() {
+			return source;
+		}
+
+		public File getTarget() {
+			return target;
+		}
+
+		public boolean isDone() {
+			return done;
+		}
+
+		public long getSize() {
+			return size;
+		}
+
+		public int getChunkCount() {
+			return chunkCount;
+		}
+
+		public double getSeconds() {
+			return nanos / 1e9;
+		}
+
+		public double getMBPerSecond() {
+			return nanos == 0 ? 0 : size / MEGA / getSeconds();
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s (%s, %d chunk%s) %.3f s, %.2f MB/s",
+						target.getPath(), formatSize(size), chunkCount, chunkCount > 1 ? "s" : "",
+						getSeconds(), getMBPerSecond());
+		}
+	}
+
+	public static final class Summary {
+		private final int fileCount;
+		private final long totalSize;
+		private final long nanos;
+
+		private Summary(final List<Job> jobs, final long nanos) {
+			int count = 0;
+			long sum = 0;
+			for (final Job j : jobs) {
+				if (j.isDone()) {
+					count++;
+					sum += j.getSize();
+				}
+			}
+			fileCount = count;
+			totalSize = sum;
+			this.nanos = nanos;
+		}
+
+		public int getFileCount() {
+			return fileCount;
+		}
+
+		public long getTotalSize() {
+			return totalSize;
+		}
+
+		public double getSeconds() {
+			return nanos / 1e9;
+		}
+
+		public double getFilesPerSecond() {
+			return nanos == 0 ? 0 : fileCount / getSeconds();
+		}
+
+		public double getMBPerSecond() {
+			return nanos == 0 ? 0 : totalSize / MEGA / getSeconds();
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d file%s (%s) in %.3f s: %.2f files/s, %.2f MB/s",
+						fileCount, fileCount == 1 ? "" : "s", formatSize(totalSize),
+						getSeconds(), getFilesPerSecond(), getMBPerSecond());
+		}
+	}
+
+}
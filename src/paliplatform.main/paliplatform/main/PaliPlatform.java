@@ -47,7 +47,7 @@ import java.nio.charset.StandardCharsets;
 /** 
  * The entry point of the whole program.
  * @author J.R. Bhaddacak
- * @version 4.0
+ * @version 4.1
  * @since 2.0
  */
 final public class PaliPlatform extends Application {
@@ -65,6 +65,8 @@ final public class PaliPlatform extends Application {
 	static LuceneService luceneServiceImp;
 	static SktService sktServiceImp;
 	public static InfoPopup infoPopup;
+	private static final StartupGraph startupGraph = new StartupGraph();
+	private static String infoText = "";
 	
     @Override
     public void init() throws Exception {
@@ -109,22 +111,20 @@ final public class PaliPlatform extends Application {
 		Utilities.urls = UrlProperties.INSTANCE.getUrlProps();
 		Utilities.iconSize = Utilities.IconSize.valueOf(Utilities.getSetting("iconsize"));
 
-		// initialize font map
-		Utilities.initializeFontMap();
-		Utilities.initializeFontSelectors();
-
-		// initialize comparator
-		Utilities.initializeComparator();
-		
-		// initialize StringConverter
-		Utilities.initializeStringConverter();
-
-		// initialize ScriptTransliterator
-		ScriptTransliterator.initializeTransliterator();
+		// run independent initializers concurrently, the rest waits until the window is shown
+		startupGraph.add("font-map", StartupGraph.Phase.CRITICAL, Utilities::initializeFontMap)
+			.add("font-selectors", StartupGraph.Phase.CRITICAL, Utilities::initializeFontSelectors, "font-map")
+			.add("comparators", StartupGraph.Phase.CRITICAL, Utilities::initializeComparator)
+			.add("string-converter", StartupGraph.Phase.CRITICAL, Utilities::initializeStringConverter)
+			.add("transliterator", StartupGraph.Phase.CRITICAL, ScriptTransliterator::initializeTransliterator)
+			.add("info-text", StartupGraph.Phase.CRITICAL, () -> infoText = getTextResource("info-quick-starter.txt"))
+			.add("services", StartupGraph.Phase.CRITICAL, PaliPlatform::loadServices,
+					"font-selectors", "comparators", "string-converter", "transliterator");
+		startupGraph.runCritical();
 
 		// prepare info popup
 		infoPopup = new InfoPopup();
-		infoPopup.setContentWithText(getTextResource("info-quick-starter.txt"));
+		infoPopup.setContentWithText(infoText);
 		infoPopup.setTextWidth(Utilities.getRelativeSize(48));
 
 		// prepare for macOS UI
@@ -135,14 +135,21 @@ final public class PaliPlatform extends Application {
 			System.setProperty("com.apple.mrj.application.apple.menu.about.name", PRODUCT_NAME);
 		}
 
-		// intialize services from other modules
+		// let other modules add their loading tasks, run later
+		ServiceLoader.load(StartupService.class).forEach(x -> x.addStartupTasks(startupGraph));
+    }
+
+	/**
+	 * Initializes services from other modules.
+	 */
+	private static void loadServices() {
 		styleableServiceMap = getStyleableServices();
 		simpleServiceMap = getSimpleServices();
 		dictServiceImp = getDictService();
 		readerServiceImp = getReaderService();
 		luceneServiceImp = getLuceneService();
 		sktServiceImp = getSktService();
-    }
+	}
     
     @Override
     public void start(Stage stage) throws Exception {
@@ -237,26 +244,14 @@ final public class PaliPlatform extends Application {
 			}
 		});
        stage.show();
+		startupGraph.runDeferred();
     }
     
     @Override
     public void stop() {
 		final Scene s = stage.getScene();
         MainProperties.INSTANCE.saveSettings(s.getWidth(), s.getHeight());
-		try {
-			for (final Utilities.H2DB db : Utilities.H2DB.values()) {
-				final java.sql.Connection conn = db.getConnection();
-				if (conn != null)
-					conn.close();
-			}
-			for (final Utilities.SQLiteDB db : Utilities.SQLiteDB.values()) {
-				final java.sql.Connection conn = db.getConnection();
-				if (conn != null)
-					conn.close();
-			}
-		} catch (SQLException e) {
-			System.err.println(e);
-		}
+		Utilities.closeAllDB();
 		Utilities.threadPool.shutdown();
     }
 
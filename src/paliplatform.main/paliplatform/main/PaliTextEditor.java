@@ -261,6 +261,8 @@ public class PaliTextEditor extends BorderPane {
 		final MenuItem calMetersMenuItem = new MenuItem("Calculate _meters");
 		calMetersMenuItem.setMnemonicParsing(true);
 		calMetersMenuItem.setOnAction(actionEvent -> calculateMeters());
+		final MenuItem meterSurveyMenuItem = new MenuItem("Meter survey (line by line)");
+		meterSurveyMenuItem.setOnAction(actionEvent -> surveyMeters());
 		toolsMenu.getItems().addAll(slp1Menu, new SeparatorMenuItem(), characterMenu, reformatMenuItem,
 									new SeparatorMenuItem());
 
@@ -273,7 +275,7 @@ public class PaliTextEditor extends BorderPane {
 			sandhiMenu.getItems().addAll(sandhiCombineMenuItem, sandhiAnalyzeMenuItem);
 			toolsMenu.getItems().add(sandhiMenu);
 		}
-		toolsMenu.getItems().add(calMetersMenuItem);
+		toolsMenu.getItems().addAll(calMetersMenuItem, meterSurveyMenuItem);
 		final SimpleService verseAnalyzer = (SimpleService)PaliPlatform.simpleServiceMap.get("paliplatform.grammar.ProsodyLauncher");
 		if (verseAnalyzer != null) {
 			final MenuItem analyzeMenuItem = new MenuItem("_Analyze the stanza/text");
@@ -941,6 +943,15 @@ public class PaliTextEditor extends BorderPane {
 		openNewEditor(Utilities.addComputedMeters(romanText));
 	}
 
+	private void surveyMeters() {
+		final String selText = area.getSelectedText();
+		String inputText = selText.isEmpty() ? area.getText() : selText;
+		inputText = Normalizer.normalize(inputText, Form.NFC);
+		final String romanText = Utilities.convertToRomanPali(inputText);
+		final List<String> lines = romanText.lines().collect(Collectors.toList());
+		openNewEditor(MeterSurvey.analyze(lines).getReport(50));
+	}
+
 	private void openAnalyzer(final SimpleService service) {
 		final String selText = area.getSelectedText();
 		String inputText = selText.isEmpty() ? area.getText() : selText;
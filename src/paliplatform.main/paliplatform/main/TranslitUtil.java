@@ -0,0 +1,369 @@
+/*
+ * TranslitUtil.java
+ *
+ * Copyright (C) 2023-2026 J. R. Bhaddacak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see https://www.gnu.org/licenses/.
+ */
+
+package paliplatform.main;
+
+import paliplatform.base.*;
+import paliplatform.base.Utilities.PaliScript;
+import paliplatform.base.ScriptTransliterator.EngineType;
+
+import java.util.*;
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * The CLI tool for batch script conversion (headless Batch Script Transformer).
+ * This consists of static factory methods.
+ * The tool can be invoked by this command line from the program's root dir:
+ * $ java -p modules -m paliplatform.main/paliplatform.main.TranslitUtil
+ *
+ * @author J.R. Bhaddacak
+ * @version 4.1
+ * @since 4.1
+ */
+final public class TranslitUtil {
+	private static final String LINESEP = System.getProperty("line.separator");
+	private static final Set<String> fileExts = Set.of("txt", "xml", "html", "htm");
+
+	private TranslitUtil() {
+	}
+
+	public static void main(final String[] args) throws Exception {
+		if (args.length == 0) {
+			printHelpAndExit();
+		}
+		if (args[0].equals("test")) {
+			final String opt = args.length > 1 ? args[1] : "";
+			final int num = args.length > 2 && args[2].matches("\\d+") ? Integer.parseInt(args[2]) : 1_000_000;
+			if (opt.equals("-d"))
+				testDetection(num);
+			else if (opt.equals("-n"))
+				testNormalizers(num);
+			else if (opt.equals("-c"))
+				testCollation(args.length > 2 ? num : 200_000);
+			else
+				printHelpAndExit();
+			return;
+		}
+		if (!args[0].equals("convert")) {
+			printHelpAndExit();
+		}
+		PaliScript fromScript = PaliScript.UNKNOWN;
+		PaliScript toScript = PaliScript.UNKNOWN;
+		EngineType romanDef = EngineType.DEVA_ROMAN_COMMON;
+		Charset charset = StandardCharsets.UTF_8;
+		boolean withNumbers = true;
+		boolean asSanskrit = false;
+		int threads = Runtime.getRuntime().availableProcessors();
+		File outDir = null;
+		final List<File> inputs = new ArrayList<>();
+		for (int i = 1; i < args.length; i++) {
+			final String arg = args[i];
+			final String next = i + 1 < args.length ? args[i + 1] : "";
+			switch (arg) {
+				case "-f":
+					fromScript = PaliScript.fromName(next);
+					i++;
+					break;
+				case "-t":
+					toScript = PaliScript.fromName(next);
+					i++;
+					break;
+				case "-r":
+					final EngineType en = EngineType.fromCode(next);
+					if (en == null || en.getTargetScript() != PaliScript.ROMAN) {
+						printLog("Invalid Roman transliteration code: " + next);
+						System.exit(1);
+					}
+					romanDef = en;
+					i++;
+					break;
+				case "-o":
+					outDir = new File(next);
+					i++;
+					break;
+				case "-j":
+					threads = next.matches("\\d+") ? Integer.parseInt(next) : threads;
+					i++;
+					break;
+				case "-u16":
+					charset = StandardCharsets.UTF_16LE;
+					break;
+				case "-nn":
+					withNumbers = false;
+					break;
+				case "-skt":
+					asSanskrit = true;
+					break;
+				default:
+					inputs.add(new File(arg));
+			}
+		}
+		if (toScript == PaliScript.UNKNOWN || inputs.isEmpty()) {
+			printHelpAndExit();
+		}
+		if (outDir != null && !outDir.isDirectory() && !outDir.mkdirs()) {
+			printLog("Cannot create output directory: " + outDir);
+			System.exit(1);
+		}
+		final List<File> files = new ArrayList<>();
+		for (final File f : inputs)
+			collectFiles(f, files);
+		final List<BatchTranslitEngine.Job> jobs = new ArrayList<>();
+		for (final File f : files) {
+			final PaliScript src = fromScript == PaliScript.UNKNOWN
+									? Utilities.getScriptLanguage(f, charset)
+									: fromScript;
+			if (src == PaliScript.UNKNOWN) {
+				printLog("Skipped (unknown script): " + f.getPath());
+				continue;
+			}
+			if (src == toScript) {
+				printLog("Skipped (same script): " + f.getPath());
+				continue;
+			}
+			final File dir = outDir == null ? f.getAbsoluteFile().getParentFile() : outDir;
+			final File target = new File(dir, toScript.toString().toLowerCase() + "_" + f.getName());
+			jobs.add(new BatchTranslitEngine.Job(f, target, charset, src, toScript, romanDef, withNumbers, asSanskrit));
+		}
+		if (jobs.isEmpty()) {
+			printLog("Nothing to convert");
+			System.exit(0);
+		}
+		final BatchTranslitEngine engine = new BatchTranslitEngine(threads);
+		printLog("Converting " + jobs.size() + " file(s) with " + engine.getParallelism() + " worker(s)");
+		final BatchTranslitEngine.Summary summary = engine.run(jobs, job -> printLog(job.toString()));
+		printLog(summary.toString());
+	}
+
+	private static void printHelpAndExit() {
+		final StringBuilder help = new StringBuilder();
+		help.append(LINESEP).append("Pāli Platform Transliteration Util CLI").append(LINESEP);
+		help.append("  Usage:").append(LINESEP);
+		help.append("    TranslitUtil convert [<option>] <file or dir>...").append(LINESEP);
+		help.append("      (The abstract TranslitUtil can be a launcher script,").append(LINESEP);
+		help.append("       such as translitutil.sh or translitutil.cmd which can be").append(LINESEP);
+		help.append("       found in the program's root directory.").append(LINESEP);
+		help.append("       See also Notes below.)").append(LINESEP);
+		help.append("  Commands:").append(LINESEP);
+		help.append("    convert\tConvert files (.txt, .xml, .html) to another script").append(LINESEP);
+		help.append("        -t <script>\tOutput script (required)").append(LINESEP);
+		help.append("        -f <script>\tInput script (auto-detected if omitted)").append(LINESEP);
+		help.append("        -r <code>\tRoman method: di (ISO), da (IAST), dr (Pāli Common, default),").append(LINESEP);
+		help.append("                 \t  dl (Least), du (Roman Unique), d1 (SLP1)").append(LINESEP);
+		help.append("        -o <dir>\tOutput directory (default: source directory)").append(LINESEP);
+		help.append("        -j <num>\tNumber of parallel workers (default: CPU count)").append(LINESEP);
+		help.append("        -u16\tUse UTF-16 encoding (e.g. for Tipitaka-XML)").append(LINESEP);
+		help.append("        -nn\tDo not convert Roman numbers").append(LINESEP);
+		help.append("        -skt\tTreat Roman input as Sanskrit").append(LINESEP);
+		help.append("    test\tTest cases").append(LINESEP);
+		help.append("        -d [num]\tTest script detection and time num calls (default: 1000000)").append(LINESEP);
+		help.append("        -n [num]\tTest text normalizers and time num calls (default: 1000000)").append(LINESEP);
+		help.append("        -c [num]\tTest sorting by collation keys with num terms (default: 200000)").append(LINESEP);
+		help.append("    <none>\tShow this help").append(LINESEP);
+		help.append("  Scripts:").append(LINESEP);
+		help.append("    roman, devanagari, khmer, myanmar, sinhala, thai").append(LINESEP);
+		help.append("  Notes:").append(LINESEP);
+		help.append("    To invoke the program, the Java convention has to be used.").append(LINESEP);
+		help.append("    At the program's root directory, if no launcher script available,").append(LINESEP);
+		help.append("    type this at the console: ").append(LINESEP);
+		help.append("    $ java -p modules -m paliplatform.main/paliplatform.main.TranslitUtil").append(LINESEP);
+		printLog(help.toString());
+		System.exit(0);
+	}
+
+	private static void testDetection(final int num) {
+		ScriptTransliterator.initializeTransliterator();
+		final String roman = "evaṃ me sutaṃ. ekaṃ samayaṃ bhagavā sāvatthiyaṃ viharati jetavane anāthapiṇḍikassa ārāme.";
+		final Map<PaliScript, String> samples = new EnumMap<>(PaliScript.class);
+		for (final PaliScript scr : PaliScript.scripts) {
+			if (scr == PaliScript.UNKNOWN) continue;
+			samples.put(scr, scr == PaliScript.ROMAN
+							? roman
+							: ScriptTransliterator.translitPaliScript(roman, PaliScript.ROMAN, scr,
+								EngineType.DEVA_ROMAN_COMMON, true, false));
+		}
+		// correctness
+		samples.forEach((scr, text) -> assertThat(scr + " sample", Utilities.testLanguage(text), equalTo(scr)));
+		assertThat(Utilities.testLanguage(""), equalTo(PaliScript.ROMAN));
+		assertThat(Utilities.testLanguage("  \n\t "), equalTo(PaliScript.ROMAN));
+		assertThat(Utilities.testLanguage("āṇā"), equalTo(PaliScript.ROMAN));
+		assertThat(Utilities.testLanguage("... -- ..."), equalTo(PaliScript.UNKNOWN));
+		assertThat(Utilities.testLanguage("ก ข"), equalTo(PaliScript.THAI));
+		assertThat(Utilities.testLanguage("a ก"), equalTo(PaliScript.ROMAN)); // tie goes to the earlier script
+		assertThat(Utilities.testLanguage("ក a"), equalTo(PaliScript.ROMAN));
+		assertThat(Utilities.testLanguage("a b c d e f"), equalTo(PaliScript.ROMAN));
+		assertThat(Utilities.testLanguage("a    b"), equalTo(PaliScript.UNKNOWN)); // too sparse
+		assertThat(Utilities.testLanguage(new StringBuilder(samples.get(PaliScript.MYANMAR))), equalTo(PaliScript.MYANMAR));
+		final StringBuilder longText = new StringBuilder();
+		while (longText.length() < 4096)
+			longText.append(samples.get(PaliScript.SINHALA)).append(' ');
+		assertThat(Utilities.testLanguage(longText), equalTo(PaliScript.SINHALA));
+		printLog("All detection tests passed");
+		// timing, warm up first
+		final List<String> texts = new ArrayList<>(samples.values());
+		texts.add(longText.toString());
+		int sink = 0;
+		for (int i = 0; i < 200_000; i++)
+			sink += Utilities.testLanguage(texts.get(i % texts.size())).ordinal();
+		for (final String text : texts) {
+			final long start = System.nanoTime();
+			for (int i = 0; i < num; i++)
+				sink += Utilities.testLanguage(text).ordinal();
+			final long nanos = System.nanoTime() - start;
+			printLog(String.format("%-10s %5d chars: %8.1f ns/call",
+						Utilities.testLanguage(text), Math.min(text.length(), 1024), (double)nanos / num));
+		}
+		printLog("(checksum " + sink + ")");
+	}
+
+	private static void testNormalizers(final int num) {
+		// correctness
+		assertThat(Utilities.normalizeNiggahita("evaṁ Ṁ"), equalTo("evaṃ Ṁ"));
+		assertThat(Utilities.normalizeNiggahita("evaṁ Ṁ", true), equalTo("evaṃ Ṃ"));
+		assertThat(Utilities.changeToScNiggahita("evaṃ Ṃ", true), equalTo("evaṁ Ṁ"));
+		final String plain = "dhamma";
+		assertThat(Utilities.normalizeNiggahita(plain), sameInstance(plain));
+		assertThat(Utilities.removeTags("<b>buddha</b>"), equalTo("buddha"));
+		assertThat(Utilities.removeTags("a <i>b</i>  c", true), equalTo("a b c"));
+		assertThat(Utilities.removeTags("a < b\n> c"), equalTo("a < b\n> c")); // not a tag across lines
+		assertThat(Utilities.removeTags("x<<y>z"), equalTo("xz"));
+		assertThat(Utilities.removeAccents("Ānanda ñāṇa"), equalTo("Ananda nana"));
+		assertThat(Utilities.removeAccents(plain), sameInstance(plain));
+		final StringBuilder doc = new StringBuilder("<p>evaṁ me sutaṁ</p>");
+		Utilities.normalizeNiggahita(doc, true);
+		assertThat(doc.toString(), equalTo("<p>evaṃ me sutaṃ</p>"));
+		printLog("All normalizer tests passed");
+		// timing: short terms (as typed in search boxes) and a document
+		final String[] terms = { "saṁyutta", "dhammaṃ", "<b>buddha</b>", "Ānandatthera", "mettā" };
+		final StringBuilder docText = new StringBuilder();
+		while (docText.length() < 64 * 1024)
+			docText.append("<p><span class='sc-sid'>sn1.1</span>evaṁ me sutaṁ. ekaṁ samayaṁ bhagavā</p>\n");
+		final String longDoc = docText.toString();
+		final Map<String, java.util.function.Function<String, String>> funcs = new LinkedHashMap<>();
+		funcs.put("normalizeNiggahita", x -> Utilities.normalizeNiggahita(x, true));
+		funcs.put("changeToScNiggahita", x -> Utilities.changeToScNiggahita(x, true));
+		funcs.put("removeTags", x -> Utilities.removeTags(x));
+		funcs.put("removeTags (space)", x -> Utilities.removeTags(x, true));
+		funcs.put("removeAccents", x -> Utilities.removeAccents(x));
+		int sink = 0;
+		for (final Map.Entry<String, java.util.function.Function<String, String>> e : funcs.entrySet()) {
+			final java.util.function.Function<String, String> f = e.getValue();
+			for (int i = 0; i < 200_000; i++)
+				sink += f.apply(terms[i % terms.length]).length();
+			for (int i = 0; i < 200; i++)
+				sink += f.apply(longDoc).length();
+			long start = System.nanoTime();
+			for (int i = 0; i < num; i++)
+				sink += f.apply(terms[i % terms.length]).length();
+			final double termNs = (double)(System.nanoTime() - start) / num;
+			final int docNum = Math.max(1, num / 10_000);
+			start = System.nanoTime();
+			for (int i = 0; i < docNum; i++)
+				sink += f.apply(longDoc).length();
+			final double docUs = (System.nanoTime() - start) / 1000.0 / docNum;
+			printLog(String.format("%-20s term: %7.1f ns/call, 64K doc: %8.1f us/call", e.getKey(), termNs, docUs));
+		}
+		printLog("(checksum " + sink + ")");
+	}
+
+	private static void testCollation(final int num) throws Exception {
+		Utilities.initializeComparator();
+		final String letters = "aāiīuūeokgṅcjñṭḍṇtdnpbmyrlvshḷṃ";
+		final Random random = new Random(42);
+		final List<String> terms = new ArrayList<>(num);
+		final StringBuilder term = new StringBuilder();
+		for (int i = 0; i < num; i++) {
+			term.setLength(0);
+			final int len = 2 + random.nextInt(12);
+			for (int j = 0; j < len; j++)
+				term.append(letters.charAt(random.nextInt(letters.length())));
+			terms.add(i % 5 == 0 ? Character.toUpperCase(term.charAt(0)) + term.substring(1) : term.toString());
+		}
+		final Map<String, Comparator<String>> comps = new LinkedHashMap<>();
+		comps.put("Pāli", Utilities.paliCollator::compare);
+		comps.put("Sanskrit", Utilities.sktCollator::compare);
+		comps.put("SLP1", Utilities.slp1Collator::compare);
+		final Map<String, SortKeyCache> keys = new LinkedHashMap<>();
+		keys.put("Pāli", Utilities.paliSortKeys);
+		keys.put("Sanskrit", Utilities.sktSortKeys);
+		keys.put("SLP1", Utilities.slp1SortKeys);
+		for (final String name : comps.keySet()) {
+			final SortKeyCache cache = keys.get(name);
+			cache.clear();
+			final List<String> byCollator = new ArrayList<>(terms);
+			long start = System.nanoTime();
+			byCollator.sort(comps.get(name));
+			final double collMs = (System.nanoTime() - start) / 1e6;
+			final List<String> byKeys = new ArrayList<>(terms);
+			start = System.nanoTime();
+			cache.sort(byKeys);
+			final double coldMs = (System.nanoTime() - start) / 1e6;
+			Collections.shuffle(byKeys, random);
+			start = System.nanoTime();
+			cache.sort(byKeys);
+			final double warmMs = (System.nanoTime() - start) / 1e6;
+			final List<String> byComp = new ArrayList<>(terms);
+			start = System.nanoTime();
+			byComp.sort(cache);
+			final double compMs = (System.nanoTime() - start) / 1e6;
+			// correctness: sorted by the collator, with the same elements
+			// (the lists may differ where the collator is not transitive)
+			final Comparator<String> coll = comps.get(name);
+			for (int i = 1; i < num; i++) {
+				assertThat(name + " sort() at " + i, coll.compare(byKeys.get(i - 1), byKeys.get(i)), lessThanOrEqualTo(0));
+				assertThat(name + " comparator at " + i, coll.compare(byComp.get(i - 1), byComp.get(i)), lessThanOrEqualTo(0));
+			}
+			assertThat(name + " elements", new HashSet<>(byKeys), equalTo(new HashSet<>(byCollator)));
+			if (byKeys.equals(byCollator))
+				printLog(name + ": the same order as sorting by the collator");
+			for (int i = 0; i < 10_000; i++) {
+				final String a = terms.get(random.nextInt(num));
+				final String b = terms.get(random.nextInt(num));
+				assertThat(Integer.signum(cache.compare(a, b)), equalTo(Integer.signum(comps.get(name).compare(a, b))));
+			}
+			printLog(String.format("%-9s %,d terms: collator %8.1f ms, keys cold %8.1f ms, warm %8.1f ms, comparator %8.1f ms",
+						name, num, collMs, coldMs, warmMs, compMs));
+		}
+		printLog("All collation tests passed");
+	}
+
+	private static void printLog(final String mess) {
+		System.out.println(mess);
+	}
+
+	private static void collectFiles(final File file, final List<File> result) {
+		if (file.isDirectory()) {
+			final File[] list = file.listFiles();
+			if (list == null) return;
+			Arrays.sort(list);
+			for (final File f : list)
+				collectFiles(f, result);
+		} else if (file.isFile()) {
+			final String name = file.getName();
+			final int dotPos = name.lastIndexOf(".");
+			if (dotPos > -1 && fileExts.contains(name.substring(dotPos + 1).toLowerCase()))
+				result.add(file);
+		}
+	}
+
+}
@@ -19,6 +19,8 @@ module paliplatform.reader {
 		paliplatform.reader.FontSetter;
 	provides paliplatform.base.ReaderService with 
 		paliplatform.reader.ReaderServiceImp;
+	provides paliplatform.base.StartupService with 
+		paliplatform.reader.ReaderStartup;
 	provides javafx.css.Styleable with
 		paliplatform.reader.ReaderMenu,
 		paliplatform.reader.ReaderToolBarCom,
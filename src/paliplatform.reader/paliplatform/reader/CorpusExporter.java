@@ -0,0 +1,345 @@
+/*
+ * CorpusExporter.java
+ *
+ * Copyright (C) 2023-2026 J. R. Bhaddacak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see https://www.gnu.org/licenses/.
+ */
+
+package paliplatform.reader;
+
+import paliplatform.base.*;
+import paliplatform.base.ScriptTransliterator.EngineType;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.regex.*;
+import java.util.zip.*;
+import java.io.*;
+import java.nio.file.*;
+import java.nio.charset.*;
+
+/**
+ * The headless bulk exporter of a whole collection (or a text group)
+ * into another script, used by CpUtil's export command.
+ * The archive is opened once and shared by workers of a work-stealing pool.
+ * The output is written into a directory or streamed into a single zip.
+ * Finished files are recorded in a journal, so an interrupted job
+ * can be resumed by running the same command again.
+ * @author J.R. Bhaddacak
+ * @version 4.1
+ * @since 4.1
+ */
+final class CorpusExporter {
+	static final String JOURNAL_EXT = ".done";
+	static final String PART_EXT = ".part";
+	private static final String LINESEP = System.getProperty("line.separator");
+	private static final double MEGA = 1024.0 * 1024.0;
+	private final Corpus corpus;
+	private final Corpus.Collection col;
+	private final EngineType engine;
+	private final Charset charset;
+	private final Pattern fileFilter;
+	private final File output;
+	private final boolean toZip;
+	private final int parallelism;
+	private final File journalFile;
+	private final Set<String> doneSet = ConcurrentHashMap.newKeySet();
+	private final AtomicInteger doneCount = new AtomicInteger();
+	private final AtomicLong bytesIn = new AtomicLong();
+	private final AtomicLong bytesOut = new AtomicLong();
+	private BufferedWriter journal;
+	private ZipOutputStream zipOut;
+	private int total;
+
+	CorpusExporter(final Corpus corpus, final EngineType engine, final String textGroup, final File output, final int parallelism) {
+		this.corpus = corpus;
+		col = corpus.getCollection();
+		this.engine = engine;
+		charset = corpus.getEncoding().getCharset();
+		fileFilter = Corpus.getFileFilterPattern(col, textGroup);
+		this.output = output;
+		toZip = output.getName().toLowerCase().endsWith(".zip");
+		this.parallelism = Math.max(1, parallelism);
+		journalFile = toZip
+						? new File(output.getPath() + JOURNAL_EXT)
+						: new File(output, JOURNAL_EXT);
+	}
+
+	/**
+	 * Gives the output file name of a document, the same as single-file saving.
+	 */
+	static String getOutputName(final Corpus.Collection col, final String file) {
+		final int slashPos = file.lastIndexOf("/");
+		final String result;
+		switch (col) {
+			case CSTR:
+				result = file.replaceFirst("\\.gz$", ".txt");
+				break;
+			case SRT:
+				result = file.replace("/", "_");
+				break;
+			case CST4:
+			case BJT:
+			case SC:
+			case GRAM:
+				result = slashPos > -1 ? file.substring(slashPos + 1) : file;
+				break;
+			default:
+				result = file;
+		}
+		return result;
+	}
+
+	static String transliterate(final Corpus.Collection col, final String text, final EngineType engine) {
+		final boolean xslFixed = col == Corpus.Collection.CST4 || col == Corpus.Collection.CSTDEVA;
+		return col == Corpus.Collection.BJT
+				? ScriptTransliterator.translitBJT(text, engine, true)
+				: col == Corpus.Collection.SC
+					? ScriptTransliterator.translitSC(text, engine, true)
+					: ScriptTransliterator.transliterate(text, engine, true, xslFixed);
+	}
+
+	/**
+	 * Runs the export, the result summary is returned.
+	 * @param fresh if true, the previous unfinished job is discarded
+	 */
+	String run(final boolean fresh) throws IOException, InterruptedException {
+		final long startTime = System.currentTimeMillis();
+		ScriptTransliterator.initializeTransliterator();
+		if (fresh)
+			discardUnfinished();
+		final ZipFile zip = corpus.isInArchive() || col == Corpus.Collection.SC ? new ZipFile(corpus.getZipFile()) : null;
+		final List<String> fileList = zip == null ? listDirFiles() : listZipEntries(zip);
+		total = fileList.size();
+		if (total == 0) {
+			if (zip != null) zip.close();
+			return "No file matched";
+		}
+		openOutput();
+		final int skipped = doneSet.size();
+		if (skipped > 0)
+			printLog("Resuming: " + skipped + " file(s) already done");
+		printLog("Exporting " + (total - skipped) + " file(s) with " + parallelism + " worker(s) into " + output.getPath());
+		final ExecutorService pool = Executors.newWorkStealingPool(parallelism);
+		final List<Callable<Void>> tasks = new ArrayList<>(total);
+		for (final String file : fileList) {
+			if (doneSet.contains(getOutputName(col, file))) continue;
+			tasks.add(() -> {
+				exportFile(zip, file);
+				return null;
+			});
+		}
+		try {
+			for (final Future<Void> f : pool.invokeAll(tasks)) {
+				try {
+					f.get();
+				} catch (ExecutionException e) {
+					System.err.println(e.getCause());
+				}
+			}
+		} finally {
+			pool.shutdown();
+			if (zip != null)
+				zip.close();
+		}
+		final boolean complete = doneSet.size() == total;
+		closeOutput(complete);
+		final double sec = (System.currentTimeMillis() - startTime) / 1000.0;
+		final int count = doneCount.get();
+		final StringBuilder result = new StringBuilder();
+		result.append(String.format("%d file(s) exported, %d skipped, %d failed",
+						count, skipped, total - skipped - count)).append(LINESEP);
+		result.append(String.format("Read %.2f MB, wrote %.2f MB in %.3f seconds (%.2f files/s, %.2f MB/s)",
+						bytesIn.get() / MEGA, bytesOut.get() / MEGA, sec,
+						sec > 0 ? count / sec : 0, sec > 0 ? bytesIn.get() / MEGA / sec : 0));
+		if (!complete)
+			result.append(LINESEP).append("Unfinished, run the same command again to resume");
+		return result.toString();
+	}
+
+	private List<String> listDirFiles() {
+		// CSTR and CSTDEVA are stored in a directory
+		final List<String> result = new ArrayList<>();
+		for (final DocumentInfo dinfo : corpus.getDocInfoMap().values()) {
+			final String filename = dinfo.getFileNameWithExt();
+			if (fileFilter.matcher(filename).matches())
+				result.add(filename);
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+	private List<String> listZipEntries(final ZipFile zip) {
+		// only entries known as documents (SC: Pāli root texts), the same as single-file saving
+		final Set<String> docNames = new HashSet<>();
+		for (final DocumentInfo dinfo : corpus.getDocInfoMap().values())
+			docNames.add(dinfo.getFileNameWithExt());
+		final boolean useFullName = col == Corpus.Collection.SC || col == Corpus.Collection.SRT;
+		final List<String> result = new ArrayList<>();
+		for (final Enumeration<? extends ZipEntry> e = zip.entries(); e.hasMoreElements();) {
+			final ZipEntry entry = e.nextElement();
+			if (entry.isDirectory()) continue;
+			final String fullname = entry.getName();
+			final boolean isDoc = col == Corpus.Collection.SC
+									? fullname.endsWith(ScDocument.ROOT_PLI_MS_END)
+									: isDocument(fullname, docNames);
+			if (!isDoc) continue;
+			final String nameToMatch = useFullName ? fullname : fullname.substring(fullname.lastIndexOf("/") + 1);
+			if (fileFilter.matcher(nameToMatch).matches())
+				result.add(fullname);
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+	private static boolean isDocument(final String entryName, final Set<String> docNames) {
+		// document names can be either full or trailing part of the entry name
+		if (docNames.contains(entryName))
+			return true;
+		int pos = entryName.indexOf('/');
+		while (pos > -1) {
+			if (docNames.contains(entryName.substring(pos + 1)))
+				return true;
+			pos = entryName.indexOf('/', pos + 1);
+		}
+		return false;
+	}
+
+	private void exportFile(final ZipFile zip, final String file) throws IOException {
+		final long start = System.nanoTime();
+		final String text;
+		final long inSize;
+		if (zip == null) {
+			final File inFile = new File(Utilities.ROOTDIR + ReaderUtilities.TEXTPATH + corpus.getRootName() + File.separator + file);
+			inSize = inFile.length();
+			text = col == Corpus.Collection.CSTR
+					? ReaderUtilities.readGz(inFile, charset)
+					: Files.readString(inFile.toPath(), charset);
+		} else {
+			final ZipEntry entry = zip.getEntry(file);
+			inSize = entry == null ? 0 : entry.getSize();
+			text = ReaderUtilities.readTextFromZip(zip, file, charset);
+		}
+		if (text.isEmpty()) {
+			printLog("Error: No data in " + file);
+			return;
+		}
+		final String outName = getOutputName(col, file);
+		final byte[] data = transliterate(col, text, engine).getBytes(charset);
+		if (toZip) {
+			synchronized (this) {
+				zipOut.putNextEntry(new ZipEntry(outName));
+				zipOut.write(data);
+				zipOut.closeEntry();
+				zipOut.flush();
+			}
+		} else {
+			Files.write(new File(output, outName).toPath(), data);
+		}
+		markDone(outName);
+		bytesIn.addAndGet(inSize);
+		bytesOut.addAndGet(data.length);
+		doneCount.incrementAndGet();
+		printLog(String.format("[%d/%d] %s (%.1f KB -> %.1f KB) %.3f s",
+					doneSet.size(), total, outName,
+					inSize / 1024.0, data.length / 1024.0, (System.nanoTime() - start) / 1e9));
+	}
+
+	private synchronized void markDone(final String outName) throws IOException {
+		doneSet.add(outName);
+		journal.write(outName);
+		journal.newLine();
+		journal.flush();
+	}
+
+	private void discardUnfinished() throws IOException {
+		Files.deleteIfExists(journalFile.toPath());
+		if (toZip)
+			Files.deleteIfExists(Path.of(output.getPath() + PART_EXT));
+	}
+
+	private Set<String> readJournal() throws IOException {
+		final Set<String> result = new HashSet<>();
+		if (journalFile.exists()) {
+			for (final String line : Files.readAllLines(journalFile.toPath(), StandardCharsets.UTF_8)) {
+				if (!line.isEmpty())
+					result.add(line);
+			}
+		}
+		return result;
+	}
+
+	private void openOutput() throws IOException {
+		final Set<String> journaled = readJournal();
+		if (toZip) {
+			final File parent = output.getAbsoluteFile().getParentFile();
+			if (parent != null)
+				Files.createDirectories(parent.toPath());
+			final File part = new File(output.getPath() + PART_EXT);
+			final File old = new File(output.getPath() + PART_EXT + ".old");
+			final boolean resume = part.exists() && !journaled.isEmpty();
+			if (resume)
+				Files.move(part.toPath(), old.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			zipOut = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(part)));
+			if (resume) {
+				// carry over entries finished before, a truncated tail is just dropped
+				try (final ZipInputStream in = new ZipInputStream(new BufferedInputStream(new FileInputStream(old)))) {
+					ZipEntry entry;
+					while ((entry = in.getNextEntry()) != null) {
+						final String name = entry.getName();
+						if (!journaled.contains(name) || doneSet.contains(name)) continue;
+						final byte[] data = in.readAllBytes();
+						zipOut.putNextEntry(new ZipEntry(name));
+						zipOut.write(data);
+						zipOut.closeEntry();
+						doneSet.add(name);
+					}
+				} catch (IOException e) {
+					System.err.println(e);
+				}
+				Files.deleteIfExists(old.toPath());
+			}
+		} else {
+			Files.createDirectories(output.toPath());
+			for (final String name : journaled) {
+				if (new File(output, name).exists())
+					doneSet.add(name);
+			}
+		}
+		// rewrite the journal with what is really done
+		journal = Files.newBufferedWriter(journalFile.toPath(), StandardCharsets.UTF_8);
+		for (final String name : doneSet) {
+			journal.write(name);
+			journal.newLine();
+		}
+		journal.flush();
+	}
+
+	private void closeOutput(final boolean complete) throws IOException {
+		journal.close();
+		if (toZip) {
+			zipOut.close();
+			if (complete)
+				Files.move(Path.of(output.getPath() + PART_EXT), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		if (complete)
+			Files.deleteIfExists(journalFile.toPath());
+	}
+
+	private static synchronized void printLog(final String mess) {
+		System.out.println(mess);
+	}
+
+}
@@ -24,6 +24,7 @@ import paliplatform.base.ScriptTransliterator;
 import paliplatform.base.ScriptTransliterator.EngineType;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.*;
 import java.util.zip.*;
 import java.io.*;
@@ -37,7 +38,7 @@ import java.nio.charset.*;
  * $ java -p modules -m paliplatform.reader/paliplatform.reader.CpUtil
  *
  * @author J.R. Bhaddacak
- * @version 3.7
+ * @version 4.1
  * @since 3.3
  */
 final public class CpUtil {
@@ -123,6 +124,23 @@ final public class CpUtil {
 					printHelpAndExit();
 				}
 				break;
+			case "export":
+				opt = args.length > 1 ? args[1] : "";
+				param = args.length > 2 ? args[2] : "";
+				if (opt.matches("-t.") && !param.isEmpty()) {
+					exportTransliterated(param.toLowerCase(), opt.charAt(2), Arrays.copyOfRange(args, 3, args.length));
+				} else {
+					printHelpAndExit();
+				}
+				break;
+			case "gretil":
+				opt = args.length > 1 ? args[1] : "";
+				if (opt.equals("-b") || opt.equals("-c")) {
+					processSktGretil(opt.equals("-b"), Arrays.copyOfRange(args, 2, args.length));
+				} else {
+					printHelpAndExit();
+				}
+				break;
 			case "test":
 				break;
 			default:
@@ -166,6 +184,17 @@ final public class CpUtil {
 		help.append("        -tm <corpus> <files>\tSave <files> to Myanmar script").append(LINESEP);
 		help.append("        -ts <corpus> <files>\tSave <files> to Sinhala script").append(LINESEP);
 		help.append("        -tt <corpus> <files>\tSave <files> to Thai script").append(LINESEP);
+		help.append("    export\tTransliterate a whole corpus in parallel (resumable)").append(LINESEP);
+		help.append("        -t<x> <corpus> [opts]\tExport <corpus>, <x> is as in save -t<x>").append(LINESEP);
+		help.append("        Export options:").append(LINESEP);
+		help.append("        -g <group>\tOnly the text group, e.g. vin, sut, abh, dn").append(LINESEP);
+		help.append("        -o <dir|file.zip>\tOutput directory or zip file").append(LINESEP);
+		help.append("                 \t(default: output/<corpus>-<script>[-<group>])").append(LINESEP);
+		help.append("        -j <num>\tNumber of parallel workers (default: CPU count)").append(LINESEP);
+		help.append("        -n\tStart over, do not resume an unfinished export").append(LINESEP);
+		help.append("    gretil\tThe extracted-text store of GRETIL Sanskrit collection").append(LINESEP);
+		help.append("        -b [-j <num>]\tBuild the store in parallel").append(LINESEP);
+		help.append("        -c [-j <num>]\tCheck the store against direct extraction").append(LINESEP);
 		help.append("    <none>\tShow this help").append(LINESEP);
 		help.append("  Examples:").append(LINESEP);
 		help.append("    1. To list all corpora with full information:").append(LINESEP);
@@ -195,6 +224,9 @@ final public class CpUtil {
 		help.append("   10. To save MN10 of SuttaCentral to Devanagari:").append(LINESEP);
 		help.append("       $ CpUtil save -td sc mn10").append(LINESEP);
 		help.append("       (Only SC needs an exact text ID, one file at a time)").append(LINESEP);
+		help.append("   11. To export the whole Sutta Piṭaka of CST4 to Thai in a zip file:").append(LINESEP);
+		help.append("       $ CpUtil export -tt cst4 -g sut -o cst4-thai.zip").append(LINESEP);
+		help.append("       (If interrupted, run the same command again to resume)").append(LINESEP);
 		help.append("  Technical notes:").append(LINESEP);
 		help.append("    1. IAST here uses ṃ (m dot below) not ṁ (m dot above),").append(LINESEP);
 		help.append("       but uses ḻ (l line below) as a consonant, not ḷ (l dot below),").append(LINESEP);
@@ -775,64 +807,135 @@ final public class CpUtil {
 			System.exit(1);
 		} else {
 			final PaliScript sourceScript = cp.getScript();
-			final char srcInit = Character.toLowerCase(sourceScript.toString().charAt(0));
-			final String engineCode = Character.toString(srcInit) + Character.toString(lang);
-			final EngineType engine = EngineType.fromCode(engineCode);
-			if (engine == null) {
-				printLog("Error: Unsupported transliteration method");
-				System.exit(1);
-			}
+			final EngineType engine = getEngine(sourceScript, lang);
 			final String targetScript = engine.getTargetScript().getName();
 			ScriptTransliterator.initializeTransliterator();
 			printLog("Converting " + sourceScript.getName() + " to " + targetScript + " (" + engine.getName() + ")");
 			for (final String file : fileList) {
-				String outputFilename = file;
-				boolean doProceed = false;
-				boolean xslFixed = false;
-				int slashPos = file.lastIndexOf("/");
-				switch (col) {
-					case CSTR:
-						outputFilename = outputFilename.replaceFirst("\\.gz$", ".txt");
-						doProceed = true;
-						break;
-					case CST4:
-						outputFilename = slashPos > -1 ? file.substring(slashPos + 1) : file;
-					case CSTDEVA:
-						xslFixed = true;
-						doProceed = true;
-						break;
-					case SRT:
-						outputFilename = file.replace("/", "_");
-						doProceed = true;
-						break;
-					case BJT:
-					case SC:
-					case GRAM:
-						outputFilename = slashPos > -1 ? file.substring(slashPos + 1) : file;
-						doProceed = true;
-						break;
+				final String outputFilename = CorpusExporter.getOutputName(col, file);
+				final File outfile = new File(Utilities.OUTPUTPATH + targetScript.toLowerCase().substring(0, 3) + "_" + outputFilename);
+				final String text = readFileContent(cp, file);
+				if (!text.isEmpty()) {
+					final String result = CorpusExporter.transliterate(col, text, engine);
+					printLog("Writing out " + outfile.getPath());
+					Utilities.saveText(result, outfile, cp.getEncoding().getCharset());
+				} else {
+					printLog("Error: No data to be written");
 				}
-				if (doProceed) {
-					final File outfile = new File(Utilities.OUTPUTPATH + targetScript.toLowerCase().substring(0, 3) + "_" + outputFilename);
-					final String text = readFileContent(cp, file);
-					if (!text.isEmpty()) {
-						final String result = col == Corpus.Collection.BJT
-												? ScriptTransliterator.translitBJT(text, engine, true)
-												: col == Corpus.Collection.SC
-													? ScriptTransliterator.translitSC(text, engine, true)
-													: ScriptTransliterator.transliterate(text, engine, true, xslFixed);
-						printLog("Writing out " + outfile.getPath());
-						Utilities.saveText(result, outfile, cp.getEncoding().getCharset());
-					} else {
-						printLog("Error: No data to be written");
-					}
-				} // end if
 			} // end for
 		} // end if
 		final long endTime = System.currentTimeMillis();
 		printTime(endTime - startTime);
 	}
 
+	private static EngineType getEngine(final PaliScript sourceScript, final char lang) {
+		final char srcInit = Character.toLowerCase(sourceScript.toString().charAt(0));
+		final String engineCode = Character.toString(srcInit) + Character.toString(lang);
+		final EngineType engine = EngineType.fromCode(engineCode);
+		if (engine == null) {
+			printLog("Error: Unsupported transliteration method");
+			System.exit(1);
+		}
+		return engine;
+	}
+
+	private static void processSktGretil(final boolean build, final String[] opts) throws Exception {
+		int threads = Runtime.getRuntime().availableProcessors();
+		if (opts.length == 2 && opts[0].equals("-j") && opts[1].matches("\\d+"))
+			threads = Integer.parseInt(opts[1]);
+		else if (opts.length > 0)
+			printHelpAndExit();
+		ReaderUtilities.updateCorpusList(true);
+		final Corpus cp = ReaderUtilities.corpusMap.get(Corpus.Collection.SKT);
+		if (!cp.isAvailable()) {
+			printLog("Error: The corpus is not available");
+			System.exit(1);
+		}
+		long start = System.currentTimeMillis();
+		if (build) {
+			printLog(SktGretilStore.buildStore(threads));
+			printTime(System.currentTimeMillis() - start);
+			return;
+		}
+		if (!SktGretilStore.isStoreValid()) {
+			printLog("The store is missing or out of date, build it first");
+			return;
+		}
+		final List<String> names = SktGretilStore.listTexts();
+		// the reference: read and extract one by one from the archive
+		final Map<String, String> directMap = new HashMap<>();
+		try (final ZipFile zip = new ZipFile(cp.getZipFile())) {
+			for (final String name : names)
+				directMap.put(name, SktGretilStore.extractBodyText(ReaderUtilities.readTextFromZip(zip, name, StandardCharsets.UTF_8)));
+		}
+		printLog(String.format("Direct extraction of %d file(s):", names.size()));
+		printTime(System.currentTimeMillis() - start);
+		start = System.currentTimeMillis();
+		final Set<String> mismatched = ConcurrentHashMap.newKeySet();
+		final SortedMap<String, Throwable> failures = SktGretilStore.processTexts(names, threads, (name, bodyText) -> {
+			if (!bodyText.equals(directMap.get(name)))
+				mismatched.add(name);
+		});
+		printLog(String.format("Store reading of %d file(s) with %d worker(s), %d mismatched, %d failed:",
+					names.size() - failures.size(), threads, mismatched.size(), failures.size()));
+		printTime(System.currentTimeMillis() - start);
+		mismatched.stream().sorted().limit(10).forEach(CpUtil::printLog);
+		failures.entrySet().stream().limit(10).forEach(f -> printLog(f.getKey() + ": " + f.getValue()));
+	}
+
+	private static void exportTransliterated(final String colStr, final char lang, final String[] opts) throws Exception {
+		final Corpus.Collection col = getCollection(colStr);
+		if (col == Corpus.Collection.PTST || col == Corpus.Collection.SKT) {
+			printLog("Error: The operation has not been implemented");
+			System.exit(1);
+		}
+		String group = "";
+		String outName = "";
+		int threads = Runtime.getRuntime().availableProcessors();
+		boolean fresh = false;
+		for (int i = 0; i < opts.length; i++) {
+			final String next = i + 1 < opts.length ? opts[i + 1] : "";
+			switch (opts[i]) {
+				case "-g":
+					group = next.toLowerCase();
+					i++;
+					break;
+				case "-o":
+					outName = next;
+					i++;
+					break;
+				case "-j":
+					threads = next.matches("\\d+") ? Integer.parseInt(next) : threads;
+					i++;
+					break;
+				case "-n":
+					fresh = true;
+					break;
+				default:
+					printHelpAndExit();
+			}
+		}
+		final long startTime = System.currentTimeMillis();
+		ReaderUtilities.updateCorpusList(true);
+		final Corpus cp = ReaderUtilities.corpusMap.get(col);
+		if (!cp.isAvailable()) {
+			printLog("Error: The corpus is not available");
+			System.exit(1);
+		}
+		final PaliScript sourceScript = cp.getScript();
+		final EngineType engine = getEngine(sourceScript, lang);
+		final String targetScript = engine.getTargetScript().getName();
+		final File output = outName.isEmpty()
+							? new File(Utilities.OUTPUTPATH + colStr + "-" + targetScript.toLowerCase().substring(0, 3)
+										+ (group.isEmpty() ? "" : "-" + group))
+							: new File(outName);
+		printLog("Converting " + sourceScript.getName() + " to " + targetScript + " (" + engine.getName() + ")");
+		final CorpusExporter exporter = new CorpusExporter(cp, engine, group.isEmpty() ? "all" : group, output, threads);
+		printLog(exporter.run(fresh));
+		final long endTime = System.currentTimeMillis();
+		printTime(endTime - startTime);
+	}
+
 	private static String readFileContent(final Corpus corpus, final String filename) throws IOException {
 		String result = "";
 		final Corpus.Collection col = corpus.getCollection();
@@ -0,0 +1,48 @@
+/*
+ * ReaderStartup.java
+ *
+ * Copyright (C) 2023-2026 J. R. Bhaddacak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see https://www.gnu.org/licenses/.
+ */
+
+package paliplatform.reader;
+
+import paliplatform.base.*;
+
+/** 
+ * Loads references, root definitions and grammatical suttas
+ * after the main window is shown.
+ * @author J.R. Bhaddacak
+ * @version 4.1
+ * @since 4.1
+ */
+
+public class ReaderStartup implements StartupService {
+	@Override
+	public void addStartupTasks(final StartupGraph graph) {
+		graph.add("reader-references", StartupGraph.Phase.DEFERRED, () -> {
+				if (ReaderUtilities.referenceList == null)
+					ReaderUtilities.readReferenceList();
+			})
+			.add("reader-root-defs", StartupGraph.Phase.DEFERRED, () -> {
+				if (ReaderUtilities.rootList == null)
+					ReaderUtilities.updateRootList();
+			})
+			// the suttas need the corpus list, read when the menu service is loaded
+			.add("reader-gram-suttas", StartupGraph.Phase.DEFERRED, () -> {
+				if (ReaderUtilities.gramSutList == null)
+					ReaderUtilities.updateGramSutList();
+			}, "services");
+	}
+}
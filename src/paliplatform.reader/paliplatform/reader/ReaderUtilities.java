@@ -105,11 +105,11 @@ final public class ReaderUtilities {
 	public static Map<String, SktService> sktServiceMap;
 	public static Map<Corpus.Collection, Corpus> corpusMap;
 	public static ObservableList<String> corpusAbbrList =  FXCollections.observableArrayList();
-	public static List<RootDef> rootList;
-	public static List<GrammarSutta> gramSutList;
+	public static volatile List<RootDef> rootList;
+	public static volatile List<GrammarSutta> gramSutList;
 	public static List<String> gramSutNiruXrefList;
 	public static Map<String, Set<String>> gramSutXrefMap; // map to shortId
-	public static List<Reference> referenceList;
+	public static volatile List<Reference> referenceList;
 	public static Map<String, String> scSuttaInfoMap = new HashMap<>();
 	public static Comparator<String> gramSutRefComparator;
 	public static String sktGretilIndexHtml = "";
@@ -612,7 +612,7 @@ final public class ReaderUtilities {
 		return gramInfo;
 	}
 
-	public static void updateRootList() {
+	public static synchronized void updateRootList() {
 		try {
 			final DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
 			final DocumentBuilder db = dbf.newDocumentBuilder();
@@ -620,7 +620,7 @@ final public class ReaderUtilities {
 			if (in == null) return;
 			final Document doc = db.parse(in);
 			final NodeList roots = doc.getElementsByTagName("item");
-			rootList = new ArrayList<>();
+			final List<RootDef> list = new ArrayList<>();
 			for (int i = 0; i < roots.getLength(); i++) {
 				final Element root = (Element) roots.item(i);
 				final NodeList names = root.getElementsByTagName("root");
@@ -639,20 +639,22 @@ final public class ReaderUtilities {
 				final NodeList vars = root.getElementsByTagName("var");
 				final String variant = vars.getLength() > 0 ? getTextNodeContent((Element) vars.item(0)).trim() : "";
 				rootDef.setVariant(variant);
-				rootList.add(rootDef);
+				list.add(rootDef);
 			}
+			rootList = list;
 		} catch (ParserConfigurationException | SAXException | IOException e) {
 			System.err.println(e);
 		}
 	}
 
-	public static void updateGramSutList() {
+	public static synchronized void updateGramSutList() {
+		// the lists are published only when complete
+		final List<GrammarSutta> gramSutList = new ArrayList<>();
+		final Map<String, Set<String>> gramSutXrefMap = new HashMap<>();
 		// read Niru Xref first
-		gramSutNiruXrefList = ReaderUtilities.getTextResourceAsList(ReaderUtilities.GRAM_SUT_XREF);
+		final List<String> gramSutNiruXrefList = ReaderUtilities.getTextResourceAsList(ReaderUtilities.GRAM_SUT_XREF);
 		final String gsText = ReaderUtilities.getTextResource(ReaderUtilities.GRAM_SUT);
 		final String[] lines = gsText.split("\\r?\\n");
-		gramSutList = new ArrayList<>();
-		gramSutXrefMap = new HashMap<>();
 		for (final String line : lines) {
 			final String theLine = line.trim();
 			if (theLine.isEmpty()) continue;
@@ -753,9 +755,12 @@ final public class ReaderUtilities {
 				}
 			}
 		}
+		ReaderUtilities.gramSutNiruXrefList = gramSutNiruXrefList;
+		ReaderUtilities.gramSutXrefMap = gramSutXrefMap;
+		ReaderUtilities.gramSutList = gramSutList;
 	}
 
-	public static void readReferenceList() {
+	public static synchronized void readReferenceList() {
 		try {
 			final DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
 			final DocumentBuilder db = dbf.newDocumentBuilder();
@@ -763,7 +768,7 @@ final public class ReaderUtilities {
 			if (in == null) return;
 			final Document doc = db.parse(in);
 			final NodeList refs = doc.getElementsByTagName("ref");
-			referenceList = new ArrayList<>();
+			final List<Reference> list = new ArrayList<>();
 			for (int i = 0; i < refs.getLength(); i++) {
 				final Element ref = (Element) refs.item(i);
 				final NodeList ids = ref.getElementsByTagName("id");
@@ -787,8 +792,9 @@ final public class ReaderUtilities {
 						reference.addColRefList(col, refList);
 					}
 				}
-				referenceList.add(reference);
+				list.add(reference);
 			}
+			referenceList = list;
 		} catch (ParserConfigurationException | SAXException | IOException e) {
 			System.err.println(e);
 		}
@@ -1022,25 +1028,31 @@ final public class ReaderUtilities {
 	}
 	
 	public static String readTextFromZip(final String filename, final Corpus corpus) {
-		final StringBuilder result = new StringBuilder();
-		try {
-			final ZipFile zip = new ZipFile(corpus.getZipFile());
-			final ZipEntry entry = zip.getEntry(filename);
-			if (entry != null) {
-				final Scanner in = new Scanner(zip.getInputStream(entry), corpus.getEncoding().getCharset());
-				while (in.hasNextLine()) {
-					final String line = in.nextLine();
-					result.append(line).append("\n");
-				}
-				in.close();
-			} else {
-				zip.close();
-				return "";
-			}
-			zip.close();
+		String result = "";
+		try (final ZipFile zip = new ZipFile(corpus.getZipFile())) {
+			result = readTextFromZip(zip, filename, corpus.getEncoding().getCharset());
 		} catch (IOException e) {
 			System.err.println(e);
 		}
+		return result;
+	}
+
+	/**
+	 * Reads a text file from an already opened zip.
+	 * ZipFile can be read concurrently, so this is used
+	 * when many entries are read from the same archive.
+	 */
+	public static String readTextFromZip(final ZipFile zip, final String filename, final Charset charset) throws IOException {
+		final ZipEntry entry = zip.getEntry(filename);
+		if (entry == null)
+			return "";
+		final StringBuilder result = new StringBuilder((int)Math.max(entry.getSize(), 16));
+		try (final Scanner in = new Scanner(zip.getInputStream(entry), charset)) {
+			while (in.hasNextLine()) {
+				final String line = in.nextLine();
+				result.append(line).append("\n");
+			}
+		}
 		return result.toString();
 	}
 
@@ -350,14 +350,9 @@ public class ScReader extends PaliHtmlViewerBase {
 			}
 			final Utilities.PaliScript script = (Utilities.PaliScript)scriptLangGroup.getSelectedToggle().getUserData();
 			final String paliPart = script == Utilities.PaliScript.ROMAN
-									? useMDotAboveMenuItem.isSelected()
-										? sentId + text
-										: sentId + Utilities.normalizeNiggahita(text, true)
+									? sentId + text
 									: sentId + convertToScript(text, script);
-			final String detailPart = useMDotAboveMenuItem.isSelected()
-									? variant + reference + trans + comm
-									: Utilities.normalizeNiggahita(variant + reference + trans + comm, true);
-			final String allText = paliPart + detailPart;
+			final String allText = paliPart + variant + reference + trans + comm;
 			final String formatted;
 			if (htmlMap.isEmpty()) {
 				formatted = "<p>" + allText + "</p>";
@@ -367,6 +362,9 @@ public class ScReader extends PaliHtmlViewerBase {
 			}
 			result.append(formatted).append("\n");
 		});
+		// niggahita is normalized once for the whole document
+		if (!useMDotAboveMenuItem.isSelected())
+			Utilities.normalizeNiggahita(result, true);
 		return result.toString();
 	}
 
@@ -173,8 +173,7 @@ public class SktGretilHtmlViewer extends PaliHtmlViewerBase {
 	public void loadContent(final Corpus corpus, final DocumentInfo docInfo) {
 		final String filename =  docInfo.getFileNameWithExt();
 		final String sktGretilJS = ReaderUtilities.getStringResource(ReaderUtilities.SKTGRETIL_JS);
-		final String wholeText = ReaderUtilities.readTextFromZip(filename, corpus);
-		pageBody = formatSktGretilDoc(wholeText);
+		pageBody = SktGretilStore.getPageBody(filename);
 		final String pageContent = ReaderUtilities.makeHTML(pageBody, sktGretilJS);
 		setContent(pageContent);
 	}
@@ -187,27 +186,6 @@ public class SktGretilHtmlViewer extends PaliHtmlViewerBase {
 		super.clearContent();
 	}
 
-	private String formatSktGretilDoc(final String text) {
-		final StringBuilder result = new StringBuilder();
-		result.append("<body>\n");
-		final String[] lines = text.split("\\r?\\n");
-		boolean start = false;
-		for (int i = 0; i < lines.length; i++) {
-			String line = lines[i].trim();
-			if (start && !line.isEmpty()) {
-				line = line.replaceAll("<a .*?>", "").replaceAll("</a>", "");
-				line = line.replace("<h2>Header", "<h2 id='jumptarget-h0'>Header");
-				line = line.replace("<h2>Text", "<h2 id='jumptarget-h1'>Text");
-				result.append(line).append("<br>").append("\n");
-			}
-			if (line.contains("<body>"))
-				start = true;
-			else if (line.contains("</body>"))
-				start = false;
-		}
-		return result.toString();
-	}
-
 	public void openSktDoc(final String docId) {
 		ReaderUtilities.openWindow(Utilities.WindowType.VIEWER_SKTGRETIL, new Object[] { docId });
 	}
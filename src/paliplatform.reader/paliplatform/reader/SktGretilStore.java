@@ -0,0 +1,448 @@
+/*
+ * SktGretilStore.java
+ *
+ * Copyright (C) 2023-2026 J. R. Bhaddacak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see https://www.gnu.org/licenses/.
+ */
+
+package paliplatform.reader;
+
+import paliplatform.base.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.regex.*;
+import java.util.zip.*;
+import java.io.*;
+import java.nio.file.*;
+import java.nio.charset.*;
+
+/**
+ * The shared access to GRETIL Sanskrit collection, for both reading
+ * and indexing. The archive is opened once and read concurrently.
+ * Readers lease the opened archive (with the store, if valid) together
+ * with its stamp; when the archive changes, the old one is closed only
+ * after the last lease is returned. The stamp is checked once per lease,
+ * so a batch of documents is read with one check.
+ * Formatted documents for the viewer are kept in an LRU cache bounded
+ * by length. The body text of plain-text files (UTF-8), which is what
+ * gets indexed, is extracted in parallel into a store under cache/.
+ * The store is rebuilt when the archive changes.
+ * @author J.R. Bhaddacak
+ * @version 4.1
+ * @since 4.1
+ */
+public final class SktGretilStore {
+	public static final String STORE_FILENAME = "skt_gretil_text.zip";
+	private static final String STORE_MAGIC = "PP-SKT-GRETIL-TEXT";
+	private static final int STORE_VERSION = 1;
+	private static final int MAX_PAGE_CHARS = 8 << 20;
+	private static final double MEGA = 1024.0 * 1024.0;
+	private static final Pattern anchorPatt = Pattern.compile("<a .*?>");
+	private static final Pattern linePatt = Pattern.compile("\\r?\\n");
+	private static final LinkedHashMap<String, String> pageCache = new LinkedHashMap<>(64, 0.75f, true);
+	private static long pageChars = 0;
+	private static Source current = null;
+
+	private SktGretilStore() {
+	}
+
+	private static Corpus getCorpus() {
+		return ReaderUtilities.corpusMap.get(Corpus.Collection.SKT);
+	}
+
+	private static Charset getCharset() {
+		final Corpus corpus = getCorpus();
+		return corpus == null ? StandardCharsets.UTF_8 : corpus.getEncoding().getCharset();
+	}
+
+	private static String makeStamp(final File file) {
+		return STORE_MAGIC + "/" + STORE_VERSION + "/" + file.length() + "/" + file.lastModified();
+	}
+
+	/**
+	 * Leases the shared archive, reopened if the file has been replaced.
+	 * The lease should be closed when done with.
+	 * @return the lease, or null if the archive is not available
+	 */
+	static synchronized Source lease() throws IOException {
+		final Corpus corpus = getCorpus();
+		if (corpus == null || !corpus.isAvailable()) {
+			retire();
+			return null;
+		}
+		final File file = corpus.getZipFile();
+		final String stamp = makeStamp(file);
+		if (current == null || !stamp.equals(current.stamp)) {
+			retire();
+			current = new Source(file, stamp);
+		}
+		current.users++;
+		return current;
+	}
+
+	/**
+	 * Stops handing out the current archive, it is closed
+	 * when its last lease is returned.
+	 */
+	private static synchronized void retire() {
+		if (current != null) {
+			current.retired = true;
+			current.closeIfUnused();
+			current = null;
+		}
+		synchronized (pageCache) {
+			pageCache.clear();
+			pageChars = 0;
+		}
+	}
+
+	public static File getStoreFile() {
+		return new File(Utilities.ROOTDIR + Utilities.CACHEPATH + STORE_FILENAME);
+	}
+
+	/**
+	 * Opens the extracted-text store if it is made from the archive
+	 * of the stamp given, otherwise null is returned.
+	 */
+	private static ZipFile openStore(final String stamp) throws IOException {
+		final File file = getStoreFile();
+		if (!file.exists())
+			return null;
+		final ZipFile zip = new ZipFile(file);
+		if (!stamp.equals(zip.getComment())) {
+			zip.close();
+			return null;
+		}
+		return zip;
+	}
+
+	public static boolean isStoreValid() {
+		try (final Source source = lease()) {
+			return source != null && source.store != null;
+		} catch (IOException e) {
+			System.err.println(e);
+			return false;
+		}
+	}
+
+	/**
+	 * Extracts the body text from a plain-text file, i.e. non-empty lines
+	 * after the line '# Text', trimmed and padded.
+	 */
+	public static String extractBodyText(final String text) {
+		final StringBuilder result = new StringBuilder(text.length());
+		boolean started = false;
+		int start = 0;
+		final int len = text.length();
+		while (start < len) {
+			// line terminators as recognized by Scanner.nextLine()
+			int end = start;
+			char ch = 0;
+			while (end < len) {
+				ch = text.charAt(end);
+				if (ch == '\n' || ch == '\r' || ch == '\u2028' || ch == '\u2029' || ch == '\u0085')
+					break;
+				end++;
+			}
+			final String line = text.substring(start, end).trim();
+			start = ch == '\r' && end + 1 < len && text.charAt(end + 1) == '\n' ? end + 2 : end + 1;
+			if (line.isEmpty()) continue;
+			if (started)
+				result.append(" ").append(line).append(" \n");
+			if (line.startsWith("# Text"))
+				started = true;
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Lists plain-text files in the archive.
+	 */
+	public static List<String> listTexts() throws IOException {
+		try (final Source source = lease()) {
+			return source == null ? new ArrayList<>() : listTexts(source.store == null ? source.zip : source.store);
+		}
+	}
+
+	private static List<String> listTexts(final ZipFile zip) {
+		final List<String> result = new ArrayList<>();
+		if (zip == null)
+			return result;
+		final Pattern filter = Corpus.getFileFilterPattern(Corpus.Collection.SKT, "");
+		for (final Enumeration<? extends ZipEntry> e = zip.entries(); e.hasMoreElements();) {
+			final ZipEntry entry = e.nextElement();
+			if (!entry.isDirectory() && filter.matcher(entry.getName()).matches())
+				result.add(entry.getName());
+		}
+		return result;
+	}
+
+	private static String readEntry(final ZipFile zip, final String name) throws IOException {
+		final ZipEntry entry = zip.getEntry(name);
+		if (entry == null)
+			return "";
+		try (final InputStream in = zip.getInputStream(entry)) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+
+	/**
+	 * Reads the body text of a plain-text file, from the store if it is
+	 * up to date, otherwise from the archive.
+	 */
+	public static String readBodyText(final String name) throws IOException {
+		try (final Source source = lease()) {
+			return source == null ? "" : source.readBodyText(name);
+		}
+	}
+
+	/**
+	 * Builds the store if it is missing or out of date.
+	 * @return the summary, or empty if nothing was done
+	 */
+	public static String ensureStore(final int parallelism) throws IOException, InterruptedException {
+		return isStoreValid() ? "" : buildStore(parallelism);
+	}
+
+	/**
+	 * Extracts the body text of all plain-text files into the store,
+	 * files are read and extracted by workers of a work-stealing pool.
+	 * @return the summary
+	 */
+	public static String buildStore(final int parallelism) throws IOException, InterruptedException {
+		final long startTime = System.currentTimeMillis();
+		final File file = getStoreFile();
+		final File tmpFile = new File(file.getPath() + ".tmp");
+		final AtomicLong bytesIn = new AtomicLong();
+		final AtomicLong bytesOut = new AtomicLong();
+		final AtomicInteger failed = new AtomicInteger();
+		final int count;
+		final ExecutorService pool = Executors.newWorkStealingPool(Math.max(1, parallelism));
+		try {
+			try (final Source source = lease()) {
+				if (source == null)
+					return "GRETIL Sanskrit collection not available";
+				// the old store is closed when its readers are done
+				retire();
+				final ZipFile zip = source.zip;
+				final List<String> names = listTexts(zip);
+				count = names.size();
+				Files.createDirectories(file.toPath().getParent());
+				try (final ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile), 1 << 16))) {
+					out.setComment(source.stamp);
+					out.setLevel(Deflater.BEST_SPEED);
+					final List<Callable<Void>> tasks = new ArrayList<>(names.size());
+					for (final String name : names) {
+						tasks.add(() -> {
+							final String text = readEntry(zip, name);
+							final byte[] data = extractBodyText(text).getBytes(StandardCharsets.UTF_8);
+							synchronized (out) {
+								out.putNextEntry(new ZipEntry(name));
+								out.write(data);
+								out.closeEntry();
+							}
+							bytesIn.addAndGet(zip.getEntry(name).getSize());
+							bytesOut.addAndGet(data.length);
+							return null;
+						});
+					}
+					for (final Future<Void> f : pool.invokeAll(tasks)) {
+						try {
+							f.get();
+						} catch (ExecutionException e) {
+							failed.incrementAndGet();
+							System.err.println(unwrap(e));
+						}
+					}
+				}
+			}
+			if (failed.get() > 0)
+				return String.format("Store not written, %d file(s) failed", failed.get());
+			Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			// let the next lease open the new store
+			retire();
+		} finally {
+			pool.shutdown();
+			// left only if not moved, e.g. failed or interrupted
+			Files.deleteIfExists(tmpFile.toPath());
+		}
+		final double sec = (System.currentTimeMillis() - startTime) / 1000.0;
+		return String.format("%s: %d file(s), read %.2f MB, extracted %.2f MB in %.3f seconds",
+						file.getName(), count, bytesIn.get() / MEGA, bytesOut.get() / MEGA, sec);
+	}
+
+	/**
+	 * Runs an action on the body text of files in parallel. The store is used
+	 * if it is up to date, the archive is leased once for the whole batch.
+	 * The action must be thread-safe.
+	 * @return the files that failed with their errors, in name order
+	 */
+	public static SortedMap<String, Throwable> processTexts(final List<String> names, final int parallelism, final TextAction action)
+			throws IOException, InterruptedException {
+		final SortedMap<String, Throwable> failures = new TreeMap<>();
+		final ExecutorService pool = Executors.newWorkStealingPool(Math.max(1, parallelism));
+		try (final Source source = lease()) {
+			final List<Callable<Void>> tasks = new ArrayList<>(names.size());
+			for (final String name : names) {
+				tasks.add(() -> {
+					action.accept(name, source == null ? "" : source.readBodyText(name));
+					return null;
+				});
+			}
+			final List<Future<Void>> futures = pool.invokeAll(tasks);
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					futures.get(i).get();
+				} catch (ExecutionException e) {
+					final Throwable cause = unwrap(e);
+					System.err.println(cause);
+					failures.put(names.get(i), cause);
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+		return failures;
+	}
+
+	/**
+	 * Gets the error of a task, the work-stealing pool wraps checked
+	 * exceptions in plain RuntimeException.
+	 */
+	private static Throwable unwrap(final ExecutionException e) {
+		Throwable result = e.getCause();
+		while (result.getClass() == RuntimeException.class && result.getCause() != null)
+			result = result.getCause();
+		return result;
+	}
+
+	/**
+	 * Gets the HTML body of a document for the viewer, formatted documents
+	 * are cached until the archive changes.
+	 */
+	public static String getPageBody(final String filename) {
+		try (final Source source = lease()) {
+			if (source == null)
+				return "";
+			synchronized (pageCache) {
+				final String cached = pageCache.get(filename);
+				if (cached != null)
+					return cached;
+			}
+			final String result = formatDoc(ReaderUtilities.readTextFromZip(source.zip, filename, getCharset()));
+			synchronized (pageCache) {
+				final String old = pageCache.put(filename, result);
+				if (old != null)
+					pageChars -= old.length();
+				pageChars += result.length();
+				final Iterator<String> it = pageCache.values().iterator();
+				while (pageChars > MAX_PAGE_CHARS && pageCache.size() > 1 && it.hasNext()) {
+					pageChars -= it.next().length();
+					it.remove();
+				}
+			}
+			return result;
+		} catch (IOException e) {
+			System.err.println(e);
+			return "";
+		}
+	}
+
+	static String formatDoc(final String text) {
+		final StringBuilder result = new StringBuilder(text.length() + 1024);
+		result.append("<body>\n");
+		final String[] lines = linePatt.split(text);
+		boolean start = false;
+		for (int i = 0; i < lines.length; i++) {
+			String line = lines[i].trim();
+			if (start && !line.isEmpty()) {
+				if (line.indexOf("<a ") >= 0)
+					line = anchorPatt.matcher(line).replaceAll("");
+				line = line.replace("</a>", "");
+				line = line.replace("<h2>Header", "<h2 id='jumptarget-h0'>Header");
+				line = line.replace("<h2>Text", "<h2 id='jumptarget-h1'>Text");
+				result.append(line).append("<br>").append("\n");
+			}
+			if (line.contains("<body>"))
+				start = true;
+			else if (line.contains("</body>"))
+				start = false;
+		}
+		return result.toString();
+	}
+
+	// inner classes
+	@FunctionalInterface
+	public interface TextAction {
+		void accept(String name, String bodyText) throws IOException;
+	}
+
+	/**
+	 * The lease of the opened archive and its store, valid for the stamp.
+	 * Leases are counted under the class lock, the archive is closed when
+	 * it is retired and no lease is left.
+	 */
+	static final class Source implements Closeable {
+		private final ZipFile zip;
+		private final ZipFile store;
+		private final String stamp;
+		private int users = 0;
+		private boolean retired = false;
+
+		private Source(final File file, final String stamp) throws IOException {
+			zip = new ZipFile(file);
+			ZipFile storeZip = null;
+			try {
+				storeZip = openStore(stamp);
+			} catch (IOException e) {
+				System.err.println(e);
+			}
+			store = storeZip;
+			this.stamp = stamp;
+		}
+
+		/**
+		 * Reads the body text of a plain-text file, from the store if it
+		 * has the file, otherwise from the archive.
+		 */
+		String readBodyText(final String name) throws IOException {
+			if (store != null && store.getEntry(name) != null)
+				return readEntry(store, name);
+			return extractBodyText(readEntry(zip, name));
+		}
+
+		private void closeIfUnused() {
+			if (!retired || users > 0)
+				return;
+			try {
+				zip.close();
+				if (store != null)
+					store.close();
+			} catch (IOException e) {
+				System.err.println(e);
+			}
+		}
+
+		@Override
+		public void close() {
+			synchronized (SktGretilStore.class) {
+				users--;
+				closeIfUnused();
+			}
+		}
+	}
+
+}
@@ -57,6 +57,16 @@ class Sandhi {
 		productListRaw = combineRaw(first, second);
 	}
 
+	/**
+	 * Makes a sandhi with its products already known,
+	 * e.g. from the cached sandhi table.
+	 */
+	Sandhi(final String one, final String two, final List<String> products) {
+		first = normalize(one);
+		second = normalize(two);
+		productListRaw = products;
+	}
+
 	public static String normalize(final String term) {
 		return term.toLowerCase().replace("ai", "ē").replace("au", "ō");
 	}
@@ -69,6 +79,20 @@ class Sandhi {
 		return sandhiRuleMap;
 	}
 
+	/**
+	 * Computes the hash of all sandhi rules, it changes when the rules change.
+	 */
+	static int getRuleHash() {
+		int result = Arrays.hashCode(availEndings);
+		result = result * 31 + availBeginnings.hashCode();
+		for (final Map.Entry<String, SandhiRule> entry : new TreeMap<>(sandhiRuleMap).entrySet())
+			result = result * 31 + Objects.hash(entry.getKey(), entry.getValue().secondStart, entry.getValue().ruleMap);
+		result = result * 31 + startDoubleRuleMap.hashCode();
+		result = result * 31 + endDoubleRuleMap.hashCode();
+		result = result * 31 + vowelSandhiRuleMap.hashCode();
+		return result;
+	}
+
 	public static boolean isVowel(final char ch) {
 		return sktVowels.indexOf(ch) > -1;
 	}
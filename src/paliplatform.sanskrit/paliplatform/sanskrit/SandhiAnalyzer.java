@@ -52,12 +52,9 @@ public class SandhiAnalyzer extends BorderPane {
 	private final InfoPopup infoPopup = new InfoPopup();
 	private final CheckMenuItem includeVCMenuItem = new CheckMenuItem("Include vowel-consonant rules");
 	private final CheckMenuItem includeVVMenuItem = new CheckMenuItem("Include vowel-vowel rules");
-	private static final List<Sandhi> cxSandhiList = new ArrayList<>();
-	private static final List<Sandhi> vcSandhiList = new ArrayList<>();
-	private static final List<Sandhi> vvSandhiList = new ArrayList<>();
-	private static final Map<String, List<Sandhi>> reverseSandhiMap = new HashMap<>();
 	private int currAnalyzedTextSize = DEF_TEXT_SIZE;
 	private final List<SandhiChunk> currSandhiChunkList = new ArrayList<>();;
+	private SandhiRuleSet ruleSet;
 	private String currText = "";
 
 	public SandhiAnalyzer(final Object[] args) {
@@ -190,55 +187,8 @@ public class SandhiAnalyzer extends BorderPane {
 		}
 	}
 
-	private void generateAllSandhi() {
-		if (!cxSandhiList.isEmpty() && !vcSandhiList.isEmpty() && !vvSandhiList.isEmpty())
-			return;
-		final List<String> firstWordList = new ArrayList<>();
-		for (final String end : Sandhi.availEndings) {
-			final List<String> firstWords = SandhiWin.getFirstWord(end, SandhiWin.OutputForm.BARE, SandhiWin.PrecedingVowel.ALL);
-			firstWordList.addAll(firstWords);
-		}
-		final List<String> secondWordList = new ArrayList<>();
-		for (final String beg : Sandhi.availBeginnings) {
-			final String secondWord = SandhiWin.getSecondWord(beg, SandhiWin.OutputForm.BARE);
-			secondWordList.add(secondWord);
-		}
-		for (final String secondWord : secondWordList) {
-			for (final String firstWord : firstWordList) {
-				final Sandhi sandhi = new Sandhi(firstWord, secondWord);
-				if (!Sandhi.isVowel(firstWord)) {
-					cxSandhiList.add(sandhi);
-				} else {
-					if (Sandhi.isVowel(secondWord))
-						vvSandhiList.add(sandhi);
-					else
-						vcSandhiList.add(sandhi);
-				}
-			}
-		}
-	}
-
 	private void generateReverseSandhiMap() {
-		if (cxSandhiList.isEmpty() || vcSandhiList.isEmpty() || vvSandhiList.isEmpty()) 
-			generateAllSandhi();
-		reverseSandhiMap.clear();
-		addSandhiRules(cxSandhiList);
-		if (includeVCMenuItem.isSelected())
-			addSandhiRules(vcSandhiList);
-		if (includeVVMenuItem.isSelected())
-			addSandhiRules(vvSandhiList);
-	}
-
-	private void addSandhiRules(final List<Sandhi> ruleList) {
-		for (final Sandhi sandhi : ruleList) {
-			final List<String> prodList = sandhi.getProductListRaw();
-			for (final String prod : prodList) {
-				final String prodOK = Sandhi.removeUnitSep(prod);
-				final List<Sandhi> sandhiList = reverseSandhiMap.getOrDefault(prodOK, new ArrayList<>());
-				sandhiList.add(sandhi);
-				reverseSandhiMap.put(prodOK, sandhiList);
-			}
-		}
+		ruleSet = SandhiRuleSet.get(includeVCMenuItem.isSelected(), includeVVMenuItem.isSelected());
 	}
 
 	private void includeAllRules(final boolean isAll) {
@@ -271,16 +221,13 @@ public class SandhiAnalyzer extends BorderPane {
 
 	private void analyze(final String input) {
 		final String text = input.length() < DEF_INPUT_LIMIT ? input : input.substring(0, DEF_INPUT_LIMIT);
-		currText = Utilities.convertToRomanSanskrit(text);
-		currText = currText.split("\\r?\\n")[0]; // use only the first line
-		currText = currText.replaceAll("\\s", ""); // collapse spaces
-		currText = Sandhi.convertAvagraha(currText); // convert ’ to avagraha
+		currText = SandhiRuleSet.prepareText(text.split("\\r?\\n")[0]); // use only the first line
 		analyze();
 	}
 
 	private void analyze() {
 		currSandhiChunkList.clear();
-		currSandhiChunkList.addAll(new SandhiUnit(currText).getChunkList());
+		currSandhiChunkList.addAll(new SandhiUnit(currText, ruleSet).getChunkList());
 		showAnalyzedText(currText);
 		showSandhiChunks();
 		sandhiChunkListView.getSelectionModel().select(0);
@@ -322,8 +269,7 @@ public class SandhiAnalyzer extends BorderPane {
 
 	private void updateDecomposition(final SandhiChunk chunk) {
 		final StringBuilder result = new StringBuilder();
-		final String chunkText = chunk.getText();
-		final List<Sandhi> sandhiList = reverseSandhiMap.get(chunkText);
+		final List<Sandhi> sandhiList = chunk.getSandhiList();
 		final Range chunkRange = chunk.getRange();
 		final char[] chArr = currText.toCharArray();
 		boolean replaced = false;
@@ -446,9 +392,11 @@ public class SandhiAnalyzer extends BorderPane {
 	static class SandhiChunk {
 		private String text;
 		private Range range;
-		public SandhiChunk(final String txt, final Range ran) {
+		private List<Sandhi> sandhiList;
+		public SandhiChunk(final String txt, final Range ran, final List<Sandhi> sList) {
 			text = txt;
 			range = ran;
+			sandhiList = sList;
 		}
 		public String getText() {
 			return text;
@@ -459,8 +407,10 @@ public class SandhiAnalyzer extends BorderPane {
 		public boolean includes(final int pos) {
 			return range.includes(pos);
 		}
+		public List<Sandhi> getSandhiList() {
+			return sandhiList;
+		}
 		public String getCases() {
-			final List<Sandhi> sandhiList = reverseSandhiMap.getOrDefault(text, Collections.emptyList());
 			return sandhiList.stream().map(Sandhi::toString).collect(Collectors.joining(", "));
 
 		}
@@ -475,42 +425,17 @@ public class SandhiAnalyzer extends BorderPane {
 
 	static class SandhiUnit {
 		final List<SandhiChunk> chunkList;
-		public SandhiUnit(final String text) {
-			final Map<Range, String> chunkMap = analyzeUnit(text);
+		public SandhiUnit(final String text, final SandhiRuleSet rules) {
+			final Map<Range, String> chunkMap = rules.findChunks(text);
 			chunkList = chunkMap.keySet().stream()
 										.sorted((x, y) -> Integer.compare(x.getStart(), y.getStart()))
-										.map(r -> new SandhiChunk(chunkMap.get(r), r))
+										.map(r -> new SandhiChunk(chunkMap.get(r), r, rules.getSandhiList(chunkMap.get(r))))
 										.collect(Collectors.toList());
 
 		}
 		public List<SandhiChunk> getChunkList() {
 			return chunkList;
 		}
-		private static Map<Range, String> analyzeUnit(final String text) {
-			if (reverseSandhiMap.isEmpty())
-				return Collections.emptyMap();
-			final Map<Range, String> result = new HashMap<>();
-			// find chunks' position
-			int sPos;
-			for_loop:
-			for (final String k : reverseSandhiMap.keySet()) {
-				sPos = text.indexOf(k);
-				if (sPos == 0)
-					sPos = text.indexOf(k, sPos + 1); // from the second position onward
-				while (sPos > -1) {
-					if (sPos + k.length() < text.length()) { // not at the end
-						final String lastCh = k.substring(k.length() - 1);
-						final String nextCh = sPos + k.length() < text.length() - 1 ? text.substring(sPos + k.length()) : "";
-						if (Sandhi.sktHasH.indexOf(lastCh) > -1 && !nextCh.equals("h"))
-							continue for_loop;
-						final Range r = new Range(sPos, sPos + k.length() - 1);
-						result.put(r, k);
-					}
-					sPos = text.indexOf(k, sPos + 1); //’
-				}
-			}
-			return result;
-		}
 	}
 
 }
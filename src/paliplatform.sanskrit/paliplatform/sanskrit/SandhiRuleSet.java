@@ -0,0 +1,376 @@
+/*
+ * SandhiRuleSet.java
+ *
+ * Copyright (C) 2023-2026 J. R. Bhaddacak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see https://www.gnu.org/licenses/.
+ */
+
+package paliplatform.sanskrit;
+
+import paliplatform.base.*;
+import paliplatform.sanskrit.SandhiAnalyzer.Range;
+
+import java.util.*;
+import java.io.*;
+import java.nio.file.*;
+
+/**
+ * The reverse sandhi rules used by the sandhi analyzer. All sandhi products
+ * (junctions) of the selected rule groups are mapped to the sandhi cases
+ * producing them, and the junctions are compiled into an Aho-Corasick
+ * automaton, so all junctions in a text are found in one pass.
+ * Consonant rules are always included, vowel-consonant and vowel-vowel
+ * rules are optional. A rule set is immutable, one is made for each
+ * combination of options when first needed, and can be shared by threads.
+ * All sandhi cases with their products are computed once and kept in
+ * the sandhi table file in the cache, which is loaded in later sessions.
+ * @author J.R. Bhaddacak
+ * @version 4.1
+ * @since 4.1
+ */
+final class SandhiRuleSet {
+	static final String TABLE_FILENAME = "sandhi_table.bin";
+	private static final int TABLE_MAGIC = 0x534E4454; // SNDT
+	private static final int TABLE_VERSION = 2; // increase when the way of combining sandhi changes
+	private static enum Group { CX, VC, VV };
+	private static final SandhiRuleSet[] ruleSets = new SandhiRuleSet[4];
+	private static Map<Group, List<Sandhi>> sandhiMap;
+	private final Map<String, List<Sandhi>> reverseSandhiMap = new HashMap<>();
+	private final Automaton automaton;
+
+	private SandhiRuleSet(final boolean includeVC, final boolean includeVV) {
+		addSandhiRules(sandhiMap.get(Group.CX));
+		if (includeVC)
+			addSandhiRules(sandhiMap.get(Group.VC));
+		if (includeVV)
+			addSandhiRules(sandhiMap.get(Group.VV));
+		// junctions ending with a consonant that can take h are not taken
+		final List<String> keys = new ArrayList<>();
+		for (final String k : reverseSandhiMap.keySet()) {
+			if (!k.isEmpty() && Sandhi.sktHasH.indexOf(k.charAt(k.length() - 1)) < 0)
+				keys.add(k);
+		}
+		automaton = new Automaton(keys);
+	}
+
+	/**
+	 * Gets the rule set of the options given.
+	 */
+	static synchronized SandhiRuleSet get(final boolean includeVC, final boolean includeVV) {
+		final int index = (includeVC ? 1 : 0) | (includeVV ? 2 : 0);
+		if (ruleSets[index] == null) {
+			if (sandhiMap == null)
+				sandhiMap = loadAllSandhi();
+			ruleSets[index] = new SandhiRuleSet(includeVC, includeVV);
+		}
+		return ruleSets[index];
+	}
+
+	private static Map<Group, List<Sandhi>> loadAllSandhi() {
+		final File file = getTableFile();
+		Map<Group, List<Sandhi>> result = readTable(file);
+		if (result == null) {
+			result = generateAllSandhi();
+			writeTable(file, result);
+		}
+		return result;
+	}
+
+	static File getTableFile() {
+		return new File(Utilities.ROOTDIR + Utilities.CACHEPATH + TABLE_FILENAME);
+	}
+
+	/**
+	 * Computes all sandhi cases by the sandhi rules.
+	 */
+	private static Map<Group, List<Sandhi>> generateAllSandhi() {
+		final Map<Group, List<Sandhi>> result = new EnumMap<>(Group.class);
+		for (final Group g : Group.values())
+			result.put(g, new ArrayList<>());
+		// bare forms of SandhiWin with all preceding vowels, made here
+		// so that no window is needed (e.g. in SktUtil)
+		final List<String> firstWordList = new ArrayList<>();
+		for (final String end : Sandhi.availEndings) {
+			if (Sandhi.isVowel(end.charAt(0))) {
+				firstWordList.add(end);
+			} else {
+				firstWordList.add("a" + end);
+				for (final char v : Sandhi.sktVowels.toCharArray()) {
+					if (v == 'a' || v == 'ā') continue;
+					firstWordList.add(v + end);
+				}
+			}
+		}
+		final List<String> secondWordList = new ArrayList<>(Sandhi.availBeginnings);
+		for (final String secondWord : secondWordList) {
+			for (final String firstWord : firstWordList) {
+				final Sandhi sandhi = new Sandhi(firstWord, secondWord);
+				if (!Sandhi.isVowel(firstWord)) {
+					result.get(Group.CX).add(sandhi);
+				} else {
+					if (Sandhi.isVowel(secondWord))
+						result.get(Group.VV).add(sandhi);
+					else
+						result.get(Group.VC).add(sandhi);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Makes the stamp of the table, it changes when the sandhi rules
+	 * or the program version change.
+	 */
+	private static int makeStamp() {
+		return Sandhi.getRuleHash() * 31 + Utilities.VERSION.hashCode();
+	}
+
+	/**
+	 * Reads the sandhi table file.
+	 * @return the sandhi cases, or null if not available or outdated
+	 */
+	private static Map<Group, List<Sandhi>> readTable(final File file) {
+		if (!file.exists()) return null;
+		try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != TABLE_MAGIC || in.readInt() != TABLE_VERSION || in.readInt() != makeStamp())
+				return null;
+			final Map<Group, List<Sandhi>> result = new EnumMap<>(Group.class);
+			for (final Group g : Group.values()) {
+				final int count = in.readInt();
+				final List<Sandhi> list = new ArrayList<>(count);
+				for (int i = 0; i < count; i++) {
+					final String first = in.readUTF();
+					final String second = in.readUTF();
+					final int prodCount = in.readUnsignedByte();
+					final List<String> products = new ArrayList<>(prodCount);
+					for (int j = 0; j < prodCount; j++)
+						products.add(in.readUTF());
+					list.add(new Sandhi(first, second, products));
+				}
+				result.put(g, list);
+			}
+			return result;
+		} catch (IOException e) {
+			System.err.println(e);
+		}
+		return null;
+	}
+
+	private static void writeTable(final File file, final Map<Group, List<Sandhi>> table) {
+		final File tmpFile = new File(file.getPath() + ".tmp");
+		try {
+			Files.createDirectories(file.toPath().getParent());
+			try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+				out.writeInt(TABLE_MAGIC);
+				out.writeInt(TABLE_VERSION);
+				out.writeInt(makeStamp());
+				for (final Group g : Group.values()) {
+					final List<Sandhi> list = table.get(g);
+					out.writeInt(list.size());
+					for (final Sandhi sandhi : list) {
+						out.writeUTF(sandhi.getFirst());
+						out.writeUTF(sandhi.getSecond());
+						final List<String> products = sandhi.getProductListRaw();
+						out.writeByte(products.size());
+						for (final String p : products)
+							out.writeUTF(p);
+					}
+				}
+			}
+			Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			System.err.println(e);
+			tmpFile.delete();
+		}
+	}
+
+	/**
+	 * Checks the sandhi table file against the sandhi rules.
+	 * @return the report of the check
+	 */
+	static String verifyTable() {
+		final File file = getTableFile();
+		final Map<Group, List<Sandhi>> cached = readTable(file);
+		if (cached == null)
+			return "No valid sandhi table: " + file;
+		final Map<Group, List<Sandhi>> live = generateAllSandhi();
+		int total = 0;
+		int diff = 0;
+		for (final Group g : Group.values()) {
+			final List<Sandhi> cList = cached.get(g);
+			final List<Sandhi> lList = live.get(g);
+			final int max = Math.max(cList.size(), lList.size());
+			for (int i = 0; i < max; i++) {
+				total++;
+				final Sandhi c = i < cList.size() ? cList.get(i) : null;
+				final Sandhi l = i < lList.size() ? lList.get(i) : null;
+				if (c == null || l == null || !c.getFirst().equals(l.getFirst()) || !c.getSecond().equals(l.getSecond())
+						|| !c.getProductListRaw().equals(l.getProductListRaw()))
+					diff++;
+			}
+		}
+		return String.format("Sandhi cases: %,d, different: %,d", total, diff);
+	}
+
+	private void addSandhiRules(final List<Sandhi> ruleList) {
+		for (final Sandhi sandhi : ruleList) {
+			final List<String> prodList = sandhi.getProductListRaw();
+			for (final String prod : prodList) {
+				final String prodOK = Sandhi.removeUnitSep(prod);
+				reverseSandhiMap.computeIfAbsent(prodOK, k -> new ArrayList<>()).add(sandhi);
+			}
+		}
+	}
+
+	/**
+	 * Gets the sandhi cases of a junction, empty if none.
+	 */
+	List<Sandhi> getSandhiList(final String junction) {
+		return reverseSandhiMap.getOrDefault(junction, Collections.emptyList());
+	}
+
+	/**
+	 * Gets all junctions of this rule set.
+	 */
+	Set<String> getJunctions() {
+		return Collections.unmodifiableSet(reverseSandhiMap.keySet());
+	}
+
+	/**
+	 * Finds junctions inside a text, i.e. not at the first
+	 * nor the last character, with their ranges (inclusive).
+	 */
+	Map<Range, String> findChunks(final String text) {
+		final Map<Range, String> result = new HashMap<>();
+		automaton.scan(text, (start, end, key) -> {
+			if (start > 0 && end < text.length())
+				result.put(new Range(start, end - 1), key);
+		});
+		return result;
+	}
+
+	/**
+	 * Prepares a text for analysis: it is converted to Roman script,
+	 * spaces are removed, and ’ is changed to avagraha.
+	 */
+	static String prepareText(final String input) {
+		String text = Utilities.convertToRomanSanskrit(input);
+		text = text.replaceAll("\\s", "");
+		return Sandhi.convertAvagraha(text);
+	}
+
+	// inner classes
+	@FunctionalInterface
+	interface MatchHandler {
+		void found(int start, int end, String key);
+	}
+
+	/**
+	 * The Aho-Corasick automaton of junctions. Each node has its outgoing
+	 * characters (sorted) and target nodes, the failure link, and the keys
+	 * ending there (including those of its failure chain).
+	 */
+	private static final class Automaton {
+		private final char[][] labels;
+		private final int[][] targets;
+		private final int[] fail;
+		private final String[][] outputs;
+
+		private Automaton(final Collection<String> keys) {
+			// build the trie
+			final List<TreeMap<Character, Integer>> edgeList = new ArrayList<>();
+			final List<List<String>> outList = new ArrayList<>();
+			edgeList.add(new TreeMap<>());
+			outList.add(new ArrayList<>());
+			for (final String k : keys) {
+				int node = 0;
+				for (int i = 0; i < k.length(); i++) {
+					final TreeMap<Character, Integer> edges = edgeList.get(node);
+					Integer next = edges.get(k.charAt(i));
+					if (next == null) {
+						next = edgeList.size();
+						edges.put(k.charAt(i), next);
+						edgeList.add(new TreeMap<>());
+						outList.add(new ArrayList<>());
+					}
+					node = next;
+				}
+				outList.get(node).add(k);
+			}
+			final int size = edgeList.size();
+			labels = new char[size][];
+			targets = new int[size][];
+			for (int n = 0; n < size; n++) {
+				final TreeMap<Character, Integer> edges = edgeList.get(n);
+				labels[n] = new char[edges.size()];
+				targets[n] = new int[edges.size()];
+				int i = 0;
+				for (final Map.Entry<Character, Integer> e : edges.entrySet()) {
+					labels[n][i] = e.getKey();
+					targets[n][i] = e.getValue();
+					i++;
+				}
+			}
+			// set failure links breadth-first, outputs are merged along them
+			fail = new int[size];
+			outputs = new String[size][];
+			outputs[0] = outList.get(0).toArray(new String[0]);
+			final Deque<Integer> queue = new ArrayDeque<>();
+			for (final int child : targets[0])
+				queue.add(child);
+			while (!queue.isEmpty()) {
+				final int node = queue.poll();
+				final List<String> out = outList.get(node);
+				out.addAll(Arrays.asList(outputs[fail[node]]));
+				outputs[node] = out.toArray(new String[0]);
+				for (int i = 0; i < labels[node].length; i++) {
+					final int child = targets[node][i];
+					int f = fail[node];
+					int next = step(f, labels[node][i]);
+					while (next < 0 && f != 0) {
+						f = fail[f];
+						next = step(f, labels[node][i]);
+					}
+					fail[child] = next < 0 ? 0 : next;
+					queue.add(child);
+				}
+			}
+		}
+
+		private int step(final int node, final char ch) {
+			final int i = Arrays.binarySearch(labels[node], ch);
+			return i < 0 ? -1 : targets[node][i];
+		}
+
+		/**
+		 * Reports all occurrences of all keys, end is exclusive.
+		 */
+		private void scan(final String text, final MatchHandler handler) {
+			int node = 0;
+			for (int pos = 0; pos < text.length(); pos++) {
+				final char ch = text.charAt(pos);
+				int next = step(node, ch);
+				while (next < 0 && node != 0) {
+					node = fail[node];
+					next = step(node, ch);
+				}
+				node = next < 0 ? 0 : next;
+				for (final String key : outputs[node])
+					handler.found(pos + 1 - key.length(), pos + 1, key);
+			}
+		}
+	}
+
+}
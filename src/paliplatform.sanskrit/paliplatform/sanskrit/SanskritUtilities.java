@@ -31,6 +31,7 @@ import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.sql.*;
 
+import javafx.application.Platform;
 import javafx.stage.Stage;
 import javafx.scene.Node;
 import javafx.scene.image.Image;
@@ -57,6 +58,8 @@ final public class SanskritUtilities {
 	public static final SimpleBooleanProperty someSktDictDataAvailable = new SimpleBooleanProperty(false);
 	public static final SimpleBooleanProperty sktDictDBLocked = new SimpleBooleanProperty(false);
 	public static final SimpleObjectProperty<Node> sktDictDBLockIcon = new SimpleObjectProperty<>(null);
+	private static final int IMPORT_THREADS = Math.max(1, Math.min(4, DBPool.DEF_MAX_SIZE - 1));
+	static final int SKT_BATCH_SIZE = 500;
 	private static final String[] dbLockStatus = { "Skt. Dict DB unlocked", "Skt. Dict DB locked" };
 	public static final SimpleStringProperty sktDictDBLockString = new SimpleStringProperty(dbLockStatus[0]);
 	public static Map<String, SimpleService> simpleServiceMap;
@@ -121,11 +124,7 @@ final public class SanskritUtilities {
 		someSktDictDataAvailable.set(!getAvailableSktDictData().isEmpty());
 		if (!sktAvailable) return;
 		final Set<String> dictNames = Utilities.getFirstColumnFromDB(Utilities.H2DB.SKTDICT, "SHOW TABLES;");
-		dictNames.forEach(d -> {
-			final SimpleBooleanProperty prop = sktDictAvailMap.get(SktDictBook.valueOf(d));
-			if (prop != null)
-				prop.set(true);
-		});
+		sktDictAvailMap.forEach((d, prop) -> prop.set(dictNames.contains(d.toString())));
 	}
 
 	public static void openWindow(final Utilities.WindowType win, final Object[] args) {
@@ -215,25 +214,89 @@ final public class SanskritUtilities {
 		if (!Utilities.H2DB.SKTDICT.isAvailable()) return;
 		final boolean proceed = anySktDictTableExists() ? proceedCreateConfirm() : true;
 		if (!proceed) return;
-		final Map<SktDictBook, CompletableFuture<Void>> taskMap = new EnumMap<>(SktDictBook.class);
-		for (final SktDictBook dict : SktDictBook.books) {
-			if (availDict.contains(dict)) {
-				final Runnable work = () -> createSktDictTable(dict);
-				taskMap.put(dict, CompletableFuture.runAsync(work, Utilities.threadPool));
+		// each dictionary goes to its own table through its own connection,
+		// the biggest ones start first and at most IMPORT_THREADS run at once
+		final List<SktDictBook> dictList = new ArrayList<>(availDict);
+		dictList.sort(Comparator.comparingLong((SktDictBook d) -> new File(DICTPATH + d.getDataFileName()).length()).reversed());
+		final ExecutorService importPool = Executors.newFixedThreadPool(Math.min(IMPORT_THREADS, dictList.size()));
+		final Map<SktDictBook, CompletableFuture<String>> taskMap = new EnumMap<>(SktDictBook.class);
+		for (final SktDictBook dict : dictList)
+			taskMap.put(dict, CompletableFuture.supplyAsync(() -> {
+				try {
+					return createSktDictTable(dict);
+				} catch (IOException | SQLException e) {
+					throw new CompletionException(e);
+				}
+			}, importPool));
+		importPool.shutdown();
+		final long start = System.currentTimeMillis();
+		// the report is made whether or not some imports failed
+		CompletableFuture.allOf(taskMap.values().toArray(new CompletableFuture<?>[0])).whenComplete((v, ex) -> {
+			final StringBuilder report = new StringBuilder();
+			int failed = 0;
+			for (final Map.Entry<SktDictBook, CompletableFuture<String>> entry : taskMap.entrySet()) {
+				final CompletableFuture<String> task = entry.getValue();
+				if (task.isCompletedExceptionally()) {
+					failed++;
+					final Throwable cause = task.handle((r, e) -> e instanceof CompletionException ? e.getCause() : e).join();
+					System.err.println(cause);
+					report.append(entry.getKey()).append(": failed (").append(cause.getMessage()).append(")");
+				} else {
+					report.append(task.join());
+				}
+				report.append(System.getProperty("line.separator"));
 			}
-		}
+			report.append(String.format("%d of %d imported, total time: %.1f s", taskMap.size() - failed, taskMap.size(),
+										(System.currentTimeMillis() - start) / 1000.0));
+			final Alert.AlertType alertType = failed > 0 ? Alert.AlertType.ERROR : Alert.AlertType.INFORMATION;
+			Platform.runLater(() -> {
+				updateSktDictAvailibility();
+				Utilities.displayAlert(alertType, report.toString());
+			});
+		});
 		final String mess = "The preparation is going in background,\nplease wait a minute, don't quit!";
 		Utilities.displayAlert(Alert.AlertType.INFORMATION, mess);
 	}
 
-	public static void createSktDictTable(final SktDictBook dict) {
+	/**
+	 * Imports a CDSL dictionary file into its table. The file is read in
+	 * one pass, rows are inserted in batches within one transaction, and
+	 * the key index is created after the load. If the import fails,
+	 * the rows are rolled back and the tables of the dictionary dropped.
+	 * @return the import report of the dictionary
+	 */
+	public static String createSktDictTable(final SktDictBook dict) throws IOException, SQLException {
 		final File dataFile = new File(SanskritUtilities.DICTPATH + dict.getDataFileName());
-		final Pattern entryPatt = Pattern.compile("<L>(.*?)<pc>(.*?)<k1>(.*?)<k2>(.*)");
-		final Pattern homoNumPatt = Pattern.compile(".*<h>(.*)");
-		final java.sql.Connection conn = Utilities.H2DB.SKTDICT.getConnection();
+		final DBPool pool = Utilities.H2DB.SKTDICT.getPool();
+		final String tableName = dict.toString();
+		if (pool == null)
+			throw new SQLException("Sanskrit dict database not available");
+		final long start = System.nanoTime();
+		final int count;
+		try (final DBPool.Lease lease = pool.lease()) {
+			final java.sql.Connection conn = lease.getConnection();
+			final String delete = "DROP TABLE IF EXISTS " + tableName + ";";
+			Utilities.executeSQL(conn, delete);
+			SktDictFacets.dropTable(conn, dict);
+			try {
+				count = importSktDictFile(dict, dataFile, conn);
+			} catch (IOException | SQLException | RuntimeException e) {
+				Utilities.executeSQL(conn, delete);
+				SktDictFacets.dropTable(conn, dict);
+				throw e;
+			} finally {
+				Utilities.H2DB.markModified(Utilities.H2DB.SKTDICT);
+			}
+		}
+		final double seconds = (System.nanoTime() - start) / 1e9;
+		return String.format("%s: %,d entries in %.1f s (%,.0f entries/s)", tableName, count, seconds,
+								seconds > 0 ? count / seconds : 0.0);
+	}
+
+	private static int importSktDictFile(final SktDictBook dict, final File dataFile, final java.sql.Connection conn)
+			throws IOException, SQLException {
 		final String tableName = dict.toString();
-		final String delete = "DROP TABLE IF EXISTS " + tableName + ";";
-		Utilities.executeSQL(conn, delete);
+		final int count;
 		final String create = "CREATE TABLE " + tableName + " (" +
 			"ID INT PRIMARY KEY," +
 			"LID VARCHAR(16) NOT NULL," +
@@ -244,59 +307,40 @@ final public class SanskritUtilities {
 			"MEANING CLOB);";
 		Utilities.executeSQL(conn, create);
 		final String insert = "INSERT INTO " + tableName + " VALUES (?, ?, ?, ?, ?, ?, ?);";
-		int id = 0;
-		String lid = "";
-		String pagecol = "";
-		String key1 = "";
-		String key2 = "";
-		String homoNum = "";
-		StringBuilder meaning = null;
-		try (final Scanner in = new Scanner(new FileInputStream(dataFile), StandardCharsets.UTF_8)) {
-			final PreparedStatement pstm = conn.prepareStatement(insert);
-			while (in.hasNextLine()) {
-				final String line = in.nextLine().trim();
+		final SktDictFacets.Builder facets = SktDictFacets.hasFacets(dict) ? new SktDictFacets.Builder(dict) : null;
+		try (final BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(dataFile), StandardCharsets.UTF_8), 1 << 16);
+				final BulkInserter inserter = new BulkInserter(conn, insert, SKT_BATCH_SIZE)) {
+			int id = 0;
+			String[] entry = null;
+			String homoNum = "";
+			StringBuilder meaning = null;
+			String line;
+			while ((line = in.readLine()) != null) {
+				line = line.trim();
 				if (line.startsWith("<L>")) {
 					// record started
-					final Matcher matcher = entryPatt.matcher(line);
-					final Matcher homoMatcher = homoNumPatt.matcher(line);
-					if (matcher.matches()) {
+					final String[] fields = parseEntryLine(line);
+					if (fields != null) {
 						id++;
-						lid = matcher.group(1);
-						pagecol = matcher.group(2);
-						final String k1 = matcher.group(3);
-						key1 = dict.keySLP1DecodeNeeded() 
-								? ScriptTransliterator.translitQuick(k1, EngineType.SLP1_IAST, true)
-								: k1;
-						final String k2 = matcher.group(4);
-						int apos = k2.indexOf("<");
-						key2 = apos > -1 ? k2.substring(0, apos) : k2;
-						if (homoMatcher.matches()) {
-							final String hStr = homoMatcher.group(1);
-							apos = hStr.indexOf("<");
-							homoNum = apos > -1 ? hStr.substring(0, apos) : hStr;
-						}
+						entry = fields;
+						if (dict.keySLP1DecodeNeeded())
+							entry[2] = ScriptTransliterator.translitQuick(entry[2], EngineType.SLP1_IAST, true);
+						if (entry[4] != null)
+							homoNum = entry[4];
 						meaning = new StringBuilder();
 					}
 				} else if (line.startsWith("<LEND>")) {
 					// record ended
-					if (!lid.isEmpty()) {
-						pstm.setInt(1, id);
-						pstm.setString(2, lid);
-						pstm.setString(3, pagecol);
-						pstm.setString(4, key1);
-						pstm.setString(5, key2);
-						pstm.setString(6, homoNum);
+					if (entry != null && !entry[0].isEmpty()) {
 						String mStr = meaning.toString();
 						if (dict == SktDictBook.BOR) {
 							// broken hyphenation fix for BOR
 							mStr = mStr.replace("- -", "");
 						}
-						pstm.setString(7, mStr);
-						pstm.executeUpdate();
-						lid = "";
-						pagecol = "";
-						key1 = "";
-						key2 = "";
+						inserter.add(id, entry[0], entry[1], entry[2], entry[3], homoNum, mStr);
+						if (facets != null)
+							facets.add(id, entry[2], mStr);
+						entry = null;
 						homoNum = "";
 						meaning = null;
 					}
@@ -306,15 +350,41 @@ final public class SanskritUtilities {
 						meaning.append(line).append(" ");
 				}
 			}
-			pstm.close();
-		} catch (FileNotFoundException e) {
-			System.err.println(e);
-		} catch (SQLException e) {
-			System.err.println(e);
+			inserter.complete();
+			count = inserter.getCount();
 		}
 		final String index = "CREATE INDEX IDX_" + tableName + "_KEY1 ON " + tableName + "(KEY1);";
 		Utilities.executeSQL(conn, index);
-		updateSktDictAvailibility();
+		if (facets != null)
+			facets.write(conn);
+		return count;
+	}
+
+	/**
+	 * Splits an entry line, i.e. &lt;L&gt;lid&lt;pc&gt;pagecol&lt;k1&gt;key1&lt;k2&gt;key2...,
+	 * into LID, PAGECOL, KEY1, KEY2 and the homonym number (null if none).
+	 * @return the fields, or null if the line is not well-formed
+	 */
+	static String[] parseEntryLine(final String line) {
+		final int pcPos = line.indexOf("<pc>", 3);
+		if (pcPos < 0) return null;
+		final int k1Pos = line.indexOf("<k1>", pcPos + 4);
+		if (k1Pos < 0) return null;
+		final int k2Pos = line.indexOf("<k2>", k1Pos + 4);
+		if (k2Pos < 0) return null;
+		final String[] result = new String[5];
+		result[0] = line.substring(3, pcPos);
+		result[1] = line.substring(pcPos + 4, k1Pos);
+		result[2] = line.substring(k1Pos + 4, k2Pos);
+		result[3] = cutAtTag(line, k2Pos + 4);
+		final int hPos = line.lastIndexOf("<h>");
+		result[4] = hPos < 0 ? null : cutAtTag(line, hPos + 3);
+		return result;
+	}
+
+	private static String cutAtTag(final String line, final int from) {
+		final int tagPos = line.indexOf('<', from);
+		return tagPos < 0 ? line.substring(from) : line.substring(from, tagPos);
 	}
 
 	public static CheckBox createSktDictCheckBox(final SktDictBook book) {
@@ -327,21 +397,20 @@ final public class SanskritUtilities {
 
 	public static List<SktDictEntry> lookUpSktDictFromDB(final SktDictBook dict, final String term) {
 		final List<SktDictEntry> entryList = new ArrayList<>();
-		final String query = "SELECT LID,PAGECOL,KEY1,KEY2,HNUM,MEANING FROM " + dict.toString() + " WHERE KEY1 = '" + term + "';";
-		final java.sql.Connection conn = Utilities.H2DB.SKTDICT.getConnection();
+		final String query = "SELECT LID,PAGECOL,KEY1,KEY2,HNUM,MEANING FROM " + dict.toString() + " WHERE KEY1 = ?;";
+		final DBPool pool = Utilities.H2DB.SKTDICT.getPool();
 		try {
-			if (conn != null) {
-				final Statement stmt = conn.createStatement();
-				final ResultSet rs = stmt.executeQuery(query);
-				while (rs.next()) {
-					final SktDictEntry entry = new SktDictEntry(
-							rs.getString("LID"), rs.getString("PAGECOL"),
-							rs.getString("KEY1"), rs.getString("KEY2"), rs.getString("HNUM"));
-					entry.setMeaning(rs.getString("MEANING"));
-					entryList.add(entry);
-				}
-				rs.close();		
-				stmt.close();
+			if (pool != null) {
+				pool.query(query, rs -> {
+					while (rs.next()) {
+						final SktDictEntry entry = new SktDictEntry(
+								rs.getString("LID"), rs.getString("PAGECOL"),
+								rs.getString("KEY1"), rs.getString("KEY2"), rs.getString("HNUM"));
+						entry.setMeaning(rs.getString("MEANING"));
+						entryList.add(entry);
+					}
+					return null;
+				}, term);
 			}
 		} catch (SQLException e) {
 			System.err.println(e);
@@ -0,0 +1,328 @@
+/*
+ * SktDictFacets.java
+ *
+ * Copyright (C) 2023-2026 J. R. Bhaddacak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see https://www.gnu.org/licenses/.
+ */
+
+package paliplatform.sanskrit;
+
+import paliplatform.base.*;
+import paliplatform.sanskrit.SanskritUtilities.SktDictBook;
+
+import java.util.*;
+import java.sql.*;
+
+/**
+ * The exploring facets of Sanskrit dictionaries. A facet (an exploring
+ * option, e.g. masculine nouns) is given by literal markers in the meaning.
+ * When a dictionary is imported, entries having each facet are listed
+ * in a companion table indexed by facet and KEY1, so exploring,
+ * with or without a KEY1 pattern, is an index lookup instead of
+ * a scan of all meanings. Tables imported without the facets are
+ * explored by LIKE as before. Markers are case-sensitive,
+ * as LIKE is on the MEANING column.
+ * @author J.R. Bhaddacak
+ * @version 4.1
+ * @since 4.1
+ */
+final class SktDictFacets {
+	static final String SUFFIX = "_FACETS";
+	private static final Map<SktDictBook, List<ExploringOption>> optionMap = new EnumMap<>(SktDictBook.class);
+	private static final Map<SktDictBook, Boolean> availMap = new EnumMap<>(SktDictBook.class);
+	private static int availModCount = -1;
+
+	static {
+		final List<ExploringOption> mw = new ArrayList<>();
+		addOption(mw, "Roots/Verbs", "<ab>cl.");
+		addOption(mw, "Genuine", "<info verb=\"genuineroot");
+		addOption(mw, "Non-genuine", "<info verb=\"root");
+		addOption(mw, "Westergaard", "<info westergaard");
+		addOption(mw, "Whitney", "<info whitneyroots");
+		addOption(mw, "Masculine", "<lex>m.");
+		addOption(mw, "Feminine", "<lex>f.");
+		addOption(mw, "Neuter", "<lex>n.");
+		addOption(mw, "M/F/N (adj.)", "<lex>mfn.", "<ab>mfn.");
+		addOption(mw, "M/F*/N (adj.)", "<lex>mf(");
+		addOption(mw, "Pronouns", "<ab>pron.");
+		addOption(mw, "Pronominals", "<ab>pronom.");
+		addOption(mw, "Indeclinables", "<lex>ind.");
+		addOption(mw, "Ind. Participles", "<ab>ind.p.");
+		optionMap.put(SktDictBook.MW, Collections.unmodifiableList(mw));
+		final List<ExploringOption> ap = new ArrayList<>();
+		addOption(ap, "Roots/Verbs", "€");
+		addOption(ap, "Masculine", "{%m.");
+		addOption(ap, "Feminine", "{%f.");
+		addOption(ap, "Neuter", "{%n.");
+		addOption(ap, "Pronominals", "{%pron. a.");
+		addOption(ap, "Adjectives", "{%a.");
+		addOption(ap, "Adverbs", "{%adv.");
+		addOption(ap, "Numerals", "{%Num. a.", "{%num. a.");
+		addOption(ap, "Past Participles", "{%p. p.");
+		addOption(ap, "Pot. Participles", "{%Pot. p.", "{%pot. p.");
+		addOption(ap, "Pres. Participles", "{%Pres. p.", "{%pres. p.");
+		addOption(ap, "Indeclinables", "{%ind.");
+		optionMap.put(SktDictBook.AP, Collections.unmodifiableList(ap));
+		final List<ExploringOption> shs = new ArrayList<>();
+		addOption(shs, "Roots/Verbs", " cl. ");
+		addOption(shs, "Masculine", " m. ");
+		addOption(shs, "Feminine", " f. ");
+		addOption(shs, "Masc/Fem", " mf. ");
+		addOption(shs, "Neuter", " n. ");
+		addOption(shs, "Masc/Neut", " mn. ");
+		addOption(shs, "M/F/N", " mfn. ");
+		addOption(shs, "Pronominals", " Pron. ", " pron. ");
+		addOption(shs, "Adjectives", " Adj. ", " adj. ");
+		addOption(shs, "Adverbs", " Adv. ", " adv. ");
+		addOption(shs, "Indeclinables", " Ind. ", " ind. ");
+		optionMap.put(SktDictBook.SHS, Collections.unmodifiableList(shs));
+		final List<ExploringOption> md = new ArrayList<>();
+		addOption(md, "Roots/Verbs", "<cl>");
+		addOption(md, "Masculine", "<lex>m.");
+		addOption(md, "Feminine", "<lex>f.");
+		addOption(md, "Neuter", "<lex>n.");
+		addOption(md, "Pronominals", "<lex>prn.", "<ab>prn.");
+		addOption(md, "Adjectives", "<lex>a.");
+		addOption(md, "Adverbs", "<lex>ad.");
+		addOption(md, "Perfect Participles", "<ab>pp.");
+		addOption(md, "Future Participles", "<ab>fp.");
+		addOption(md, "Indeclinables", "<ab>indec.", "<ab>indecl.");
+		optionMap.put(SktDictBook.MD, Collections.unmodifiableList(md));
+		final List<ExploringOption> bhs = new ArrayList<>();
+		addOption(bhs, "Masculine", "<lex>m.");
+		addOption(bhs, "Feminine", "<lex>f.");
+		addOption(bhs, "Neuter", "<lex>nt.");
+		addOption(bhs, "Adjectives", "<lex>adj.");
+		addOption(bhs, "Past Participles", "<lex>ppp.");
+		addOption(bhs, "Indeclinables", "<lex>indecl.");
+		optionMap.put(SktDictBook.BHS, Collections.unmodifiableList(bhs));
+	}
+
+	private SktDictFacets() {
+	}
+
+	private static void addOption(final List<ExploringOption> list, final String name, final String... markers) {
+		list.add(new ExploringOption(list.size(), name, markers));
+	}
+
+	/**
+	 * Gets the exploring options of a dictionary, empty if it has none.
+	 */
+	static List<ExploringOption> getOptions(final SktDictBook dict) {
+		final List<ExploringOption> result = dict == null ? null : optionMap.get(dict);
+		return result == null ? Collections.emptyList() : result;
+	}
+
+	static boolean hasFacets(final SktDictBook dict) {
+		return !getOptions(dict).isEmpty();
+	}
+
+	private static synchronized boolean isAvailable(final DBPool pool, final SktDictBook dict) {
+		final int modCount = Utilities.H2DB.SKTDICT.getModCount();
+		if (modCount != availModCount) {
+			availMap.clear();
+			availModCount = modCount;
+		}
+		Boolean avail = availMap.get(dict);
+		if (avail == null) {
+			final String select = "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = ?;";
+			try {
+				avail = pool.query(select, rs -> rs.next() && rs.getInt(1) > 0, dict.toString() + SUFFIX);
+			} catch (SQLException e) {
+				System.err.println(e);
+				avail = false;
+			}
+			availMap.put(dict, avail);
+		}
+		return avail;
+	}
+
+	/**
+	 * Searches KEY1 of entries having the facet, by the facet table if
+	 * available, otherwise by LIKE on the meaning.
+	 * @param keyPattern the LIKE pattern of KEY1, or empty for all
+	 */
+	static Set<String> search(final SktDictBook dict, final ExploringOption option, final String keyPattern) {
+		final Set<String> result = searchIndexed(dict, option, keyPattern);
+		return result == null ? searchByLike(dict, option, keyPattern) : result;
+	}
+
+	/**
+	 * Searches the facet table.
+	 * @return KEY1 found, or null if the table has no facets
+	 */
+	static Set<String> searchIndexed(final SktDictBook dict, final ExploringOption option, final String keyPattern) {
+		final DBPool pool = Utilities.H2DB.SKTDICT.getPool();
+		if (pool == null || !isAvailable(pool, dict))
+			return null;
+		final String select = "SELECT KEY1 FROM " + dict + SUFFIX + " WHERE FACET = ?";
+		return keyPattern.isEmpty()
+				? Utilities.getFirstColumnFromDB(Utilities.H2DB.SKTDICT, select + ";", option.getFacet())
+				: Utilities.getFirstColumnFromDB(Utilities.H2DB.SKTDICT, select + " AND KEY1 LIKE ?;", option.getFacet(), keyPattern);
+	}
+
+	/**
+	 * Searches by LIKE on the meaning, a scan of the whole table.
+	 */
+	static Set<String> searchByLike(final SktDictBook dict, final ExploringOption option, final String keyPattern) {
+		final List<String> markers = option.getMarkerList();
+		final List<Object> params = new ArrayList<>();
+		final StringBuilder select = new StringBuilder("SELECT KEY1 FROM " + dict + " WHERE ");
+		if (!keyPattern.isEmpty()) {
+			select.append("KEY1 LIKE ? AND ");
+			params.add(keyPattern);
+		}
+		select.append("(");
+		for (int i = 0; i < markers.size(); i++) {
+			if (i > 0)
+				select.append(" OR ");
+			select.append("MEANING LIKE ?");
+			params.add("%" + escapeLike(markers.get(i)) + "%");
+		}
+		select.append(");");
+		return Utilities.getFirstColumnFromDB(Utilities.H2DB.SKTDICT, select.toString(), params.toArray());
+	}
+
+	private static String escapeLike(final String text) {
+		final StringBuilder result = new StringBuilder(text.length() + 4);
+		for (int i = 0; i < text.length(); i++) {
+			final char ch = text.charAt(i);
+			if (ch == '\\' || ch == '%' || ch == '_')
+				result.append('\\');
+			result.append(ch);
+		}
+		return result.toString();
+	}
+
+	static void dropTable(final java.sql.Connection conn, final SktDictBook dict) throws SQLException {
+		Utilities.executeSQL(conn, "DROP TABLE IF EXISTS " + dict + SUFFIX + ";");
+	}
+
+	/**
+	 * Builds the facet table of an imported dictionary from its entries.
+	 * @return the number of rows written
+	 */
+	static int rebuild(final SktDictBook dict) throws SQLException {
+		final DBPool pool = Utilities.H2DB.SKTDICT.getPool();
+		if (pool == null || !hasFacets(dict))
+			return 0;
+		final Builder builder = new Builder(dict);
+		try (final DBPool.Lease lease = pool.lease()) {
+			final java.sql.Connection conn = lease.getConnection();
+			try (final Statement stmt = conn.createStatement();
+					final ResultSet rs = stmt.executeQuery("SELECT ID,KEY1,MEANING FROM " + dict + " ORDER BY ID;")) {
+				while (rs.next())
+					builder.add(rs.getInt(1), rs.getString(2), rs.getString(3));
+			}
+			final int count = builder.write(conn);
+			Utilities.H2DB.markModified(Utilities.H2DB.SKTDICT);
+			return count;
+		}
+	}
+
+	// inner classes
+	/**
+	 * An exploring option, i.e. a facet. The facet number is
+	 * its position in the dictionary's option list.
+	 */
+	static final class ExploringOption {
+		private final int facet;
+		private final String name;
+		private final List<String> markerList;
+
+		private ExploringOption(final int facet, final String name, final String... markers) {
+			this.facet = facet;
+			this.name = name;
+			markerList = Collections.unmodifiableList(Arrays.asList(markers));
+		}
+
+		public int getFacet() {
+			return facet;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public List<String> getMarkerList() {
+			return markerList;
+		}
+
+		public boolean matches(final String meaning) {
+			for (final String m : markerList) {
+				if (meaning.contains(m))
+					return true;
+			}
+			return false;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	/**
+	 * Collects facets of entries added during the import,
+	 * then writes the facet table.
+	 */
+	static final class Builder {
+		private final SktDictBook dict;
+		private final List<ExploringOption> options;
+		private final List<List<Object[]>> rowLists = new ArrayList<>();
+
+		Builder(final SktDictBook dict) {
+			this.dict = dict;
+			options = getOptions(dict);
+			for (int i = 0; i < options.size(); i++)
+				rowLists.add(new ArrayList<>());
+		}
+
+		void add(final int id, final String key1, final String meaning) {
+			if (meaning == null) return;
+			for (final ExploringOption opt : options) {
+				if (opt.matches(meaning))
+					rowLists.get(opt.getFacet()).add(new Object[] { id, key1 });
+			}
+		}
+
+		/**
+		 * Replaces the facet table of the dictionary.
+		 * @return the number of rows written
+		 */
+		int write(final java.sql.Connection conn) throws SQLException {
+			final String fTab = dict + SUFFIX;
+			dropTable(conn, dict);
+			Utilities.executeSQL(conn, "CREATE TABLE " + fTab + " (" +
+				"FACET INT NOT NULL," +
+				"ID INT NOT NULL," +
+				"KEY1 VARCHAR(255) NOT NULL," +
+				"PRIMARY KEY (FACET, ID));");
+			final int count;
+			try (final BulkInserter inserter = new BulkInserter(conn, "INSERT INTO " + fTab + " VALUES (?, ?, ?);",
+																SanskritUtilities.SKT_BATCH_SIZE)) {
+				for (int i = 0; i < rowLists.size(); i++) {
+					for (final Object[] row : rowLists.get(i))
+						inserter.add(i, row[0], row[1]);
+				}
+				inserter.complete();
+				count = inserter.getCount();
+			}
+			Utilities.executeSQL(conn, "CREATE INDEX IDX_" + fTab + "_KEY1 ON " + fTab + "(FACET, KEY1);");
+			rowLists.clear();
+			return count;
+		}
+	}
+
+}
@@ -0,0 +1,468 @@
+/*
+ * SktDictFormatter.java
+ *
+ * Copyright (C) 2023-2026 J. R. Bhaddacak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see https://www.gnu.org/licenses/.
+ */
+
+package paliplatform.sanskrit;
+
+import paliplatform.sanskrit.SanskritUtilities.SktDictBook;
+import paliplatform.base.*;
+import paliplatform.base.ScriptTransliterator.EngineType;
+
+import java.util.*;
+import java.util.regex.*;
+
+/**
+ * The formatter of CDSL dictionary entries to HTML.
+ * The brace markup ({#SLP1#}, {%italic%}, {@bold@}, etc.), poems, Lbody
+ * references and &lt;ls&gt; are converted in one pass into one builder, and
+ * all SLP1 spans of an entry are transliterated in one call. Entries with
+ * markup nested or crossing inside a span are left to the regular
+ * expression pipeline (formatByRegex), which is the reference output.
+ * XML-like tags of MW, MD and BHS are still converted by (precompiled)
+ * regular expressions, since nested tags depend on the backreferences.
+ * @author J.R. Bhaddacak
+ * @version 4.1
+ * @since 4.1
+ */
+final class SktDictFormatter {
+	private static final char SPAN_SEP = '\u0000';
+	private static final Map<String, String> apXrefMap = Map.of( "5008", "avadhātavya", "6060", "asamāvṛttaḥ" );
+	private static final String[] shsXrefMapArr = {
+		"2187", "apāc", "3938", "avāc", "4913", "ā", "6939", "udaka",
+		"6964", "udac", "17495", "tiryyac", "23294", "parāñc", "26826", "pratyac",
+		"27762", "prāc", "37845", "viṣvac", "31847", "viṣvadryac", "43087", "samyac",
+		"46719", "havā" };
+	private static final Map<String, String> shsXrefMap = new HashMap<>();
+	private static final Pattern tagPatt = Pattern.compile("<([^> ]+)( *[^>]*)>(.*?)</\\1>");
+	private static final Pattern tagPatt2 = Pattern.compile("<(.{1,4})( *[^>]*)>(.*?)</\\1>");
+	private static final Pattern slp1Patt = Pattern.compile("\\{#(.*?)#\\}");
+	private static final Pattern italicPatt = Pattern.compile("\\{%(.*?)%\\}");
+	private static final Pattern boldPatt = Pattern.compile("\\{@(.*?)@\\}");
+	private static final Pattern boldBullPatt = Pattern.compile("[.-]\\{@(.*?)@\\}");
+	private static final Pattern boldBullParPatt = Pattern.compile("[.-]\\(\\{@(.*?)@\\}\\)");
+	private static final Pattern unreadablePatt = Pattern.compile("\\{\\?(.*?)\\?\\}");
+	private static final Pattern infoPatt = Pattern.compile("<[^>]+/>");
+	private static final Pattern poemPatt = Pattern.compile("<Poem>(.*?)</Poem>");
+	private static final Pattern lbodyPatt = Pattern.compile("\\{\\{Lbody=(.*?)\\}\\}");
+	private static final Pattern lsPatt = Pattern.compile("<ls>(.*?)</ls>");
+	private static final Pattern breakPatt = Pattern.compile("<div n=\"(?:to|vp|p)\"/>");
+	private static final Pattern rootPatt = Pattern.compile("<info verb=\"root\" cp=\"(.*?)\"/>");
+	private static final Pattern genuineRootPatt = Pattern.compile("<info verb=\"genuineroot\" cp=\"(.*?)\"/>");
+	private static final Pattern whitneyRootPatt = Pattern.compile("<info whitneyroots=\"(.*?)\"/>");
+	private static final Pattern westergaardRootPatt = Pattern.compile("<info westergaard=\"(.*?)\"/>");
+	private static final Map<SktDictBook, Markup> markupMap = new EnumMap<>(SktDictBook.class);
+
+	static {
+		for (int i = 0; i < shsXrefMapArr.length; i += 2)
+			shsXrefMap.put(shsXrefMapArr[i], shsXrefMapArr[i + 1]);
+		markupMap.put(SktDictBook.AP, new Markup(true, true, false, true, false, "<Poem>", "</Poem>", "<p class='poem'>", "</p>", apXrefMap));
+		markupMap.put(SktDictBook.SHS, new Markup(true, true, false, false, true, "<Poem>", "</Poem>", "<p class='poem'>", "</p>", shsXrefMap));
+		markupMap.put(SktDictBook.MD, new Markup(true, true, true, false, false, null, null, null, null, null));
+		markupMap.put(SktDictBook.BHS, new Markup(false, true, true, false, false, null, null, null, null, null));
+		markupMap.put(SktDictBook.MWE, new Markup(true, true, false, false, false, null, null, null, null, null));
+		markupMap.put(SktDictBook.AE, new Markup(true, true, true, false, false, null, null, null, null, null));
+		markupMap.put(SktDictBook.BOR, new Markup(true, true, true, false, false, "<ls>", "</ls>", "<span class='ls'>", "</span>", null));
+	}
+
+	private SktDictFormatter() {
+	}
+
+	/**
+	 * Formats the meaning of an entry.
+	 */
+	static String format(final SktDictBook dict, final String input) {
+		final String result = formatFast(dict, input);
+		return result == null ? formatByRegex(dict, input) : result;
+	}
+
+	/**
+	 * Formats the meaning of an entry in one pass.
+	 * @return the result, or null if the entry needs the regex pipeline
+	 */
+	static String formatFast(final SktDictBook dict, final String input) {
+		final Markup markup = markupMap.get(dict);
+		if (markup == null)
+			return dict == SktDictBook.MW ? formatMWMeaning(input) : null;
+		// regex dot does not go across lines
+		for (int i = 0; i < input.length(); i++) {
+			final char ch = input.charAt(i);
+			if (ch == '\n' || ch == '\r' || ch == '\u0085' || ch == '\u2028' || ch == '\u2029' || ch == SPAN_SEP)
+				return null;
+		}
+		String text = input;
+		// steps before the brace markup, as in the regex pipeline
+		if (dict == SktDictBook.MWE)
+			text = text.replace("—", "<br> —");
+		text = text.replace("¦", "—");
+		if (dict == SktDictBook.MD || dict == SktDictBook.BHS)
+			text = tagPatt.matcher(text).replaceAll("<span class='$1'$2>$3</span>");
+		else if (dict == SktDictBook.AE)
+			text = infoPatt.matcher(text).replaceAll("");
+		String result = markup.convert(text);
+		if (result != null && dict == SktDictBook.MD)
+			result = result.replace("🞄", "");
+		return result;
+	}
+
+	/**
+	 * Formats the meaning of an entry by the series of regular expressions.
+	 */
+	static String formatByRegex(final SktDictBook dict, final String input) {
+		String result = input;
+		switch (dict) {
+			case MW:
+				result = formatMWMeaning(input);
+				break;
+			case AP:
+				result = formatAPMeaning(input);
+				break;
+			case SHS:
+				result = formatSHSMeaning(input);
+				break;
+			case MD:
+				result = formatMDMeaning(input);
+				break;
+			case BHS:
+				result = formatBHSMeaning(input);
+				break;
+			case MWE:
+				result = formatMWEMeaning(input);
+				break;
+			case AE:
+				result = formatAEMeaning(input);
+				break;
+			case BOR:
+				result = formatBORMeaning(input);
+				break;
+		}
+		return result;
+	}
+
+	private static String translitSLP1(final String input) {
+		return ScriptTransliterator.translitQuick(input, EngineType.SLP1_IAST, true);
+	}
+
+	private static String formatMWMeaning(final String input) {
+		String result = input;
+		// bullet
+		result = result.replace("¦", " •");
+		// meaning break for verbs
+		result = breakPatt.matcher(result).replaceAll("<br> - ");
+		// root
+		result = rootPatt.matcher(result).replaceAll("<br> - Root: $1.");
+		// genuine root
+		result = genuineRootPatt.matcher(result).replaceAll("<br> - Genuine root: $1.");
+		// Whitney root
+		result = whitneyRootPatt.matcher(result).replaceAll(m ->
+				"<br> - Whitney's root: " + ScriptTransliterator.translitQuick(m.group(1), EngineType.SLP1_IAST, false) + ".");
+		// Westergaard root
+		result = westergaardRootPatt.matcher(result).replaceAll(m ->
+				"<br> - Westergaard's root: " + ScriptTransliterator.translitQuick(m.group(1), EngineType.SLP1_IAST, false) + ".");
+		// remove mere info tags
+		result = infoPatt.matcher(result).replaceAll("");
+		// change other tags to span
+		// 1st round, save span to restore later
+		result = tagPatt.matcher(result).replaceAll("<::span:: class='$1'$2>$3</::span::>");
+		// 2nd round for nested tags
+		result = tagPatt2.matcher(result).replaceAll("<::span:: class='$1'$2>$3</::span::>");
+		// restore span
+		result = result.replace("::span::", "span");
+		return result;
+	}
+
+	private static String formatAPMeaning(final String input) {
+		String result = input;
+		// dash
+		result = result.replace("¦", "—");
+		// decode SLP1
+		result = slp1Patt.matcher(result).replaceAll(m -> "<i>" + translitSLP1(m.group(1)) + "</i>");
+		// italic
+		result = italicPatt.matcher(result).replaceAll("<i>$1</i>");
+		// bold bullet
+		result = boldBullPatt.matcher(result).replaceAll("<br> • <b>$1</b>");
+		// bold bullet paren
+		result = boldBullParPatt.matcher(result).replaceAll("<br> • (<b>$1</b>)");
+		// bold inline
+		result = boldPatt.matcher(result).replaceAll("<b>$1</b>");
+		// ² and ³ bullet
+		result = result.replace(".²", "<br> • ²").replace(".³", "<br> • ³");
+		// <Poem>
+		result = poemPatt.matcher(result).replaceAll("<p class='poem'>$1</p>");
+		// LBody
+		result = lbodyPatt.matcher(result).replaceAll(m -> makeXref(apXrefMap, m.group(1)));
+		return result;
+	}
+
+	private static String formatSHSMeaning(final String input) {
+		String result = input;
+		// dash
+		result = result.replace("¦", "—");
+		// decode SLP1
+		result = slp1Patt.matcher(result).replaceAll(m -> "<i>" + translitSLP1(m.group(1)) + "</i>");
+		// italic
+		result = italicPatt.matcher(result).replaceAll("<i>$1</i>");
+		// unreadable
+		result = unreadablePatt.matcher(result).replaceAll("($1?)");
+		// <Poem>
+		result = poemPatt.matcher(result).replaceAll("<p class='poem'>$1</p>");
+		// LBody
+		result = lbodyPatt.matcher(result).replaceAll(m -> makeXref(shsXrefMap, m.group(1)));
+		return result;
+	}
+
+	private static String formatMDMeaning(final String input) {
+		String result = input;
+		// dash
+		result = result.replace("¦", "—");
+		// tags
+		result = tagPatt.matcher(result).replaceAll("<span class='$1'$2>$3</span>");
+		// decode SLP1
+		result = slp1Patt.matcher(result).replaceAll(m -> "<i>" + translitSLP1(m.group(1)) + "</i>");
+		// italic
+		result = italicPatt.matcher(result).replaceAll("<i>$1</i>");
+		// bold
+		result = boldPatt.matcher(result).replaceAll("<b>$1</b>");
+		// unwanted char
+		result = result.replace("🞄", "");
+		return result;
+	}
+
+	private static String formatBHSMeaning(final String input) {
+		String result = input;
+		// dash
+		result = result.replace("¦", "—");
+		// tags
+		result = tagPatt.matcher(result).replaceAll("<span class='$1'$2>$3</span>");
+		// italic
+		result = italicPatt.matcher(result).replaceAll("<i>$1</i>");
+		// bold
+		result = boldPatt.matcher(result).replaceAll("<b>$1</b>");
+		return result;
+	}
+
+	private static String formatMWEMeaning(final String input) {
+		String result = input;
+		// dash bullet
+		result = result.replace("—", "<br> —");
+		// dash
+		result = result.replace("¦", "—");
+		// decode SLP1
+		result = slp1Patt.matcher(result).replaceAll(m -> "<i>" + translitSLP1(m.group(1)) + "</i>");
+		// italic
+		result = italicPatt.matcher(result).replaceAll("<i>$1</i>");
+		return result;
+	}
+
+	private static String formatAEMeaning(final String input) {
+		String result = input;
+		// dash
+		result = result.replace("¦", "—");
+		// remove mere info tags
+		result = infoPatt.matcher(result).replaceAll("");
+		// decode SLP1
+		result = slp1Patt.matcher(result).replaceAll(m -> "<i>" + translitSLP1(m.group(1)) + "</i>");
+		// italic
+		result = italicPatt.matcher(result).replaceAll("<i>$1</i>");
+		// bold
+		result = boldPatt.matcher(result).replaceAll("<b>$1</b>");
+		return result;
+	}
+
+	private static String formatBORMeaning(final String input) {
+		String result = input;
+		// dash
+		result = result.replace("¦", "—");
+		// decode SLP1
+		result = slp1Patt.matcher(result).replaceAll(m -> "<i>" + translitSLP1(m.group(1)) + "</i>");
+		// italic
+		result = italicPatt.matcher(result).replaceAll("<i>$1</i>");
+		// bold
+		result = boldPatt.matcher(result).replaceAll("<b>$1</b>");
+		// <ls>
+		result = lsPatt.matcher(result).replaceAll("<span class='ls'>$1</span>");
+		return result;
+	}
+
+	private static String makeXref(final Map<String, String> xrefMap, final String key) {
+		final String xref = xrefMap.getOrDefault(key, "");
+		return xref.isEmpty() ? "" : "See <i>" + xref + ".</i>";
+	}
+
+	// inner class
+	/**
+	 * The brace markup used by a dictionary, with the one-pass converter.
+	 * A span's content must not have any markup character, otherwise
+	 * the result may differ from the regex pipeline, and null is given.
+	 */
+	private static final class Markup {
+		private final boolean slp1;
+		private final boolean italic;
+		private final boolean bold;
+		private final boolean boldBullet; // AP's bold with bullets, also .² and .³
+		private final boolean unreadable;
+		private final String boxOpen; // <Poem> or <ls>, these may contain spans
+		private final String boxClose;
+		private final String boxOpenHtml;
+		private final String boxCloseHtml;
+		private final Map<String, String> xrefMap; // for Lbody
+		private final String forbidden;
+
+		private Markup(final boolean slp1, final boolean italic, final boolean bold, final boolean boldBullet,
+						final boolean unreadable, final String boxOpen, final String boxClose,
+						final String boxOpenHtml, final String boxCloseHtml, final Map<String, String> xrefMap) {
+			this.slp1 = slp1;
+			this.italic = italic;
+			this.bold = bold || boldBullet;
+			this.boldBullet = boldBullet;
+			this.unreadable = unreadable;
+			this.boxOpen = boxOpen;
+			this.boxClose = boxClose;
+			this.boxOpenHtml = boxOpenHtml;
+			this.boxCloseHtml = boxCloseHtml;
+			this.xrefMap = xrefMap;
+			forbidden = "{}" + (boxOpen == null ? "" : "<") + (boldBullet ? "²³" : "");
+		}
+
+		/**
+		 * Finds the end of a span's content.
+		 * @return the index of the closing mark, -1 if not closed,
+		 * or -2 if the content is not plain
+		 */
+		private int findClose(final String text, final int from, final String close) {
+			final int end = text.indexOf(close, from);
+			if (end < 0)
+				return -1;
+			for (int i = from; i < end; i++) {
+				if (forbidden.indexOf(text.charAt(i)) > -1)
+					return -2;
+			}
+			return end;
+		}
+
+		private String convert(final String text) {
+			final int len = text.length();
+			final StringBuilder out = new StringBuilder(len + len / 4);
+			final List<String> slp1Spans = new ArrayList<>();
+			final List<Integer> slp1Offsets = new ArrayList<>();
+			int boxEnd = -1;
+			int pos = 0;
+			while (pos < len) {
+				if (pos == boxEnd) {
+					out.append(boxCloseHtml);
+					pos += boxClose.length();
+					boxEnd = -1;
+					continue;
+				}
+				final char ch = text.charAt(pos);
+				if (ch == '{' && pos + 1 < len) {
+					final char next = text.charAt(pos + 1);
+					final String close = next == '#' && slp1 ? "#}"
+										: next == '%' && italic ? "%}"
+										: next == '@' && bold ? "@}"
+										: next == '?' && unreadable ? "?}"
+										: next == '{' && xrefMap != null && text.startsWith("{{Lbody=", pos) ? "}}"
+										: null;
+					if (close != null) {
+						final int from = next == '{' ? pos + 8 : pos + 2;
+						final int end = findClose(text, from, close);
+						if (end == -2)
+							return null;
+						if (end > -1) {
+							final String content = text.substring(from, end);
+							if (next == '#') {
+								// the regex pipeline takes \ and $ as replacement syntax
+								if (content.indexOf('\\') > -1 || content.indexOf('$') > -1)
+									return null;
+								out.append("<i>");
+								slp1Offsets.add(out.length());
+								slp1Spans.add(content);
+								out.append("</i>");
+							} else if (next == '%') {
+								out.append("<i>").append(content).append("</i>");
+							} else if (next == '@') {
+								out.append("<b>").append(content).append("</b>");
+							} else if (next == '?') {
+								out.append('(').append(content).append("?)");
+							} else {
+								out.append(makeXref(xrefMap, content));
+							}
+							pos = end + close.length();
+							continue;
+						}
+					}
+				} else if ((ch == '.' || ch == '-') && boldBullet && pos + 1 < len) {
+					final char next = text.charAt(pos + 1);
+					if (ch == '.' && (next == '²' || next == '³')) {
+						out.append("<br> • ").append(next);
+						pos += 2;
+						continue;
+					}
+					if (next == '{' && text.startsWith("{@", pos + 1)) {
+						final int end = findClose(text, pos + 3, "@}");
+						if (end == -2)
+							return null;
+						if (end > -1) {
+							out.append("<br> • <b>").append(text, pos + 3, end).append("</b>");
+							pos = end + 2;
+							continue;
+						}
+					} else if (next == '(' && text.startsWith("({@", pos + 1)) {
+						final int end = findClose(text, pos + 4, "@}");
+						if (end == -2)
+							return null;
+						if (end > -1) {
+							if (end + 2 < len && text.charAt(end + 2) == ')') {
+								out.append("<br> • (<b>").append(text, pos + 4, end).append("</b>)");
+								pos = end + 3;
+								continue;
+							}
+							// a later @}) would be taken by the regex
+							if (text.indexOf("@})", end) > -1)
+								return null;
+						}
+					}
+				} else if (ch == '<' && boxOpen != null && boxEnd < 0 && text.startsWith(boxOpen, pos)) {
+					final int end = text.indexOf(boxClose, pos + boxOpen.length());
+					if (end > -1) {
+						out.append(boxOpenHtml);
+						boxEnd = end;
+						pos += boxOpen.length();
+						continue;
+					}
+				}
+				out.append(ch);
+				pos++;
+			}
+			if (slp1Spans.isEmpty())
+				return out.toString();
+			// transliterate all SLP1 spans at once, then put them in place
+			final String[] converted = translitSLP1(String.join(String.valueOf(SPAN_SEP), slp1Spans)).split(String.valueOf(SPAN_SEP), -1);
+			if (converted.length != slp1Spans.size())
+				return null;
+			final StringBuilder result = new StringBuilder(out.length() + out.length() / 8);
+			int last = 0;
+			for (int i = 0; i < converted.length; i++) {
+				final int offset = slp1Offsets.get(i);
+				result.append(out, last, offset).append(converted[i]);
+				last = offset;
+			}
+			result.append(out, last, out.length());
+			return result.toString();
+		}
+	}
+
+}
@@ -23,7 +23,6 @@ import paliplatform.base.*;
 
 import java.util.*;
 import java.util.stream.*;
-import java.util.function.UnaryOperator;
 
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
@@ -103,18 +102,9 @@ public class SktServiceImp implements SktService {
 		if (isSktDictAvailable(dictCode)) {
 			final SanskritUtilities.SktDictBook dict = SanskritUtilities.SktDictBook.valueOf(dictCode);
 			if (dict != null) {
-				final UnaryOperator<String> format = dict == SanskritUtilities.SktDictBook.MW
-														? x -> SktDictWin.formatMWMeaning(x)
-														: dict == SanskritUtilities.SktDictBook.AP
-															? x -> SktDictWin.formatAPMeaning(x)
-															: dict == SanskritUtilities.SktDictBook.SHS
-																? x -> SktDictWin.formatSHSMeaning(x)
-																: dict == SanskritUtilities.SktDictBook.MD
-																	? x -> SktDictWin.formatMDMeaning(x)
-																	: x -> SktDictWin.formatBHSMeaning(x);
 				final List<SktDictEntry> resList = SanskritUtilities.lookUpSktDictFromDB(dict, term);
 				result = resList.stream()
-								.map(x -> Utilities.removeTags(extraFormatFix(format.apply(x.getMeaning()))))
+								.map(x -> Utilities.removeTags(extraFormatFix(SktDictFormatter.format(dict, x.getMeaning()))))
 								.collect(Collectors.toList());
 			} else {
 				result = Collections.emptyList();
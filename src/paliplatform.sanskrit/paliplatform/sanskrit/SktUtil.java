@@ -22,6 +22,9 @@ import paliplatform.base.*;
 
 import java.util.*;
 import java.util.stream.*;
+import java.util.zip.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 
 import static org.hamcrest.MatcherAssert.assertThat; 
 import static org.hamcrest.Matchers.*;
@@ -64,6 +67,28 @@ final public class SktUtil {
 					printHelpAndExit();
 				}
 				break;
+			case "sandhi":
+				ScriptTransliterator.initializeTransliterator();
+				opt = args.length > 1 ? args[1] : "";
+				if (opt.equals("-b") || opt.equals("-c")) {
+					analyzeSandhiBatch(Arrays.copyOfRange(args, 2, args.length), opt.equals("-c"));
+				} else if (opt.equals("-v")) {
+					verifySandhiTable();
+				} else {
+					printHelpAndExit();
+				}
+				break;
+			case "dict":
+				ScriptTransliterator.initializeTransliterator();
+				opt = args.length > 1 ? args[1] : "";
+				if (opt.equals("-f")) {
+					checkDictFormat(Arrays.copyOfRange(args, 2, args.length));
+				} else if (opt.equals("-i") || opt.equals("-x")) {
+					checkDictFacets(Arrays.copyOfRange(args, 2, args.length), opt.equals("-i"));
+				} else {
+					printHelpAndExit();
+				}
+				break;
 			default:
 				printHelpAndExit();
 		}
@@ -83,6 +108,14 @@ final public class SktUtil {
 		help.append("        -s <word1> <word2>\tSandhi test of word1 + word2").append(LINESEP);
 		help.append("        -sa\tAutomatic sandhi test").append(LINESEP);
 		help.append("        -sf\tFull sandhi list").append(LINESEP);
+		help.append("    sandhi\tSandhi analysis of GRETIL texts (the zip file or a text file)").append(LINESEP);
+		help.append("        -b [-vc] [-vv] [<file>]\tBatch analysis, with vowel-consonant/vowel-vowel rules").append(LINESEP);
+		help.append("        -c [-vc] [-vv] [<file>]\tBatch analysis checked against the plain search").append(LINESEP);
+		help.append("        -v\tVerify the cached sandhi table (created if needed)").append(LINESEP);
+		help.append("    dict\tSanskrit dictionaries").append(LINESEP);
+		help.append("        -f [<dict>...]\tCheck the one-pass formatter against the regex one").append(LINESEP);
+		help.append("        -i [<dict>...]\tRebuild the exploring facets, then check them").append(LINESEP);
+		help.append("        -x [<dict>...]\tCheck the exploring facets against LIKE search").append(LINESEP);
 		help.append("    <none>\tShow this help").append(LINESEP);
 		help.append("  Notes:").append(LINESEP);
 		help.append("    To invoke the program, the Java convention has to be used.").append(LINESEP);
@@ -235,6 +268,213 @@ final public class SktUtil {
 		}
 	}
 
+	private static void verifySandhiTable() {
+		final long start = System.currentTimeMillis();
+		SandhiRuleSet.get(true, true);
+		printLog("Sandhi table: " + SandhiRuleSet.getTableFile());
+		printTime(System.currentTimeMillis() - start);
+		printLog(SandhiRuleSet.verifyTable());
+	}
+
+	private static void checkDictFormat(final String[] params) throws Exception {
+		Utilities.initializeSktDictDB(false);
+		final DBPool pool = Utilities.H2DB.SKTDICT.getPool();
+		if (pool == null) {
+			printLog("Sanskrit dictionary database not found");
+			return;
+		}
+		for (final SanskritUtilities.SktDictBook dict : getDictList(params)) {
+			final List<String> meanings = pool.query("SELECT MEANING FROM " + dict + ";", rs -> {
+				final List<String> list = new ArrayList<>();
+				while (rs.next()) {
+					final String m = rs.getString(1);
+					if (m != null)
+						list.add(m.replace("&", "&amp;"));
+				}
+				return list;
+			});
+			long fastTime = 0;
+			long regexTime = 0;
+			int fallback = 0;
+			int mismatch = 0;
+			for (final String m : meanings) {
+				long start = System.nanoTime();
+				final String fast = SktDictFormatter.formatFast(dict, m);
+				fastTime += System.nanoTime() - start;
+				start = System.nanoTime();
+				final String regex = SktDictFormatter.formatByRegex(dict, m);
+				regexTime += System.nanoTime() - start;
+				if (fast == null) {
+					fallback++;
+				} else if (!fast.equals(regex)) {
+					if (mismatch++ < 5)
+						printLog("Mismatch in " + dict + ":" + LINESEP + m + LINESEP + fast + LINESEP + regex);
+				}
+			}
+			printLog(String.format("%s: %,d entries, %,d fallbacks, %,d mismatches; one-pass %.3f s, regex %.3f s",
+						dict, meanings.size(), fallback, mismatch, fastTime / 1e9, regexTime / 1e9));
+		}
+	}
+
+	private static List<SanskritUtilities.SktDictBook> getDictList(final String[] params) {
+		final Set<String> tables = Utilities.getFirstColumnFromDB(Utilities.H2DB.SKTDICT, "SHOW TABLES;");
+		final List<SanskritUtilities.SktDictBook> dicts = new ArrayList<>();
+		if (params.length == 0) {
+			for (final SanskritUtilities.SktDictBook d : SanskritUtilities.SktDictBook.books) {
+				if (tables.contains(d.toString()))
+					dicts.add(d);
+			}
+		} else {
+			for (final String p : params)
+				dicts.add(SanskritUtilities.SktDictBook.valueOf(p.toUpperCase()));
+		}
+		return dicts;
+	}
+
+	private static void checkDictFacets(final String[] params, final boolean rebuild) throws Exception {
+		Utilities.initializeSktDictDB(false);
+		if (Utilities.H2DB.SKTDICT.getPool() == null) {
+			printLog("Sanskrit dictionary database not found");
+			return;
+		}
+		final String[] keyPatterns = { "", "a%", "kf%", "s_%" };
+		for (final SanskritUtilities.SktDictBook dict : getDictList(params)) {
+			if (!SktDictFacets.hasFacets(dict))
+				continue;
+			if (rebuild) {
+				final long start = System.currentTimeMillis();
+				final int count = SktDictFacets.rebuild(dict);
+				printLog(String.format("%s: %,d facet rows built", dict, count));
+				printTime(System.currentTimeMillis() - start);
+			}
+			long indexedTime = 0;
+			long likeTime = 0;
+			int found = 0;
+			int mismatch = 0;
+			for (final SktDictFacets.ExploringOption option : SktDictFacets.getOptions(dict)) {
+				for (final String key : keyPatterns) {
+					long start = System.nanoTime();
+					final Set<String> indexed = SktDictFacets.searchIndexed(dict, option, key);
+					indexedTime += System.nanoTime() - start;
+					if (indexed == null) {
+						printLog(dict + ": no facet table");
+						break;
+					}
+					start = System.nanoTime();
+					final Set<String> like = SktDictFacets.searchByLike(dict, option, key);
+					likeTime += System.nanoTime() - start;
+					found += like.size();
+					if (!indexed.equals(like)) {
+						mismatch++;
+						printLog(String.format("Mismatch in %s, %s, '%s': %,d by facets, %,d by LIKE",
+									dict, option, key, indexed.size(), like.size()));
+					}
+				}
+			}
+			printLog(String.format("%s: %,d terms found, %,d mismatches; facets %.3f s, LIKE %.3f s",
+						dict, found, mismatch, indexedTime / 1e9, likeTime / 1e9));
+		}
+	}
+
+	private static void analyzeSandhiBatch(final String[] params, final boolean check) throws IOException {
+		boolean includeVC = false;
+		boolean includeVV = false;
+		String fileName = Utilities.ROOTDIR + SanskritUtilities.TEXTPATH + "1_sanskr.zip";
+		for (final String p : params) {
+			if (p.equals("-vc"))
+				includeVC = true;
+			else if (p.equals("-vv"))
+				includeVV = true;
+			else
+				fileName = p;
+		}
+		final File file = new File(fileName);
+		if (!file.exists()) {
+			printLog("File not found: " + fileName);
+			return;
+		}
+		final SandhiRuleSet rules = SandhiRuleSet.get(includeVC, includeVV);
+		final long start = System.currentTimeMillis();
+		final List<String> docs = new ArrayList<>();
+		final Map<String, String> contentMap = new HashMap<>();
+		if (fileName.toLowerCase().endsWith(".zip")) {
+			try (final ZipFile zip = new ZipFile(file, StandardCharsets.UTF_8)) {
+				final Enumeration<? extends ZipEntry> entries = zip.entries();
+				while (entries.hasMoreElements()) {
+					final ZipEntry entry = entries.nextElement();
+					if (entry.isDirectory()) continue;
+					final String name = entry.getName();
+					final String lname = name.toLowerCase();
+					if (!lname.endsWith(".htm") && !lname.endsWith(".html") && !lname.endsWith(".txt")) continue;
+					try (final InputStream in = zip.getInputStream(entry)) {
+						contentMap.put(name, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+					}
+					docs.add(name);
+				}
+			}
+		} else {
+			docs.add(file.getName());
+			contentMap.put(file.getName(), new String(java.nio.file.Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+		}
+		final long loaded = System.currentTimeMillis();
+		// each line is a unit, as the first line in the analyzer window
+		final long[][] counts = new long[docs.size()][];
+		IntStream.range(0, docs.size()).parallel().forEach(i -> {
+			long lines = 0, chunks = 0, mismatches = 0;
+			final String content = contentMap.get(docs.get(i)).replaceAll("<[^>]*>", " ");
+			for (final String line : content.split("\\r?\\n")) {
+				final String text = SandhiRuleSet.prepareText(line);
+				if (text.isEmpty()) continue;
+				lines++;
+				final Map<SandhiAnalyzer.Range, String> found = rules.findChunks(text);
+				chunks += found.size();
+				if (check && !found.equals(findChunksPlain(rules, text)))
+					mismatches++;
+			}
+			counts[i] = new long[] { lines, chunks, mismatches };
+		});
+		final long done = System.currentTimeMillis();
+		long totalLines = 0, totalChunks = 0, totalMismatches = 0;
+		for (int i = 0; i < docs.size(); i++) {
+			totalLines += counts[i][0];
+			totalChunks += counts[i][1];
+			totalMismatches += counts[i][2];
+		}
+		printLog(String.format("Documents: %,d, lines: %,d, chunks: %,d", docs.size(), totalLines, totalChunks));
+		if (check)
+			printLog(String.format("Lines different from the plain search: %,d", totalMismatches));
+		printLog(String.format("Reading: %.3f seconds, analysis: %.3f seconds (%,.0f lines/s)",
+					(loaded - start)/1000.0, (done - loaded)/1000.0,
+					totalLines * 1000.0 / Math.max(1, done - loaded)));
+	}
+
+	/**
+	 * Finds chunks by searching every junction one by one,
+	 * used to check the automaton of the rule set.
+	 */
+	private static Map<SandhiAnalyzer.Range, String> findChunksPlain(final SandhiRuleSet rules, final String text) {
+		final Map<SandhiAnalyzer.Range, String> result = new HashMap<>();
+		int sPos;
+		for_loop:
+		for (final String k : rules.getJunctions()) {
+			sPos = text.indexOf(k);
+			if (sPos == 0)
+				sPos = text.indexOf(k, sPos + 1); // from the second position onward
+			while (sPos > -1) {
+				if (sPos + k.length() < text.length()) { // not at the end
+					final String lastCh = k.substring(k.length() - 1);
+					final String nextCh = sPos + k.length() < text.length() - 1 ? text.substring(sPos + k.length()) : "";
+					if (Sandhi.sktHasH.indexOf(lastCh) > -1 && !nextCh.equals("h"))
+						continue for_loop;
+					final SandhiAnalyzer.Range r = new SandhiAnalyzer.Range(sPos, sPos + k.length() - 1);
+					result.put(r, k);
+				}
+				sPos = text.indexOf(k, sPos + 1);
+			}
+		}
+		return result;
+	}
+
 	// inner classes
 	static class SandhiTestCase {
 		private String first;
@@ -105,6 +105,13 @@ public class Sentence {
 	}
 
 	public List<String> getEditTokens() {
+		return tokenize(edit);
+	}
+
+	/**
+	 * Splits an edit text into terms and punctuation tokens.
+	 */
+	static List<String> tokenize(final String edit) {
 		final List<String> result = new ArrayList<>();
 		final String[] tokens = edit.split(Utilities.REX_NON_PALI_PUNC);
 		for (final String token : tokens) {
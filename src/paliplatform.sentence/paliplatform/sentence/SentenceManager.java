@@ -814,7 +814,7 @@ public class SentenceManager extends SingletonWindow {
 		final List<Sentence> sentList = new ArrayList<>();
 		if (currSeqFilterList.isEmpty()) {
 			sentList.addAll(allSentMap.values());
-			sentList.sort((x, y) -> Utilities.paliCollator.compare(x.getText(), y.getText()));
+			Utilities.paliSortKeys.sortUncached(sentList, x -> x.getText());
 		} else {
 			currSeqFilterList.forEach(x -> {
 				if (allSentMap.containsKey(x))
@@ -1704,7 +1704,7 @@ public class SentenceManager extends SingletonWindow {
 				currSeqFilterList.clear();
 				loadVariantInfo(varMap, new File(dir.getPath() + File.separator + VARINFO));
 				senList.addAll(senMap.values());
-				senList.sort((x, y) -> Utilities.paliCollator.compare(x.getText(), y.getText()));
+				Utilities.paliSortKeys.sortUncached(senList, x -> x.getText());
 				updateFixedInfo();
 				updateResult();
 				setupTable();
@@ -288,17 +288,7 @@ public class SentenceReader extends BorderPane {
 		Utilities.initializeDictDB();
 		if (SentenceUtilities.simpleServiceMap == null) 
 			SentenceUtilities.simpleServiceMap = SentenceUtilities.getSimpleServices();
-		if (DictUtilities.customDictFile == null)
-			DictUtilities.customDictFile = new File(Utilities.ROOTDIR + Utilities.RULESPATH + DictUtilities.CUSTOM_DICT);
-		if (!DictUtilities.customDictFile.exists())
-			DictUtilities.createCustomDictFile();
-		if (DictUtilities.sandhiFile == null)
-			DictUtilities.sandhiFile = new File(Utilities.ROOTDIR + Utilities.RULESPATH + DictUtilities.SANDHI_LIST);
-		if (!DictUtilities.sandhiFile.exists())
-			DictUtilities.createSandhiFile();
-		DictUtilities.loadCustomDict();
-		DictUtilities.loadSandhiList();
-		DictUtilities.loadCPEDTerms(); // used in dict look up		
+		WordAnalyzer.prepare();
 		Platform.runLater(() -> {
 			GrammarUtilities.createDeclPronounsMap();
 			GrammarUtilities.createDeclNumbersMap();
@@ -730,7 +720,12 @@ public class SentenceReader extends BorderPane {
 		if (sentenceList.isEmpty())
 			return;
 		final Sentence thisSent = sentenceList.get(num);
-		final List<String> sen = processTerms(thisSent.getEditTokens());
+		final WordAnalyzer.Options options = getAnalysisOptions();
+		final List<String> sen = WordAnalyzer.processTerms(thisSent.getEditTokens(), options);
+		// analyze all words of the sentence at once
+		final Map<String, WordAnalyzer.Result> infoMap = showDetailButton.isSelected()
+			? WordAnalyzer.analyze(WordAnalyzer.splitWords(sen).stream().map(String::toLowerCase).collect(Collectors.toList()), options)
+			: Collections.emptyMap();
 		final TextFlow tfSingle = new TextFlow();
 		tfSingle.prefWidthProperty().bind(this.widthProperty().subtract(10));
 		final List<TextFlow> tfList = new ArrayList<>();
@@ -744,7 +739,7 @@ public class SentenceReader extends BorderPane {
 					final Text txtTerm = new Text(subt + " ");
 					txtTerm.getStyleClass().add("reader-term");
 					txtTerm.setStyle("-fx-font-size:" + currTextSize + "%");
-					final Text txtInfo = new Text(getInfo(subt.toLowerCase()));
+					final Text txtInfo = new Text(infoMap.get(subt.toLowerCase()).getInfo());
 					txtInfo.getStyleClass().add("reader-info");
 					tf.getChildren().addAll(txtTerm, txtInfo);
 					tfList.add(tf);
@@ -766,132 +761,16 @@ public class SentenceReader extends BorderPane {
 		updateFixedInfo();
 	}
 
-	private List<String> processTerms(final List<String> input) {
-		final LinkedList<String> result = new LinkedList<>();
-		final String[] terms = input.stream().collect(Collectors.toList()).toArray(new String[0]);
-		boolean skip = false;
-		for (int i = 0; i < terms.length; i++) {
-			final boolean isCap = Character.isUpperCase(terms[i].charAt(0));
-			final String term = terms[i].toLowerCase();
-			if (terms[i].equals("pe")) {
-				terms[i] = "…pe…";
-			}
-			if (itiReconstructMenuItem.isSelected()) {
-				if (term.equals("ti")) {
-					if (preItiShortenMenuItem.isSelected()) {
-						if (i > 0) {
-							final String previous = terms[i-1];
-							final int lastInd = previous.length() - 1;
-							final char lastCh = previous.charAt(lastInd);
-							terms[i-1] = previous.substring(0, lastInd) + Utilities.shortenVowel(lastCh);
-							result.removeLast();
-							result.add(terms[i-1]);
-						}
-					}
-					terms[i] = isCap ? "Iti" : "iti";
-				} else if (term.equals("nti")) {
-					if (i > 0) {
-						terms[i-1] = terms[i-1] + "ṃ";
-						result.removeLast();
-						result.add(terms[i-1]);
-					}
-					terms[i] = "iti";
-				}
-			}
-			if (sandhiCutMenuItem.isSelected()) {
-				final List<String> parts = DictUtilities.cutSandhi(terms[i]);
-				result.addAll(parts);
-				skip = true;
-			}
-			if (!skip)
-				result.add(terms[i]);
-			skip = false;
-		}
-		return result;
-	}
-
-	private String getInfo(final String word) {
-		final String result;
-		final boolean useDPD = Boolean.parseBoolean(Utilities.getSetting("dpd-lookup-enable"));
-		// if DPD dict available, find the word
-		if (Utilities.ppdpdAvailMap.get(Utilities.PpdpdTable.DICTIONARY).get() && useDPD) {
-			final List<String> meaning = DictUtilities.getMeaningFromDPD(DictUtilities.makeDpdProper(word));
-			if (!meaning.isEmpty()) {
-				final String meaningStr = meaning.stream().collect(Collectors.joining(" "));
-				return "[DPD] " + meaningStr;
-			}
-		}
-		// look into the custom dict first
-		if (DictUtilities.customDictMap.containsKey(word)) {
-			final DictEntry dic = DictUtilities.customDictMap.get(word);
-			final String meaning = dic.getMeaning();
-			final String space = meaning.isEmpty() ? "" : " ";
-			return meaning + space + "(" + dic.getExplanation() + ")";
-		}
-		// if use-pronoun-list option is set
-		if (usePronMenuItem.isSelected()) {
-			if (GrammarUtilities.declPronounsMap.containsKey(word)) {
-				final DeclinedWord dword = GrammarUtilities.declPronounsMap.get(word);
-				final String meaning = dword.getMeaning();
-				final String caseMeaning = dword.getCaseMeaningString();
-				final String head = caseMeaning.isEmpty() ? "" : "(" + caseMeaning + ") ";
-				return head + meaning + " (" + dword.getCaseString() + ") (" + dword.getNumberString() + ") (" + dword.getGenderString() + ")"; 
-			}
-		}
-		// if use-numeral-list option is set
-		if (useNumberMenuItem.isSelected()) {
-			if (GrammarUtilities.declNumbersMap.containsKey(word)) {
-				final DeclinedWord dword = GrammarUtilities.declNumbersMap.get(word);
-				final String meaning = dword.getMeaning();
-				final String caseMeaning = dword.getCaseMeaningString();
-				final String head = caseMeaning.isEmpty() ? "" : "(" + caseMeaning + ") ";
-				return head + meaning + " (" + dword.getCaseString() + ") (" + dword.getNumberString() + ") (" + dword.getGenderString() + ")"; 
-			}
-		}
-		// if use-irregular-noun/adj-list option is set
-		if (useIrrNounMenuItem.isSelected()) {
-			if (GrammarUtilities.declIrrNounsMap.containsKey(word)) {
-				final DeclinedWord dword = GrammarUtilities.declIrrNounsMap.get(word);
-				final String meaning = dword.getMeaning();
-				final String caseMeaning = dword.getCaseMeaningString();
-				final String head = caseMeaning.isEmpty() ? "" : "(" + caseMeaning + ") ";
-				return head + meaning + " (" + dword.getCaseString() + ") (" + dword.getNumberString() + ") (" + dword.getGenderString() + ")"; 
-			}
-		}
-		// or else look into CPED dict
-		if (!DictUtilities.dictAvailMap.get(DictUtilities.DictBook.CPED).get()) return "";
-		String term = word;
-		PaliWord pword = new PaliWord(term);
-		while (pword.getMeaning().isEmpty() && term.length() > 1) {
-			final String tfilter = term;
-			Set<String> terms = DictUtilities.cpedTerms.stream().filter(x -> x.startsWith(tfilter)).collect(Collectors.toSet());
-			if (!terms.isEmpty()) {
-				pword = DictUtilities.getFirstCPEDWord(terms);
-			} else {
-				// replace the ending first
-				final String rterm = DictUtilities.replaceTermEnding(term);
-				terms = DictUtilities.cpedTerms.stream().filter(x -> x.startsWith(rterm)).collect(Collectors.toSet());
-				if (!terms.isEmpty()) {
-					pword = DictUtilities.getFirstCPEDWord(terms);
-					term = rterm;
-				} else {
-					// if failed, cut the ending and go on
-					term = term.substring(0, term.length() - 1);
-				}
-			}
-		}
-		if (!pword.getMeaning().isEmpty()) {
-			final String remark = word.equals(term) ? "[CPED] " : "[CPED*] " + pword.getTerm() + ": ";
-			final String[] infos = DictUtilities.formatCPEDMeaning(pword, false).split("\\n");
-			final StringBuilder sbuilder = new StringBuilder();
-			sbuilder.append(remark);
-			for (final String s : infos)
-				sbuilder.append(s).append(" ");
-			result = sbuilder.toString();
-		} else {
-			result = "";
-		}
-		return result;
+	private WordAnalyzer.Options getAnalysisOptions() {
+		final WordAnalyzer.Options opt = new WordAnalyzer.Options();
+		opt.useDpd = Boolean.parseBoolean(Utilities.getSetting("dpd-lookup-enable"));
+		opt.reconstructIti = itiReconstructMenuItem.isSelected();
+		opt.shortenPreIti = preItiShortenMenuItem.isSelected();
+		opt.cutSandhi = sandhiCutMenuItem.isSelected();
+		opt.usePronouns = usePronMenuItem.isSelected();
+		opt.useNumerals = useNumberMenuItem.isSelected();
+		opt.useIrrNouns = useIrrNounMenuItem.isSelected();
+		return opt;
 	}
 
 	private void editDict() {
@@ -0,0 +1,212 @@
+/*
+ * SentenceUtil.java
+ *
+ * Copyright (C) 2023-2026 J. R. Bhaddacak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see https://www.gnu.org/licenses/.
+ */
+
+package paliplatform.sentence;
+
+import paliplatform.base.*;
+import paliplatform.dict.*;
+import paliplatform.grammar.*;
+
+import java.util.*;
+import java.util.stream.*;
+import java.io.*;
+import java.nio.file.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The CLI tool for the sentence module, mainly for word analysis in bulk.
+ * This consists of static factory methods.
+ * The tool can be invoked by this command line from the program's root dir:
+ * $ java -p modules -m paliplatform.sentence/paliplatform.sentence.SentenceUtil
+ *
+ * @author J.R. Bhaddacak
+ * @version 4.1
+ * @since 4.1
+ */
+final public class SentenceUtil {
+	private static final String LINESEP = System.getProperty("line.separator");
+
+	private SentenceUtil() {
+	}
+
+	public static void main(final String[] args) throws Exception {
+		if (args.length == 0) {
+			printHelpAndExit();
+		}
+		switch (args[0]) {
+			case "-g":
+				String output = "";
+				int start = 1;
+				if (args.length > 2 && args[1].equals("-o")) {
+					output = args[2];
+					start = 3;
+				}
+				if (args.length <= start)
+					printHelpAndExit();
+				makeGlossary(Arrays.asList(args).subList(start, args.length), output);
+				break;
+			case "-k":
+				if (args.length < 2)
+					printHelpAndExit();
+				checkAnalysis(Arrays.asList(args).subList(1, args.length));
+				break;
+			default:
+				printHelpAndExit();
+		}
+	}
+
+	private static void printHelpAndExit() {
+		final StringBuilder help = new StringBuilder();
+		help.append(LINESEP).append("Pāli Platform Sentence Util CLI").append(LINESEP);
+		help.append("  Usage:").append(LINESEP);
+		help.append("    SentenceUtil [<command>] <option>").append(LINESEP);
+		help.append("  Commands:").append(LINESEP);
+		help.append("    <none>\tShow this help").append(LINESEP);
+		help.append("        General options:").append(LINESEP);
+		help.append("        -g [-o <outfile>] <textfile>...").append(LINESEP);
+		help.append("        \tMake a glossary of all words in the text files (UTF-8, Roman script),").append(LINESEP);
+		help.append("        \tone word per line: word, count, source, info (tab-separated)").append(LINESEP);
+		help.append("        -k <textfile>...").append(LINESEP);
+		help.append("        \tCheck the batch analysis against the word-by-word look-up").append(LINESEP);
+		help.append("  Notes:").append(LINESEP);
+		help.append("    All analysis options of the sentence reader are used.").append(LINESEP);
+		help.append("    DPD is used if the PP-DPD dictionary is available.").append(LINESEP);
+		help.append("    To invoke the program, the Java convention has to be used.").append(LINESEP);
+		help.append("    At the program's root directory, type this at the console: ").append(LINESEP);
+		help.append("    $ java -p modules -m paliplatform.sentence/paliplatform.sentence.SentenceUtil").append(LINESEP);
+		printLog(help.toString());
+		System.exit(0);
+	}
+
+	private static void printLog(final String mess) {
+		System.out.println(mess);
+	}
+
+	private static void printTime(final long msec) {
+		printLog(String.format("Done in %.3f seconds", msec/1000.0));
+	}
+
+	private static boolean init() throws Exception {
+		if (!Utilities.isDBPresent(Utilities.H2DB.DICT)) {
+			printLog("Dictionary DB not found, create it first");
+			return false;
+		}
+		Utilities.initializeComparator();
+		Utilities.initializeDictDB();
+		Utilities.initializePpdpdAvailMap();
+		if (Utilities.isDBPresent(Utilities.H2DB.PPDPD)) {
+			Utilities.initializePpdpdDB();
+			Utilities.updatePpdpdAvailibility();
+		}
+		DictUtilities.initializeDictAvailMap();
+		DictUtilities.updateDictAvailibility();
+		WordAnalyzer.prepare();
+		GrammarUtilities.createDeclPronounsMap();
+		GrammarUtilities.createDeclNumbersMap();
+		GrammarUtilities.createDeclIrrNounsMap();
+		return true;
+	}
+
+	private static void finish() {
+		Utilities.closeAllDB();
+	}
+
+	private static String readText(final String filename) {
+		String result = "";
+		try {
+			result = Files.readString(Path.of(filename), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			printLog("Cannot read " + filename + ": " + e);
+		}
+		return result;
+	}
+
+	public static void makeGlossary(final List<String> files, final String output) throws Exception {
+		final long startTime = System.currentTimeMillis();
+		if (!init()) return;
+		final WordAnalyzer.Options options = new WordAnalyzer.Options();
+		final Map<String, WordAnalyzer.Result> resultMap = new HashMap<>();
+		final Map<String, Integer> countMap = new HashMap<>();
+		int total = 0;
+		for (final String f : files) {
+			for (final WordAnalyzer.Result r : WordAnalyzer.analyzeText(readText(f), options)) {
+				resultMap.putIfAbsent(r.getWord(), r);
+				countMap.merge(r.getWord(), 1, Integer::sum);
+				total++;
+			}
+		}
+		final List<WordAnalyzer.Result> glossary = new ArrayList<>(resultMap.values());
+		Utilities.paliSortKeys.sort(glossary, WordAnalyzer.Result::getWord);
+		final StringBuilder text = new StringBuilder();
+		for (final WordAnalyzer.Result r : glossary) {
+			text.append(r.getWord()).append('\t');
+			text.append(countMap.get(r.getWord())).append('\t');
+			text.append(r.getSource()).append('\t');
+			text.append(r.getInfo().trim()).append(LINESEP);
+		}
+		finish();
+		if (output.isEmpty()) {
+			System.out.print(text);
+		} else {
+			Files.writeString(Path.of(output), text, StandardCharsets.UTF_8);
+			final long found = glossary.stream().filter(r -> r.getSource() != WordAnalyzer.Source.NONE).count();
+			printLog(String.format("%,d words, %,d distinct, %,d with info, written to %s", total, glossary.size(), found, output));
+			final long endTime = System.currentTimeMillis();
+			printTime(endTime - startTime);
+		}
+	}
+
+	public static void checkAnalysis(final List<String> files) throws Exception {
+		if (!init()) return;
+		final WordAnalyzer.Options options = new WordAnalyzer.Options();
+		final List<String> words = new ArrayList<>();
+		for (final String f : files) {
+			final String text = readText(f);
+			final List<String> terms = WordAnalyzer.processTerms(Sentence.tokenize(text.replace("--", Utilities.DASH_N)), options);
+			WordAnalyzer.splitWords(terms).forEach(w -> words.add(w.toLowerCase()));
+		}
+		final List<String> distinct = new ArrayList<>(new LinkedHashSet<>(words));
+		long start = System.nanoTime();
+		final Map<String, WordAnalyzer.Result> batchResult = WordAnalyzer.analyze(words, options);
+		final long batchNanos = System.nanoTime() - start;
+		// the word-by-word look-up starts cold as well
+		DpdHeadWordCache.MINI.clear();
+		start = System.nanoTime();
+		final Map<String, String> wordResult = new HashMap<>();
+		for (final String w : words)
+			wordResult.computeIfAbsent(w, x -> WordAnalyzer.getInfoByWord(x, options));
+		final long wordNanos = System.nanoTime() - start;
+		start = System.nanoTime();
+		WordAnalyzer.analyze(words, options);
+		final long cachedNanos = System.nanoTime() - start;
+		int mismatch = 0;
+		for (final String w : distinct) {
+			final String expected = wordResult.get(w);
+			final String actual = batchResult.get(w).getInfo();
+			if (!expected.equals(actual)) {
+				if (mismatch++ < 10)
+					printLog("Mismatch: " + w + LINESEP + "  word-by-word: " + expected + LINESEP + "  batch: " + actual);
+			}
+		}
+		finish();
+		printLog(String.format("%,d words, %,d distinct, %,d mismatches", words.size(), distinct.size(), mismatch));
+		printLog(String.format("Word-by-word: %.1f ms, batch: %.1f ms, batch (cached): %.1f ms",
+				wordNanos / 1e6, batchNanos / 1e6, cachedNanos / 1e6));
+	}
+
+}
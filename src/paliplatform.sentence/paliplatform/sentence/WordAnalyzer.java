@@ -0,0 +1,543 @@
+/*
+ * WordAnalyzer.java
+ *
+ * Copyright (C) 2023-2026 J. R. Bhaddacak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see https://www.gnu.org/licenses/.
+ */
+
+package paliplatform.sentence;
+
+import paliplatform.base.*;
+import paliplatform.dict.*;
+import paliplatform.grammar.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Pattern;
+import java.util.stream.*;
+import java.io.File;
+
+/**
+ * The headless word analyzer used by the sentence reader and SentenceUtil.
+ * Words of a whole sentence or text are analyzed together. Each distinct
+ * word is done once, DPD and CPED are looked up in batches (IN-list queries)
+ * by parallel chunks, and what comes from the databases is kept in a shared
+ * cache until the databases are modified. The info of a word is the same as
+ * the word-by-word look-up (see getInfoByWord).
+ * @author J.R. Bhaddacak
+ * @version 4.1
+ * @since 4.1
+ */
+final class WordAnalyzer {
+	static final int CHUNK_SIZE = 256;
+	private static final int CACHE_CAPACITY = 16384;
+	private static final Pattern LINEBREAK = Pattern.compile("\\n");
+	private static final Map<String, Result> dpdCache = createCache();
+	private static final Map<String, Result> cpedCache = createCache();
+	private static int dictModCount = -1;
+	private static int ppdpdModCount = -1;
+	private static CpedIndex cpedIndex;
+
+	private WordAnalyzer() {
+	}
+
+	private static Map<String, Result> createCache() {
+		return new LinkedHashMap<String, Result>(1024, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, Result> eldest) {
+				return size() > CACHE_CAPACITY;
+			}
+		};
+	}
+
+	/**
+	 * Loads the custom dictionary, sandhi list and CPED terms
+	 * (the declension maps are created separately).
+	 */
+	static void prepare() {
+		if (DictUtilities.customDictFile == null)
+			DictUtilities.customDictFile = new File(Utilities.ROOTDIR + Utilities.RULESPATH + DictUtilities.CUSTOM_DICT);
+		if (!DictUtilities.customDictFile.exists())
+			DictUtilities.createCustomDictFile();
+		if (DictUtilities.sandhiFile == null)
+			DictUtilities.sandhiFile = new File(Utilities.ROOTDIR + Utilities.RULESPATH + DictUtilities.SANDHI_LIST);
+		if (!DictUtilities.sandhiFile.exists())
+			DictUtilities.createSandhiFile();
+		DictUtilities.loadCustomDict();
+		DictUtilities.loadSandhiList();
+		DictUtilities.loadCPEDTerms(); // used in dict look up
+	}
+
+	/**
+	 * Processes the tokens of a sentence: iti reconstruction and sandhi cut.
+	 */
+	static List<String> processTerms(final List<String> input, final Options opt) {
+		final LinkedList<String> result = new LinkedList<>();
+		final String[] terms = input.toArray(new String[0]);
+		boolean skip = false;
+		for (int i = 0; i < terms.length; i++) {
+			final boolean isCap = Character.isUpperCase(terms[i].charAt(0));
+			final String term = terms[i].toLowerCase();
+			if (terms[i].equals("pe")) {
+				terms[i] = "…pe…";
+			}
+			if (opt.reconstructIti) {
+				if (term.equals("ti")) {
+					if (opt.shortenPreIti) {
+						if (i > 0) {
+							final String previous = terms[i-1];
+							final int lastInd = previous.length() - 1;
+							final char lastCh = previous.charAt(lastInd);
+							terms[i-1] = previous.substring(0, lastInd) + Utilities.shortenVowel(lastCh);
+							result.removeLast();
+							result.add(terms[i-1]);
+						}
+					}
+					terms[i] = isCap ? "Iti" : "iti";
+				} else if (term.equals("nti")) {
+					if (i > 0) {
+						terms[i-1] = terms[i-1] + "ṃ";
+						result.removeLast();
+						result.add(terms[i-1]);
+					}
+					terms[i] = "iti";
+				}
+			}
+			if (opt.cutSandhi) {
+				final List<String> parts = DictUtilities.cutSandhi(terms[i]);
+				result.addAll(parts);
+				skip = true;
+			}
+			if (!skip)
+				result.add(terms[i]);
+			skip = false;
+		}
+		return result;
+	}
+
+	/**
+	 * Splits processed terms having hyphen into the words to be analyzed.
+	 */
+	static List<String> splitWords(final List<String> terms) {
+		final List<String> result = new ArrayList<>();
+		for (final String term : terms) {
+			for (final String subt : term.split("-")) {
+				if (!subt.isEmpty())
+					result.add(subt);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Analyzes a text, giving the result of each word in order.
+	 */
+	static List<Result> analyzeText(final String text, final Options opt) {
+		final List<String> words = splitWords(processTerms(Sentence.tokenize(text.replace("--", Utilities.DASH_N)), opt));
+		final List<String> lowerWords = words.stream().map(String::toLowerCase).collect(Collectors.toList());
+		final Map<String, Result> resultMap = analyze(lowerWords, opt);
+		return lowerWords.stream().map(resultMap::get).collect(Collectors.toList());
+	}
+
+	/**
+	 * Analyzes (lower-case) words, keyed by word. Each distinct word is done once.
+	 */
+	static Map<String, Result> analyze(final Collection<String> words, final Options opt) {
+		checkSources();
+		final List<String> wlist = new ArrayList<>(new LinkedHashSet<>(words));
+		final Map<String, Result> result = new HashMap<>();
+		List<String> rest = wlist;
+		// if DPD dict available, find the words
+		if (Utilities.ppdpdAvailMap.get(Utilities.PpdpdTable.DICTIONARY).get() && opt.useDpd) {
+			final Map<String, Result> dpdMap = lookUp(wlist, dpdCache, WordAnalyzer::lookUpDpd);
+			rest = new ArrayList<>();
+			for (final String w : wlist) {
+				final Result r = dpdMap.get(w);
+				if (r.getSource() == Source.NONE)
+					rest.add(w);
+				else
+					result.put(w, r);
+			}
+		}
+		// then the lists in memory
+		final List<String> cpedList = new ArrayList<>();
+		for (final String w : rest) {
+			final Result r = lookUpLocal(w, opt);
+			if (r == null)
+				cpedList.add(w);
+			else
+				result.put(w, r);
+		}
+		// or else look into CPED dict
+		if (!cpedList.isEmpty()) {
+			if (DictUtilities.dictAvailMap.get(DictUtilities.DictBook.CPED).get())
+				result.putAll(lookUp(cpedList, cpedCache, WordAnalyzer::lookUpCped));
+			else
+				cpedList.forEach(w -> result.put(w, new Result(w)));
+		}
+		return result;
+	}
+
+	/**
+	 * Looks up a word one by one, as done before the batch analysis.
+	 * This is used as the reference in checking.
+	 */
+	static String getInfoByWord(final String word, final Options opt) {
+		final String result;
+		// if DPD dict available, find the word
+		if (Utilities.ppdpdAvailMap.get(Utilities.PpdpdTable.DICTIONARY).get() && opt.useDpd) {
+			final List<String> meaning = DictUtilities.getMeaningFromDPD(DictUtilities.makeDpdProper(word));
+			if (!meaning.isEmpty()) {
+				final String meaningStr = meaning.stream().collect(Collectors.joining(" "));
+				return "[DPD] " + meaningStr;
+			}
+		}
+		final Result local = lookUpLocal(word, opt);
+		if (local != null)
+			return local.getInfo();
+		// or else look into CPED dict
+		if (!DictUtilities.dictAvailMap.get(DictUtilities.DictBook.CPED).get()) return "";
+		String term = word;
+		PaliWord pword = new PaliWord(term);
+		while (pword.getMeaning().isEmpty() && term.length() > 1) {
+			final String tfilter = term;
+			Set<String> terms = DictUtilities.cpedTerms.stream().filter(x -> x.startsWith(tfilter)).collect(Collectors.toSet());
+			if (!terms.isEmpty()) {
+				pword = DictUtilities.getFirstCPEDWord(terms);
+			} else {
+				// replace the ending first
+				final String rterm = DictUtilities.replaceTermEnding(term);
+				terms = DictUtilities.cpedTerms.stream().filter(x -> x.startsWith(rterm)).collect(Collectors.toSet());
+				if (!terms.isEmpty()) {
+					pword = DictUtilities.getFirstCPEDWord(terms);
+					term = rterm;
+				} else {
+					// if failed, cut the ending and go on
+					term = term.substring(0, term.length() - 1);
+				}
+			}
+		}
+		if (!pword.getMeaning().isEmpty()) {
+			result = formatCped(word, term, pword).getInfo();
+		} else {
+			result = "";
+		}
+		return result;
+	}
+
+	/**
+	 * Clears the caches if the databases were modified.
+	 */
+	private static synchronized void checkSources() {
+		final int dictCount = Utilities.H2DB.DICT.getModCount();
+		final int ppdpdCount = Utilities.H2DB.PPDPD.getModCount();
+		final int cpedSize = DictUtilities.cpedTerms.size();
+		if (dictCount != dictModCount || ppdpdCount != ppdpdModCount
+				|| (cpedIndex != null && cpedIndex.size() != cpedSize)) {
+			synchronized (dpdCache) {
+				dpdCache.clear();
+			}
+			synchronized (cpedCache) {
+				cpedCache.clear();
+			}
+			cpedIndex = null;
+			dictModCount = dictCount;
+			ppdpdModCount = ppdpdCount;
+		}
+	}
+
+	private static synchronized CpedIndex getCpedIndex() {
+		if (cpedIndex == null)
+			cpedIndex = new CpedIndex(DictUtilities.cpedTerms);
+		return cpedIndex;
+	}
+
+	/**
+	 * Looks up words not in the cache by chunks, in parallel if there are many.
+	 */
+	private static Map<String, Result> lookUp(final List<String> words, final Map<String, Result> cache, final BatchLookUp lookUp) {
+		final Map<String, Result> result = new HashMap<>();
+		final List<String> missing = new ArrayList<>();
+		synchronized (cache) {
+			for (final String w : words) {
+				final Result r = cache.get(w);
+				if (r == null)
+					missing.add(w);
+				else
+					result.put(w, r);
+			}
+		}
+		if (missing.isEmpty())
+			return result;
+		final List<List<String>> chunks = new ArrayList<>();
+		for (int i = 0; i < missing.size(); i += CHUNK_SIZE)
+			chunks.add(missing.subList(i, Math.min(i + CHUNK_SIZE, missing.size())));
+		final List<Map<String, Result>> found = new ArrayList<>(chunks.size());
+		if (chunks.size() == 1) {
+			found.add(lookUp.apply(chunks.get(0)));
+		} else {
+			final int parallelism = Math.min(chunks.size(), Runtime.getRuntime().availableProcessors());
+			final ExecutorService pool = Executors.newWorkStealingPool(parallelism);
+			final List<Callable<Map<String, Result>>> tasks = new ArrayList<>(chunks.size());
+			for (final List<String> chunk : chunks)
+				tasks.add(() -> lookUp.apply(chunk));
+			try {
+				for (final Future<Map<String, Result>> f : pool.invokeAll(tasks)) {
+					try {
+						found.add(f.get());
+					} catch (ExecutionException e) {
+						System.err.println(e.getCause());
+					}
+				}
+			} catch (InterruptedException e) {
+				System.err.println(e);
+				Thread.currentThread().interrupt();
+			} finally {
+				pool.shutdown();
+			}
+		}
+		synchronized (cache) {
+			for (final Map<String, Result> map : found) {
+				cache.putAll(map);
+				result.putAll(map);
+			}
+		}
+		// words of a failed chunk have no result
+		for (final String w : missing)
+			result.putIfAbsent(w, new Result(w));
+		return result;
+	}
+
+	private static Map<String, Result> lookUpDpd(final List<String> words) {
+		final Map<String, Result> result = new HashMap<>();
+		final Map<String, String> properMap = new HashMap<>();
+		for (final String w : words)
+			properMap.put(w, DictUtilities.makeDpdProper(w));
+		final Map<String, List<String>> meaningMap = DictUtilities.getMeaningsFromDPD(properMap.values());
+		for (final String w : words) {
+			final String proper = properMap.get(w);
+			final List<String> meaning = meaningMap.get(proper);
+			if (meaning == null || meaning.isEmpty()) {
+				result.put(w, new Result(w));
+			} else {
+				final String meaningStr = meaning.stream().collect(Collectors.joining(" "));
+				result.put(w, new Result(w, Source.DPD, proper, "[DPD] " + meaningStr));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Looks up the custom dict and the declension lists,
+	 * null if the word is not found there.
+	 */
+	private static Result lookUpLocal(final String word, final Options opt) {
+		// look into the custom dict first
+		if (DictUtilities.customDictMap.containsKey(word)) {
+			final DictEntry dic = DictUtilities.customDictMap.get(word);
+			final String meaning = dic.getMeaning();
+			final String space = meaning.isEmpty() ? "" : " ";
+			return new Result(word, Source.CUSTOM, word, meaning + space + "(" + dic.getExplanation() + ")");
+		}
+		// if use-pronoun-list option is set
+		if (opt.usePronouns && GrammarUtilities.declPronounsMap.containsKey(word))
+			return formatDeclined(word, Source.PRONOUN, GrammarUtilities.declPronounsMap.get(word));
+		// if use-numeral-list option is set
+		if (opt.useNumerals && GrammarUtilities.declNumbersMap.containsKey(word))
+			return formatDeclined(word, Source.NUMERAL, GrammarUtilities.declNumbersMap.get(word));
+		// if use-irregular-noun/adj-list option is set
+		if (opt.useIrrNouns && GrammarUtilities.declIrrNounsMap.containsKey(word))
+			return formatDeclined(word, Source.IRREGULAR, GrammarUtilities.declIrrNounsMap.get(word));
+		return null;
+	}
+
+	private static Result formatDeclined(final String word, final Source source, final DeclinedWord dword) {
+		final String meaning = dword.getMeaning();
+		final String caseMeaning = dword.getCaseMeaningString();
+		final String head = caseMeaning.isEmpty() ? "" : "(" + caseMeaning + ") ";
+		final String info = head + meaning + " (" + dword.getCaseString() + ") (" + dword.getNumberString() + ") (" + dword.getGenderString() + ")";
+		return new Result(word, source, dword.getTerm(), info);
+	}
+
+	/**
+	 * Finds CPED words of a chunk. The CPED term of each word is chosen
+	 * in memory first, then all chosen terms are read together.
+	 */
+	private static Map<String, Result> lookUpCped(final List<String> words) {
+		final CpedIndex index = getCpedIndex();
+		final Map<String, String[]> chosenMap = new HashMap<>();
+		for (final String w : words) {
+			final String[] chosen = index.choose(w);
+			if (chosen != null)
+				chosenMap.put(w, chosen);
+		}
+		final Set<String> cpedTerms = chosenMap.values().stream().map(x -> x[0]).collect(Collectors.toSet());
+		final Map<String, PaliWord> pwordMap = DictUtilities.lookUpCPEDFromDB(cpedTerms);
+		final Map<String, Result> result = new HashMap<>();
+		for (final String w : words) {
+			final String[] chosen = chosenMap.get(w);
+			final PaliWord pword = chosen == null ? null : pwordMap.get(chosen[0]);
+			if (pword == null || pword.getMeaning().isEmpty())
+				result.put(w, new Result(w));
+			else
+				result.put(w, formatCped(w, chosen[1], pword));
+		}
+		return result;
+	}
+
+	private static Result formatCped(final String word, final String term, final PaliWord pword) {
+		final boolean exact = word.equals(term);
+		final String remark = exact ? "[CPED] " : "[CPED*] " + pword.getTerm() + ": ";
+		final String[] infos = LINEBREAK.split(DictUtilities.formatCPEDMeaning(pword, false));
+		final StringBuilder sbuilder = new StringBuilder();
+		sbuilder.append(remark);
+		for (final String s : infos)
+			sbuilder.append(s).append(" ");
+		return new Result(word, exact ? Source.CPED : Source.CPED_APPROX, pword.getTerm(), sbuilder.toString());
+	}
+
+	// inner classes
+	static enum Source { DPD, CUSTOM, PRONOUN, NUMERAL, IRREGULAR, CPED, CPED_APPROX, NONE }
+
+	/**
+	 * The analysis options, all set by default.
+	 */
+	static final class Options {
+		boolean useDpd = true;
+		boolean reconstructIti = true;
+		boolean shortenPreIti = true;
+		boolean cutSandhi = true;
+		boolean usePronouns = true;
+		boolean useNumerals = true;
+		boolean useIrrNouns = true;
+	}
+
+	/**
+	 * The analysis of a word: where it is found, the head term found
+	 * and the info shown in the reader.
+	 */
+	static final class Result {
+		private final String word;
+		private final Source source;
+		private final String head;
+		private final String info;
+
+		private Result(final String word) {
+			this(word, Source.NONE, "", "");
+		}
+
+		private Result(final String word, final Source source, final String head, final String info) {
+			this.word = word;
+			this.source = source;
+			this.head = head;
+			this.info = info;
+		}
+
+		String getWord() {
+			return word;
+		}
+
+		Source getSource() {
+			return source;
+		}
+
+		String getHead() {
+			return head;
+		}
+
+		String getInfo() {
+			return info;
+		}
+	}
+
+	@FunctionalInterface
+	private interface BatchLookUp {
+		Map<String, Result> apply(List<String> words);
+	}
+
+	/**
+	 * CPED terms sorted for prefix search. The first term (in Pāli order)
+	 * of each prefix is remembered, so a prefix is searched once.
+	 */
+	private static final class CpedIndex {
+		private final List<String> terms;
+		private final String[] sorted;
+		private final Map<String, String> firstMap = new ConcurrentHashMap<>();
+
+		private CpedIndex(final List<String> terms) {
+			this.terms = new ArrayList<>(terms);
+			sorted = this.terms.toArray(new String[0]);
+			Arrays.sort(sorted);
+		}
+
+		private int size() {
+			return sorted.length;
+		}
+
+		/**
+		 * Chooses the CPED term of a word, cutting the word's ending
+		 * until some terms start with it.
+		 * @return the chosen term and the prefix used, or null if none
+		 */
+		private String[] choose(final String word) {
+			String term = word;
+			while (term.length() > 1) {
+				String first = getFirst(term);
+				if (!first.isEmpty())
+					return new String[] { first, term };
+				// replace the ending first
+				final String rterm = DictUtilities.replaceTermEnding(term);
+				first = getFirst(rterm);
+				if (!first.isEmpty())
+					return new String[] { first, rterm };
+				// if failed, cut the ending and go on
+				term = term.substring(0, term.length() - 1);
+			}
+			return null;
+		}
+
+		private String getFirst(final String prefix) {
+			return firstMap.computeIfAbsent(prefix, this::findFirst);
+		}
+
+		private String findFirst(final String prefix) {
+			int ind = Arrays.binarySearch(sorted, prefix);
+			if (ind < 0)
+				ind = -ind - 1;
+			String first = null;
+			boolean tied = false;
+			for (int i = ind; i < sorted.length && sorted[i].startsWith(prefix); i++) {
+				if (first == null) {
+					first = sorted[i];
+				} else {
+					final int cmp = Utilities.paliComparator.compare(sorted[i], first);
+					if (cmp < 0) {
+						first = sorted[i];
+						tied = false;
+					} else if (cmp == 0) {
+						tied = true;
+					}
+				}
+			}
+			if (tied) {
+				// equal in Pāli order, take the one chosen by the sort in getFirstCPEDWord
+				final List<String> rlist = new ArrayList<>(terms.stream().filter(x -> x.startsWith(prefix)).collect(Collectors.toSet()));
+				rlist.sort(Utilities.paliComparator);
+				first = rlist.get(0);
+			}
+			return first == null ? "" : first;
+		}
+	}
+
+}